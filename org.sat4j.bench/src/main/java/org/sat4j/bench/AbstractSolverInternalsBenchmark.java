@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.bench;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Param;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.minisat.core.Solver;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Common setup of the benchmarks of the solver internals. Those benchmarks
+ * drive the search through the public methods of {@link Solver}, and backtrack
+ * through {@link org.sat4j.minisat.core.SolverInternals}.
+ * 
+ * The solver is first launched until its first conflict, in order to
+ * initialize all its data structures, then the benchmarks drive the search
+ * directly using a fixed random sequence of decisions.
+ */
+public abstract class AbstractSolverInternalsBenchmark {
+
+    @Param({ "Default", "Glucose21", "Glucose21Blockers",
+            "Glucose21ImplicitBinary", "Glucose21Arena" })
+    public String solverName;
+
+    @Param({ "random3sat", "pigeonhole", "parity" })
+    public String instance;
+
+    protected Solver<?> solver;
+
+    protected int[] decisions;
+
+    protected void createSolver() throws ContradictionException {
+        this.solver = (Solver<?>) SolverFactory.instance()
+                .createSolverByName(this.solverName);
+        int[][] clauses = Instances.cnf(this.instance);
+        Instances.load(this.solver, clauses);
+        this.solver.setTimeoutOnConflicts(1);
+        try {
+            this.solver.isSatisfiable();
+        } catch (TimeoutException e) {
+            // expected, the solver is now ready
+        }
+        int nbvars = Instances.nVars(clauses);
+        Random rand = new Random(Instances.SEED);
+        int[] vars = new int[nbvars];
+        for (int i = 0; i < nbvars; i++) {
+            vars[i] = i + 1;
+        }
+        for (int i = nbvars - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int tmp = vars[i];
+            vars[i] = vars[j];
+            vars[j] = tmp;
+        }
+        ILits voc = this.solver.getVocabulary();
+        this.decisions = new int[nbvars];
+        for (int i = 0; i < nbvars; i++) {
+            this.decisions[i] = voc.getFromPool(rand.nextBoolean() ? vars[i]
+                    : -vars[i]);
+        }
+    }
+
+    /**
+     * Assigns the decision literals in turn, with unit propagation, until a
+     * conflict is found or all the decisions are made.
+     * 
+     * @return the conflict, null if none was found
+     */
+    protected Constr decideUntilConflict() {
+        ILits voc = this.solver.getVocabulary();
+        for (int p : this.decisions) {
+            if (voc.isUnassigned(p)) {
+                this.solver.assume(p);
+                Constr confl = this.solver.propagate();
+                if (confl != null) {
+                    return confl;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,292 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.bench;
+
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.Random;
+
+import org.sat4j.core.Vec;
+import org.sat4j.core.VecInt;
+import org.sat4j.pb.IPBSolver;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+
+/**
+ * Deterministic generators of the benchmark instances. All the instances are
+ * generated from a fixed seed so that successive runs of the benchmarks
+ * measure exactly the same work.
+ */
+public final class Instances {
+
+    /**
+     * Clauses to variables ratio of the random 3-SAT phase transition.
+     */
+    public static final double PHASE_TRANSITION = 4.26;
+
+    public static final long SEED = 42;
+
+    private Instances() {
+        // no instances
+    }
+
+    /**
+     * Random 3-SAT instance close to the phase transition.
+     * 
+     * @param nbvars
+     *            the number of variables
+     * @param seed
+     *            the seed of the random generator
+     * @return the clauses, in Dimacs format
+     */
+    public static int[][] random3Sat(int nbvars, long seed) {
+        Random rand = new Random(seed);
+        int nbclauses = (int) Math.round(nbvars * PHASE_TRANSITION);
+        int[][] clauses = new int[nbclauses][];
+        for (int i = 0; i < nbclauses; i++) {
+            int[] clause = new int[3];
+            for (int j = 0; j < 3; j++) {
+                clause[j] = (rand.nextInt(nbvars) + 1)
+                        * (rand.nextBoolean() ? 1 : -1);
+            }
+            clauses[i] = clause;
+        }
+        return clauses;
+    }
+
+    /**
+     * Pigeon hole instance: n+1 pigeons in n holes (unsatisfiable). Variable
+     * (p*n)+h+1 means that pigeon p is in hole h.
+     * 
+     * @param holes
+     *            the number of holes
+     * @return the clauses, in Dimacs format
+     */
+    public static int[][] pigeonHole(int holes) {
+        int pigeons = holes + 1;
+        int nbclauses = pigeons + holes * pigeons * (pigeons - 1) / 2;
+        int[][] clauses = new int[nbclauses][];
+        int k = 0;
+        for (int p = 0; p < pigeons; p++) {
+            int[] clause = new int[holes];
+            for (int h = 0; h < holes; h++) {
+                clause[h] = p * holes + h + 1;
+            }
+            clauses[k++] = clause;
+        }
+        for (int h = 0; h < holes; h++) {
+            for (int p1 = 0; p1 < pigeons; p1++) {
+                for (int p2 = p1 + 1; p2 < pigeons; p2++) {
+                    clauses[k++] = new int[] { -(p1 * holes + h + 1),
+                            -(p2 * holes + h + 1) };
+                }
+            }
+        }
+        return clauses;
+    }
+
+    /**
+     * Parity instance: the same n variables are xored twice, in two different
+     * random orders, and the two chains are required to have a different
+     * parity (unsatisfiable, hard for resolution based solvers).
+     * 
+     * @param nbvars
+     *            the number of variables shared by the two xor chains
+     * @param seed
+     *            the seed of the random generator
+     * @return the clauses, in Dimacs format
+     */
+    public static int[][] parity(int nbvars, long seed) {
+        Random rand = new Random(seed);
+        IVec<int[]> clauses = new Vec<int[]>();
+        int next = nbvars + 1;
+        int[] outputs = new int[2];
+        for (int chain = 0; chain < 2; chain++) {
+            int[] order = new int[nbvars];
+            for (int i = 0; i < nbvars; i++) {
+                order[i] = i + 1;
+            }
+            for (int i = nbvars - 1; i > 0; i--) {
+                int j = rand.nextInt(i + 1);
+                int tmp = order[i];
+                order[i] = order[j];
+                order[j] = tmp;
+            }
+            int acc = order[0];
+            for (int i = 1; i < nbvars; i++) {
+                int out = next++;
+                xor(clauses, out, acc, order[i]);
+                acc = out;
+            }
+            outputs[chain] = acc;
+        }
+        clauses.push(new int[] { outputs[0], outputs[1] });
+        clauses.push(new int[] { -outputs[0], -outputs[1] });
+        int[][] result = new int[clauses.size()][];
+        clauses.copyTo(result);
+        return result;
+    }
+
+    private static void xor(IVec<int[]> clauses, int out, int a, int b) {
+        clauses.push(new int[] { -out, a, b });
+        clauses.push(new int[] { -out, -a, -b });
+        clauses.push(new int[] { out, -a, b });
+        clauses.push(new int[] { out, a, -b });
+    }
+
+    /**
+     * Random pseudo boolean instance: each constraint is a sum of k weighted
+     * literals over distinct variables at least half of the sum of the
+     * weights.
+     * 
+     * @param nbvars
+     *            the number of variables
+     * @param nbconstrs
+     *            the number of constraints
+     * @param k
+     *            the number of literals per constraint
+     * @param seed
+     *            the seed of the random generator
+     * @return the constraints, as an array of literals followed by an array
+     *         of coefficients and the degree
+     */
+    public static int[][][] randomPB(int nbvars, int nbconstrs, int k,
+            long seed) {
+        Random rand = new Random(seed);
+        int[][][] constrs = new int[nbconstrs][][];
+        for (int i = 0; i < nbconstrs; i++) {
+            int[] lits = new int[k];
+            int[] coefs = new int[k];
+            int sum = 0;
+            for (int j = 0; j < k; j++) {
+                int var;
+                do {
+                    var = rand.nextInt(nbvars) + 1;
+                } while (contains(lits, j, var));
+                lits[j] = rand.nextBoolean() ? var : -var;
+                coefs[j] = rand.nextInt(10) + 1;
+                sum += coefs[j];
+            }
+            constrs[i] = new int[][] { lits, coefs,
+                    new int[] { (sum + 1) / 2 } };
+        }
+        return constrs;
+    }
+
+    private static boolean contains(int[] lits, int size, int var) {
+        for (int i = 0; i < size; i++) {
+            if (Math.abs(lits[i]) == var) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Generates one of the CNF instances by name.
+     * 
+     * @param kind
+     *            one of random3sat, pigeonhole or parity
+     * @return the clauses, in Dimacs format
+     */
+    public static int[][] cnf(String kind) {
+        if ("random3sat".equals(kind)) {
+            return random3Sat(200, SEED);
+        }
+        if ("pigeonhole".equals(kind)) {
+            return pigeonHole(8);
+        }
+        if ("parity".equals(kind)) {
+            return parity(18, SEED);
+        }
+        throw new IllegalArgumentException("Unknown instance kind " + kind);
+    }
+
+    public static int nVars(int[][] clauses) {
+        int max = 0;
+        for (int[] clause : clauses) {
+            for (int lit : clause) {
+                max = Math.max(max, Math.abs(lit));
+            }
+        }
+        return max;
+    }
+
+    public static void load(ISolver solver, int[][] clauses)
+            throws ContradictionException {
+        solver.newVar(nVars(clauses));
+        solver.setExpectedNumberOfClauses(clauses.length);
+        for (int[] clause : clauses) {
+            solver.addClause(new VecInt(clause));
+        }
+    }
+
+    public static void load(IPBSolver solver, int[][][] constrs)
+            throws ContradictionException {
+        int max = 0;
+        for (int[][] constr : constrs) {
+            for (int lit : constr[0]) {
+                max = Math.max(max, Math.abs(lit));
+            }
+        }
+        solver.newVar(max);
+        for (int[][] constr : constrs) {
+            IVecInt lits = new VecInt(constr[0]);
+            IVec<BigInteger> coefs = new Vec<BigInteger>(constr[1].length);
+            for (int coef : constr[1]) {
+                coefs.push(BigInteger.valueOf(coef));
+            }
+            solver.addPseudoBoolean(lits, coefs, true,
+                    BigInteger.valueOf(constr[2][0]));
+        }
+    }
+
+    /**
+     * Dimacs rendering of a CNF, to benchmark the parsers.
+     * 
+     * @param clauses
+     *            the clauses, in Dimacs format
+     * @return the content of the corresponding Dimacs file
+     */
+    public static byte[] toDimacs(int[][] clauses) {
+        StringBuilder stb = new StringBuilder();
+        stb.append("p cnf ").append(nVars(clauses)).append(' ')
+                .append(clauses.length).append('\n');
+        for (int[] clause : clauses) {
+            for (int lit : clause) {
+                stb.append(lit).append(' ');
+            }
+            stb.append("0\n");
+        }
+        return stb.toString().getBytes(Charset.forName("US-ASCII"));
+    }
+}
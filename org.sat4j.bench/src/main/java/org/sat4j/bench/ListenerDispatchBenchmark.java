@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.ISolverService;
+import org.sat4j.specs.SearchListenerAdapter;
+import org.sat4j.specs.SelectiveSearchListener;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Cost of the search listener notifications. Compares the default listener,
+ * a listener interested only in decisions, and a listener declaring all the
+ * frequent events (as do the listeners not implementing
+ * {@link SelectiveSearchListener}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class ListenerDispatchBenchmark {
+
+    @Param({ "none", "decisions", "all" })
+    public String listener;
+
+    private ISolver solver;
+
+    private long decisions;
+
+    @Setup(Level.Invocation)
+    public void setUp() throws ContradictionException {
+        this.solver = SolverFactory.newDefault();
+        // random 3-SAT close to the phase transition
+        Instances.load(this.solver,
+                Instances.random3Sat(200, Instances.SEED));
+        if ("decisions".equals(this.listener)) {
+            this.solver.setSearchListener(new DecisionCounter());
+        } else if ("all".equals(this.listener)) {
+            this.solver.setSearchListener(new AllEventsCounter());
+        }
+    }
+
+    @Benchmark
+    public boolean solve() throws TimeoutException {
+        return this.solver.isSatisfiable();
+    }
+
+    class DecisionCounter extends SearchListenerAdapter<ISolverService> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void assuming(int p) {
+            ListenerDispatchBenchmark.this.decisions++;
+        }
+    }
+
+    class AllEventsCounter extends DecisionCounter {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public int listenedEvents() {
+            return ALL_EVENTS;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.minisat.core.IOrder;
+import org.sat4j.minisat.constraints.cnf.Lits;
+import org.sat4j.minisat.orders.VarOrderHeap;
+
+/**
+ * Cost of the heap operations of the VSIDS heuristics: all the variables are
+ * selected in turn then put back in the heap, as it happens between two
+ * restarts, and the activity of variables is bumped, as it happens during
+ * conflict analysis.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class VarOrderHeapBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int nbvars;
+
+    private IOrder order;
+
+    private int[] selected;
+
+    private int[] bumped;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ILits lits = new Lits();
+        lits.init(this.nbvars);
+        for (int i = 1; i <= this.nbvars; i++) {
+            lits.getFromPool(i);
+        }
+        this.order = new VarOrderHeap();
+        this.order.setLits(lits);
+        this.order.init();
+        // random activities
+        Random rand = new Random(Instances.SEED);
+        for (int i = 0; i < 4 * this.nbvars; i++) {
+            this.order.updateVar((rand.nextInt(this.nbvars) + 1) << 1);
+        }
+        this.selected = new int[this.nbvars];
+        this.bumped = new int[this.nbvars];
+        for (int i = 0; i < this.bumped.length; i++) {
+            this.bumped[i] = (rand.nextInt(this.nbvars) + 1) << 1;
+        }
+    }
+
+    @Benchmark
+    public int selectAndUndo() {
+        int n = 0;
+        int p;
+        while ((p = this.order.select()) != ILits.UNDEFINED) {
+            this.selected[n++] = p;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            this.order.undo(this.selected[i] >> 1);
+        }
+        return n;
+    }
+
+    @Benchmark
+    public void updateVar() {
+        for (int p : this.bumped) {
+            this.order.updateVar(p);
+        }
+        this.order.varDecayActivity();
+    }
+}
@@ -13,7 +13,7 @@ import org.sat4j.specs.ISolver;
 import org.sat4j.specs.IVecInt;
 import org.sat4j.specs.IteratorInt;
 import org.sat4j.specs.TimeoutException;
-import org.sat4j.tools.Backbone;
+import org.sat4j.tools.BackboneService;
 
 /**
  * A class used to compile propagation in configuration problem due to
@@ -36,6 +36,8 @@ public class DefaultBr4cpBackboneComputer implements IBr4cpBackboneComputer {
 
 	private IVecInt filter;
 
+	private final BackboneService backboneService;
+
 	public DefaultBr4cpBackboneComputer(ISolver solver, ConfigVarMap varMap)
 			throws TimeoutException {
 		this.solver = solver;
@@ -46,6 +48,8 @@ public class DefaultBr4cpBackboneComputer implements IBr4cpBackboneComputer {
 				filter.push(i);
 			}
 		}
+		this.backboneService = new BackboneService(solver);
+		this.backboneService.setFilter(filter);
 		computeBackbone(solver);
 	}
 
@@ -57,8 +61,7 @@ public class DefaultBr4cpBackboneComputer implements IBr4cpBackboneComputer {
 				assumps.push(it2.next());
 		}
 		try {
-			IVecInt backbone = Backbone.instance().compute(solver, assumps,
-					filter);
+			IVecInt backbone = this.backboneService.compute(assumps);
 			computePropagationsAndReductions(backbone);
 		} catch (IllegalArgumentException ise) {
 			ise.printStackTrace();
@@ -228,7 +231,7 @@ public class DefaultBr4cpBackboneComputer implements IBr4cpBackboneComputer {
 	}
 
 	public int getNumberOfSATCalls() {
-		return Backbone.instance().getNumberOfSatCalls();
+		return this.backboneService.getNumberOfSatCalls();
 	}
 
 	public boolean isPresentInCurrentDomain(String var, String val) {
@@ -50,6 +50,7 @@ import org.sat4j.specs.ISolverService;
 import org.sat4j.specs.SearchListener;
 import org.sat4j.specs.TimeoutException;
 import org.sat4j.tools.DotSearchTracing;
+import org.sat4j.tools.DratSearchListener;
 import org.sat4j.tools.ModelIteratorToSATAdapter;
 import org.sat4j.tools.RupSearchListener;
 import org.sat4j.tools.SearchEnumeratorListener;
@@ -217,10 +218,20 @@ public abstract class AbstractLauncher implements Serializable, ILogAble {
         }
         log("#constraints  " + aProblem.nConstraints()); //$NON-NLS-1$
         aProblem.printInfos(this.out);
-        if (System.getProperty("UNSATPROOF") != null) {
-            String proofFile = problemname + ".rupproof";
-            this.solver.setSearchListener(
-                    new RupSearchListener<ISolverService>(proofFile));
+        String proofFormat = System.getProperty("UNSATPROOF");
+        if (proofFormat != null) {
+            String proofFile;
+            if (proofFormat.startsWith("binary")) {
+                // binary DRAT proof, compressed for UNSATPROOF=binary.gz
+                proofFile = problemname + ".drat"
+                        + (proofFormat.endsWith(".gz") ? ".gz" : "");
+                this.solver.setSearchListener(
+                        new DratSearchListener<ISolverService>(proofFile));
+            } else {
+                proofFile = problemname + ".rupproof";
+                this.solver.setSearchListener(
+                        new RupSearchListener<ISolverService>(proofFile));
+            }
             if (!this.isSilent()) {
                 System.out.println(this.solver.getLogPrefix()
                         + "Generating unsat proof in file " + proofFile);
@@ -61,7 +61,7 @@ public class MUSLauncher extends AbstractLauncher {
 
     @Override
     public void usage() {
-        log("java -jar sat4j-mus.jar [Insertion|Deletion|QuickXplain|all] <cnffile>|<gcnffile>");
+        log("java -jar sat4j-mus.jar [Insertion|Deletion|QuickXplain|CoreRefinement|all] <cnffile>|<gcnffile>");
     }
 
     @Override
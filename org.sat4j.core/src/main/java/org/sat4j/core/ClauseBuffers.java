@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.core;
+
+import java.nio.IntBuffer;
+
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+
+/**
+ * Utility methods for clauses stored in a flat buffer of Dimacs literals, each
+ * clause being terminated by a 0, as expected by
+ * {@link ISolver#addAllClauses(IntBuffer)}.
+ * 
+ * @since 2.3.6
+ */
+public final class ClauseBuffers {
+
+    private ClauseBuffers() {
+        // no instance supposed to be created.
+    }
+
+    /**
+     * Feed a solver clause by clause with the clauses found between the
+     * position and the limit of a buffer. It is the default implementation of
+     * {@link ISolver#addAllClauses(IntBuffer)} for the solvers that need to
+     * see each clause through {@link ISolver#addClause(IVecInt)}.
+     * 
+     * @param solver
+     *            the solver receiving the clauses
+     * @param clauses
+     *            zero terminated clauses in Dimacs format. The position of the
+     *            buffer is left unchanged.
+     * @throws ContradictionException
+     *             if the solver detects a trivial inconsistency
+     */
+    public static void addAllClauses(ISolver solver, IntBuffer clauses)
+            throws ContradictionException {
+        IVecInt clause = new VecInt();
+        int p;
+        for (int i = clauses.position(); i < clauses.limit(); i++) {
+            p = clauses.get(i);
+            if (p == 0) {
+                solver.addClause(clause);
+                clause.clear();
+            } else {
+                clause.push(p);
+            }
+        }
+        if (!clause.isEmpty()) {
+            solver.addClause(clause);
+        }
+    }
+}
@@ -30,31 +30,40 @@
 package org.sat4j.minisat;
 
 import org.sat4j.core.ASolverFactory;
+import org.sat4j.minisat.constraints.MixedDataStructureArena;
 import org.sat4j.minisat.constraints.MixedDataStructureDanielHT;
 import org.sat4j.minisat.constraints.MixedDataStructureDanielWL;
+import org.sat4j.minisat.constraints.MixedDataStructureDanielWLBlockers;
 import org.sat4j.minisat.constraints.MixedDataStructureDanielWLConciseBinary;
+import org.sat4j.minisat.constraints.MixedDataStructureImplicitBinary;
 import org.sat4j.minisat.constraints.MixedDataStructureSingleWL;
 import org.sat4j.minisat.core.DataStructureFactory;
 import org.sat4j.minisat.core.ICDCL;
 import org.sat4j.minisat.core.IOrder;
+import org.sat4j.minisat.core.Inprocessor;
 import org.sat4j.minisat.core.SearchParams;
 import org.sat4j.minisat.core.Solver;
 import org.sat4j.minisat.learning.LimitedLearning;
 import org.sat4j.minisat.learning.MiniSATLearning;
 import org.sat4j.minisat.learning.NoLearningButHeuristics;
 import org.sat4j.minisat.learning.PercentLengthLearning;
+import org.sat4j.minisat.orders.FocusedAndStableOrder;
 import org.sat4j.minisat.orders.PhaseCachingAutoEraseStrategy;
 import org.sat4j.minisat.orders.RSATLastLearnedClausesPhaseSelectionStrategy;
 import org.sat4j.minisat.orders.RSATPhaseSelectionStrategy;
 import org.sat4j.minisat.orders.RandomWalkDecorator;
+import org.sat4j.minisat.orders.TargetPhaseSelectionStrategy;
+import org.sat4j.minisat.orders.VMTFOrder;
 import org.sat4j.minisat.orders.VarOrderHeap;
 import org.sat4j.minisat.restarts.ArminRestarts;
 import org.sat4j.minisat.restarts.Glucose21Restarts;
 import org.sat4j.minisat.restarts.LubyRestarts;
 import org.sat4j.minisat.restarts.MiniSATRestarts;
 import org.sat4j.minisat.restarts.NoRestarts;
+import org.sat4j.minisat.restarts.StableModeRestarts;
 import org.sat4j.opt.MinOneDecorator;
 import org.sat4j.specs.ISolver;
+import org.sat4j.tools.CubeAndConquer;
 import org.sat4j.tools.DimacsOutputSolver;
 import org.sat4j.tools.ManyCore;
 import org.sat4j.tools.OptToSatAdapter;
@@ -209,6 +218,22 @@ public final class SolverFactory extends ASolverFactory<ISolver> {
         return newBestCurrentSolverConfiguration(new MixedDataStructureDanielHT());
     }
 
+    /**
+     * 
+     * @since 2.3.6
+     */
+    public static ICDCL<DataStructureFactory> newBestArena() {
+        return newBestCurrentSolverConfiguration(new MixedDataStructureArena());
+    }
+
+    /**
+     * 
+     * @since 2.3.6
+     */
+    public static ICDCL<DataStructureFactory> newBestBlockers() {
+        return newBestCurrentSolverConfiguration(new MixedDataStructureDanielWLBlockers());
+    }
+
     /**
      * 
      * @since 2.2
@@ -379,6 +404,19 @@ public final class SolverFactory extends ASolverFactory<ISolver> {
         return solver;
     }
 
+    /**
+     * 
+     * @return the default solver with a three tiers LCDS (core, tier2 and
+     *         local learned clauses)
+     * @since 2.3.6
+     */
+    public static ICDCL<DataStructureFactory> newThreeTierLCDS() {
+        Solver<DataStructureFactory> solver = newMiniLearningHeapRsatExpSimp();
+        solver.setRestartStrategy(new Glucose21Restarts());
+        solver.setLearnedConstraintsDeletionStrategy(solver.tier_based);
+        return solver;
+    }
+
     /**
      * Default solver of the SolverFactory. This solver is meant to be used on
      * challenging SAT benchmarks.
@@ -438,6 +476,22 @@ public final class SolverFactory extends ASolverFactory<ISolver> {
         return new ManyCore(newSAT(), newUNSAT());
     }
 
+    /**
+     * A cube and conquer solver, using one Glucose 2.1 like solver per
+     * available processor.
+     * 
+     * @return a divide and conquer parallel solver.
+     * @since 2.3.6
+     */
+    public static ISolver newCubeAndConquer() {
+        ISolver[] solvers = new ISolver[Runtime.getRuntime()
+                .availableProcessors()];
+        for (int i = 0; i < solvers.length; i++) {
+            solvers[i] = newGlucose21();
+        }
+        return new CubeAndConquer<ISolver>(solvers);
+    }
+
     /**
      * That solver is expected to perform better on satisfiable benchmarks.
      * 
@@ -469,6 +523,123 @@ public final class SolverFactory extends ASolverFactory<ISolver> {
         return solver;
     }
 
+    /**
+     * Glucose 2.1 like solver storing all its clauses in a single arena.
+     * 
+     * @return a solver suitable for formulas with millions of clauses.
+     * @since 2.3.6
+     */
+    public static ICDCL<DataStructureFactory> newGlucose21Arena() {
+        ICDCL<DataStructureFactory> solver = newGlucose21();
+        solver.setDataStructureFactory(new MixedDataStructureArena());
+        return solver;
+    }
+
+    /**
+     * Glucose 2.1 like solver using blocker literals in its watch lists.
+     * 
+     * @return a solver which avoids visiting clauses satisfied by their
+     *         blocker during unit propagation.
+     * @since 2.3.6
+     */
+    public static ICDCL<DataStructureFactory> newGlucose21Blockers() {
+        ICDCL<DataStructureFactory> solver = newGlucose21();
+        solver.setDataStructureFactory(new MixedDataStructureDanielWLBlockers());
+        return solver;
+    }
+
+    /**
+     * Glucose 2.1 like solver propagating the original binary clauses from a
+     * dedicated implication table before the other constraints.
+     * 
+     * @return a solver suitable for formulas made mostly of binary clauses.
+     * @since 2.3.6
+     */
+    public static ICDCL<DataStructureFactory> newGlucose21ImplicitBinary() {
+        ICDCL<DataStructureFactory> solver = newGlucose21();
+        solver.setDataStructureFactory(new MixedDataStructureImplicitBinary());
+        return solver;
+    }
+
+    /**
+     * Glucose 2.1 like solver backtracking a single level when a backjump
+     * would cancel more than 100 decision levels.
+     * 
+     * @return a solver suitable for problems with very deep search trees.
+     * @see SearchParams#setBackjumpLimit(int)
+     * @since 2.3.6
+     */
+    public static ICDCL<DataStructureFactory> newGlucose21LimitedBackjumps() {
+        ICDCL<DataStructureFactory> solver = newGlucose21();
+        solver.getSearchParams().setBackjumpLimit(100);
+        return solver;
+    }
+
+    /**
+     * Glucose 2.1 like solver alternating focused and stable modes, following
+     * target phases in stable mode and rephasing periodically.
+     * 
+     * @return a solver suitable for satisfiable industrial formulas.
+     * @see StableModeRestarts
+     * @see TargetPhaseSelectionStrategy
+     * @since 2.3.6
+     */
+    public static ICDCL<DataStructureFactory> newGlucose21Rephasing() {
+        ICDCL<DataStructureFactory> solver = newGlucose21();
+        TargetPhaseSelectionStrategy phase = new TargetPhaseSelectionStrategy();
+        solver.setOrder(new VarOrderHeap(phase));
+        solver.setRestartStrategy(new StableModeRestarts(phase));
+        return solver;
+    }
+
+    /**
+     * Glucose 2.1 like solver using the VMTF (variable move-to-front)
+     * heuristics instead of VSIDS.
+     * 
+     * @return a solver suitable for formulas with many variables.
+     * @see VMTFOrder
+     * @since 2.3.6
+     */
+    public static ICDCL<DataStructureFactory> newGlucose21VMTF() {
+        ICDCL<DataStructureFactory> solver = newGlucose21();
+        solver.setOrder(new VMTFOrder(new RSATPhaseSelectionStrategy()));
+        return solver;
+    }
+
+    /**
+     * Glucose 2.1 like solver alternating a focused mode using the VMTF
+     * heuristics and a stable mode using VSIDS and target phases, with
+     * rephasing.
+     * 
+     * @return a solver suitable for satisfiable industrial formulas.
+     * @see StableModeRestarts
+     * @see FocusedAndStableOrder
+     * @since 2.3.6
+     */
+    public static ICDCL<DataStructureFactory> newGlucose21RephasingVMTF() {
+        ICDCL<DataStructureFactory> solver = newGlucose21();
+        TargetPhaseSelectionStrategy phase = new TargetPhaseSelectionStrategy();
+        FocusedAndStableOrder order = new FocusedAndStableOrder(phase);
+        solver.setOrder(order);
+        solver.setRestartStrategy(new StableModeRestarts(phase, order));
+        return solver;
+    }
+
+    /**
+     * Glucose 2.1 like solver simplifying the formula between restarts
+     * (failed literals, subsumption, variable elimination and vivification
+     * of the learned clauses).
+     * 
+     * @return a solver suitable for large industrial formulas.
+     * @see Inprocessor
+     * @since 2.3.6
+     */
+    public static ICDCL<DataStructureFactory> newGlucose21Inprocessing() {
+        Solver<DataStructureFactory> solver = (Solver<DataStructureFactory>) newGlucose21();
+        solver.setInprocessor(new Inprocessor());
+        return solver;
+    }
+
     public static Solver newNoSimplification() {
         Solver solver = (Solver) newGlucose21();
         solver.setSimplifier(solver.NO_SIMPLIFICATION);
@@ -32,6 +32,7 @@ package org.sat4j.minisat.constraints;
 import java.io.Serializable;
 
 import org.sat4j.core.Vec;
+import org.sat4j.minisat.constraints.cnf.BinaryImplicationTable;
 import org.sat4j.minisat.core.DataStructureFactory;
 import org.sat4j.minisat.core.ILits;
 import org.sat4j.minisat.core.Learner;
@@ -112,6 +113,13 @@ public abstract class AbstractDataStructureFactory implements
     public void reset() {
     }
 
+    public void onReduceDB() {
+    }
+
+    public BinaryImplicationTable getBinaryImplications() {
+        return null;
+    }
+
     public void learnConstraint(Constr constr) {
         this.learner.learn(constr);
     }
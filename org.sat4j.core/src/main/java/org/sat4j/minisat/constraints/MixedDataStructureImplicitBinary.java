@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.constraints;
+
+import org.sat4j.minisat.constraints.cnf.BinaryImplicationTable;
+import org.sat4j.minisat.constraints.cnf.Clauses;
+import org.sat4j.minisat.constraints.cnf.ImplicitBinaryClause;
+import org.sat4j.minisat.constraints.cnf.Lits;
+import org.sat4j.minisat.constraints.cnf.OriginalWLClause;
+import org.sat4j.minisat.constraints.cnf.UnitClause;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IVecInt;
+
+/**
+ * Data structure storing the original binary clauses in a table of
+ * implications propagated ahead of the other constraints, which are watched
+ * using blocker literals. Suitable for formulas containing mainly binary
+ * clauses.
+ * 
+ * Learned binary clauses are still watched, so that the learned constraints
+ * deletion strategy can manage them.
+ * 
+ * @since 2.3.6
+ */
+public class MixedDataStructureImplicitBinary extends
+        MixedDataStructureDanielWL {
+
+    private static final long serialVersionUID = 1L;
+
+    private final BinaryImplicationTable binaries = new BinaryImplicationTable(
+            getVocabulary());
+
+    @Override
+    public Constr createClause(IVecInt literals) throws ContradictionException {
+        IVecInt v = Clauses.sanityCheck(literals, getVocabulary(), this.solver);
+        if (v == null) {
+            // tautological clause
+            return null;
+        }
+        if (v.size() == 1) {
+            return new UnitClause(v.last());
+        }
+        if (v.size() == 2) {
+            return ImplicitBinaryClause.brandNewClause(this.binaries,
+                    getVocabulary(), v);
+        }
+        return OriginalWLClause.brandNewClause(this.solver, getVocabulary(), v);
+    }
+
+    @Override
+    public BinaryImplicationTable getBinaryImplications() {
+        return this.binaries;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.binaries.clear();
+    }
+
+    @Override
+    protected ILits createLits() {
+        return new Lits(true);
+    }
+}
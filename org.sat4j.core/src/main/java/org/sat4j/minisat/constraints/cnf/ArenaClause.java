@@ -0,0 +1,415 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.constraints.cnf;
+
+import static org.sat4j.core.LiteralsUtils.var;
+import static org.sat4j.minisat.constraints.cnf.ClauseArena.ACTIVITY;
+import static org.sat4j.minisat.constraints.cnf.ClauseArena.DELETED_FLAG;
+import static org.sat4j.minisat.constraints.cnf.ClauseArena.FLAGS;
+import static org.sat4j.minisat.constraints.cnf.ClauseArena.HEADER_SIZE;
+import static org.sat4j.minisat.constraints.cnf.ClauseArena.LBD;
+import static org.sat4j.minisat.constraints.cnf.ClauseArena.LEARNT_FLAG;
+import static org.sat4j.minisat.constraints.cnf.ClauseArena.SIZE;
+
+import java.io.Serializable;
+
+import org.sat4j.core.LiteralsUtils;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.MandatoryLiteralListener;
+import org.sat4j.specs.Propagatable;
+import org.sat4j.specs.UnitPropagationListener;
+import org.sat4j.specs.VarMapper;
+
+/**
+ * Watched literals clause whose literals and attributes are stored in a
+ * {@link ClauseArena}. The object itself only holds the reference of the
+ * clause in the arena, so that the solver can still use it as a reason or as a
+ * learned constraint.
+ * 
+ * A clause enters the arena when it is registered: until then, its header and
+ * literals are kept in a private block, so that conflict clauses which are
+ * never learned do not waste space in the arena. An original clause which has
+ * been removed and compacted away gets back such a block, so that it can be
+ * put back in the solver. A learned clause compacted away can no longer be
+ * used: its accessors throw an {@link IllegalStateException}.
+ * 
+ * @since 2.3.6
+ */
+public final class ArenaClause implements Propagatable, Constr, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ClauseArena arena;
+
+    /**
+     * position of the header of the clause in the arena, or
+     * {@link ILits#UNDEFINED} when the clause is not stored in the arena.
+     * Updated when the arena is compacted.
+     */
+    int ref;
+
+    /**
+     * the header and the literals of the clause when it is not stored in the
+     * arena.
+     */
+    int[] block;
+
+    ArenaClause(ClauseArena arena, int ref) {
+        this.arena = arena;
+        this.ref = ref;
+    }
+
+    ArenaClause(ClauseArena arena, int[] block) {
+        this.arena = arena;
+        this.ref = ILits.UNDEFINED;
+        this.block = block;
+    }
+
+    /**
+     * Creates a brand new clause, presumably from external data.
+     * 
+     * @param arena
+     *            the arena in which the clause is stored
+     * @param literals
+     *            the literals to store in the clause
+     * @return the created clause
+     */
+    public static ArenaClause brandNewClause(ClauseArena arena,
+            IVecInt literals) {
+        ArenaClause c = arena.newClause(literals, false);
+        c.register();
+        return c;
+    }
+
+    /**
+     * 
+     * @return the array holding the header and the literals of the clause.
+     */
+    private int[] words() {
+        if (this.ref >= 0) {
+            return this.arena.memory;
+        }
+        if (this.block == null) {
+            throw new IllegalStateException(
+                    "The clause is no longer stored in the arena");
+        }
+        return this.block;
+    }
+
+    /**
+     * 
+     * @return the position of the header of the clause in {@link #words()}.
+     */
+    private int offset() {
+        return this.ref >= 0 ? this.ref : 0;
+    }
+
+    public boolean learnt() {
+        return (words()[offset() + FLAGS] & LEARNT_FLAG) != 0;
+    }
+
+    public void setLearnt() {
+        // do nothing
+    }
+
+    /**
+     * 
+     * @return true iff the clause is not stored in the arena or has been
+     *         removed from the solver.
+     */
+    public boolean isDeleted() {
+        return this.ref < 0
+                || (this.arena.memory[this.ref + FLAGS] & DELETED_FLAG) != 0;
+    }
+
+    public int size() {
+        return words()[offset() + SIZE];
+    }
+
+    public int get(int i) {
+        return words()[offset() + HEADER_SIZE + i];
+    }
+
+    /**
+     * @return the literal block distance recorded for that clause.
+     */
+    public int getLBD() {
+        return words()[offset() + LBD];
+    }
+
+    public void setLBD(int lbd) {
+        words()[offset() + LBD] = lbd;
+    }
+
+    public double getActivity() {
+        return Float.intBitsToFloat(words()[offset() + ACTIVITY]);
+    }
+
+    public void setActivity(double d) {
+        words()[offset() + ACTIVITY] = Float.floatToRawIntBits((float) d);
+    }
+
+    public void incActivity(double claInc) {
+        if (learnt()) {
+            setActivity(getActivity() + claInc);
+        }
+    }
+
+    public void forwardActivity(double claInc) {
+        if (!learnt()) {
+            setActivity(getActivity() + claInc);
+        }
+    }
+
+    public void rescaleBy(double d) {
+        setActivity(getActivity() * d);
+    }
+
+    public void register() {
+        if (isDeleted()) {
+            // first registration, or put back in the solver after its removal
+            this.arena.store(this);
+        }
+        final int[] mem = this.arena.memory;
+        final int first = this.ref + HEADER_SIZE;
+        final int size = mem[this.ref + SIZE];
+        if (size == 0) {
+            return;
+        }
+        assert size > 1;
+        final ILits voc = this.arena.getVocabulary();
+        if (learnt()) {
+            // watch the literal with the highest decision level
+            int maxi = first + 1;
+            int maxlevel = voc.getLevel(mem[maxi]);
+            for (int i = first + 2; i < first + size; i++) {
+                int level = voc.getLevel(mem[i]);
+                if (level > maxlevel) {
+                    maxi = i;
+                    maxlevel = level;
+                }
+            }
+            int l = mem[first + 1];
+            mem[first + 1] = mem[maxi];
+            mem[maxi] = l;
+        }
+        voc.watch(mem[first] ^ 1, this, mem[first + 1]);
+        voc.watch(mem[first + 1] ^ 1, this, mem[first]);
+    }
+
+    public void remove(UnitPropagationListener upl) {
+        final ILits voc = this.arena.getVocabulary();
+        voc.watches(get(0) ^ 1).remove(this);
+        voc.watches(get(1) ^ 1).remove(this);
+        if (this.ref >= 0) {
+            this.arena.free(this.ref);
+        }
+    }
+
+    public boolean simplify() {
+        final int[] mem = words();
+        final int first = offset() + HEADER_SIZE;
+        final int last = first + mem[offset() + SIZE];
+        final ILits voc = this.arena.getVocabulary();
+        for (int i = first; i < last; i++) {
+            if (voc.isSatisfied(mem[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean propagate(UnitPropagationListener s, int p) {
+        assert this.ref >= 0;
+        final int[] mem = this.arena.memory;
+        final int first = this.ref + HEADER_SIZE;
+        final int last = first + mem[this.ref + SIZE];
+        final ILits voc = this.arena.getVocabulary();
+        // mem[first + 1] must contain a falsified literal
+        if (mem[first] == (p ^ 1)) {
+            mem[first] = mem[first + 1];
+            mem[first + 1] = p ^ 1;
+        }
+        if (voc.isSatisfied(mem[first])) {
+            voc.watch(p, this, mem[first]);
+            return true;
+        }
+        int previous = p ^ 1, tmp;
+        // look for new literal to watch: applying move to front strategy
+        for (int i = first + 2; i < last; i++) {
+            if (voc.isFalsified(mem[i])) {
+                tmp = previous;
+                previous = mem[i];
+                mem[i] = tmp;
+            } else {
+                mem[first + 1] = mem[i];
+                mem[i] = previous;
+                voc.watch(mem[first + 1] ^ 1, this, mem[first]);
+                return true;
+            }
+        }
+        // the clause is now either unit or null
+        // move back the literals to their initial position
+        System.arraycopy(mem, first + 2, mem, first + 1, last - first - 2);
+        mem[last - 1] = previous;
+        voc.watch(p, this, mem[first]);
+        // propagates first watched literal
+        return s.enqueue(mem[first], this);
+    }
+
+    public boolean propagatePI(MandatoryLiteralListener s, int p) {
+        final ILits voc = this.arena.getVocabulary();
+        if (learnt()) {
+            voc.watch(p, this);
+            return true;
+        }
+        assert this.ref >= 0;
+        final int[] mem = this.arena.memory;
+        final int first = this.ref + HEADER_SIZE;
+        final int last = first + mem[this.ref + SIZE];
+        if (mem[first] == (p ^ 1)) {
+            mem[first] = mem[first + 1];
+            mem[first + 1] = p ^ 1;
+        }
+        int previous = p ^ 1;
+        // look for a new satisfied literal to watch
+        for (int i = first + 2; i < last; i++) {
+            if (voc.isSatisfied(mem[i])) {
+                mem[first + 1] = mem[i];
+                mem[i] = previous;
+                voc.watch(mem[first + 1] ^ 1, this);
+                return true;
+            }
+        }
+        // the clause is now either unit
+        voc.watch(p, this);
+        // first literal is mandatory
+        s.isMandatory(mem[first]);
+        return true;
+    }
+
+    public void calcReason(int p, IVecInt outReason) {
+        final int[] mem = words();
+        final int first = offset() + HEADER_SIZE;
+        final int last = first + mem[offset() + SIZE];
+        for (int i = p == ILits.UNDEFINED ? first : first + 1; i < last; i++) {
+            assert this.arena.getVocabulary().isFalsified(mem[i]);
+            outReason.push(mem[i] ^ 1);
+        }
+    }
+
+    public void calcReasonOnTheFly(int p, IVecInt trail, IVecInt outReason) {
+        calcReason(p, outReason);
+    }
+
+    public boolean locked() {
+        return this.arena.getVocabulary().getReason(get(0)) == this;
+    }
+
+    public void assertConstraint(UnitPropagationListener s) {
+        boolean ret = s.enqueue(get(0), this);
+        assert ret;
+    }
+
+    public void assertConstraintIfNeeded(UnitPropagationListener s) {
+        if (this.arena.getVocabulary().isFalsified(get(1))) {
+            boolean ret = s.enqueue(get(0), this);
+            assert ret;
+        }
+    }
+
+    public boolean canBePropagatedMultipleTimes() {
+        return false;
+    }
+
+    public Constr toConstraint() {
+        return this;
+    }
+
+    public boolean canBeSatisfiedByCountingLiterals() {
+        return true;
+    }
+
+    public int requiredNumberOfSatisfiedLiterals() {
+        return 1;
+    }
+
+    public boolean isSatisfied() {
+        return simplify();
+    }
+
+    public int getAssertionLevel(IVecInt trail, int decisionLevel) {
+        final int first = var(get(0));
+        for (int i = trail.size() - 1; i >= 0; i--) {
+            if (var(trail.get(i)) == first) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int[] getLits() {
+        int[] tmp = new int[size()];
+        System.arraycopy(words(), offset() + HEADER_SIZE, tmp, 0, tmp.length);
+        return tmp;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stb = new StringBuilder();
+        final ILits voc = this.arena.getVocabulary();
+        for (int i = 0; i < size(); i++) {
+            stb.append(Lits.toString(get(i)));
+            stb.append("["); //$NON-NLS-1$
+            stb.append(voc.valueToString(get(i)));
+            stb.append("]"); //$NON-NLS-1$
+            stb.append(" "); //$NON-NLS-1$
+        }
+        return stb.toString();
+    }
+
+    public String toString(VarMapper mapper) {
+        if (mapper == null) {
+            return toString();
+        }
+        StringBuilder stb = new StringBuilder();
+        final ILits voc = this.arena.getVocabulary();
+        for (int i = 0; i < size(); i++) {
+            stb.append(mapper.map(LiteralsUtils.toDimacs(get(i))));
+            stb.append("["); //$NON-NLS-1$
+            stb.append(voc.valueToString(get(i)));
+            stb.append("]"); //$NON-NLS-1$
+            stb.append(" "); //$NON-NLS-1$
+        }
+        return stb.toString();
+    }
+}
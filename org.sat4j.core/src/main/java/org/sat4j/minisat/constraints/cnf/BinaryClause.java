@@ -115,11 +115,12 @@ public abstract class BinaryClause implements Propagatable, Constr,
     }
 
     public boolean propagate(UnitPropagationListener s, int p) {
-        this.voc.watch(p, this);
         if (this.head == neg(p)) {
+            this.voc.watch(p, this, this.tail);
             return s.enqueue(this.tail, this);
         }
         assert this.tail == neg(p);
+        this.voc.watch(p, this, this.head);
         return s.enqueue(this.head, this);
     }
 
@@ -238,8 +239,8 @@ public abstract class BinaryClause implements Propagatable, Constr,
     }
 
     public void register() {
-        this.voc.watch(neg(this.head), this);
-        this.voc.watch(neg(this.tail), this);
+        this.voc.watch(neg(this.head), this, this.tail);
+        this.voc.watch(neg(this.tail), this, this.head);
     }
 
     public boolean canBePropagatedMultipleTimes() {
@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.constraints.cnf;
+
+import static org.sat4j.core.LiteralsUtils.neg;
+
+import java.io.Serializable;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.specs.Constr;
+
+/**
+ * Implicit representation of binary clauses, as a table of implications
+ * stored in primitive arrays: for each literal p, the table stores the
+ * literals that must be satisfied once p is satisfied.
+ * 
+ * The clauses stored in that table are not watched: the solver is expected to
+ * propagate them before the constraints found in the watch lists. The reason
+ * of a literal propagated by a binary clause is not the clause itself but a
+ * reusable object attached to the propagated variable, so no object is
+ * accessed during propagation.
+ * 
+ * @since 2.3.6
+ */
+public final class BinaryImplicationTable implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int[] EMPTY = new int[0];
+
+    private final ILits voc;
+
+    private int[][] implications = new int[0][];
+
+    private int[] sizes = new int[0];
+
+    private ImplicitReason[] reasons = new ImplicitReason[0];
+
+    private int nbclauses;
+
+    public BinaryImplicationTable(ILits voc) {
+        this.voc = voc;
+    }
+
+    /**
+     * Add the binary clause a v b.
+     * 
+     * @param a
+     *            a literal in internal representation.
+     * @param b
+     *            a literal in internal representation.
+     */
+    public void add(int a, int b) {
+        ensure(Math.max(a, b) | 1);
+        push(neg(a), b);
+        push(neg(b), a);
+        this.nbclauses++;
+    }
+
+    /**
+     * Remove one occurrence of the binary clause a v b.
+     * 
+     * @param a
+     *            a literal in internal representation.
+     * @param b
+     *            a literal in internal representation.
+     * @return true iff the clause was found in the table.
+     */
+    public boolean remove(int a, int b) {
+        if (removeFrom(neg(a), b) && removeFrom(neg(b), a)) {
+            this.nbclauses--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Direct access to the literals implied by p. Only the first
+     * {@link #size(int)} elements are meaningful.
+     * 
+     * @param p
+     *            a literal in internal representation.
+     * @return the literals to satisfy when p is satisfied.
+     */
+    public int[] implications(int p) {
+        if (p >= this.implications.length || this.implications[p] == null) {
+            return EMPTY;
+        }
+        return this.implications[p];
+    }
+
+    /**
+     * 
+     * @param p
+     *            a literal in internal representation.
+     * @return the number of literals implied by p.
+     */
+    public int size(int p) {
+        if (p >= this.sizes.length) {
+            return 0;
+        }
+        return this.sizes[p];
+    }
+
+    /**
+     * 
+     * @return the number of binary clauses in the table.
+     */
+    public int nClauses() {
+        return this.nbclauses;
+    }
+
+    public void clear() {
+        this.implications = new int[0][];
+        this.sizes = new int[0];
+        this.reasons = new ImplicitReason[0];
+        this.nbclauses = 0;
+    }
+
+    /**
+     * Provide the reason of a literal propagated by a binary clause. The
+     * object returned is reused for all the propagations of that variable, so
+     * it is only valid while that literal is assigned.
+     * 
+     * @param implied
+     *            the propagated literal
+     * @param antecedent
+     *            the satisfied literal which caused the propagation
+     * @return the reason of implied.
+     */
+    public Constr reason(int implied, int antecedent) {
+        int var = implied >> 1;
+        if (var >= this.reasons.length) {
+            ImplicitReason[] nreasons = new ImplicitReason[Math.max(var + 1,
+                    this.reasons.length << 1)];
+            System.arraycopy(this.reasons, 0, nreasons, 0,
+                    this.reasons.length);
+            this.reasons = nreasons;
+        }
+        ImplicitReason reason = this.reasons[var];
+        if (reason == null) {
+            reason = new ImplicitReason(implied, neg(antecedent), this.voc);
+            this.reasons[var] = reason;
+        } else {
+            reason.set(implied, neg(antecedent));
+        }
+        return reason;
+    }
+
+    /**
+     * Provide a conflicting constraint for the binary clause -p v q.
+     * 
+     * @param p
+     *            a satisfied literal
+     * @param q
+     *            a falsified literal implied by p.
+     * @return a new constraint representing the falsified clause.
+     */
+    public Constr conflict(int p, int q) {
+        return new ImplicitReason(q, neg(p), this.voc);
+    }
+
+    /**
+     * Check whether a binary clause is the reason of one of its literals.
+     * 
+     * @param a
+     *            a literal in internal representation.
+     * @param b
+     *            a literal in internal representation.
+     * @return true iff a or b has been propagated by the clause a v b.
+     */
+    public boolean isReason(int a, int b) {
+        return isReasonOf(a, b) || isReasonOf(b, a);
+    }
+
+    private boolean isReasonOf(int implied, int other) {
+        Constr reason = this.voc.getReason(implied);
+        return reason instanceof ImplicitReason && reason.get(0) == implied
+                && reason.get(1) == other;
+    }
+
+    private void ensure(int lit) {
+        if (lit >= this.implications.length) {
+            int nsize = Math.max(lit + 1, this.implications.length << 1);
+            int[][] nimplications = new int[nsize][];
+            System.arraycopy(this.implications, 0, nimplications, 0,
+                    this.implications.length);
+            this.implications = nimplications;
+            int[] nsizes = new int[nsize];
+            System.arraycopy(this.sizes, 0, nsizes, 0, this.sizes.length);
+            this.sizes = nsizes;
+        }
+    }
+
+    private void push(int p, int q) {
+        int[] implied = this.implications[p];
+        int size = this.sizes[p];
+        if (implied == null) {
+            implied = new int[4];
+            this.implications[p] = implied;
+        } else if (size == implied.length) {
+            implied = new int[size << 1];
+            System.arraycopy(this.implications[p], 0, implied, 0, size);
+            this.implications[p] = implied;
+        }
+        implied[size] = q;
+        this.sizes[p] = size + 1;
+    }
+
+    private boolean removeFrom(int p, int q) {
+        int size = size(p);
+        int[] implied = implications(p);
+        for (int i = 0; i < size; i++) {
+            if (implied[i] == q) {
+                System.arraycopy(implied, i + 1, implied, i, size - i - 1);
+                this.sizes[p] = size - 1;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reason of a literal propagated by an implicit binary clause.
+     */
+    private static final class ImplicitReason extends BinaryClause {
+
+        private static final long serialVersionUID = 1L;
+
+        ImplicitReason(int implied, int falsified, ILits voc) {
+            super(new VecInt(new int[] { implied, falsified }), voc);
+        }
+
+        void set(int implied, int falsified) {
+            this.head = implied;
+            this.tail = falsified;
+        }
+
+        public boolean learnt() {
+            return false;
+        }
+
+        public void setLearnt() {
+            // do nothing
+        }
+
+        public void forwardActivity(double claInc) {
+            // do nothing
+        }
+
+        public void incActivity(double claInc) {
+            // do nothing
+        }
+
+        public void setActivity(double d) {
+            // do nothing
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.constraints.cnf;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.sat4j.core.Vec;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+
+/**
+ * Flat storage for clauses. All the literals of the clauses managed by the
+ * arena, together with a small header (size, flags, LBD, activity), are packed
+ * into a single growable array of integers. A clause is addressed by the index
+ * of its header in that array (its reference).
+ * 
+ * Clauses created by {@link #newClause(IVecInt, boolean)} enter the arena
+ * only when they are registered, so that conflict clauses which are never
+ * learned do not take any space in it. Removed clauses are only marked as
+ * deleted: the space they occupy is reclaimed by {@link #compact()}, which
+ * slides the remaining clauses to the beginning of the array and updates their
+ * references.
+ * 
+ * @since 2.3.6
+ */
+public final class ClauseArena implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    static final int SIZE = 0;
+
+    static final int FLAGS = 1;
+
+    static final int LBD = 2;
+
+    static final int ACTIVITY = 3;
+
+    /**
+     * Number of words used by the header of each clause.
+     */
+    static final int HEADER_SIZE = 4;
+
+    static final int LEARNT_FLAG = 1;
+
+    static final int DELETED_FLAG = 2;
+
+    private static final int DEFAULT_INIT_SIZE = 1 << 16;
+
+    /**
+     * Ratio of wasted space above which the arena should be compacted.
+     */
+    private static final double GARBAGE_RATIO = 0.2;
+
+    int[] memory;
+
+    private int top;
+
+    private int wasted;
+
+    private final ILits voc;
+
+    /**
+     * the clauses in the order of their position in the arena.
+     */
+    private final IVec<ArenaClause> clauses = new Vec<ArenaClause>();
+
+    public ClauseArena(ILits voc) {
+        this(voc, DEFAULT_INIT_SIZE);
+    }
+
+    public ClauseArena(ILits voc, int capacity) {
+        this.voc = voc;
+        this.memory = new int[Math.max(capacity, HEADER_SIZE)];
+    }
+
+    /**
+     * Store a new clause in the arena.
+     * 
+     * @param ps
+     *            the literals of the clause, in internal representation. The
+     *            vector is left untouched.
+     * @param learnt
+     *            true iff the clause is a learned clause
+     * @return a clause backed by the arena.
+     */
+    public ArenaClause allocate(IVecInt ps, boolean learnt) {
+        ArenaClause clause = newClause(ps, learnt);
+        store(clause);
+        return clause;
+    }
+
+    /**
+     * Create a new clause which is not stored in the arena yet. It will be
+     * stored in the arena when registered.
+     * 
+     * @param ps
+     *            the literals of the clause, in internal representation. The
+     *            vector is left untouched.
+     * @param learnt
+     *            true iff the clause is a learned clause
+     * @return a clause which will be backed by the arena once registered.
+     */
+    public ArenaClause newClause(IVecInt ps, boolean learnt) {
+        final int size = ps.size();
+        final int[] block = new int[HEADER_SIZE + size];
+        block[SIZE] = size;
+        block[FLAGS] = learnt ? LEARNT_FLAG : 0;
+        block[LBD] = 0;
+        block[ACTIVITY] = Float.floatToRawIntBits(0.0f);
+        for (int i = 0; i < size; i++) {
+            block[HEADER_SIZE + i] = ps.get(i);
+        }
+        return new ArenaClause(this, block);
+    }
+
+    private void ensure(int capacity) {
+        if (capacity > this.memory.length) {
+            int[] nmemory = new int[Math.max(capacity,
+                    this.memory.length << 1)];
+            System.arraycopy(this.memory, 0, nmemory, 0, this.top);
+            this.memory = nmemory;
+        }
+    }
+
+    /**
+     * Mark the clause stored at ref as deleted. Its space will be reclaimed by
+     * the next compaction.
+     * 
+     * @param ref
+     *            the reference of a clause in the arena.
+     */
+    void free(int ref) {
+        if ((this.memory[ref + FLAGS] & DELETED_FLAG) == 0) {
+            this.memory[ref + FLAGS] |= DELETED_FLAG;
+            this.wasted += HEADER_SIZE + this.memory[ref + SIZE];
+        }
+    }
+
+    /**
+     * Store a clause in the arena, either for the first time or when it is put
+     * back in the solver after its removal.
+     * 
+     * @param clause
+     *            a clause created for that arena.
+     */
+    void store(ArenaClause clause) {
+        final int ref = clause.ref;
+        if (ref >= 0) {
+            if ((this.memory[ref + FLAGS] & DELETED_FLAG) != 0) {
+                this.memory[ref + FLAGS] &= ~DELETED_FLAG;
+                this.wasted -= HEADER_SIZE + this.memory[ref + SIZE];
+            }
+            return;
+        }
+        final int[] block = clause.block;
+        if (block == null) {
+            throw new IllegalStateException(
+                    "The clause is no longer stored in the arena");
+        }
+        ensure(this.top + block.length);
+        System.arraycopy(block, 0, this.memory, this.top, block.length);
+        this.memory[this.top + FLAGS] &= ~DELETED_FLAG;
+        clause.ref = this.top;
+        clause.block = null;
+        this.top += block.length;
+        this.clauses.push(clause);
+    }
+
+    /**
+     * 
+     * @return true iff enough space is wasted by deleted clauses to make a
+     *         compaction worthwhile.
+     */
+    public boolean needsCompaction() {
+        return this.wasted > this.top * GARBAGE_RATIO;
+    }
+
+    /**
+     * Reclaim the space used by deleted clauses. Deleted clauses which are
+     * still the reason of an assignment are kept until they are released.
+     */
+    public void compact() {
+        final int[] mem = this.memory;
+        int newTop = 0;
+        int newWasted = 0;
+        int j = 0;
+        ArenaClause clause;
+        for (int i = 0; i < this.clauses.size(); i++) {
+            clause = this.clauses.get(i);
+            int ref = clause.ref;
+            int length = HEADER_SIZE + mem[ref + SIZE];
+            if ((mem[ref + FLAGS] & DELETED_FLAG) != 0) {
+                if (!clause.locked()) {
+                    if ((mem[ref + FLAGS] & LEARNT_FLAG) == 0) {
+                        // an original clause may be put back in the solver
+                        clause.block = Arrays.copyOfRange(mem, ref, ref
+                                + length);
+                    }
+                    clause.ref = ILits.UNDEFINED;
+                    continue;
+                }
+                newWasted += length;
+            }
+            if (ref != newTop) {
+                System.arraycopy(mem, ref, mem, newTop, length);
+                clause.ref = newTop;
+            }
+            newTop += length;
+            this.clauses.set(j++, clause);
+        }
+        this.clauses.shrinkTo(j);
+        this.top = newTop;
+        this.wasted = newWasted;
+    }
+
+    /**
+     * Remove all the clauses from the arena.
+     */
+    public void clear() {
+        for (int i = 0; i < this.clauses.size(); i++) {
+            this.clauses.get(i).ref = ILits.UNDEFINED;
+        }
+        this.clauses.clear();
+        this.top = 0;
+        this.wasted = 0;
+    }
+
+    ILits getVocabulary() {
+        return this.voc;
+    }
+
+    /**
+     * 
+     * @return the number of clauses (deleted or not) in the arena.
+     */
+    public int nClauses() {
+        return this.clauses.size();
+    }
+
+    /**
+     * 
+     * @return the number of words used in the arena.
+     */
+    public int usedWords() {
+        return this.top;
+    }
+
+    /**
+     * 
+     * @return the number of words occupied by deleted clauses.
+     */
+    public int wastedWords() {
+        return this.wasted;
+    }
+}
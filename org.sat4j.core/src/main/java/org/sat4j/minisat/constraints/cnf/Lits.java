@@ -33,6 +33,7 @@ import java.io.Serializable;
 
 import org.sat4j.core.LiteralsUtils;
 import org.sat4j.core.Vec;
+import org.sat4j.minisat.core.BlockerWatchList;
 import org.sat4j.minisat.core.ILits;
 import org.sat4j.minisat.core.Undoable;
 import org.sat4j.specs.Constr;
@@ -68,7 +69,21 @@ public final class Lits implements Serializable, ILits {
 
     private boolean[] falsified = new boolean[0];
 
+    private final boolean blockers;
+
     public Lits() {
+        this(false);
+    }
+
+    /**
+     * 
+     * @param blockers
+     *            true to store a blocker literal next to each watcher (see
+     *            {@link BlockerWatchList}).
+     * @since 2.3.6
+     */
+    public Lits(boolean blockers) {
+        this.blockers = blockers;
         init(DEFAULT_INIT_SIZE);
     }
 
@@ -120,8 +135,13 @@ public final class Lits implements Serializable, ILits {
         if (!this.pool[var]) {
             this.realnVars++;
             this.pool[var] = true;
-            this.watches[var << 1] = new Vec<Propagatable>();
-            this.watches[var << 1 | 1] = new Vec<Propagatable>();
+            if (this.blockers) {
+                this.watches[var << 1] = new BlockerWatchList();
+                this.watches[var << 1 | 1] = new BlockerWatchList();
+            } else {
+                this.watches[var << 1] = new Vec<Propagatable>();
+                this.watches[var << 1 | 1] = new Vec<Propagatable>();
+            }
             this.undos[var] = new Vec<Undoable>();
             this.level[var] = -1;
             this.falsified[var << 1] = false; // because truthValue[var] is
@@ -250,6 +270,23 @@ public final class Lits implements Serializable, ILits {
         this.watches[lit].push(c);
     }
 
+    public void watch(int lit, Propagatable c, int blocker) {
+        if (this.blockers) {
+            ((BlockerWatchList) this.watches[lit]).push(c, blocker);
+        } else {
+            this.watches[lit].push(c);
+        }
+    }
+
+    /**
+     * 
+     * @return true iff the watch lists store blocker literals.
+     * @since 2.3.6
+     */
+    public boolean hasBlockers() {
+        return this.blockers;
+    }
+
     public IVec<Propagatable> watches(int lit) {
         return this.watches[lit];
     }
@@ -52,8 +52,8 @@ public final class OriginalWLClause extends WLClause {
      */
     public void register() {
         assert this.lits.length > 1;
-        this.voc.watch(this.lits[0] ^ 1, this);
-        this.voc.watch(this.lits[1] ^ 1, this);
+        this.voc.watch(this.lits[0] ^ 1, this, this.lits[1]);
+        this.voc.watch(this.lits[1] ^ 1, this, this.lits[0]);
     }
 
     public boolean learnt() {
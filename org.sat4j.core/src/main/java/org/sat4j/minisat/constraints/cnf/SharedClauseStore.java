@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.constraints.cnf;
+
+import java.io.Serializable;
+
+import org.sat4j.core.Vec;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+
+/**
+ * Append only storage for original clauses shared by several solvers, for
+ * instance the members of a portfolio. The literals of each clause, in
+ * internal representation, are stored once, preceded by the size of the
+ * clause, in large blocks of integers. The blocks are never moved nor modified
+ * once a clause has been written, so each solver can reference them directly
+ * from its own {@link SharedWLClause} objects without any synchronization,
+ * provided that the clauses are added before the solvers are started.
+ * 
+ * Removing a clause from a solver does not free its literals in the store:
+ * they are only reclaimed when the store is cleared.
+ * 
+ * @since 2.3.6
+ */
+public final class SharedClauseStore implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    /**
+     * Size in bytes of the header of an array of integers, assuming a 64 bits
+     * JVM with compressed references.
+     */
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    private final int blockSize;
+
+    private final IVec<int[]> blocks = new Vec<int[]>();
+
+    private int[] current;
+
+    private int top;
+
+    private int nClauses;
+
+    private long nLiterals;
+
+    public SharedClauseStore() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * 
+     * @param blockSize
+     *            the number of integers allocated at once.
+     */
+    public SharedClauseStore(int blockSize) {
+        if (blockSize < 2) {
+            throw new IllegalArgumentException(
+                    "Block size too small: " + blockSize);
+        }
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Stores a new clause.
+     * 
+     * @param literals
+     *            the literals of the clause, in internal representation.
+     * @return the reference of the clause in the store.
+     */
+    public long add(IVecInt literals) {
+        int needed = literals.size() + 1;
+        if (this.current == null || this.top + needed > this.current.length) {
+            this.current = new int[Math.max(needed, this.blockSize)];
+            this.blocks.push(this.current);
+            this.top = 0;
+        }
+        int offset = this.top;
+        this.current[offset] = literals.size();
+        for (int i = 0; i < literals.size(); i++) {
+            this.current[offset + 1 + i] = literals.get(i);
+        }
+        this.top += needed;
+        this.nClauses++;
+        this.nLiterals += literals.size();
+        return (long) (this.blocks.size() - 1) << 32 | offset;
+    }
+
+    /**
+     * 
+     * @param ref
+     *            the reference of a clause.
+     * @return the block in which the clause is stored.
+     */
+    int[] block(long ref) {
+        return this.blocks.get((int) (ref >>> 32));
+    }
+
+    /**
+     * 
+     * @param ref
+     *            the reference of a clause.
+     * @return the position of the first literal of the clause in its block.
+     */
+    static int firstLiteral(long ref) {
+        return (int) ref + 1;
+    }
+
+    /**
+     * 
+     * @param ref
+     *            the reference of a clause.
+     * @return the number of literals in the clause.
+     */
+    public int size(long ref) {
+        return block(ref)[(int) ref];
+    }
+
+    /**
+     * 
+     * @param ref
+     *            the reference of a clause.
+     * @param i
+     *            the index of a literal in the clause.
+     * @return the ith literal of the clause, in internal representation.
+     */
+    public int get(long ref, int i) {
+        return block(ref)[firstLiteral(ref) + i];
+    }
+
+    /**
+     * Removes all the clauses from the store. The solvers still referencing
+     * those clauses are not affected.
+     */
+    public void clear() {
+        this.blocks.clear();
+        this.current = null;
+        this.top = 0;
+        this.nClauses = 0;
+        this.nLiterals = 0;
+    }
+
+    public int nClauses() {
+        return this.nClauses;
+    }
+
+    public long nLiterals() {
+        return this.nLiterals;
+    }
+
+    /**
+     * 
+     * @return the number of bytes allocated for the blocks of the store.
+     */
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (int i = 0; i < this.blocks.size(); i++) {
+            bytes += ARRAY_HEADER_BYTES + 4L * this.blocks.get(i).length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimates the memory needed by each solver to reference the clauses of
+     * the store: one {@link SharedWLClause} object, two watches and one slot
+     * in the constraints of the solver per clause.
+     * 
+     * @return an estimate in bytes of the memory used by each solver for the
+     *         clauses of the store.
+     */
+    public long sizeInBytesPerSolver() {
+        return (long) this.nClauses * SharedWLClause.FOOTPRINT_IN_BYTES;
+    }
+}
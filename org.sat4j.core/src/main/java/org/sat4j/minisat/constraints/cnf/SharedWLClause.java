@@ -0,0 +1,388 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.constraints.cnf;
+
+import static org.sat4j.core.LiteralsUtils.toDimacs;
+import static org.sat4j.core.LiteralsUtils.var;
+
+import java.io.Serializable;
+
+import org.sat4j.core.LiteralsUtils;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.MandatoryLiteralListener;
+import org.sat4j.specs.Propagatable;
+import org.sat4j.specs.UnitPropagationListener;
+import org.sat4j.specs.VarMapper;
+
+/**
+ * Watched literals original clause whose literals live in a
+ * {@link SharedClauseStore}. Since the literals may be read concurrently by
+ * several solvers, they are never reordered: the object only records the
+ * positions of its two watched literals, which makes it the only per solver
+ * part of the clause.
+ * 
+ * The literals falsified at decision level 0 when the clause is added are kept
+ * in the store, since they may not be falsified in the other solvers. They are
+ * never watched.
+ * 
+ * @since 2.3.6
+ */
+public final class SharedWLClause implements Propagatable, Constr,
+        Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Estimated memory in bytes needed by a solver for one shared clause,
+     * assuming a 64 bits JVM with compressed references: 32 bytes for the
+     * object itself (a 12 bytes header, two references and three positions),
+     * up to 8 bytes for each of the two watches (the clause and a blocker)
+     * and 4 bytes for its reference in the constraints of the solver.
+     */
+    static final int FOOTPRINT_IN_BYTES = 32 + 2 * 8 + 4;
+
+    private final int[] block;
+
+    private final int first;
+
+    private final ILits voc;
+
+    /**
+     * position in the block of the first watched literal, the one propagated
+     * when the clause becomes unit.
+     */
+    private int watch0;
+
+    /**
+     * position in the block of the second watched literal.
+     */
+    private int watch1;
+
+    SharedWLClause(int[] block, int first, ILits voc, int watch0,
+            int watch1) {
+        this.block = block;
+        this.first = first;
+        this.voc = voc;
+        this.watch0 = watch0;
+        this.watch1 = watch1;
+    }
+
+    /**
+     * Creates a brand new clause from a clause of a shared store, taking into
+     * account the literals already assigned at decision level 0 in the
+     * solver.
+     * 
+     * @param s
+     *            the object responsible for unit propagation
+     * @param voc
+     *            the vocabulary
+     * @param store
+     *            the store containing the literals of the clause
+     * @param ref
+     *            the reference of the clause in the store
+     * @return the created clause, a unit clause if only one literal is not
+     *         falsified, or null if the clause is satisfied.
+     * @throws ContradictionException
+     *             if all the literals are falsified.
+     */
+    public static Constr brandNewClause(UnitPropagationListener s, ILits voc,
+            SharedClauseStore store, long ref) throws ContradictionException {
+        final int[] block = store.block(ref);
+        final int first = SharedClauseStore.firstLiteral(ref);
+        final int last = first + block[first - 1];
+        int watch0 = -1;
+        int watch1 = -1;
+        for (int i = first; i < last; i++) {
+            int p = voc.getFromPool(toDimacs(block[i]));
+            assert p == block[i];
+            if (voc.isSatisfied(p)) {
+                return null;
+            }
+            if (voc.isUnassigned(p)) {
+                if (watch0 < 0) {
+                    watch0 = i;
+                } else if (watch1 < 0) {
+                    watch1 = i;
+                }
+            }
+        }
+        if (watch0 < 0) {
+            throw new ContradictionException("Creating Empty clause ?"); //$NON-NLS-1$
+        }
+        if (watch1 < 0) {
+            if (!s.enqueue(block[watch0])) {
+                throw new ContradictionException("Contradictory Unit Clauses"); //$NON-NLS-1$
+            }
+            return new UnitClause(block[watch0]);
+        }
+        SharedWLClause c = new SharedWLClause(block, first, voc, watch0,
+                watch1);
+        c.register();
+        return c;
+    }
+
+    public boolean learnt() {
+        return false;
+    }
+
+    public void setLearnt() {
+        // do nothing
+    }
+
+    public int size() {
+        return this.block[this.first - 1];
+    }
+
+    /**
+     * Retourne le ieme literal de la clause. The two watched literals come
+     * first, so that order changes during the search, but not the store.
+     * 
+     * @param i
+     *            the index of the literal
+     * @return the literal
+     */
+    public int get(int i) {
+        return this.block[position(i)];
+    }
+
+    private int position(int i) {
+        if (i == 0) {
+            return this.watch0;
+        }
+        if (i == 1) {
+            return this.watch1;
+        }
+        int pos = this.first + i - 2;
+        if (pos >= Math.min(this.watch0, this.watch1)) {
+            pos++;
+        }
+        if (pos >= Math.max(this.watch0, this.watch1)) {
+            pos++;
+        }
+        return pos;
+    }
+
+    public double getActivity() {
+        return 0;
+    }
+
+    public void setActivity(double d) {
+        // original clauses have no activity
+    }
+
+    public void incActivity(double claInc) {
+        // do nothing
+    }
+
+    public void forwardActivity(double claInc) {
+        // do nothing
+    }
+
+    public void rescaleBy(double d) {
+        // do nothing
+    }
+
+    public void register() {
+        this.voc.watch(this.block[this.watch0] ^ 1, this,
+                this.block[this.watch1]);
+        this.voc.watch(this.block[this.watch1] ^ 1, this,
+                this.block[this.watch0]);
+    }
+
+    public void remove(UnitPropagationListener upl) {
+        this.voc.watches(this.block[this.watch0] ^ 1).remove(this);
+        this.voc.watches(this.block[this.watch1] ^ 1).remove(this);
+    }
+
+    public boolean simplify() {
+        final int last = this.first + size();
+        for (int i = this.first; i < last; i++) {
+            if (this.voc.isSatisfied(this.block[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean propagate(UnitPropagationListener s, int p) {
+        final int[] mem = this.block;
+        // watch1 must point to the falsified literal
+        if (mem[this.watch0] == (p ^ 1)) {
+            int tmp = this.watch0;
+            this.watch0 = this.watch1;
+            this.watch1 = tmp;
+        }
+        final int other = mem[this.watch0];
+        if (this.voc.isSatisfied(other)) {
+            this.voc.watch(p, this, other);
+            return true;
+        }
+        // look for a new literal to watch, starting after the previous one
+        final int last = this.first + mem[this.first - 1];
+        int i = nextCandidate(this.watch1 + 1, last);
+        if (i < 0) {
+            i = nextCandidate(this.first, this.watch1);
+        }
+        if (i >= 0) {
+            this.watch1 = i;
+            this.voc.watch(mem[i] ^ 1, this, other);
+            return true;
+        }
+        // the clause is now either unit or null
+        this.voc.watch(p, this, other);
+        // propagates first watched literal
+        return s.enqueue(other, this);
+    }
+
+    private int nextCandidate(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (i != this.watch0 && !this.voc.isFalsified(this.block[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean propagatePI(MandatoryLiteralListener s, int p) {
+        final int[] mem = this.block;
+        if (mem[this.watch0] == (p ^ 1)) {
+            int tmp = this.watch0;
+            this.watch0 = this.watch1;
+            this.watch1 = tmp;
+        }
+        // look for a new satisfied literal to watch
+        final int last = this.first + mem[this.first - 1];
+        for (int i = this.first; i < last; i++) {
+            if (i != this.watch0 && i != this.watch1
+                    && this.voc.isSatisfied(mem[i])) {
+                this.watch1 = i;
+                this.voc.watch(mem[i] ^ 1, this);
+                return true;
+            }
+        }
+        // the clause is now either unit
+        this.voc.watch(p, this);
+        // first literal is mandatory
+        s.isMandatory(mem[this.watch0]);
+        return true;
+    }
+
+    public void calcReason(int p, IVecInt outReason) {
+        final int[] mem = this.block;
+        final int last = this.first + mem[this.first - 1];
+        for (int i = this.first; i < last; i++) {
+            if (mem[i] != p) {
+                assert this.voc.isFalsified(mem[i]);
+                outReason.push(mem[i] ^ 1);
+            }
+        }
+    }
+
+    public void calcReasonOnTheFly(int p, IVecInt trail, IVecInt outReason) {
+        calcReason(p, outReason);
+    }
+
+    public boolean locked() {
+        return this.voc.getReason(this.block[this.watch0]) == this;
+    }
+
+    public void assertConstraint(UnitPropagationListener s) {
+        boolean ret = s.enqueue(this.block[this.watch0], this);
+        assert ret;
+    }
+
+    public void assertConstraintIfNeeded(UnitPropagationListener s) {
+        if (this.voc.isFalsified(this.block[this.watch1])) {
+            boolean ret = s.enqueue(this.block[this.watch0], this);
+            assert ret;
+        }
+    }
+
+    public boolean canBePropagatedMultipleTimes() {
+        return false;
+    }
+
+    public Constr toConstraint() {
+        return this;
+    }
+
+    public boolean canBeSatisfiedByCountingLiterals() {
+        return true;
+    }
+
+    public int requiredNumberOfSatisfiedLiterals() {
+        return 1;
+    }
+
+    public boolean isSatisfied() {
+        return simplify();
+    }
+
+    public int getAssertionLevel(IVecInt trail, int decisionLevel) {
+        final int propagated = var(this.block[this.watch0]);
+        for (int i = trail.size() - 1; i >= 0; i--) {
+            if (var(trail.get(i)) == propagated) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stb = new StringBuilder();
+        for (int i = 0; i < size(); i++) {
+            stb.append(Lits.toString(get(i)));
+            stb.append("["); //$NON-NLS-1$
+            stb.append(this.voc.valueToString(get(i)));
+            stb.append("]"); //$NON-NLS-1$
+            stb.append(" "); //$NON-NLS-1$
+        }
+        return stb.toString();
+    }
+
+    public String toString(VarMapper mapper) {
+        if (mapper == null) {
+            return toString();
+        }
+        StringBuilder stb = new StringBuilder();
+        for (int i = 0; i < size(); i++) {
+            stb.append(mapper.map(LiteralsUtils.toDimacs(get(i))));
+            stb.append("["); //$NON-NLS-1$
+            stb.append(this.voc.valueToString(get(i)));
+            stb.append("]"); //$NON-NLS-1$
+            stb.append(" "); //$NON-NLS-1$
+        }
+        return stb.toString();
+    }
+}
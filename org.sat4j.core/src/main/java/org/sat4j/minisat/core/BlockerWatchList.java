@@ -0,0 +1,401 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.Propagatable;
+
+/**
+ * Watch list storing next to each watcher a blocker literal, i.e. a literal
+ * whose satisfaction means that the watcher does not need to be visited. The
+ * watchers and the blockers are kept in two parallel arrays.
+ * 
+ * Elements added through the {@link IVec} interface get
+ * {@link ILits#UNDEFINED} as blocker. Note that the elements are compared
+ * using their references, not using the equals method.
+ * 
+ * @since 2.3.6
+ */
+public final class BlockerWatchList implements IVec<Propagatable> {
+
+    private static final long serialVersionUID = 1L;
+
+    private Propagatable[] watchers;
+
+    private int[] blockers;
+
+    private int nbelem;
+
+    public BlockerWatchList() {
+        this(5);
+    }
+
+    public BlockerWatchList(int size) {
+        this.watchers = new Propagatable[size];
+        this.blockers = new int[size];
+    }
+
+    public int size() {
+        return this.nbelem;
+    }
+
+    /**
+     * Direct access to the watchers. Only the first {@link #size()} elements
+     * are meaningful.
+     * 
+     * @return the array of watchers.
+     */
+    public Propagatable[] watchers() {
+        return this.watchers;
+    }
+
+    /**
+     * Direct access to the blockers. Only the first {@link #size()} elements
+     * are meaningful.
+     * 
+     * @return the array of blockers, parallel to the array of watchers.
+     */
+    public int[] blockers() {
+        return this.blockers;
+    }
+
+    public int getBlocker(int i) {
+        return this.blockers[i];
+    }
+
+    public void shrink(int nofelems) {
+        while (nofelems-- > 0) {
+            this.watchers[--this.nbelem] = null;
+        }
+    }
+
+    public void shrinkTo(final int newsize) {
+        for (int i = this.nbelem; i > newsize; i--) {
+            this.watchers[i - 1] = null;
+        }
+        this.nbelem = newsize;
+    }
+
+    public void pop() {
+        this.watchers[--this.nbelem] = null;
+    }
+
+    public void growTo(final int newsize, final Propagatable pad) {
+        ensure(newsize);
+        for (int i = this.nbelem; i < newsize; i++) {
+            this.watchers[i] = pad;
+            this.blockers[i] = ILits.UNDEFINED;
+        }
+        this.nbelem = newsize;
+    }
+
+    public void ensure(final int nsize) {
+        if (nsize >= this.watchers.length) {
+            int capacity = Math.max(nsize, this.nbelem * 2);
+            Propagatable[] nwatchers = new Propagatable[capacity];
+            System.arraycopy(this.watchers, 0, nwatchers, 0, this.nbelem);
+            this.watchers = nwatchers;
+            int[] nblockers = new int[capacity];
+            System.arraycopy(this.blockers, 0, nblockers, 0, this.nbelem);
+            this.blockers = nblockers;
+        }
+    }
+
+    public IVec<Propagatable> push(final Propagatable elem) {
+        return push(elem, ILits.UNDEFINED);
+    }
+
+    /**
+     * Add a watcher together with its blocker.
+     * 
+     * @param elem
+     *            the watcher
+     * @param blocker
+     *            a literal whose satisfaction allows to skip the watcher, or
+     *            {@link ILits#UNDEFINED}.
+     * @return this
+     */
+    public BlockerWatchList push(final Propagatable elem, final int blocker) {
+        ensure(this.nbelem + 1);
+        this.watchers[this.nbelem] = elem;
+        this.blockers[this.nbelem++] = blocker;
+        return this;
+    }
+
+    public void unsafePush(final Propagatable elem) {
+        unsafePush(elem, ILits.UNDEFINED);
+    }
+
+    public void unsafePush(final Propagatable elem, final int blocker) {
+        this.watchers[this.nbelem] = elem;
+        this.blockers[this.nbelem++] = blocker;
+    }
+
+    public void insertFirst(final Propagatable elem) {
+        if (this.nbelem > 0) {
+            push(this.watchers[0], this.blockers[0]);
+            this.watchers[0] = elem;
+            this.blockers[0] = ILits.UNDEFINED;
+            return;
+        }
+        push(elem);
+    }
+
+    public void insertFirstWithShifting(final Propagatable elem) {
+        if (this.nbelem > 0) {
+            ensure(this.nbelem + 1);
+            System.arraycopy(this.watchers, 0, this.watchers, 1, this.nbelem);
+            System.arraycopy(this.blockers, 0, this.blockers, 1, this.nbelem);
+            this.watchers[0] = elem;
+            this.blockers[0] = ILits.UNDEFINED;
+            this.nbelem++;
+            return;
+        }
+        push(elem);
+    }
+
+    public void clear() {
+        for (int i = 0; i < this.nbelem; i++) {
+            this.watchers[i] = null;
+        }
+        this.nbelem = 0;
+    }
+
+    public Propagatable last() {
+        return this.watchers[this.nbelem - 1];
+    }
+
+    public Propagatable get(int i) {
+        return this.watchers[i];
+    }
+
+    public void set(int i, Propagatable o) {
+        this.watchers[i] = o;
+        this.blockers[i] = ILits.UNDEFINED;
+    }
+
+    public void remove(Propagatable elem) {
+        int j = 0;
+        for (; this.watchers[j] != elem; j++) {
+            if (j == size())
+                throw new NoSuchElementException();
+        }
+        removeAt(j);
+    }
+
+    public void removeFromLast(Propagatable elem) {
+        int j = this.nbelem - 1;
+        for (; this.watchers[j] != elem; j--) {
+            if (j == -1)
+                throw new NoSuchElementException();
+        }
+        removeAt(j);
+    }
+
+    private void removeAt(int j) {
+        System.arraycopy(this.watchers, j + 1, this.watchers, j,
+                size() - j - 1);
+        System.arraycopy(this.blockers, j + 1, this.blockers, j,
+                size() - j - 1);
+        this.watchers[--this.nbelem] = null;
+    }
+
+    public Propagatable delete(int i) {
+        Propagatable ith = this.watchers[i];
+        this.watchers[i] = this.watchers[--this.nbelem];
+        this.blockers[i] = this.blockers[this.nbelem];
+        this.watchers[this.nbelem] = null;
+        return ith;
+    }
+
+    public void copyTo(IVec<Propagatable> copy) {
+        if (copy instanceof BlockerWatchList) {
+            final BlockerWatchList ncopy = (BlockerWatchList) copy;
+            final int nsize = this.nbelem + ncopy.nbelem;
+            ncopy.ensure(nsize);
+            System.arraycopy(this.watchers, 0, ncopy.watchers, ncopy.nbelem,
+                    this.nbelem);
+            System.arraycopy(this.blockers, 0, ncopy.blockers, ncopy.nbelem,
+                    this.nbelem);
+            ncopy.nbelem = nsize;
+        } else {
+            copy.ensure(copy.size() + this.nbelem);
+            for (int i = 0; i < this.nbelem; i++) {
+                copy.unsafePush(this.watchers[i]);
+            }
+        }
+    }
+
+    public <E> void copyTo(E[] dest) {
+        System.arraycopy(this.watchers, 0, dest, 0, this.nbelem);
+    }
+
+    public Propagatable[] toArray() {
+        return this.watchers;
+    }
+
+    /**
+     * Move the content of the list to another one. When the destination is
+     * empty, the underlying arrays are exchanged, so the operation is done in
+     * constant time.
+     * 
+     * @param dest
+     *            a watch list.
+     */
+    public void moveTo(BlockerWatchList dest) {
+        if (dest.nbelem == 0) {
+            Propagatable[] tmpWatchers = dest.watchers;
+            int[] tmpBlockers = dest.blockers;
+            dest.watchers = this.watchers;
+            dest.blockers = this.blockers;
+            dest.nbelem = this.nbelem;
+            this.watchers = tmpWatchers;
+            this.blockers = tmpBlockers;
+            this.nbelem = 0;
+        } else {
+            copyTo(dest);
+            clear();
+        }
+    }
+
+    public void moveTo(IVec<Propagatable> dest) {
+        if (dest instanceof BlockerWatchList) {
+            moveTo((BlockerWatchList) dest);
+        } else {
+            copyTo(dest);
+            clear();
+        }
+    }
+
+    public void moveTo(int dest, int source) {
+        if (dest != source) {
+            this.watchers[dest] = this.watchers[source];
+            this.blockers[dest] = this.blockers[source];
+            this.watchers[source] = null;
+        }
+    }
+
+    private void swap(int i, int j) {
+        Propagatable tmp = this.watchers[i];
+        this.watchers[i] = this.watchers[j];
+        this.watchers[j] = tmp;
+        int btmp = this.blockers[i];
+        this.blockers[i] = this.blockers[j];
+        this.blockers[j] = btmp;
+    }
+
+    public void sort(Comparator<Propagatable> comparator) {
+        // watch lists are not expected to be sorted: a simple insertion sort
+        // keeps watchers and blockers in sync.
+        for (int i = 1; i < this.nbelem; i++) {
+            for (int j = i; j > 0 && comparator.compare(this.watchers[j - 1],
+                    this.watchers[j]) > 0; j--) {
+                swap(j, j - 1);
+            }
+        }
+    }
+
+    public void sortUnique(Comparator<Propagatable> comparator) {
+        if (this.nbelem == 0) {
+            return;
+        }
+        sort(comparator);
+        int i = 1;
+        for (int j = 1; j < this.nbelem; j++) {
+            if (comparator.compare(this.watchers[i - 1],
+                    this.watchers[j]) < 0) {
+                moveTo(i++, j);
+            }
+        }
+        shrinkTo(i);
+    }
+
+    public boolean isEmpty() {
+        return this.nbelem == 0;
+    }
+
+    public Iterator<Propagatable> iterator() {
+        return new Iterator<Propagatable>() {
+            private int i = 0;
+
+            public boolean hasNext() {
+                return this.i < BlockerWatchList.this.nbelem;
+            }
+
+            public Propagatable next() {
+                if (this.i == BlockerWatchList.this.nbelem) {
+                    throw new NoSuchElementException();
+                }
+                return BlockerWatchList.this.watchers[this.i++];
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    public boolean contains(Propagatable element) {
+        return indexOf(element) >= 0;
+    }
+
+    public int indexOf(Propagatable element) {
+        for (int i = 0; i < this.nbelem; i++) {
+            if (this.watchers[i].equals(element)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public IVec<Propagatable> clone() {
+        BlockerWatchList cloned = new BlockerWatchList(Math.max(5,
+                this.nbelem));
+        copyTo(cloned);
+        return cloned;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stb = new StringBuilder();
+        for (int i = 0; i < this.nbelem; i++) {
+            if (i > 0) {
+                stb.append(","); //$NON-NLS-1$
+            }
+            stb.append(this.watchers[i]);
+        }
+        return stb.toString();
+    }
+}
@@ -29,6 +29,7 @@
  *******************************************************************************/
 package org.sat4j.minisat.core;
 
+import org.sat4j.minisat.constraints.cnf.BinaryImplicationTable;
 import org.sat4j.specs.Constr;
 import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.IVec;
@@ -97,4 +98,22 @@ public interface DataStructureFactory {
      *            the index of the conflicting constraint
      */
     void conflictDetectedInWatchesFor(int p, int i);
+
+    /**
+     * Hook method called once the solver has reduced its learned constraints
+     * database, so that the factory can reclaim the space used by the removed
+     * constraints.
+     * 
+     * @since 2.3.6
+     */
+    void onReduceDB();
+
+    /**
+     * Access to the binary clauses stored outside the watch lists, if any.
+     * 
+     * @return the table of binary implications to propagate before the
+     *         watched constraints, or null if all the constraints are watched.
+     * @since 2.3.6
+     */
+    BinaryImplicationTable getBinaryImplications();
 }
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import java.io.Serializable;
+
+/**
+ * Time limit and cancellation token for the search. The solver checks it
+ * regularly using {@link System#nanoTime()}, so no thread is needed to
+ * enforce a time based timeout.
+ * 
+ * The same deadline may be shared by several solvers, possibly running
+ * concurrently: cancelling it stops all of them.
+ * 
+ * @since 2.3.6
+ */
+public final class Deadline implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long expiration;
+
+    private final boolean bounded;
+
+    private volatile boolean cancelled;
+
+    private Deadline(long expiration, boolean bounded) {
+        this.expiration = expiration;
+        this.bounded = bounded;
+    }
+
+    /**
+     * Create a deadline expiring after a given delay.
+     * 
+     * @param delayInMs
+     *            the delay in milliseconds.
+     * @return a deadline expiring delayInMs milliseconds from now.
+     */
+    public static Deadline in(long delayInMs) {
+        return new Deadline(System.nanoTime() + delayInMs * 1000000L, true);
+    }
+
+    /**
+     * Create a deadline which only expires when it is cancelled.
+     * 
+     * @return a cancellation token.
+     */
+    public static Deadline never() {
+        return new Deadline(0L, false);
+    }
+
+    /**
+     * Cancel the deadline. Can be called from any thread.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * 
+     * @return true iff the deadline has been cancelled or the time limit is
+     *         reached.
+     */
+    public boolean hasExpired() {
+        return this.cancelled || this.bounded
+                && System.nanoTime() - this.expiration >= 0;
+    }
+
+    /**
+     * 
+     * @return the number of milliseconds before expiration, or
+     *         {@link Long#MAX_VALUE} for a deadline without time limit.
+     */
+    public long remainingMs() {
+        if (this.cancelled) {
+            return 0L;
+        }
+        if (!this.bounded) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0L, (this.expiration - System.nanoTime()) / 1000000L);
+    }
+}
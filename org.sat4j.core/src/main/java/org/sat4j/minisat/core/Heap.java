@@ -31,13 +31,17 @@ package org.sat4j.minisat.core;
 
 import java.io.Serializable;
 
-import org.sat4j.core.VecInt;
+import org.sat4j.minisat.orders.ActivityBasedVariableComparator;
 import org.sat4j.minisat.orders.VariableComparator;
-import org.sat4j.specs.IVecInt;
 
 /**
  * Heap implementation used to maintain the variables order in some heuristics.
  * 
+ * The heap and the index of each variable in the heap are stored in arrays of
+ * ints sized by {@link #setBounds(int)}. When the variables are ordered by
+ * their activity only, the heap compares the activities directly instead of
+ * calling the comparator.
+ * 
  * @author daniel
  * 
  */
@@ -60,82 +64,161 @@ public final class Heap implements Serializable {
         return i >> 1;
     }
 
-    private final IVecInt heap = new VecInt(); // heap of ints
+    private int[] heap = new int[1]; // heap of ints, starting at index 1
+
+    private int size = 0; // number of ints in the heap
 
-    private final IVecInt indices = new VecInt(); // int -> index in heap
+    private int[] indices = new int[0]; // int -> index in heap
 
     private final VariableComparator comparator;
 
+    /**
+     * the activity of the variables, if the heap is ordered by activity only.
+     */
+    private final double[] activity;
+
     void percolateUp(int i) {
-        int x = this.heap.get(i);
+        if (this.activity != null) {
+            percolateUpOnActivity(i);
+            return;
+        }
+        int[] h = this.heap;
+        int x = h[i];
         int p = parent(i);
-        while (i != 1 && comparator.preferredTo(x, this.heap.get(p))) {
-            this.heap.set(i, this.heap.get(p));
-            this.indices.set(this.heap.get(p), i);
+        while (i != 1 && comparator.preferredTo(x, h[p])) {
+            h[i] = h[p];
+            this.indices[h[p]] = i;
             i = p;
             p = parent(p);
         }
-        this.heap.set(i, x);
-        this.indices.set(x, i);
+        h[i] = x;
+        this.indices[x] = i;
+    }
+
+    private void percolateUpOnActivity(int i) {
+        int[] h = this.heap;
+        double[] act = this.activity;
+        int x = h[i];
+        double ax = act[x];
+        int p = parent(i);
+        while (i != 1 && ax > act[h[p]]) {
+            h[i] = h[p];
+            this.indices[h[p]] = i;
+            i = p;
+            p = parent(p);
+        }
+        h[i] = x;
+        this.indices[x] = i;
     }
 
     void percolateDown(int i) {
-        int x = this.heap.get(i);
-        while (left(i) < this.heap.size()) {
-            int child = right(i) < this.heap.size()
-                    && comparator.preferredTo(this.heap.get(right(i)),
-                            this.heap.get(left(i))) ? right(i) : left(i);
-            if (!comparator.preferredTo(this.heap.get(child), x)) {
+        if (this.activity != null) {
+            percolateDownOnActivity(i);
+            return;
+        }
+        int[] h = this.heap;
+        int n = this.size + 1;
+        int x = h[i];
+        while (left(i) < n) {
+            int child = right(i) < n
+                    && comparator.preferredTo(h[right(i)], h[left(i)])
+                            ? right(i) : left(i);
+            if (!comparator.preferredTo(h[child], x)) {
+                break;
+            }
+            h[i] = h[child];
+            this.indices[h[i]] = i;
+            i = child;
+        }
+        h[i] = x;
+        this.indices[x] = i;
+    }
+
+    private void percolateDownOnActivity(int i) {
+        int[] h = this.heap;
+        double[] act = this.activity;
+        int n = this.size + 1;
+        int x = h[i];
+        double ax = act[x];
+        while (left(i) < n) {
+            int child = left(i);
+            double ac = act[h[child]];
+            if (child + 1 < n && act[h[child + 1]] > ac) {
+                child++;
+                ac = act[h[child]];
+            }
+            if (!(ac > ax)) {
                 break;
             }
-            this.heap.set(i, this.heap.get(child));
-            this.indices.set(this.heap.get(i), i);
+            h[i] = h[child];
+            this.indices[h[i]] = i;
             i = child;
         }
-        this.heap.set(i, x);
-        this.indices.set(x, i);
+        h[i] = x;
+        this.indices[x] = i;
     }
 
     boolean ok(int n) {
-        return n >= 0 && n < this.indices.size();
+        return n >= 0 && n < this.indices.length;
     }
 
     public Heap(VariableComparator comparator) { // NOPMD
         this.comparator = comparator;
-        this.heap.push(-1);
+        this.activity = null;
+    }
+
+    /**
+     * Create a heap of variables ordered by decreasing activity.
+     * 
+     * @param activity
+     *            the activity of each variable. The array is not copied.
+     * @since 2.3.6
+     */
+    public Heap(double[] activity) { // NOPMD
+        this.comparator = new ActivityBasedVariableComparator(activity);
+        this.activity = activity;
     }
 
     public void setBounds(int size) {
         assert size >= 0;
-        this.indices.growTo(size, 0);
+        if (size > this.indices.length) {
+            int[] newindices = new int[size];
+            System.arraycopy(this.indices, 0, newindices, 0,
+                    this.indices.length);
+            this.indices = newindices;
+            int[] newheap = new int[size + 1];
+            System.arraycopy(this.heap, 0, newheap, 0, this.size + 1);
+            this.heap = newheap;
+        }
     }
 
     public boolean inHeap(int n) {
         assert ok(n);
-        return this.indices.get(n) != 0;
+        return this.indices[n] != 0;
     }
 
     public void increase(int n) {
         assert ok(n);
         assert inHeap(n);
-        percolateUp(this.indices.get(n));
+        percolateUp(this.indices[n]);
     }
 
     public boolean empty() {
-        return this.heap.size() == 1;
+        return this.size == 0;
     }
 
     public int size() {
-        return this.heap.size() - 1;
+        return this.size;
     }
 
     public int get(int i) {
-        int r = this.heap.get(i);
-        this.heap.set(i, this.heap.last());
-        this.indices.set(this.heap.get(i), i);
-        this.indices.set(r, 0);
-        this.heap.pop();
-        if (this.heap.size() > 1) {
+        int[] h = this.heap;
+        int r = h[i];
+        h[i] = h[this.size];
+        this.indices[h[i]] = i;
+        this.indices[r] = 0;
+        this.size--;
+        if (this.size > 0) {
             percolateDown(1);
         }
         return r;
@@ -143,23 +226,51 @@ public final class Heap implements Serializable {
 
     public void insert(int n) {
         assert ok(n);
-        this.indices.set(n, this.heap.size());
-        this.heap.push(n);
-        percolateUp(this.indices.get(n));
+        int i = ++this.size;
+        if (i == this.heap.length) {
+            // only if an int is inserted twice
+            int[] newheap = new int[i << 1];
+            System.arraycopy(this.heap, 0, newheap, 0, i);
+            this.heap = newheap;
+        }
+        this.heap[i] = n;
+        this.indices[n] = i;
+        percolateUp(i);
     }
 
     public int getmin() {
         return get(1);
     }
 
+    /**
+     * Remove an int from the heap.
+     * 
+     * @param n
+     *            an int in the heap.
+     * @since 2.3.6
+     */
+    public void remove(int n) {
+        assert ok(n);
+        assert inHeap(n);
+        int i = this.indices[n];
+        int last = this.heap[this.size--];
+        this.indices[n] = 0;
+        if (last != n) {
+            this.heap[i] = last;
+            this.indices[last] = i;
+            percolateUp(i);
+            percolateDown(this.indices[last]);
+        }
+    }
+
     public boolean heapProperty() {
         return heapProperty(1);
     }
 
     public boolean heapProperty(int i) {
-        return i >= this.heap.size()
-                || (parent(i) == 0 || !comparator.preferredTo(this.heap.get(i),
-                        this.heap.get(parent(i)))) && heapProperty(left(i))
+        return i > this.size
+                || (parent(i) == 0 || !comparator.preferredTo(this.heap[i],
+                        this.heap[parent(i)])) && heapProperty(left(i))
                 && heapProperty(right(i));
     }
 
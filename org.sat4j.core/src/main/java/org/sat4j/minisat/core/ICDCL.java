@@ -29,6 +29,11 @@
  *******************************************************************************/
 package org.sat4j.minisat.core;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.ILogAble;
 import org.sat4j.specs.ISolver;
 import org.sat4j.specs.UnitPropagationListener;
@@ -142,4 +147,61 @@ public interface ICDCL<D extends DataStructureFactory> extends ISolver,
     void setLogger(ILogAble out);
 
     ILogAble getLogger();
-}
\ No newline at end of file
+
+    /**
+     * Use a deadline instead of the timeout for the next calls to
+     * isSatisfiable(). That deadline can be shared among several solvers, and
+     * cancelled from any thread. No thread is created to enforce it.
+     * 
+     * @param deadline
+     *            a deadline, or null to use the timeout again.
+     * @since 2.3.6
+     */
+    void setDeadline(Deadline deadline);
+
+    /**
+     * 
+     * @return the deadline set using {@link #setDeadline(Deadline)}, or null
+     *         if the timeout is used.
+     * @since 2.3.6
+     */
+    Deadline getDeadline();
+
+    /**
+     * Save the state of the solver in a compact binary form: the original
+     * clauses simplified by the literals fixed at decision level 0, those
+     * literals, the learned clauses and the activity and saved phase of the
+     * variables. That method is expected to be called between two calls to
+     * isSatisfiable(). The stream is not closed.
+     * 
+     * @param out
+     *            the stream receiving the snapshot.
+     * @param maxLBD
+     *            the learned clauses whose LBD is greater than that value are
+     *            not saved. The LBD recorded by the LBD based deletion
+     *            strategies is used. With other strategies, the LBD is
+     *            computed from the current decision levels, each unassigned
+     *            literal counting for one level: between two calls, it is
+     *            the size of the clause simplified at decision level 0.
+     * @throws UnsupportedOperationException
+     *             if the solver contains constraints other than clauses or if
+     *             variables have been eliminated by the inprocessor.
+     * @since 2.3.6
+     */
+    void saveSnapshot(OutputStream out, int maxLBD) throws IOException;
+
+    /**
+     * Load a snapshot saved by {@link #saveSnapshot(OutputStream, int)} into
+     * an empty solver. The activity and the phase of the variables are set
+     * when the search starts, so that the solver resumes with warm
+     * heuristics. The stream is not closed.
+     * 
+     * @param in
+     *            a stream containing a snapshot.
+     * @throws ContradictionException
+     *             if the snapshot contains a trivial inconsistency.
+     * @since 2.3.6
+     */
+    void loadSnapshot(InputStream in) throws IOException,
+            ContradictionException;
+}
@@ -246,6 +246,24 @@ public interface ILits {
      */
     void watch(int lit, Propagatable c);
 
+    /**
+     * Record a new constraint to watch when a literal is satisfied, together
+     * with a blocker literal. The blocker is a literal of the constraint whose
+     * satisfaction means that the constraint is satisfied, so the solver may
+     * skip the constraint during propagation when the blocker is satisfied.
+     * Vocabularies that do not store blockers simply ignore it.
+     * 
+     * @param lit
+     *            a literal in internal representation.
+     * @param c
+     *            a constraint that contains the negation of that literal.
+     * @param blocker
+     *            a literal of c in internal representation, or
+     *            {@link #UNDEFINED}.
+     * @since 2.3.6
+     */
+    void watch(int lit, Propagatable c, int blocker);
+
     /**
      * @param lit
      *            a literal in internal representation.
@@ -150,4 +150,27 @@ public interface IOrder {
      * @since 2.3.2
      */
     double[] getVariableHeuristics();
+
+    /**
+     * Set the value of the heuristics for each variable, e.g. to restore the
+     * state of a previous session. That method is supposed to be called AFTER
+     * init().
+     * 
+     * @param heuristics
+     *            the value of the heuristics for each variable (using Dimacs
+     *            index).
+     * @since 2.3.6
+     */
+    void setVariableHeuristics(double[] heuristics);
+
+    /**
+     * Remove a variable from the heuristics, so that it is not selected
+     * anymore, e.g. because it has been eliminated from the formula. The
+     * variable is put back in the heuristics by {@link #undo(int)}.
+     * 
+     * @param var
+     *            an unassigned variable (Dimacs index).
+     * @since 2.3.6
+     */
+    void removeVariable(int var);
 }
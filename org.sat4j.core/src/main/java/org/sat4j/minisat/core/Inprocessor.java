@@ -0,0 +1,997 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.sat4j.core.LiteralsUtils.negLit;
+import static org.sat4j.core.LiteralsUtils.posLit;
+import static org.sat4j.core.LiteralsUtils.toDimacs;
+import static org.sat4j.core.LiteralsUtils.toInternal;
+import static org.sat4j.core.LiteralsUtils.var;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.sat4j.core.Vec;
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+
+/**
+ * Simplification of the formula at the root level, between two restarts:
+ * failed literal probing, subsumption and self subsuming resolution and
+ * bounded variable elimination on the original clauses, vivification of the
+ * learned clauses.
+ * 
+ * Each run is limited by an effort, roughly the number of literals visited.
+ * The eliminated variables get their value from the removed clauses when a
+ * model is found. They are put back in the formula as soon as they appear in
+ * the assumptions or in a new constraint. The variables of the constraints
+ * which are not clauses, and the variables used in assumptions, are never
+ * eliminated. The eliminated variables are removed from the heuristics.
+ * 
+ * The constraints removed or added by the inprocessor are recorded, so that
+ * the original formula can be restored when a constraint is removed from the
+ * solver: the simplifications are then done again by the next runs.
+ * 
+ * @since 2.3.6
+ */
+public class Inprocessor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Variables with more occurrences are not considered for elimination.
+     */
+    private static final int ELIMINATION_OCCURRENCES_LIMIT = 32;
+
+    /**
+     * Variables producing larger resolvents are not eliminated.
+     */
+    private static final int RESOLVENT_SIZE_LIMIT = 24;
+
+    private static final int SUBSUMES = -1;
+
+    private static final int NONE = -2;
+
+    private Solver<? extends DataStructureFactory> solver;
+
+    private long effort = 10000000L;
+
+    private int conflictsBetweenRuns = 5000;
+
+    private boolean probing = true;
+
+    private boolean subsumption = true;
+
+    private boolean elimination = true;
+
+    private boolean vivification = true;
+
+    private long nextRun;
+
+    private long budget;
+
+    private boolean unsat;
+
+    private int nextProbe = 1;
+
+    private boolean[] eliminated = new boolean[0];
+
+    private boolean[] protectedVars = new boolean[0];
+
+    private int nbEliminated;
+
+    /**
+     * Clauses removed by variable elimination, in Dimacs format, the literal
+     * of the eliminated variable first.
+     */
+    private final IVec<int[]> eliminationStack = new Vec<int[]>();
+
+    /**
+     * Constraints removed by variable elimination, in the order of the
+     * elimination stack.
+     */
+    private final IVec<Constr> eliminatedConstrs = new Vec<Constr>();
+
+    /**
+     * Original constraints removed by subsumption or self subsuming
+     * resolution.
+     */
+    private final IVec<Constr> detached = new Vec<Constr>();
+
+    /**
+     * Constraints added by the inprocessor: resolvents and strengthened
+     * clauses.
+     */
+    private final Set<Constr> added = Collections
+            .newSetFromMap(new IdentityHashMap<Constr, Boolean>());
+
+    // occurrence lists of the original clauses, built for each run
+
+    private final IVec<int[]> clauses = new Vec<int[]>();
+
+    private final IVec<Constr> sources = new Vec<Constr>();
+
+    private transient IVecInt[] occurrences;
+
+    private transient boolean[] frozen;
+
+    private int[] marks = new int[0];
+
+    private int stamp;
+
+    private final Set<Constr> removed = Collections
+            .newSetFromMap(new IdentityHashMap<Constr, Boolean>());
+
+    void setSolver(Solver<? extends DataStructureFactory> solver) {
+        this.solver = solver;
+    }
+
+    /**
+     * @param effort
+     *            the number of literals that can be visited during each run.
+     */
+    public void setEffort(long effort) {
+        this.effort = effort;
+    }
+
+    public long getEffort() {
+        return this.effort;
+    }
+
+    /**
+     * @param conflictsBetweenRuns
+     *            the number of conflicts between two runs. The first run
+     *            occurs before the search.
+     */
+    public void setConflictsBetweenRuns(int conflictsBetweenRuns) {
+        this.conflictsBetweenRuns = conflictsBetweenRuns;
+    }
+
+    public int getConflictsBetweenRuns() {
+        return this.conflictsBetweenRuns;
+    }
+
+    public void setProbing(boolean probing) {
+        this.probing = probing;
+    }
+
+    public void setSubsumption(boolean subsumption) {
+        this.subsumption = subsumption;
+    }
+
+    public void setElimination(boolean elimination) {
+        this.elimination = elimination;
+    }
+
+    public void setVivification(boolean vivification) {
+        this.vivification = vivification;
+    }
+
+    boolean isDue() {
+        return this.solver.stats.conflicts >= this.nextRun;
+    }
+
+    public boolean hasEliminatedVariables() {
+        return this.nbEliminated > 0;
+    }
+
+    /**
+     * Simplify the formula. The solver must be at the root level.
+     * 
+     * @return false iff the formula is found unsatisfiable.
+     */
+    boolean inprocess() {
+        if (this.unsat) {
+            return false;
+        }
+        assert this.solver.decisionLevel() == 0;
+        ensureCapacity();
+        this.solver.stats.inprocessings++;
+        this.budget = this.effort;
+        try {
+            if (this.solver.propagate() != null) {
+                return contradiction();
+            }
+            removeSatisfied();
+            if (this.probing && !probe()) {
+                return contradiction();
+            }
+            if (this.subsumption || this.elimination) {
+                try {
+                    buildOccurrences();
+                    if (this.subsumption && !subsume()) {
+                        return contradiction();
+                    }
+                    if (this.elimination && !eliminate()) {
+                        return contradiction();
+                    }
+                } finally {
+                    commitRemovals();
+                }
+            }
+            if (this.vivification && !vivify()) {
+                return contradiction();
+            }
+            removeSatisfied();
+            return true;
+        } finally {
+            this.nextRun = this.solver.stats.conflicts
+                    + this.conflictsBetweenRuns;
+        }
+    }
+
+    private boolean contradiction() {
+        this.solver.cancelUntil(0);
+        this.unsat = true;
+        return false;
+    }
+
+    private void ensureCapacity() {
+        int size = this.solver.voc.nVars() + 1;
+        if (this.eliminated.length < size) {
+            this.eliminated = Arrays.copyOf(this.eliminated, size);
+            this.protectedVars = Arrays.copyOf(this.protectedVars, size);
+        }
+        if (this.marks.length < 2 * size) {
+            this.marks = new int[2 * size];
+            this.stamp = 0;
+        }
+    }
+
+    static boolean isClause(Constr constr) {
+        try {
+            return constr.canBeSatisfiedByCountingLiterals()
+                    && constr.requiredNumberOfSatisfiedLiterals() == 1;
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    // failed literal probing
+
+    private boolean probe() {
+        ILits voc = this.solver.voc;
+        int nvars = voc.nVars();
+        for (int i = 0; i < nvars && this.budget > 0; i++) {
+            int var = this.nextProbe;
+            this.nextProbe = var % nvars + 1;
+            if (!voc.belongsToPool(var) || this.eliminated[var]) {
+                continue;
+            }
+            if (!probe(posLit(var)) || !probe(negLit(var))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean probe(int p) {
+        if (!this.solver.voc.isUnassigned(p)) {
+            return true;
+        }
+        int before = this.solver.trail.size();
+        this.solver.assume(p);
+        boolean failed = this.solver.propagate() != null;
+        this.budget -= this.solver.trail.size() - before;
+        this.solver.cancelUntil(0);
+        if (failed) {
+            this.solver.stats.failedLiterals++;
+            this.solver.slistener.learnUnit(toDimacs(p ^ 1));
+            return this.solver.enqueue(p ^ 1)
+                    && this.solver.propagate() == null;
+        }
+        return true;
+    }
+
+    // occurrence lists
+
+    private void buildOccurrences() {
+        ILits voc = this.solver.voc;
+        int nvars = voc.nVars();
+        this.occurrences = new IVecInt[2 * (nvars + 1)];
+        for (int i = 2; i < this.occurrences.length; i++) {
+            this.occurrences[i] = new VecInt();
+        }
+        this.frozen = Arrays.copyOf(this.protectedVars, nvars + 1);
+        IVec<Constr> constrs = this.solver.constrs;
+        for (int i = 0; i < constrs.size(); i++) {
+            Constr constr = constrs.get(i);
+            if (isClause(constr)) {
+                int[] lits = literalsOf(constr);
+                if (lits != null && lits.length > 1) {
+                    add(lits, constr);
+                }
+            } else {
+                try {
+                    for (int j = 0; j < constr.size(); j++) {
+                        this.frozen[var(constr.get(j))] = true;
+                    }
+                } catch (UnsupportedOperationException e) {
+                    // the variables of that constraint are unknown
+                    Arrays.fill(this.frozen, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the literals of the clause not falsified at the root level,
+     *         null if the clause is satisfied.
+     */
+    private int[] literalsOf(Constr constr) {
+        ILits voc = this.solver.voc;
+        IVecInt lits = new VecInt(constr.size());
+        for (int i = 0; i < constr.size(); i++) {
+            int p = constr.get(i);
+            if (voc.isSatisfied(p)) {
+                return null;
+            }
+            if (voc.isUnassigned(p)) {
+                lits.push(p);
+            }
+        }
+        int[] result = new int[lits.size()];
+        lits.copyTo(result);
+        return result;
+    }
+
+    private void add(int[] lits, Constr source) {
+        int index = this.clauses.size();
+        this.clauses.push(lits);
+        this.sources.push(source);
+        for (int p : lits) {
+            this.occurrences[p].push(index);
+        }
+    }
+
+    private void remove(int index) {
+        this.clauses.set(index, null);
+        Constr constr = this.sources.get(index);
+        detach(constr);
+        this.removed.add(constr);
+    }
+
+    /**
+     * Removes a constraint from the solver. The original constraints are
+     * recorded to be put back by {@link #undo()}.
+     */
+    private void detach(Constr constr) {
+        this.solver.detach(constr);
+        this.solver.slistener.delete(constr);
+        if (!this.added.remove(constr)) {
+            this.detached.push(constr);
+        }
+    }
+
+    /**
+     * Removes the constraints satisfied at the root level, like
+     * {@link Solver#simplifyDB()} but keeping track of the original ones.
+     */
+    private void removeSatisfied() {
+        IVec<Constr> constrs = this.solver.constrs;
+        int j = 0;
+        for (int i = 0; i < constrs.size(); i++) {
+            Constr constr = constrs.get(i);
+            if (constr.simplify()) {
+                detach(constr);
+            } else {
+                constrs.moveTo(j++, i);
+            }
+        }
+        constrs.shrinkTo(j);
+        IVec<Constr> learnts = this.solver.learnts;
+        j = 0;
+        for (int i = 0; i < learnts.size(); i++) {
+            Constr learnt = learnts.get(i);
+            if (learnt.simplify()) {
+                this.solver.slistener.delete(learnt);
+                learnt.remove(this.solver);
+            } else {
+                learnts.moveTo(j++, i);
+            }
+        }
+        learnts.shrinkTo(j);
+    }
+
+    /**
+     * Adds a new original clause to the solver, and to the occurrence lists.
+     * 
+     * @return false iff a contradiction is found.
+     */
+    private boolean addClause(IVecInt lits) {
+        Constr constr;
+        try {
+            constr = this.solver.dsfactory.createClause(lits);
+        } catch (ContradictionException e) {
+            return false;
+        }
+        this.solver.addConstr(constr);
+        if (constr != null) {
+            this.added.add(constr);
+            this.solver.slistener.learn(constr);
+            if (constr.size() > 1) {
+                int[] newlits = literalsOf(constr);
+                if (newlits != null) {
+                    add(newlits, constr);
+                }
+            }
+        }
+        return this.solver.propagate() == null;
+    }
+
+    private void commitRemovals() {
+        if (!this.removed.isEmpty()) {
+            IVec<Constr> constrs = this.solver.constrs;
+            int j = 0;
+            for (int i = 0; i < constrs.size(); i++) {
+                if (!this.removed.contains(constrs.get(i))) {
+                    constrs.moveTo(j++, i);
+                }
+            }
+            constrs.shrinkTo(j);
+            this.removed.clear();
+        }
+        this.clauses.clear();
+        this.sources.clear();
+        this.occurrences = null;
+        this.frozen = null;
+    }
+
+    // subsumption and self subsuming resolution
+
+    private boolean subsume() {
+        int n = this.clauses.size();
+        // shortest clauses first
+        int maxsize = 0;
+        for (int i = 0; i < n; i++) {
+            maxsize = Math.max(maxsize, this.clauses.get(i).length);
+        }
+        int[] counts = new int[maxsize + 2];
+        for (int i = 0; i < n; i++) {
+            counts[this.clauses.get(i).length + 1]++;
+        }
+        for (int i = 1; i < counts.length; i++) {
+            counts[i] += counts[i - 1];
+        }
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[counts[this.clauses.get(i).length]++] = i;
+        }
+        for (int k = 0; k < n && this.budget > 0; k++) {
+            int c = order[k];
+            int[] lits = this.clauses.get(c);
+            if (lits == null) {
+                continue;
+            }
+            // the clause to strengthen contains p or its negation
+            int p = lits[0];
+            int best = Integer.MAX_VALUE;
+            for (int q : lits) {
+                int occ = this.occurrences[q].size()
+                        + this.occurrences[q ^ 1].size();
+                if (occ < best) {
+                    best = occ;
+                    p = q;
+                }
+            }
+            if (!subsumeWith(c, p) || !subsumeWith(c, p ^ 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean subsumeWith(int c, int p) {
+        IVecInt occ = this.occurrences[p];
+        for (int i = 0; i < occ.size() && this.budget > 0; i++) {
+            int[] lits = this.clauses.get(c);
+            int d = occ.get(i);
+            int[] other = this.clauses.get(d);
+            if (lits == null) {
+                return true;
+            }
+            if (d == c || other == null || other.length < lits.length) {
+                continue;
+            }
+            this.budget -= lits.length + other.length;
+            int result = subsumes(lits, other);
+            if (result == SUBSUMES) {
+                remove(d);
+                this.solver.stats.subsumedClauses++;
+            } else if (result != NONE) {
+                this.solver.stats.strengthenedClauses++;
+                if (!strengthen(d, result)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return SUBSUMES if c subsumes d, the literal that can be removed from d
+     *         by self subsuming resolution, else NONE.
+     */
+    private int subsumes(int[] c, int[] d) {
+        this.stamp++;
+        for (int p : d) {
+            this.marks[p] = this.stamp;
+        }
+        int result = SUBSUMES;
+        for (int p : c) {
+            if (this.marks[p] == this.stamp) {
+                continue;
+            }
+            if (result == SUBSUMES && this.marks[p ^ 1] == this.stamp) {
+                result = p ^ 1;
+                continue;
+            }
+            return NONE;
+        }
+        return result;
+    }
+
+    private boolean strengthen(int d, int p) {
+        int[] lits = this.clauses.get(d);
+        IVecInt newlits = new VecInt(lits.length - 1);
+        for (int q : lits) {
+            if (q != p) {
+                newlits.push(q);
+            }
+        }
+        // the new clause is added before removing the old one for proofs
+        Constr old = this.sources.get(d);
+        this.clauses.set(d, null);
+        boolean consistent = addClause(newlits);
+        detach(old);
+        this.removed.add(old);
+        return consistent;
+    }
+
+    // bounded variable elimination
+
+    private boolean eliminate() {
+        ILits voc = this.solver.voc;
+        int nvars = voc.nVars();
+        // variables with few occurrences first
+        long[] candidates = new long[nvars];
+        int n = 0;
+        for (int var = 1; var <= nvars; var++) {
+            if (canBeEliminated(var)) {
+                long occ = this.occurrences[posLit(var)].size()
+                        + this.occurrences[negLit(var)].size();
+                candidates[n++] = occ << 32 | var;
+            }
+        }
+        Arrays.sort(candidates, 0, n);
+        for (int i = 0; i < n && this.budget > 0; i++) {
+            int var = (int) candidates[i];
+            if (canBeEliminated(var) && !tryToEliminate(var)) {
+                return false;
+            }
+        }
+        removeLearntsWithEliminatedVariables();
+        return true;
+    }
+
+    private boolean canBeEliminated(int var) {
+        ILits voc = this.solver.voc;
+        return voc.belongsToPool(var) && !this.eliminated[var]
+                && !this.frozen[var] && voc.isUnassigned(posLit(var));
+    }
+
+    private IVecInt liveOccurrences(int p) {
+        IVecInt occ = this.occurrences[p];
+        int j = 0;
+        for (int i = 0; i < occ.size(); i++) {
+            int[] lits = this.clauses.get(occ.get(i));
+            if (lits != null && contains(lits, p)) {
+                occ.set(j++, occ.get(i));
+            }
+        }
+        occ.shrinkTo(j);
+        return occ;
+    }
+
+    private static boolean contains(int[] lits, int p) {
+        for (int q : lits) {
+            if (q == p) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean tryToEliminate(int var) {
+        int pos = posLit(var);
+        int neg = negLit(var);
+        IVecInt posOcc = liveOccurrences(pos);
+        IVecInt negOcc = liveOccurrences(neg);
+        int total = posOcc.size() + negOcc.size();
+        if (total == 0 || total > ELIMINATION_OCCURRENCES_LIMIT) {
+            return true;
+        }
+        IVec<IVecInt> resolvents = new Vec<IVecInt>();
+        for (int i = 0; i < posOcc.size(); i++) {
+            for (int j = 0; j < negOcc.size(); j++) {
+                IVecInt resolvent = resolve(
+                        this.clauses.get(posOcc.get(i)),
+                        this.clauses.get(negOcc.get(j)), var);
+                if (resolvent != null) {
+                    if (resolvents.size() == total
+                            || resolvent.size() > RESOLVENT_SIZE_LIMIT) {
+                        // the formula would grow
+                        return true;
+                    }
+                    resolvents.push(resolvent);
+                }
+            }
+        }
+        this.eliminated[var] = true;
+        this.nbEliminated++;
+        this.solver.stats.eliminatedVariables++;
+        this.solver.getOrder().removeVariable(var);
+        for (int i = 0; i < resolvents.size(); i++) {
+            if (!addClause(resolvents.get(i))) {
+                return false;
+            }
+        }
+        for (int i = 0; i < posOcc.size(); i++) {
+            save(posOcc.get(i), pos);
+        }
+        for (int i = 0; i < negOcc.size(); i++) {
+            save(negOcc.get(i), neg);
+        }
+        return true;
+    }
+
+    private IVecInt resolve(int[] c, int[] d, int var) {
+        this.budget -= c.length + d.length;
+        this.stamp++;
+        IVecInt resolvent = new VecInt(c.length + d.length - 2);
+        for (int p : c) {
+            if (var(p) != var) {
+                this.marks[p] = this.stamp;
+                resolvent.push(p);
+            }
+        }
+        for (int p : d) {
+            if (var(p) == var || this.marks[p] == this.stamp) {
+                continue;
+            }
+            if (this.marks[p ^ 1] == this.stamp) {
+                // tautology
+                return null;
+            }
+            resolvent.push(p);
+        }
+        return resolvent;
+    }
+
+    private void save(int index, int pivot) {
+        int[] lits = this.clauses.get(index);
+        int[] saved = new int[lits.length];
+        saved[0] = toDimacs(pivot);
+        int k = 1;
+        for (int p : lits) {
+            if (p != pivot) {
+                saved[k++] = toDimacs(p);
+            }
+        }
+        this.eliminationStack.push(saved);
+        this.clauses.set(index, null);
+        Constr constr = this.sources.get(index);
+        this.solver.detach(constr);
+        this.solver.slistener.delete(constr);
+        this.removed.add(constr);
+        this.eliminatedConstrs.push(constr);
+    }
+
+    private void removeLearntsWithEliminatedVariables() {
+        IVec<Constr> learnts = this.solver.learnts;
+        int j = 0;
+        for (int i = 0; i < learnts.size(); i++) {
+            Constr learnt = learnts.get(i);
+            if (containsEliminatedVariable(learnt)) {
+                assert !learnt.locked();
+                learnt.remove(this.solver);
+                this.solver.slistener.delete(learnt);
+            } else {
+                learnts.moveTo(j++, i);
+            }
+        }
+        learnts.shrinkTo(j);
+    }
+
+    boolean isEliminated(int var) {
+        return var < this.eliminated.length && this.eliminated[var];
+    }
+
+    private boolean containsEliminatedVariable(Constr constr) {
+        for (int i = 0; i < constr.size(); i++) {
+            int var = var(constr.get(i));
+            if (var < this.eliminated.length && this.eliminated[var]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // vivification of the learned clauses
+
+    private boolean vivify() {
+        ILits voc = this.solver.voc;
+        IVec<Constr> learnts = this.solver.learnts;
+        IVecInt newlits = new VecInt();
+        for (int i = learnts.size() - 1; i >= 0 && this.budget > 0; i--) {
+            Constr learnt = learnts.get(i);
+            if (learnt.size() <= 2 || learnt.locked() || !isClause(learnt)
+                    || learnt.simplify()) {
+                continue;
+            }
+            int before = this.solver.trail.size();
+            newlits.clear();
+            // the order of the literals changes during propagation
+            int[] lits = new int[learnt.size()];
+            for (int k = 0; k < lits.length; k++) {
+                lits[k] = learnt.get(k);
+            }
+            for (int p : lits) {
+                if (voc.isSatisfied(p)) {
+                    // implied by the negation of the previous literals
+                    newlits.push(p);
+                    break;
+                }
+                if (voc.isFalsified(p)) {
+                    continue;
+                }
+                newlits.push(p);
+                this.solver.assume(p ^ 1);
+                if (this.solver.propagate() != null) {
+                    break;
+                }
+            }
+            this.budget -= learnt.size() + this.solver.trail.size() - before;
+            this.solver.cancelUntil(0);
+            if (newlits.size() < learnt.size()) {
+                this.solver.stats.vivifiedClauses++;
+                learnt.remove(this.solver);
+                if (newlits.size() == 1) {
+                    learnts.delete(i);
+                    this.solver.slistener.learnUnit(toDimacs(newlits.get(0)));
+                    this.solver.slistener.delete(learnt);
+                    if (!this.solver.enqueue(newlits.get(0))
+                            || this.solver.propagate() != null) {
+                        return false;
+                    }
+                } else {
+                    IVecInt copy = new VecInt(newlits.size());
+                    newlits.copyTo(copy);
+                    Constr vivified = this.solver.dsfactory
+                            .createUnregisteredClause(copy);
+                    vivified.setLearnt();
+                    vivified.register();
+                    vivified.setActivity(learnt.getActivity());
+                    learnts.set(i, vivified);
+                    this.solver.slistener.learn(vivified);
+                    this.solver.slistener.delete(learnt);
+                }
+            }
+        }
+        return true;
+    }
+
+    // model reconstruction and reintroduction of the eliminated variables
+
+    /**
+     * Assign the eliminated variables in a model of the simplified formula
+     * to get a model of the original formula.
+     * 
+     * @param model
+     *            the truth value of each variable, var 1 being at index 0.
+     */
+    void extendModel(boolean[] model) {
+        for (int i = this.eliminationStack.size() - 1; i >= 0; i--) {
+            int[] clause = this.eliminationStack.get(i);
+            boolean satisfied = false;
+            for (int p : clause) {
+                if (model[Math.abs(p) - 1] == p > 0) {
+                    satisfied = true;
+                    break;
+                }
+            }
+            if (!satisfied) {
+                model[Math.abs(clause[0]) - 1] = clause[0] > 0;
+            }
+        }
+    }
+
+    /**
+     * Prevents the variables of the assumptions to be eliminated, and puts
+     * them back in the formula if needed. The other eliminated variables are
+     * removed from the heuristics, which may have been initialized since the
+     * previous call.
+     * 
+     * @param assumps
+     *            assumptions, as internal literals
+     * @return false iff the formula is known to be unsatisfiable.
+     */
+    boolean protect(IVecInt assumps) {
+        ensureCapacity();
+        boolean restore = false;
+        for (int i = 0; i < assumps.size(); i++) {
+            int var = var(assumps.get(i));
+            this.protectedVars[var] = true;
+            restore = restore || this.eliminated[var];
+        }
+        if (restore) {
+            restore();
+        } else if (this.nbEliminated > 0) {
+            IOrder order = this.solver.getOrder();
+            for (int var = 1; var < this.eliminated.length; var++) {
+                if (this.eliminated[var]) {
+                    order.removeVariable(var);
+                }
+            }
+        }
+        return !this.unsat;
+    }
+
+    /**
+     * Puts back the eliminated variables if the constraint contains one of
+     * them.
+     * 
+     * @param constr
+     *            a new constraint
+     */
+    void restoreIfNeeded(Constr constr) {
+        if (this.nbEliminated > 0 && containsEliminatedVariable(constr)) {
+            restore();
+        }
+    }
+
+    /**
+     * Adds back the clauses removed by variable elimination, and the
+     * eliminated variables in the heuristics. Must be called between two
+     * calls to the solver: the watched literals of the restored clauses are
+     * checked when the whole trail is propagated again by the next call.
+     */
+    void restore() {
+        IOrder order = this.solver.getOrder();
+        for (int var = 1; var < this.eliminated.length; var++) {
+            if (this.eliminated[var]) {
+                this.eliminated[var] = false;
+                order.undo(var);
+            }
+        }
+        this.nbEliminated = 0;
+        this.eliminationStack.clear();
+        reattach(this.eliminatedConstrs);
+    }
+
+    /**
+     * Restores the original formula: the constraints removed by the
+     * inprocessor are put back and the ones it added are removed, since they
+     * may depend on a constraint about to be removed from the solver. The
+     * learned clauses must be cleared by the caller.
+     */
+    void undo() {
+        restore();
+        if (!this.added.isEmpty()) {
+            IVec<Constr> constrs = this.solver.constrs;
+            int j = 0;
+            for (int i = 0; i < constrs.size(); i++) {
+                Constr constr = constrs.get(i);
+                if (this.added.contains(constr)) {
+                    this.solver.detach(constr);
+                    this.solver.slistener.delete(constr);
+                } else {
+                    constrs.moveTo(j++, i);
+                }
+            }
+            constrs.shrinkTo(j);
+            this.added.clear();
+        }
+        reattach(this.detached);
+        this.unsat = false;
+    }
+
+    /**
+     * Puts back some constraints in the solver, before the other ones so that
+     * the last added constraint remains the last one.
+     */
+    private void reattach(IVec<Constr> constrs) {
+        if (constrs.isEmpty()) {
+            return;
+        }
+        IVec<Constr> solverConstrs = this.solver.constrs;
+        IVec<Constr> all = new Vec<Constr>(constrs.size()
+                + solverConstrs.size());
+        for (int i = 0; i < constrs.size(); i++) {
+            this.solver.reattach(constrs.get(i));
+            all.push(constrs.get(i));
+        }
+        for (int i = 0; i < solverConstrs.size(); i++) {
+            all.push(solverConstrs.get(i));
+        }
+        solverConstrs.clear();
+        all.moveTo(solverConstrs);
+        constrs.clear();
+    }
+
+    /**
+     * Forget a constraint removed by the inprocessor, because it is also
+     * removed from the solver.
+     * 
+     * @return true iff the constraint had been removed by the inprocessor.
+     */
+    boolean forget(Constr constr) {
+        return forget(this.detached, constr)
+                || forget(this.eliminatedConstrs, constr);
+    }
+
+    private static boolean forget(IVec<Constr> constrs, Constr constr) {
+        for (int i = constrs.size() - 1; i >= 0; i--) {
+            if (constrs.get(i) == constr) {
+                constrs.delete(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void reset() {
+        this.eliminated = new boolean[0];
+        this.protectedVars = new boolean[0];
+        this.nbEliminated = 0;
+        this.eliminationStack.clear();
+        this.eliminatedConstrs.clear();
+        this.detached.clear();
+        this.added.clear();
+        this.unsat = false;
+        this.nextRun = 0;
+        this.nextProbe = 1;
+    }
+
+    @Override
+    public String toString() {
+        return "Inprocessing (probing=" + this.probing + ", subsumption="
+                + this.subsumption + ", elimination=" + this.elimination
+                + ", vivification=" + this.vivification + ") every "
+                + this.conflictsBetweenRuns + " conflicts, effort "
+                + this.effort;
+    }
+}
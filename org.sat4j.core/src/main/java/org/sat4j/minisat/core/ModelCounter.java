@@ -0,0 +1,561 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.sat4j.core.LiteralsUtils.neg;
+import static org.sat4j.core.LiteralsUtils.posLit;
+import static org.sat4j.core.LiteralsUtils.var;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Exact model counter for CNF formulas, in the spirit of sharpSAT.
+ * 
+ * The counter performs a DPLL search on top of the propagation of the solver,
+ * and splits the residual formula into connected components which are counted
+ * independently. The counts of the components are kept in a cache bounded in
+ * size, the least recently used entries being evicted first. Before branching
+ * on a component, the literals of its binary clauses are probed, and the
+ * failed ones are negated (implicit BCP).
+ * 
+ * The count may be projected on a set of variables: it is then the number of
+ * assignments of those variables that can be extended to a model. The
+ * components without projected variables only need to be satisfiable, they
+ * are checked the same way and count for 0 or 1.
+ * 
+ * The count is performed on the original clauses only: the clauses learned by
+ * the solver are forgotten before counting, since a conflict on a clause
+ * spanning several components would be cached as the count of one of them.
+ * The clauses removed by the elimination of variables are put back. Apart from
+ * that, the solver is left unchanged after counting. Only formulas made of
+ * clauses are supported.
+ * 
+ * @since 2.3.6
+ */
+public final class ModelCounter {
+
+    /**
+     * Default size of the cache, in number of integers stored in the keys.
+     */
+    public static final long DEFAULT_CACHE_SIZE = 1L << 24;
+
+    private final Solver<?> solver;
+
+    private long maxCacheSize = DEFAULT_CACHE_SIZE;
+
+    private final Map<Component, BigInteger> cache = new LinkedHashMap<Component, BigInteger>(
+            1024, 0.75f, true);
+
+    private long cacheSize;
+
+    private int[][] clauses;
+
+    private int[][] occurrences;
+
+    private boolean[] projected;
+
+    private int[] varStamps;
+
+    private int[] clauseStamps;
+
+    private int stamp;
+
+    private int[] literalScores;
+
+    private Deadline deadline;
+
+    private long decisions;
+
+    private long cacheHits;
+
+    private long cacheEvictions;
+
+    public ModelCounter(Solver<?> solver) {
+        this.solver = solver;
+    }
+
+    /**
+     * Set the maximum size of the component cache.
+     * 
+     * @param maxCacheSize
+     *            the number of integers (variables and clause identifiers)
+     *            that the keys of the cache may contain.
+     */
+    public void setMaxCacheSize(long maxCacheSize) {
+        this.maxCacheSize = maxCacheSize;
+    }
+
+    /**
+     * Count the models of the formula on the variables between 1 and
+     * {@link Solver#nVars()}. The variables created above that limit, e.g.
+     * by encodings, are existentially quantified.
+     * 
+     * @return the number of models of the formula.
+     * @throws TimeoutException
+     *             if the timeout of the solver is reached.
+     */
+    public BigInteger countModels() throws TimeoutException {
+        IVecInt vars = new VecInt();
+        for (int i = 1; i <= this.solver.nVars(); i++) {
+            vars.push(i);
+        }
+        return countModels(vars);
+    }
+
+    /**
+     * Count the models of the formula projected on a set of variables.
+     * 
+     * @param projection
+     *            the variables (in Dimacs format) on which the models are
+     *            projected.
+     * @return the number of assignments of the projection variables that can
+     *         be extended into a model of the formula.
+     * @throws TimeoutException
+     *             if the timeout of the solver is reached.
+     */
+    public BigInteger countModels(IVecInt projection)
+            throws TimeoutException {
+        if (!this.solver.isSatisfiable()) {
+            return BigInteger.ZERO;
+        }
+        this.solver.cancelUntil(0);
+        this.solver.restoreEliminatedVariables();
+        // the units learned are implied by the formula, contrary to the
+        // learned clauses they cannot link two components
+        IVecInt learned = new VecInt(this.solver.learnedLiterals.size());
+        this.solver.learnedLiterals.copyTo(learned);
+        this.solver.clearLearntClauses();
+        learned.copyTo(this.solver.learnedLiterals);
+        ILits voc = this.solver.getVocabulary();
+        int nVars = this.solver.realNumberOfVariables();
+        init(nVars);
+        int maxVar = 0;
+        for (int i = 0; i < projection.size(); i++) {
+            maxVar = Math.max(maxVar, Math.abs(projection.get(i)));
+        }
+        // a variable may be given several times, with both signs
+        boolean[] seen = new boolean[maxVar + 1];
+        int unused = 0;
+        for (int i = 0; i < projection.size(); i++) {
+            int v = Math.abs(projection.get(i));
+            if (seen[v]) {
+                continue;
+            }
+            seen[v] = true;
+            if (v > nVars || !voc.belongsToPool(v)) {
+                // a variable which does not appear in the formula
+                unused++;
+            } else {
+                this.projected[v] = true;
+            }
+        }
+        this.deadline = this.solver.newSessionDeadline();
+        this.decisions = 0;
+        this.cacheHits = 0;
+        this.cacheEvictions = 0;
+        int rootTrail = this.solver.trail.size();
+        try {
+            for (int i = 0; i < learned.size(); i++) {
+                if (voc.isUnassigned(learned.get(i))) {
+                    this.solver.enqueue(learned.get(i));
+                }
+            }
+            if (this.solver.propagate() != null) {
+                return BigInteger.ZERO;
+            }
+            VecInt vars = new VecInt(nVars);
+            for (int v = 1; v <= nVars; v++) {
+                if (voc.belongsToPool(v) && voc.isUnassigned(posLit(v))) {
+                    vars.push(v);
+                }
+            }
+            int[] all = new int[this.clauses.length];
+            for (int i = 0; i < all.length; i++) {
+                all[i] = i;
+            }
+            return countResidual(toArray(vars), all).shiftLeft(unused);
+        } finally {
+            this.solver.cancelUntil(0);
+            this.solver.cancelUntilTrailLevel(rootTrail);
+            this.solver.qhead = this.solver.trail.size();
+            this.cache.clear();
+            this.cacheSize = 0;
+            this.clauses = null;
+            this.occurrences = null;
+        }
+    }
+
+    /**
+     * 
+     * @return the number of decisions made during the last count.
+     */
+    public long getDecisions() {
+        return this.decisions;
+    }
+
+    /**
+     * 
+     * @return the number of components found in the cache during the last
+     *         count.
+     */
+    public long getCacheHits() {
+        return this.cacheHits;
+    }
+
+    /**
+     * 
+     * @return the number of components evicted from the cache during the last
+     *         count.
+     */
+    public long getCacheEvictions() {
+        return this.cacheEvictions;
+    }
+
+    private void init(int nVars) {
+        IVec<Constr> constrs = this.solver.constrs;
+        this.clauses = new int[constrs.size()][];
+        int[] sizes = new int[nVars + 1];
+        for (int i = 0; i < constrs.size(); i++) {
+            Constr constr = constrs.get(i);
+            if (!constr.canBeSatisfiedByCountingLiterals()
+                    || constr.requiredNumberOfSatisfiedLiterals() != 1) {
+                throw new UnsupportedOperationException(
+                        "Only clauses can be counted: " + constr);
+            }
+            int[] literals = new int[constr.size()];
+            for (int j = 0; j < literals.length; j++) {
+                literals[j] = constr.get(j);
+                sizes[var(literals[j])]++;
+            }
+            this.clauses[i] = literals;
+        }
+        this.occurrences = new int[nVars + 1][];
+        for (int v = 1; v <= nVars; v++) {
+            this.occurrences[v] = new int[sizes[v]];
+            sizes[v] = 0;
+        }
+        for (int i = 0; i < this.clauses.length; i++) {
+            for (int p : this.clauses[i]) {
+                int v = var(p);
+                this.occurrences[v][sizes[v]++] = i;
+            }
+        }
+        this.projected = new boolean[nVars + 1];
+        this.varStamps = new int[nVars + 1];
+        this.clauseStamps = new int[this.clauses.length];
+        this.stamp = 0;
+        this.literalScores = new int[2 * (nVars + 1)];
+    }
+
+    /**
+     * Count the models of a component.
+     * 
+     * @param vars
+     *            the variables of the component, sorted.
+     * @param clauseIds
+     *            the clauses of the component, sorted.
+     */
+    private BigInteger count(int[] vars, int[] clauseIds)
+            throws TimeoutException {
+        if (this.deadline.hasExpired()) {
+            throw new TimeoutException("Timeout while counting models");
+        }
+        Component key = new Component(vars, clauseIds);
+        BigInteger result = this.cache.get(key);
+        if (result != null) {
+            this.cacheHits++;
+            return result;
+        }
+        int trailSize = this.solver.trail.size();
+        if (!implicitBCP(clauseIds)) {
+            result = BigInteger.ZERO;
+        } else if (this.solver.trail.size() > trailSize) {
+            // the component may now be split
+            result = countResidual(vars, clauseIds);
+        } else {
+            result = branch(vars, clauseIds);
+        }
+        store(key, result);
+        return result;
+    }
+
+    private BigInteger branch(int[] vars, int[] clauseIds)
+            throws TimeoutException {
+        int p = selectLiteral(vars, clauseIds);
+        boolean existential = !this.projected[var(p)];
+        BigInteger total = BigInteger.ZERO;
+        for (int i = 0; i < 2; i++, p = neg(p)) {
+            this.decisions++;
+            this.solver.assume(p);
+            BigInteger sub = this.solver.propagate() == null ? countResidual(
+                    vars, clauseIds) : BigInteger.ZERO;
+            this.solver.cancel();
+            if (existential && sub.signum() > 0) {
+                return BigInteger.ONE;
+            }
+            total = total.add(sub);
+        }
+        return total;
+    }
+
+    /**
+     * Split the unassigned variables of a component into connected components
+     * and multiply their counts.
+     */
+    private BigInteger countResidual(int[] vars, int[] clauseIds)
+            throws TimeoutException {
+        ILits voc = this.solver.getVocabulary();
+        int current = ++this.stamp;
+        List<int[]> componentVars = new ArrayList<int[]>();
+        List<int[]> componentClauses = new ArrayList<int[]>();
+        VecInt cvars = new VecInt();
+        VecInt cclauses = new VecInt();
+        int free = 0;
+        for (int v : vars) {
+            if (this.varStamps[v] == current || !voc.isUnassigned(posLit(v))) {
+                continue;
+            }
+            this.varStamps[v] = current;
+            cvars.push(v);
+            for (int k = 0; k < cvars.size(); k++) {
+                for (int c : this.occurrences[cvars.get(k)]) {
+                    if (this.clauseStamps[c] == current) {
+                        continue;
+                    }
+                    this.clauseStamps[c] = current;
+                    if (isSatisfied(voc, c)) {
+                        continue;
+                    }
+                    cclauses.push(c);
+                    for (int q : this.clauses[c]) {
+                        int w = var(q);
+                        if (this.varStamps[w] != current
+                                && voc.isUnassigned(q)) {
+                            this.varStamps[w] = current;
+                            cvars.push(w);
+                        }
+                    }
+                }
+            }
+            if (cclauses.isEmpty()) {
+                if (this.projected[v]) {
+                    free++;
+                }
+            } else {
+                componentVars.add(sortedArray(cvars));
+                componentClauses.add(sortedArray(cclauses));
+            }
+            cvars.clear();
+            cclauses.clear();
+        }
+        BigInteger result = BigInteger.ONE.shiftLeft(free);
+        for (int i = 0; i < componentVars.size(); i++) {
+            BigInteger sub = count(componentVars.get(i),
+                    componentClauses.get(i));
+            if (sub.signum() == 0) {
+                return BigInteger.ZERO;
+            }
+            result = result.multiply(sub);
+        }
+        return result;
+    }
+
+    /**
+     * Probe the literals of the binary clauses of the component and assert
+     * the negation of the failed ones at the current decision level.
+     * 
+     * @return false iff the component is unsatisfiable.
+     */
+    private boolean implicitBCP(int[] clauseIds) {
+        ILits voc = this.solver.getVocabulary();
+        VecInt candidates = new VecInt();
+        for (int c : clauseIds) {
+            int unassigned = 0;
+            boolean satisfied = false;
+            for (int q : this.clauses[c]) {
+                if (voc.isSatisfied(q)) {
+                    satisfied = true;
+                    break;
+                }
+                if (voc.isUnassigned(q)) {
+                    unassigned++;
+                }
+            }
+            if (satisfied || unassigned != 2) {
+                continue;
+            }
+            for (int q : this.clauses[c]) {
+                if (voc.isUnassigned(q)) {
+                    candidates.push(q);
+                }
+            }
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            // a failed negation of a literal of a binary clause means that
+            // the literal is implied
+            int p = neg(candidates.get(i));
+            if (!voc.isUnassigned(p)) {
+                continue;
+            }
+            this.solver.assume(p);
+            boolean failed = this.solver.propagate() != null;
+            this.solver.cancel();
+            if (failed) {
+                this.solver.enqueue(neg(p));
+                if (this.solver.propagate() != null) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Select the unassigned variable occurring the most in the unsatisfied
+     * clauses of the component, the projected variables coming first. The
+     * literal satisfying the most clauses is returned.
+     */
+    private int selectLiteral(int[] vars, int[] clauseIds) {
+        ILits voc = this.solver.getVocabulary();
+        int[] scores = this.literalScores;
+        for (int c : clauseIds) {
+            if (isSatisfied(voc, c)) {
+                continue;
+            }
+            for (int q : this.clauses[c]) {
+                if (voc.isUnassigned(q)) {
+                    scores[q]++;
+                }
+            }
+        }
+        int best = -1;
+        int bestScore = -1;
+        boolean bestProjected = false;
+        for (int v : vars) {
+            int p = posLit(v);
+            if (!voc.isUnassigned(p)) {
+                continue;
+            }
+            int score = scores[p] + scores[neg(p)];
+            if (best == -1 || this.projected[v] && !bestProjected
+                    || this.projected[v] == bestProjected && score > bestScore) {
+                best = scores[p] >= scores[neg(p)] ? p : neg(p);
+                bestScore = score;
+                bestProjected = this.projected[v];
+            }
+        }
+        for (int v : vars) {
+            scores[posLit(v)] = 0;
+            scores[neg(posLit(v))] = 0;
+        }
+        assert best != -1;
+        return best;
+    }
+
+    private boolean isSatisfied(ILits voc, int clauseId) {
+        for (int q : this.clauses[clauseId]) {
+            if (voc.isSatisfied(q)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void store(Component key, BigInteger value) {
+        this.cache.put(key, value);
+        this.cacheSize += key.size();
+        Iterator<Map.Entry<Component, BigInteger>> it = this.cache.entrySet()
+                .iterator();
+        while (this.cacheSize > this.maxCacheSize && it.hasNext()) {
+            this.cacheSize -= it.next().getKey().size();
+            it.remove();
+            this.cacheEvictions++;
+        }
+    }
+
+    private static int[] sortedArray(VecInt vec) {
+        int[] array = toArray(vec);
+        Arrays.sort(array);
+        return array;
+    }
+
+    private static int[] toArray(VecInt vec) {
+        int[] array = new int[vec.size()];
+        vec.copyTo(array);
+        return array;
+    }
+
+    /**
+     * Key of the cache: a component is identified by its variables and its
+     * clauses, which determine the residual formula.
+     */
+    private static final class Component {
+
+        private final int[] data;
+
+        private final int hash;
+
+        Component(int[] vars, int[] clauseIds) {
+            this.data = new int[vars.length + clauseIds.length + 1];
+            this.data[0] = vars.length;
+            System.arraycopy(vars, 0, this.data, 1, vars.length);
+            System.arraycopy(clauseIds, 0, this.data, vars.length + 1,
+                    clauseIds.length);
+            this.hash = Arrays.hashCode(this.data);
+        }
+
+        int size() {
+            return this.data.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Component
+                    && Arrays.equals(this.data, ((Component) obj).data);
+        }
+    }
+}
@@ -106,6 +106,8 @@ public class SearchParams implements Serializable {
 
     private int initConflictBound;
 
+    private int backjumpLimit;
+
     /*
      * (non-Javadoc)
      * 
@@ -180,4 +182,33 @@ public class SearchParams implements Serializable {
     public void setVarDecay(double varDecay) {
         this.varDecay = varDecay;
     }
+
+    /**
+     * Limited backjumping: when the backjump computed by the conflict analysis
+     * would cancel more than that number of decision levels, the solver
+     * backtracks a single level instead, to avoid propagating again a large
+     * part of the trail.
+     * 
+     * This is only an approximation of chronological backtracking: the trail
+     * must stay ordered by decision levels, so the asserting literal is
+     * assigned at the current level instead of its assertion level. Its level
+     * is thus overestimated until the search backtracks above it.
+     * 
+     * @param backjumpLimit
+     *            the maximal number of levels of a backjump, 0 to always
+     *            backjump to the assertion level (the default).
+     * @since 2.3.6
+     */
+    public void setBackjumpLimit(int backjumpLimit) {
+        this.backjumpLimit = backjumpLimit;
+    }
+
+    /**
+     * @return the maximal number of levels of a backjump, 0 if backjumps are
+     *         not limited.
+     * @since 2.3.6
+     */
+    public int getBackjumpLimit() {
+        return this.backjumpLimit;
+    }
 }
@@ -33,9 +33,13 @@ import static org.sat4j.core.LiteralsUtils.toDimacs;
 import static org.sat4j.core.LiteralsUtils.toInternal;
 import static org.sat4j.core.LiteralsUtils.var;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.lang.reflect.Field;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -45,8 +49,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -54,7 +56,11 @@ import org.sat4j.core.ConstrGroup;
 import org.sat4j.core.LiteralsUtils;
 import org.sat4j.core.Vec;
 import org.sat4j.core.VecInt;
+import org.sat4j.minisat.constraints.cnf.BinaryImplicationTable;
+import org.sat4j.minisat.constraints.cnf.SharedClauseStore;
+import org.sat4j.minisat.constraints.cnf.SharedWLClause;
 import org.sat4j.minisat.constraints.xor.Xor;
+import org.sat4j.minisat.restarts.StableModeRestarts;
 import org.sat4j.specs.Constr;
 import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.IConstr;
@@ -64,9 +70,13 @@ import org.sat4j.specs.ISolverService;
 import org.sat4j.specs.IVec;
 import org.sat4j.specs.IVecInt;
 import org.sat4j.specs.IteratorInt;
+import org.sat4j.specs.LearnedClauseImporter;
+import org.sat4j.specs.LearnedClauseProvider;
 import org.sat4j.specs.Lbool;
 import org.sat4j.specs.Propagatable;
 import org.sat4j.specs.SearchListener;
+import org.sat4j.specs.SearchListenerAdapter;
+import org.sat4j.specs.SelectiveSearchListener;
 import org.sat4j.specs.TimeoutException;
 import org.sat4j.specs.UnitClauseProvider;
 
@@ -77,7 +87,7 @@ import org.sat4j.specs.UnitClauseProvider;
  * @author leberre
  */
 public class Solver<D extends DataStructureFactory>
-        implements ISolverService, ICDCL<D> {
+        implements ISolverService, ICDCL<D>, LearnedClauseImporter {
 
     private static final long serialVersionUID = 1L;
 
@@ -155,12 +165,23 @@ public class Solver<D extends DataStructureFactory>
 
     protected SearchListener slistener = new VoidTracing();
 
+    /**
+     * frequent events the search listener needs to be notified of. Computed
+     * again at the beginning of each call, since the listener, or one of the
+     * listeners a {@link org.sat4j.tools.MultiTracing} dispatches the events
+     * to, may change the events it listens to.
+     */
+    private int listenedEvents = SearchListenerAdapter
+            .listenedEventsOf(this.slistener);
+
     private RestartStrategy restarter;
 
     private final Map<String, Counter> constrTypes = new HashMap<String, Counter>();
 
     private boolean isDBSimplificationAllowed = false;
 
+    private Inprocessor inprocessor;
+
     final IVecInt learnedLiterals = new VecInt();
 
     boolean verbose = false;
@@ -172,6 +193,13 @@ public class Solver<D extends DataStructureFactory>
 
     private UnitClauseProvider unitClauseProvider = UnitClauseProvider.VOID;
 
+    /**
+     * heuristics restored from a snapshot, set when the search starts.
+     */
+    private double[] warmActivities;
+
+    private int[] warmPhases;
+
     /**
      * Translates an IvecInt containing Dimacs formatted variables into and
      * IVecInt containing internal formatted variables.
@@ -244,6 +272,7 @@ public class Solver<D extends DataStructureFactory>
         this.dsfactory.setUnitPropagationListener(this);
         this.dsfactory.setLearner(this);
         this.voc = dsf.getVocabulary();
+        this.binaries = dsf.getBinaryImplications();
         this.order.setLits(this.voc);
     }
 
@@ -271,6 +300,11 @@ public class Solver<D extends DataStructureFactory>
     public <S extends ISolverService> void setSearchListener(
             SearchListener<S> sl) {
         this.slistener = sl;
+        this.listenedEvents = SearchListenerAdapter.listenedEventsOf(sl);
+    }
+
+    private boolean listens(int event) {
+        return (this.listenedEvents & event) != 0;
     }
 
     /*
@@ -359,13 +393,32 @@ public class Solver<D extends DataStructureFactory>
         return this.restarter;
     }
 
+    public void setDeadline(Deadline deadline) {
+        this.externalDeadline = deadline;
+        this.deadline = null;
+    }
+
+    public Deadline getDeadline() {
+        return this.externalDeadline;
+    }
+
+    /**
+     *
+     * @return the deadline set by the user if any, else a deadline matching
+     *         the time based timeout of the solver.
+     */
+    Deadline newSessionDeadline() {
+        if (this.externalDeadline != null) {
+            return this.externalDeadline;
+        }
+        return this.timeBasedTimeout ? Deadline.in(this.timeout) : Deadline
+                .never();
+    }
+
     public void expireTimeout() {
         this.undertimeout = false;
         if (this.timeBasedTimeout) {
-            if (this.timer != null) {
-                this.timer.cancel();
-                this.timer = null;
-            }
+            this.deadline = null;
         } else {
             if (this.conflictCount != null) {
                 this.conflictCount = null;
@@ -426,11 +479,34 @@ public class Solver<D extends DataStructureFactory>
         return addConstr(this.dsfactory.createClause(vlits));
     }
 
+    /**
+     * Adds an original clause whose literals are stored in a store shared with
+     * other solvers. Only the watches of the clause are local to that solver.
+     * 
+     * @param store
+     *            the store containing the literals of the clause
+     * @param ref
+     *            the reference of the clause in the store
+     * @return a reference to the constraint added in the solver
+     * @throws ContradictionException
+     *             iff the clause is falsified at decision level 0
+     * @since 2.3.6
+     */
+    public IConstr addSharedClause(SharedClauseStore store, long ref)
+            throws ContradictionException {
+        return addConstr(
+                SharedWLClause.brandNewClause(this, this.voc, store, ref));
+    }
+
     public boolean removeConstr(IConstr co) {
         if (co == null) {
             throw new IllegalArgumentException(
                     "Reference to the constraint to remove needed!"); //$NON-NLS-1$
         }
+        if (this.inprocessor != null) {
+            // the simplifications may depend on that constraint
+            this.inprocessor.undo();
+        }
         Constr c = (Constr) co;
         c.remove(this);
         this.constrs.removeFromLast(c);
@@ -448,11 +524,15 @@ public class Solver<D extends DataStructureFactory>
             throw new IllegalArgumentException(
                     "Reference to the constraint to remove needed!"); //$NON-NLS-1$
         }
+        Constr c = (Constr) co;
+        if (this.inprocessor != null && this.inprocessor.forget(c)) {
+            // already removed by the inprocessor
+            return true;
+        }
         if (this.constrs.last() != co) {
             throw new IllegalArgumentException(
                     "Can only remove latest added constraint!!!"); //$NON-NLS-1$
         }
-        Constr c = (Constr) co;
         c.remove(this);
         this.constrs.pop();
         String type = c.getClass().getName();
@@ -460,6 +540,24 @@ public class Solver<D extends DataStructureFactory>
         return true;
     }
 
+    /**
+     * Detach a constraint removed by the inprocessor. The caller is
+     * responsible for removing it from the constraints database.
+     */
+    void detach(Constr c) {
+        c.remove(this);
+        this.constrTypes.get(c.getClass().getName()).dec();
+    }
+
+    /**
+     * Attach again a constraint detached by the inprocessor. The caller is
+     * responsible for putting it back in the constraints database.
+     */
+    void reattach(Constr c) {
+        c.register();
+        this.constrTypes.get(c.getClass().getName()).inc();
+    }
+
     public void addAllClauses(IVec<IVecInt> clauses)
             throws ContradictionException {
         for (Iterator<IVecInt> iterator = clauses.iterator(); iterator
@@ -468,6 +566,82 @@ public class Solver<D extends DataStructureFactory>
         }
     }
 
+    public void addAllClauses(int[] clauses) throws ContradictionException {
+        addAllClauses(IntBuffer.wrap(clauses));
+    }
+
+    /**
+     * Bulk loading of clauses. The vocabulary and the constraints database are
+     * sized once for all the clauses, and a single vector is used to translate
+     * them. The unit clauses are assigned before the other clauses are built,
+     * so that the clauses they satisfy are not created and the literals they
+     * falsify are removed. Those assignments are propagated once, when the
+     * search starts.
+     * 
+     * @since 2.3.6
+     */
+    public void addAllClauses(IntBuffer clauses)
+            throws ContradictionException {
+        final int from = clauses.position();
+        final int to = clauses.limit();
+        // first pass: size of the vocabulary and number of clauses
+        int maxVar = 0;
+        int nbClauses = 0;
+        int p;
+        for (int i = from; i < to; i++) {
+            p = clauses.get(i);
+            if (p == 0) {
+                nbClauses++;
+            } else if (p > maxVar) {
+                maxVar = p;
+            } else if (-p > maxVar) {
+                maxVar = -p;
+            }
+        }
+        if (from < to && clauses.get(to - 1) != 0) {
+            nbClauses++;
+        }
+        if (nbClauses == 0) {
+            return;
+        }
+        this.voc.ensurePool(maxVar);
+        this.constrs.ensure(this.constrs.size() + nbClauses);
+        // second pass: unit clauses
+        int start = from;
+        for (int i = from; i <= to; i++) {
+            if (i < to && clauses.get(i) != 0) {
+                continue;
+            }
+            if (i - start == 1 || i == start && i < to) {
+                // unit or empty clause
+                addClause(clauses, start, i);
+            }
+            start = i + 1;
+        }
+        // third pass: the other clauses
+        start = from;
+        for (int i = from; i <= to; i++) {
+            if (i < to && clauses.get(i) != 0) {
+                continue;
+            }
+            if (i - start > 1) {
+                addClause(clauses, start, i);
+            }
+            start = i + 1;
+        }
+    }
+
+    private void addClause(IntBuffer clauses, int from, int to)
+            throws ContradictionException {
+        final IVecInt vlits = this.__dimacs_out;
+        vlits.clear();
+        vlits.ensure(to - from);
+        for (int i = from; i < to; i++) {
+            vlits.unsafePush(this.voc.getFromPool(clauses.get(i)));
+        }
+        addConstr(this.dsfactory.createClause(vlits));
+    }
+
     public IConstr addAtMost(IVecInt literals, int degree)
             throws ContradictionException {
         int n = literals.size();
@@ -508,6 +682,7 @@ public class Solver<D extends DataStructureFactory>
             for (int i = 0; i < cs[type].size(); i++) {
                 if (cs[type].get(i).simplify()) {
                     // enleve les contraintes satisfaites de la base
+                    this.slistener.delete(cs[type].get(i));
                     cs[type].get(i).remove(this);
                 } else {
                     cs[type].moveTo(j++, i);
@@ -558,7 +733,9 @@ public class Solver<D extends DataStructureFactory>
             // conflicting enqueued assignment
             return false;
         }
-        this.slistener.enqueueing(toDimacs(p), from);
+        if (listens(SelectiveSearchListener.ENQUEUEING)) {
+            this.slistener.enqueueing(toDimacs(p), from);
+        }
         // new fact, store it
         this.voc.satisfies(p);
         this.voc.setLevel(p, decisionLevel());
@@ -1069,6 +1246,13 @@ public class Solver<D extends DataStructureFactory>
 
     final IVec<Propagatable> watched = new Vec<Propagatable>();
 
+    private final BlockerWatchList blockerWatched = new BlockerWatchList();
+
+    /**
+     * binary clauses propagated ahead of the watched constraints, if any.
+     */
+    BinaryImplicationTable binaries;
+
     /**
      * @return null if not conflict is found, else a conflicting constraint.
      */
@@ -1077,12 +1261,28 @@ public class Solver<D extends DataStructureFactory>
         SolverStats lstats = this.stats;
         IOrder lorder = this.order;
         SearchListener lslistener = this.slistener;
+        final boolean listensPropagating = listens(
+                SelectiveSearchListener.PROPAGATING);
+        final BinaryImplicationTable lbinaries = this.binaries;
+        int bhead = this.qhead;
         // ltrail.size() changes due to propagation
         // cannot cache that value.
         while (this.qhead < ltrail.size()) {
+            if (lbinaries != null) {
+                // exhaust binary implications before visiting the watches
+                while (bhead < ltrail.size()) {
+                    Constr confl = propagateBinaryImplicationsOf(lbinaries,
+                            ltrail.get(bhead++));
+                    if (confl != null) {
+                        return confl;
+                    }
+                }
+            }
             lstats.propagations++;
             int p = ltrail.get(this.qhead++);
-            lslistener.propagating(toDimacs(p));
+            if (listensPropagating) {
+                lslistener.propagating(toDimacs(p));
+            }
             lorder.assignLiteral(p);
             Constr confl = reduceClausesContainingTheNegationOf(p);
             if (confl != null) {
@@ -1092,25 +1292,40 @@ public class Solver<D extends DataStructureFactory>
         return null;
     }
 
+    private Constr propagateBinaryImplicationsOf(
+            BinaryImplicationTable lbinaries, int p) {
+        final int[] implied = lbinaries.implications(p);
+        final int size = lbinaries.size(p);
+        int q;
+        for (int i = 0; i < size; i++) {
+            q = implied[i];
+            if (this.voc.isSatisfied(q)) {
+                continue;
+            }
+            if (this.voc.isFalsified(q)) {
+                this.qhead = this.trail.size(); // propQ.clear();
+                return lbinaries.conflict(p, q);
+            }
+            enqueue(q, lbinaries.reason(q, p));
+        }
+        return null;
+    }
+
     private Constr reduceClausesContainingTheNegationOf(int p) {
         // p is the literal to propagate
         // Moved original MiniSAT code to dsfactory to avoid
         // watches manipulation in counter Based clauses for instance.
         assert p > 1;
+        IVec<Propagatable> pwatches = this.voc.watches(p);
+        if (pwatches instanceof BlockerWatchList) {
+            return reduceWithBlockers(p, (BlockerWatchList) pwatches);
+        }
         IVec<Propagatable> lwatched = this.watched;
         lwatched.clear();
-        this.voc.watches(p).moveTo(lwatched);
+        pwatches.moveTo(lwatched);
         final int size = lwatched.size();
         for (int i = 0; i < size; i++) {
             this.stats.inspects++;
-            // try shortcut
-            // shortcut = shortcuts.get(i);
-            // if (shortcut != ILits.UNDEFINED && voc.isSatisfied(shortcut))
-            // {
-            // voc.watch(p, watched.get(i), shortcut);
-            // stats.shortcuts++;
-            // continue;
-            // }
             if (!lwatched.get(i).propagate(this, p)) {
                 // Constraint is conflicting: copy remaining watches to
                 // watches[p]
@@ -1126,6 +1341,40 @@ public class Solver<D extends DataStructureFactory>
         return null;
     }
 
+    /**
+     * Same as above, but the constraints whose blocker literal is satisfied
+     * are kept in the watch list without being visited.
+     */
+    private Constr reduceWithBlockers(int p, BlockerWatchList pwatches) {
+        BlockerWatchList lwatched = this.blockerWatched;
+        lwatched.clear();
+        pwatches.moveTo(lwatched);
+        final Propagatable[] watchers = lwatched.watchers();
+        final int[] blockers = lwatched.blockers();
+        final int size = lwatched.size();
+        int blocker;
+        for (int i = 0; i < size; i++) {
+            this.stats.inspects++;
+            blocker = blockers[i];
+            if (blocker != ILits.UNDEFINED && this.voc.isSatisfied(blocker)) {
+                pwatches.push(watchers[i], blocker);
+                this.stats.shortcuts++;
+                continue;
+            }
+            if (!watchers[i].propagate(this, p)) {
+                // Constraint is conflicting: copy remaining watches to
+                // watches[p]
+                // and return constraint
+                for (int j = i + 1; j < size; j++) {
+                    pwatches.push(watchers[j], blockers[j]);
+                }
+                this.qhead = this.trail.size(); // propQ.clear();
+                return watchers[i].toConstraint();
+            }
+        }
+        return null;
+    }
+
     void record(Constr constr) {
         constr.assertConstraint(this);
         int p = toDimacs(constr.get(0));
@@ -1155,8 +1404,10 @@ public class Solver<D extends DataStructureFactory>
      */
     void cancel() {
         // assert trail.size() == qhead || !undertimeout;
-        int decisionvar = this.trail.unsafeGet(this.trailLim.last());
-        this.slistener.backtracking(toDimacs(decisionvar));
+        if (listens(SelectiveSearchListener.BACKTRACKING)) {
+            int decisionvar = this.trail.unsafeGet(this.trailLim.last());
+            this.slistener.backtracking(toDimacs(decisionvar));
+        }
         for (int c = this.trail.size() - this.trailLim.last(); c > 0; c--) {
             undoOne();
         }
@@ -1215,7 +1466,9 @@ public class Solver<D extends DataStructureFactory>
         this.claDecay = 1 / this.params.getClaDecay();
 
         do {
-            this.slistener.beginLoop();
+            if (listens(SelectiveSearchListener.BEGIN_LOOP)) {
+                this.slistener.beginLoop();
+            }
             // propagate unit clauses and other constraints
             Constr confl = propagate();
             assert this.trail.size() == this.qhead;
@@ -1240,6 +1493,16 @@ public class Solver<D extends DataStructureFactory>
                         if (decisionLevel() == rootLevel) {
                             confl = this.sharedConflict;
                             this.sharedConflict = null;
+                        } else if (this.sharedConflict.size() == 1) {
+                            // a unit clause is asserted at the root level
+                            cancelUntil(this.rootLevel);
+                            this.qhead = this.trail.size();
+                            confl = this.sharedConflict;
+                            this.sharedConflict = null;
+                            if (!this.voc.isFalsified(confl.get(0))) {
+                                confl.assertConstraint(this);
+                                continue;
+                            }
                         } else {
                             int level = this.sharedConflict
                                     .getAssertionLevel(trail, decisionLevel());
@@ -1287,7 +1550,9 @@ public class Solver<D extends DataStructureFactory>
                             }
                         } else {
                             assert p > 1;
-                            this.slistener.assuming(toDimacs(p));
+                            if (listens(SelectiveSearchListener.ASSUMING)) {
+                                this.slistener.assuming(toDimacs(p));
+                            }
                             boolean ret = assume(p);
                             assert ret;
                         }
@@ -1300,8 +1565,10 @@ public class Solver<D extends DataStructureFactory>
             if (confl != null) {
                 // conflict found
                 this.stats.conflicts++;
-                this.slistener.conflictFound(confl, decisionLevel(),
-                        this.trail.size());
+                if (listens(SelectiveSearchListener.CONFLICT_FOUND)) {
+                    this.slistener.conflictFound(confl, decisionLevel(),
+                            this.trail.size());
+                }
                 this.conflictCount.newConflict();
 
                 if (decisionLevel() == this.rootLevel) {
@@ -1325,7 +1592,19 @@ public class Solver<D extends DataStructureFactory>
                 backjumpLevel = Math.max(
                         this.analysisResult.getBacktrackLevel(),
                         this.rootLevel);
-                this.slistener.backjump(backjumpLevel);
+                if (shouldLimitBackjump(backjumpLevel)) {
+                    // the asserting literal will be propagated at that level
+                    backjumpLevel = decisionLevel() - 1;
+                    this.stats.limitedBackjumps++;
+                }
+                if (listens(SelectiveSearchListener.BACKJUMP)) {
+                    this.slistener.backjump(backjumpLevel);
+                }
+                if (this.restarter instanceof StableModeRestarts) {
+                    // the assignment before the conflict level is consistent
+                    ((StableModeRestarts) this.restarter)
+                            .beforeBackjump(this.trailLim.last());
+                }
                 cancelUntil(backjumpLevel);
                 if (backjumpLevel == this.rootLevel) {
                     this.restarter.onBackjumpToRootLevel();
@@ -1342,10 +1621,48 @@ public class Solver<D extends DataStructureFactory>
                 this.analysisResult.setReason(null);
                 decayActivities();
             }
-        } while (this.undertimeout);
+        } while (this.undertimeout
+                && ((++this.searchLoops & DEADLINE_CHECK_PERIOD_MASK) != 0
+                        || isUnderTimeout()));
         return Lbool.UNDEFINED; // timeout occured
     }
 
+    /**
+     * Decide to backtrack a single level instead of backjumping to the
+     * assertion level. This is not chronological backtracking as in solvers
+     * supporting an out of order trail: the asserting literal is propagated
+     * at the current level rather than at its assertion level, so the trail
+     * remains ordered by decision levels and the level of that literal is
+     * overestimated. Learned unit clauses are always asserted at the root
+     * level, because they are not kept in the learned constraints database.
+     * 
+     * @param backjumpLevel
+     *            the assertion level of the learned constraint
+     * @return true iff the backjump is farther than allowed by the search
+     *         parameters.
+     */
+    private boolean shouldLimitBackjump(int backjumpLevel) {
+        int limit = this.params.getBackjumpLimit();
+        return limit > 0 && decisionLevel() - backjumpLevel > limit
+                && this.analysisResult.getReason() != null
+                && this.analysisResult.getReason().size() > 1;
+    }
+
+    /**
+     * Check the deadline of the search, if any.
+     * 
+     * @return true iff the search can go on.
+     * @since 2.3.6
+     */
+    protected final boolean isUnderTimeout() {
+        Deadline d = this.deadline;
+        if (d != null && d.hasExpired()) {
+            this.undertimeout = false;
+            this.deadline = null;
+        }
+        return this.undertimeout;
+    }
+
     private Constr preventTheSameDecisionsToBeMade() {
         IVecInt clause = new VecInt(nVars());
         int p;
@@ -1371,6 +1688,7 @@ public class Solver<D extends DataStructureFactory>
      */
     void modelFound() {
         decisions.clear();
+        implied.clear();
         IVecInt tempmodel = new VecInt(nVars());
         this.userbooleanmodel = new boolean[realNumberOfVariables()];
         this.fullmodel = null;
@@ -1392,6 +1710,10 @@ public class Solver<D extends DataStructureFactory>
                     } else {
                         this.implied.push(tempmodel.last());
                     }
+                } else if (isEliminated(i)) {
+                    // its value is given by extendModel()
+                    tempmodel.push(-i);
+                    this.implied.push(-i);
                 }
             }
         }
@@ -1409,6 +1731,9 @@ public class Solver<D extends DataStructureFactory>
                         } else {
                             this.implied.push(tempmodel.last());
                         }
+                    } else if (isEliminated(i)) {
+                        tempmodel.push(-i);
+                        this.implied.push(-i);
                     }
                 }
             }
@@ -1417,6 +1742,29 @@ public class Solver<D extends DataStructureFactory>
         } else {
             this.fullmodel = this.model;
         }
+        if (this.inprocessor != null
+                && this.inprocessor.hasEliminatedVariables()) {
+            extendModel();
+        }
+    }
+
+    private boolean isEliminated(int var) {
+        return this.inprocessor != null && this.inprocessor.isEliminated(var);
+    }
+
+    /**
+     * Gives their value to the variables eliminated by the inprocessor.
+     */
+    private void extendModel() {
+        this.inprocessor.extendModel(this.userbooleanmodel);
+        IVecInt[] literals = { new VecInt(this.model),
+                new VecInt(this.fullmodel), this.decisions, this.implied };
+        for (IVecInt lits : literals) {
+            for (int i = 0; i < lits.size(); i++) {
+                int var = Math.abs(lits.get(i));
+                lits.set(i, this.userbooleanmodel[var - 1] ? var : -var);
+            }
+        }
     }
 
     /**
@@ -1431,20 +1779,39 @@ public class Solver<D extends DataStructureFactory>
     Constr forget(int var) {
         boolean satisfied = this.voc.isSatisfied(toInternal(var));
         this.voc.forgets(var);
-        Constr confl;
+        int p;
         if (satisfied) {
-            confl = reduceClausesContainingTheNegationOf(
-                    LiteralsUtils.toInternal(-var));
+            p = LiteralsUtils.toInternal(-var);
         } else {
-            confl = reduceClausesContainingTheNegationOf(
-                    LiteralsUtils.toInternal(var));
+            p = LiteralsUtils.toInternal(var);
         }
-        return confl;
+        if (this.binaries != null) {
+            Constr confl = propagateBinaryImplicationsOf(this.binaries, p);
+            if (confl != null) {
+                return confl;
+            }
+        }
+        return reduceClausesContainingTheNegationOf(p);
     }
 
     protected int[] prime;
 
+    /**
+     * Put back the clauses removed by the elimination of variables, so that
+     * the constraints of the solver mention all its variables again. Must be
+     * called between two calls to the solver.
+     */
+    void restoreEliminatedVariables() {
+        if (this.inprocessor != null
+                && this.inprocessor.hasEliminatedVariables()) {
+            this.inprocessor.restore();
+        }
+    }
+
     public int[] primeImplicant() {
+        // the model is extended to the eliminated variables: the
+        // implicant is computed on the clauses containing them
+        restoreEliminatedVariables();
         String primeApproach = System.getProperty("prime");
         PrimeImplicantStrategy strategy;
         if ("OLD".equals(primeApproach)) {
@@ -1496,6 +1863,7 @@ public class Solver<D extends DataStructureFactory>
         this.stats.reduceddb++;
         this.slistener.cleaning();
         this.learnedConstraintsDeletionStrategy.reduce(this.learnts);
+        this.dsfactory.onReduceDB();
     }
 
     protected void sortOnActivity() {
@@ -1537,7 +1905,19 @@ public class Solver<D extends DataStructureFactory>
 
     private ConflictTimerContainer conflictCount;
 
-    private transient Timer timer;
+    /**
+     * deadline of the current search, checked every
+     * DEADLINE_CHECK_PERIOD_MASK+1 iterations of the search loop.
+     */
+    private transient volatile Deadline deadline;
+
+    private Deadline externalDeadline;
+
+    private ConflictTimer conflictTimeout;
+
+    private static final int DEADLINE_CHECK_PERIOD_MASK = 0x3F;
+
+    private int searchLoops;
 
     public boolean isSatisfiable(IVecInt assumps) throws TimeoutException {
         return isSatisfiable(assumps, false);
@@ -1568,6 +1948,7 @@ public class Solver<D extends DataStructureFactory>
                         Solver.this.learnts.set(j++,
                                 Solver.this.learnts.get(i));
                     } else {
+                        Solver.this.slistener.delete(c);
                         c.remove(Solver.this);
                         k++;
                     }
@@ -1649,6 +2030,15 @@ public class Solver<D extends DataStructureFactory>
     public final LearnedConstraintsDeletionStrategy size_based = new SizeLCDS(
             this, this.lbdTimer);
 
+    /**
+     * Learned clauses split into core, tier2 and local tiers according to
+     * their LBD, each tier having its own reduction schedule.
+     * 
+     * @since 2.3.6
+     */
+    public final LearnedConstraintsDeletionStrategy tier_based = new ThreeTierLCDS<D>(
+            this);
+
     protected LearnedConstraintsDeletionStrategy learnedConstraintsDeletionStrategy = this.lbd_based;
 
     /*
@@ -1684,7 +2074,12 @@ public class Solver<D extends DataStructureFactory>
         this.learnedLiterals.ensure(howmany);
         this.decisions.clear();
         this.implied.clear();
+        // a blocking clause added on the fly at the end of the previous call
+        // is already in the constraints
+        this.sharedConflict = null;
         this.slistener.init(this);
+        this.listenedEvents = SearchListenerAdapter
+                .listenedEventsOf(this.slistener);
         this.slistener.start();
         this.model = null; // forget about previous model
         this.fullmodel = null;
@@ -1701,9 +2096,27 @@ public class Solver<D extends DataStructureFactory>
         if (!alreadylaunched || !this.keepHot) {
             this.order.init();
         }
+        if (this.warmActivities != null) {
+            this.order.setVariableHeuristics(this.warmActivities);
+            IPhaseSelectionStrategy phases = this.order
+                    .getPhaseSelectionStrategy();
+            for (int i = 1; i < this.warmPhases.length; i++) {
+                phases.init(i, this.warmPhases[i]);
+            }
+            this.warmActivities = null;
+            this.warmPhases = null;
+        }
         this.learnedConstraintsDeletionStrategy.init();
         int learnedLiteralsLimit = this.trail.size();
 
+        // eliminated variables cannot be used in assumptions. The clauses
+        // put back in the formula are checked by the propagation below.
+        if (this.inprocessor != null
+                && !this.inprocessor.protect(localAssumps)) {
+            this.slistener.end(Lbool.FALSE);
+            return false;
+        }
+
         // Fix for Bug SAT37
         this.qhead = 0;
         // Apply undos on unit literals because they are getting propagated
@@ -1733,32 +2146,13 @@ public class Solver<D extends DataStructureFactory>
             cancelLearntLiterals(learnedLiteralsLimit);
             return false;
         }
-
         // push incremental assumptions
-        for (IteratorInt iterator = localAssumps.iterator(); iterator
-                .hasNext();) {
-            int p = iterator.next();
-            if (!this.voc.isSatisfied(p) && !assume(p)
-                    || (confl = propagate()) != null) {
-                if (confl == null) {
-                    this.slistener.conflictFound(p);
-                    this.unsatExplanationInTermsOfAssumptions = analyzeFinalConflictInTermsOfAssumptions(
-                            null, assumps, p);
-                    this.unsatExplanationInTermsOfAssumptions.push(toDimacs(p));
-                } else {
-                    this.slistener.conflictFound(confl, decisionLevel(),
-                            this.trail.size());
-                    this.unsatExplanationInTermsOfAssumptions = analyzeFinalConflictInTermsOfAssumptions(
-                            confl, assumps, ILits.UNDEFINED);
-                }
-
-                this.slistener.end(Lbool.FALSE);
-                cancelUntil(0);
-                cancelLearntLiterals(learnedLiteralsLimit);
-                return false;
-            }
+        if (!pushAssumptions(localAssumps, assumps)) {
+            this.slistener.end(Lbool.FALSE);
+            cancelUntil(0);
+            cancelLearntLiterals(learnedLiteralsLimit);
+            return false;
         }
-        this.rootLevel = decisionLevel();
         // moved initialization here if new literals are added in the
         // assumptions.
         this.learner.init();
@@ -1771,26 +2165,22 @@ public class Solver<D extends DataStructureFactory>
         }
         boolean firstTimeGlobal = false;
         if (this.timeBasedTimeout) {
-            if (!global || this.timer == null) {
+            if (!global || this.deadline == null) {
                 firstTimeGlobal = true;
                 this.undertimeout = true;
-                TimerTask stopMe = new TimerTask() {
-                    @Override
-                    public void run() {
-                        Solver.this.undertimeout = false;
-                        Solver.this.timer.cancel();
-                        Solver.this.timer = null;
-                    }
-                };
-                this.timer = new Timer(true);
-                this.timer.schedule(stopMe, this.timeout);
-
+                this.deadline = this.externalDeadline == null ? Deadline
+                        .in(this.timeout) : this.externalDeadline;
             }
         } else {
+            this.deadline = this.externalDeadline;
             if (!global || !alreadylaunched) {
                 firstTimeGlobal = true;
                 this.undertimeout = true;
-                ConflictTimer conflictTimeout = new ConflictTimerAdapter(this,
+                if (alreadylaunched && this.conflictTimeout != null) {
+                    // do not count the conflicts of the previous calls
+                    this.conflictCount.remove(this.conflictTimeout);
+                }
+                this.conflictTimeout = new ConflictTimerAdapter(this,
                         (int) this.timeout) {
                     private static final long serialVersionUID = 1L;
 
@@ -1799,7 +2189,7 @@ public class Solver<D extends DataStructureFactory>
                         getSolver().expireTimeout();
                     }
                 };
-                this.conflictCount.add(conflictTimeout);
+                this.conflictCount.add(this.conflictTimeout);
             }
         }
         if (!global || firstTimeGlobal) {
@@ -1811,11 +2201,19 @@ public class Solver<D extends DataStructureFactory>
         // when using a heuristics limited to a subset of variables
         this.lastConflictMeansUnsat = true;
         // Solve
-        while (status == Lbool.UNDEFINED && this.undertimeout
+        while (status == Lbool.UNDEFINED && isUnderTimeout()
                 && this.lastConflictMeansUnsat) {
-            int before = this.trail.size();
-            unitClauseProvider.provideUnitClauses(this);
-            this.stats.importedUnits += this.trail.size() - before;
+            if (this.unitClauseProvider != UnitClauseProvider.VOID
+                    && !importSharedClauses(localAssumps, assumps)) {
+                status = Lbool.FALSE;
+                break;
+            }
+            if (this.inprocessor != null && decisionLevel() == 0
+                    && this.inprocessor.isDue()
+                    && !this.inprocessor.inprocess()) {
+                status = Lbool.FALSE;
+                break;
+            }
             status = search(assumps);
             if (status == Lbool.UNDEFINED) {
                 this.restarter.onRestart();
@@ -1825,9 +2223,8 @@ public class Solver<D extends DataStructureFactory>
 
         cancelUntil(0);
         cancelLearntLiterals(learnedLiteralsLimit);
-        if (!global && this.timeBasedTimeout && this.timer != null) {
-            this.timer.cancel();
-            this.timer = null;
+        if (!global && this.timeBasedTimeout) {
+            this.deadline = null;
         }
         this.slistener.end(status);
         if (!this.undertimeout) {
@@ -1920,10 +2317,7 @@ public class Solver<D extends DataStructureFactory>
     }
 
     public void reset() {
-        if (this.timer != null) {
-            this.timer.cancel();
-            this.timer = null;
-        }
+        this.deadline = null;
         this.trail.clear();
         this.trailLim.clear();
         this.qhead = 0;
@@ -1939,6 +2333,9 @@ public class Solver<D extends DataStructureFactory>
         this.constrTypes.clear();
         this.undertimeout = true;
         this.declaredMaxVarId = 0;
+        if (this.inprocessor != null) {
+            this.inprocessor.reset();
+        }
     }
 
     public int nVars() {
@@ -1964,6 +2361,9 @@ public class Solver<D extends DataStructureFactory>
                 count.inc();
             }
         } else {
+            if (this.inprocessor != null) {
+                this.inprocessor.restoreIfNeeded(constr);
+            }
             this.constrs.push(constr);
             String type = constr.getClass().getName();
             Counter count = this.constrTypes.get(type);
@@ -2049,6 +2449,11 @@ public class Solver<D extends DataStructureFactory>
         stb.append("DB Simplification allowed=");
         stb.append(this.isDBSimplificationAllowed);
         stb.append("\n");
+        if (this.inprocessor != null) {
+            stb.append(prefix);
+            stb.append(this.inprocessor);
+            stb.append("\n");
+        }
         stb.append(prefix);
         if (isSolverKeptHot()) {
             stb.append(
@@ -2119,6 +2524,29 @@ public class Solver<D extends DataStructureFactory>
         return this.isDBSimplificationAllowed;
     }
 
+    /**
+     * Simplify the formula periodically between restarts.
+     * 
+     * @param inprocessor
+     *            the simplifications to perform, null to disable
+     *            inprocessing.
+     * @see Inprocessor
+     * @since 2.3.6
+     */
+    public void setInprocessor(Inprocessor inprocessor) {
+        this.inprocessor = inprocessor;
+        if (inprocessor != null) {
+            inprocessor.setSolver(this);
+        }
+    }
+
+    /**
+     * @since 2.3.6
+     */
+    public Inprocessor getInprocessor() {
+        return this.inprocessor;
+    }
+
     public void setDBSimplificationAllowed(boolean status) {
         this.isDBSimplificationAllowed = status;
     }
@@ -2476,4 +2904,131 @@ public class Solver<D extends DataStructureFactory>
     public void setUnitClauseProvider(UnitClauseProvider ucp) {
         this.unitClauseProvider = ucp;
     }
+
+    /**
+     * Push the assumptions, each one at its own decision level, and set the
+     * root level of the search above them.
+     * 
+     * @return false iff the assumptions are inconsistent with the formula,
+     *         in which case the explanation in terms of assumptions is
+     *         computed.
+     */
+    private boolean pushAssumptions(IVecInt localAssumps, IVecInt assumps) {
+        Constr confl = null;
+        for (IteratorInt iterator = localAssumps.iterator(); iterator
+                .hasNext();) {
+            int p = iterator.next();
+            if (!this.voc.isSatisfied(p) && !assume(p)
+                    || (confl = propagate()) != null) {
+                if (confl == null) {
+                    this.slistener.conflictFound(p);
+                    this.unsatExplanationInTermsOfAssumptions = analyzeFinalConflictInTermsOfAssumptions(
+                            null, assumps, p);
+                    this.unsatExplanationInTermsOfAssumptions.push(toDimacs(p));
+                } else {
+                    this.slistener.conflictFound(confl, decisionLevel(),
+                            this.trail.size());
+                    this.unsatExplanationInTermsOfAssumptions = analyzeFinalConflictInTermsOfAssumptions(
+                            confl, assumps, ILits.UNDEFINED);
+                }
+                return false;
+            }
+        }
+        this.rootLevel = decisionLevel();
+        return true;
+    }
+
+    /**
+     * Import the units and the clauses provided by the other solvers. They
+     * are valid whatever the assumptions are, so they are imported at
+     * decision level 0: the assumptions are withdrawn first, then pushed
+     * again on top of the imported facts.
+     * 
+     * @return false iff the formula, or the formula under the assumptions,
+     *         is found inconsistent.
+     */
+    private boolean importSharedClauses(IVecInt localAssumps, IVecInt assumps) {
+        cancelUntil(0);
+        int before = this.trail.size();
+        this.unitClauseProvider.provideUnitClauses(this);
+        this.stats.importedUnits += this.trail.size() - before;
+        Constr confl = null;
+        if (this.unitClauseProvider instanceof LearnedClauseProvider
+                && !((LearnedClauseProvider) this.unitClauseProvider)
+                        .provideLearnedClauses(this)
+                || (confl = propagate()) != null) {
+            if (confl != null) {
+                analyzeAtRootLevel(confl);
+                this.slistener.conflictFound(confl, 0, this.trail.size());
+            }
+            this.unsatExplanationInTermsOfAssumptions = analyzeFinalConflictInTermsOfAssumptions(
+                    null, assumps, ILits.UNDEFINED);
+            return false;
+        }
+        return pushAssumptions(localAssumps, assumps);
+    }
+
+    /**
+     * Add a clause learned elsewhere to the learned clauses, at decision level
+     * 0. The clause is ignored if it is satisfied or if it contains a variable
+     * eliminated by the inprocessor. Imported clauses are not notified to the
+     * search listener.
+     * 
+     * @since 2.3.6
+     */
+    public boolean importLearnedClause(int[] clause, int lbd) {
+        assert decisionLevel() == 0;
+        IVecInt literals = new VecInt(clause.length);
+        int p;
+        for (int d : clause) {
+            p = toInternal(d);
+            if (this.voc.isSatisfied(p) || this.inprocessor != null
+                    && this.inprocessor.isEliminated(var(p))) {
+                return true;
+            }
+            if (!this.voc.isFalsified(p)) {
+                literals.push(p);
+            }
+        }
+        if (literals.size() == 0) {
+            return false;
+        }
+        if (literals.size() == 1) {
+            this.stats.importedUnits++;
+            return enqueue(literals.get(0));
+        }
+        Constr constr = this.dsfactory.createUnregisteredClause(literals);
+        constr.setLearnt();
+        constr.register();
+        constr.setActivity(lbd);
+        this.learnts.push(constr);
+        this.stats.importedClauses++;
+        return true;
+    }
+
+    /**
+     * @since 2.3.6
+     */
+    public void saveSnapshot(OutputStream out, int maxLBD)
+            throws IOException {
+        if (this.inprocessor != null
+                && this.inprocessor.hasEliminatedVariables()) {
+            throw new UnsupportedOperationException(
+                    "Cannot save a snapshot once variables are eliminated");
+        }
+        SolverSnapshot.save(this, out, maxLBD);
+    }
+
+    /**
+     * @since 2.3.6
+     */
+    public void loadSnapshot(InputStream in) throws IOException,
+            ContradictionException {
+        SolverSnapshot.load(this, in);
+    }
+
+    void warmStart(double[] activities, int[] phases) {
+        this.warmActivities = activities;
+        this.warmPhases = phases;
+    }
 }
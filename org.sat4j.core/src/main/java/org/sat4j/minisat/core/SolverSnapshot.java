@@ -0,0 +1,375 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.sat4j.core.LiteralsUtils.neg;
+import static org.sat4j.core.LiteralsUtils.posLit;
+import static org.sat4j.core.LiteralsUtils.toDimacs;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.IntBuffer;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+
+/**
+ * Compact binary snapshot of the state of a solver, used to warm start a new
+ * solver on the same formula.
+ * 
+ * The snapshot contains, after a header:
+ * <ol>
+ * <li>the number of variables,</li>
+ * <li>the literals fixed at decision level 0 as unit clauses, followed by the
+ * original clauses simplified by those literals,</li>
+ * <li>the learned clauses with their LBD, as recorded by the LBD based
+ * deletion strategies or computed from the decision levels,</li>
+ * <li>the activity and the saved phase of each variable, if the search has
+ * already started.</li>
+ * </ol>
+ * Integers are stored using a variable length encoding (7 bits per byte),
+ * literals are stored as 2*var+sign as in the binary DRAT format, and clauses
+ * are terminated by 0. The encoding is done in a local buffer, so that the
+ * stream only receives large blocks of bytes.
+ * 
+ * @since 2.3.6
+ */
+final class SolverSnapshot {
+
+    private static final int MAGIC = 0x53344a53;
+
+    private static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private SolverSnapshot() {
+        // no instances
+    }
+
+    static void save(Solver<?> solver, OutputStream stream, int maxLBD)
+            throws IOException {
+        Encoder out = new Encoder(stream);
+        out.writeFixedInt(MAGIC);
+        out.writeFixedInt(VERSION);
+        int nVars = solver.realNumberOfVariables();
+        out.writeInt(solver.nVars());
+        out.writeInt(nVars);
+        int rootTrail = solver.trailLim.size() == 0 ? solver.trail.size()
+                : solver.trailLim.get(0);
+        IVecInt literals = new VecInt();
+        for (int i = 0; i < rootTrail; i++) {
+            literals.push(solver.trail.get(i));
+            out.writeClause(literals);
+            literals.clear();
+        }
+        IVec<Constr> constrs = solver.constrs;
+        for (int i = 0; i < constrs.size(); i++) {
+            Constr constr = constrs.get(i);
+            if (!isClause(constr)) {
+                throw new UnsupportedOperationException(
+                        "Only clauses can be saved in a snapshot: " + constr);
+            }
+            if (simplify(solver.voc, constr, literals)) {
+                out.writeClause(literals);
+            }
+            literals.clear();
+        }
+        out.writeInt(0);
+        IVec<Constr> learnts = solver.learnts;
+        // only the LBD based strategies store the LBD as the activity
+        boolean lbdBased = solver.learnedConstraintsDeletionStrategy
+                instanceof GlucoseLCDS<?>;
+        boolean[] seen = new boolean[solver.decisionLevel() + 1];
+        for (int i = 0; i < learnts.size(); i++) {
+            Constr constr = learnts.get(i);
+            if (isClause(constr) && simplify(solver.voc, constr, literals)) {
+                int lbd = lbdBased ? Math.max(1, (int) constr.getActivity())
+                        : computeLBD(solver.voc, literals, seen);
+                if (lbd <= maxLBD) {
+                    out.writeInt(lbd);
+                    out.writeClause(literals);
+                }
+            }
+            literals.clear();
+        }
+        out.writeInt(0);
+        IOrder order = solver.getOrder();
+        double[] activities = order.getVariableHeuristics();
+        if (activities.length > nVars) {
+            out.writeInt(1);
+            double max = 0.0;
+            for (int i = 1; i <= nVars; i++) {
+                max = Math.max(max, activities[i]);
+            }
+            // the activities are scaled down to [0,1] so that the first
+            // conflicts of the new session weight as much as the past ones
+            for (int i = 1; i <= nVars; i++) {
+                out.writeFixedInt(Float.floatToIntBits(
+                        max > 0.0 ? (float) (activities[i] / max) : 0f));
+            }
+            IPhaseSelectionStrategy phases = order.getPhaseSelectionStrategy();
+            for (int i = 1; i <= nVars; i++) {
+                out.writeByte(phases.select(i) == posLit(i) ? 1 : 0);
+            }
+        } else {
+            out.writeInt(0);
+        }
+        out.flush();
+    }
+
+    static void load(Solver<?> solver, InputStream stream) throws IOException,
+            ContradictionException {
+        Decoder in = new Decoder(stream);
+        if (in.readFixedInt() != MAGIC) {
+            throw new IOException("Not a solver snapshot");
+        }
+        int version = in.readFixedInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        solver.newVar(in.readInt());
+        int nVars = in.readInt();
+        solver.voc.ensurePool(nVars);
+        VecInt clauses = new VecInt(BUFFER_SIZE);
+        while (in.readClause(clauses)) {
+            clauses.push(0);
+        }
+        solver.addAllClauses(IntBuffer.wrap(clauses.toArray(), 0,
+                clauses.size()));
+        clauses.clear();
+        int lbd;
+        while ((lbd = in.readInt()) != 0) {
+            in.readClause(clauses);
+            int[] clause = new int[clauses.size()];
+            clauses.copyTo(clause);
+            if (!solver.importLearnedClause(clause, lbd)) {
+                throw new ContradictionException(
+                        "The learned clauses are inconsistent");
+            }
+            clauses.clear();
+        }
+        if (in.readInt() != 0) {
+            double[] activities = new double[nVars + 1];
+            for (int i = 1; i <= nVars; i++) {
+                activities[i] = Float.intBitsToFloat(in.readFixedInt());
+            }
+            int[] phases = new int[nVars + 1];
+            for (int i = 1; i <= nVars; i++) {
+                phases[i] = in.readByte() != 0 ? posLit(i) : neg(posLit(i));
+            }
+            solver.warmStart(activities, phases);
+        }
+    }
+
+    /**
+     * Remove the literals falsified at decision level 0. The constraint is
+     * kept as is if all its literals are falsified, since the empty clause
+     * marks the end of a section.
+     * 
+     * @return false iff the constraint is satisfied at decision level 0.
+     */
+    private static boolean simplify(ILits voc, Constr constr,
+            IVecInt literals) {
+        for (int j = 0; j < constr.size(); j++) {
+            int p = constr.get(j);
+            if (voc.isSatisfied(p) && voc.getLevel(p) == 0) {
+                return false;
+            }
+            if (!voc.isFalsified(p) || voc.getLevel(p) != 0) {
+                literals.push(p);
+            }
+        }
+        if (literals.size() == 0) {
+            for (int j = 0; j < constr.size(); j++) {
+                literals.push(constr.get(j));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compute the number of distinct decision levels of the literals, each
+     * unassigned literal counting for one level.
+     * 
+     * @param seen
+     *            an array indexed by decision level, all false, left unchanged.
+     */
+    private static int computeLBD(ILits voc, IVecInt literals,
+            boolean[] seen) {
+        int lbd = 0;
+        for (int i = 0; i < literals.size(); i++) {
+            int p = literals.get(i);
+            if (voc.isUnassigned(p)) {
+                lbd++;
+            } else if (!seen[voc.getLevel(p)]) {
+                seen[voc.getLevel(p)] = true;
+                lbd++;
+            }
+        }
+        for (int i = 0; i < literals.size(); i++) {
+            int p = literals.get(i);
+            if (!voc.isUnassigned(p)) {
+                seen[voc.getLevel(p)] = false;
+            }
+        }
+        return Math.max(1, lbd);
+    }
+
+    private static boolean isClause(Constr constr) {
+        try {
+            return constr.canBeSatisfiedByCountingLiterals()
+                    && constr.requiredNumberOfSatisfiedLiterals() == 1;
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    private static final class Encoder {
+        private final OutputStream out;
+
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        private int pos;
+
+        Encoder(OutputStream out) {
+            this.out = out;
+        }
+
+        void writeClause(IVecInt literals) throws IOException {
+            for (int i = 0; i < literals.size(); i++) {
+                // internal literals are already 2*var+sign
+                writeInt(literals.get(i));
+            }
+            writeInt(0);
+        }
+
+        void writeInt(int value) throws IOException {
+            if (this.pos > BUFFER_SIZE - 5) {
+                drain();
+            }
+            int u = value;
+            while ((u & ~0x7f) != 0) {
+                this.buffer[this.pos++] = (byte) (u & 0x7f | 0x80);
+                u >>>= 7;
+            }
+            this.buffer[this.pos++] = (byte) u;
+        }
+
+        void writeFixedInt(int value) throws IOException {
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                writeByte(value >>> shift);
+            }
+        }
+
+        void writeByte(int b) throws IOException {
+            if (this.pos == BUFFER_SIZE) {
+                drain();
+            }
+            this.buffer[this.pos++] = (byte) b;
+        }
+
+        void flush() throws IOException {
+            drain();
+            this.out.flush();
+        }
+
+        private void drain() throws IOException {
+            this.out.write(this.buffer, 0, this.pos);
+            this.pos = 0;
+        }
+    }
+
+    private static final class Decoder {
+        private final InputStream in;
+
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        private int pos;
+
+        private int limit;
+
+        Decoder(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * Read a clause, using Dimacs literals.
+         * 
+         * @return false if the end of the section is reached.
+         */
+        boolean readClause(IVecInt literals) throws IOException {
+            int p = readInt();
+            if (p == 0) {
+                return false;
+            }
+            do {
+                literals.push(toDimacs(p));
+            } while ((p = readInt()) != 0);
+            return true;
+        }
+
+        int readInt() throws IOException {
+            int value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = readByte();
+                value |= (b & 0x7f) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        int readFixedInt() throws IOException {
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                value = value << 8 | readByte();
+            }
+            return value;
+        }
+
+        int readByte() throws IOException {
+            if (this.pos == this.limit) {
+                this.limit = this.in.read(this.buffer);
+                this.pos = 0;
+                if (this.limit <= 0) {
+                    this.limit = 0;
+                    throw new EOFException("Truncated solver snapshot");
+                }
+            }
+            return this.buffer[this.pos++] & 0xff;
+        }
+    }
+}
@@ -72,12 +72,28 @@ public class SolverStats implements Serializable {
 
     public int reduceddb;
 
-    public int shortcuts;
+    public long shortcuts;
 
     public long updateLBD;
 
     public int importedUnits;
 
+    public long importedClauses;
+
+    public long limitedBackjumps;
+
+    public int inprocessings;
+
+    public long failedLiterals;
+
+    public long subsumedClauses;
+
+    public long strengthenedClauses;
+
+    public long eliminatedVariables;
+
+    public long vivifiedClauses;
+
     public void reset() {
         this.starts = 0;
         this.decisions = 0;
@@ -96,6 +112,14 @@ public class SolverStats implements Serializable {
         this.reduceddb = 0;
         this.updateLBD = 0;
         this.importedUnits = 0;
+        this.importedClauses = 0;
+        this.limitedBackjumps = 0;
+        this.inprocessings = 0;
+        this.failedLiterals = 0;
+        this.subsumedClauses = 0;
+        this.strengthenedClauses = 0;
+        this.eliminatedVariables = 0;
+        this.vivifiedClauses = 0;
     }
 
     public void printStat(PrintWriter out, String prefix) {
@@ -105,6 +129,10 @@ public class SolverStats implements Serializable {
         out.println(prefix + "propagations\t\t: " + this.propagations);
         out.println(prefix + "inspects\t\t: " + this.inspects);
         out.println(prefix + "shortcuts\t\t: " + this.shortcuts);
+        if (this.shortcuts > 0) {
+            out.println(prefix + "blocker hit rate\t: "
+                    + (this.shortcuts * 100 / this.inspects) + "%");
+        }
         out.println(prefix + "learnt literals\t: " + this.learnedliterals);
         out.println(prefix + "learnt binary clauses\t: "
                 + this.learnedbinaryclauses);
@@ -123,6 +151,27 @@ public class SolverStats implements Serializable {
                 + this.updateLBD);
         out.println(prefix + "Imported unit clauses\t: "
                 + this.importedUnits);
+        if (this.importedClauses > 0) {
+            out.println(prefix + "Imported learned clauses\t: "
+                    + this.importedClauses);
+        }
+        if (this.limitedBackjumps > 0) {
+            out.println(prefix + "limited backjumps\t\t: "
+                    + this.limitedBackjumps);
+        }
+        if (this.inprocessings > 0) {
+            out.println(prefix + "inprocessings\t\t: " + this.inprocessings);
+            out.println(prefix + "failed literals\t\t: "
+                    + this.failedLiterals);
+            out.println(prefix + "subsumed clauses\t: "
+                    + this.subsumedClauses);
+            out.println(prefix + "strengthened clauses\t: "
+                    + this.strengthenedClauses);
+            out.println(prefix + "eliminated variables\t: "
+                    + this.eliminatedVariables);
+            out.println(prefix + "vivified learned clauses\t: "
+                    + this.vivifiedClauses);
+        }
     }
 
     public Map<String, Number> toMap() {
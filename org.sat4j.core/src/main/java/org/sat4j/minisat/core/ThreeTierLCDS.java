@@ -0,0 +1,340 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import java.io.Serializable;
+
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.IVec;
+
+/**
+ * A learned constraints deletion strategy keeping the learned clauses in three
+ * tiers according to their LBD, as found in recent CDCL solvers:
+ * <ul>
+ * <li>core clauses (LBD &lt;= 2) are never removed,</li>
+ * <li>tier2 clauses (LBD &lt;= 6) are kept as long as they are used in
+ * conflict analysis. Those unused since the previous tier2 check are moved to
+ * the local tier,</li>
+ * <li>local clauses are reduced regularly: the half of the local clauses not
+ * used since the previous reduction with the highest LBD is removed.</li>
+ * </ul>
+ * 
+ * A clause is promoted to a better tier as soon as its LBD, updated on
+ * propagation as in Glucose 2, reaches the bound of that tier. Each tier has
+ * its own schedule, and the selection of the local clauses to remove relies
+ * on a counting of the LBD values instead of sorting the learned clauses.
+ * 
+ * The LBD of a learned clause is stored in its activity, as in
+ * {@link GlucoseLCDS}. Whether the clause has been moved to the local tier
+ * and whether it has been used in conflict analysis since the last check of
+ * its tier are stored as flags in the fractional part of that activity.
+ * 
+ * @since 2.3.6
+ */
+final class ThreeTierLCDS<D extends DataStructureFactory> extends
+        Glucose2LCDS<D> {
+
+    private static final long serialVersionUID = 1L;
+
+    static final int CORE = 0;
+
+    static final int TIER2 = 1;
+
+    static final int LOCAL = 2;
+
+    static final int CORE_LBD = 2;
+
+    static final int TIER2_LBD = 6;
+
+    private static final int TIER2_INTERVAL = 10000;
+
+    private static final int FIRST_LOCAL_REDUCTION = 2000;
+
+    private static final int LOCAL_REDUCTION_INCREMENT = 300;
+
+    private static final int MAX_LBD = 64;
+
+    /**
+     * Flag of the clauses used in conflict analysis since the last check of
+     * their tier.
+     */
+    private static final int USED = 1;
+
+    /**
+     * Flag of the tier2 clauses moved to the local tier.
+     */
+    private static final int DEMOTED = 2;
+
+    /**
+     * The flags are stored in the activity as multiples of that value.
+     */
+    private static final double FLAG_UNIT = 0.25;
+
+    private final Solver<D> solver;
+
+    private final int[] lbdCount = new int[MAX_LBD];
+
+    private final ConflictTimer tier2Timer;
+
+    private final ConflictTimer localTimer;
+
+    private boolean tier2CheckDue;
+
+    private boolean localReductionDue;
+
+    private static final class Tier2Timer extends ConflictTimerAdapter {
+        private static final long serialVersionUID = 1L;
+        private final ThreeTierLCDS<?> lcds;
+
+        Tier2Timer(ThreeTierLCDS<?> lcds,
+                Solver<? extends DataStructureFactory> solver) {
+            super(solver, TIER2_INTERVAL);
+            this.lcds = lcds;
+        }
+
+        @Override
+        public void run() {
+            this.lcds.tier2CheckDue = true;
+            getSolver().setNeedToReduceDB(true);
+        }
+
+        @Override
+        public String toString() {
+            return "check tier2 every " + bound() + " conflicts";
+        }
+    }
+
+    private static final class LocalTimer implements ConflictTimer,
+            Serializable {
+        private static final long serialVersionUID = 1L;
+        private final ThreeTierLCDS<?> lcds;
+        private int nbconflict = 0;
+        private int nextbound = FIRST_LOCAL_REDUCTION;
+
+        LocalTimer(ThreeTierLCDS<?> lcds) {
+            this.lcds = lcds;
+        }
+
+        public void reset() {
+            this.nbconflict = 0;
+            this.nextbound = FIRST_LOCAL_REDUCTION;
+        }
+
+        public void newConflict() {
+            if (++this.nbconflict >= this.nextbound) {
+                this.nbconflict = 0;
+                this.nextbound += LOCAL_REDUCTION_INCREMENT;
+                this.lcds.localReductionDue = true;
+                this.lcds.solver.setNeedToReduceDB(true);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "reduce local tier after " + FIRST_LOCAL_REDUCTION
+                    + " conflicts step " + LOCAL_REDUCTION_INCREMENT;
+        }
+    }
+
+    ThreeTierLCDS(Solver<D> solver) {
+        super(solver, new ConflictTimerContainer());
+        this.solver = solver;
+        ConflictTimerContainer container = (ConflictTimerContainer) getTimer();
+        this.tier2Timer = new Tier2Timer(this, solver);
+        this.localTimer = new LocalTimer(this);
+        container.add(this.tier2Timer);
+        container.add(this.localTimer);
+    }
+
+    static int tierOf(int lbd) {
+        if (lbd <= CORE_LBD) {
+            return CORE;
+        }
+        if (lbd <= TIER2_LBD) {
+            return TIER2;
+        }
+        return LOCAL;
+    }
+
+    private static int lbd(Constr constr) {
+        return (int) constr.getActivity();
+    }
+
+    private static int flags(Constr constr) {
+        double activity = constr.getActivity();
+        return (int) ((activity - (int) activity) / FLAG_UNIT);
+    }
+
+    private static void setFlags(Constr constr, int lbd, int flags) {
+        constr.setActivity(lbd + flags * FLAG_UNIT);
+    }
+
+    @Override
+    public void init() {
+        super.init();
+        this.tier2CheckDue = false;
+        this.localReductionDue = false;
+    }
+
+    @Override
+    public void onConflictAnalysis(Constr reason) {
+        if (reason.learnt()) {
+            setFlags(reason, lbd(reason), flags(reason) | USED);
+        }
+    }
+
+    @Override
+    public void onPropagation(Constr from) {
+        int lbd = lbd(from);
+        if (lbd > CORE_LBD) {
+            int nblevel = computeLBD(from);
+            if (nblevel < lbd) {
+                this.solver.stats.updateLBD++;
+                int flags = flags(from);
+                if (tierOf(nblevel) < tier(from)) {
+                    flags &= ~DEMOTED;
+                }
+                setFlags(from, nblevel, flags);
+            }
+        }
+    }
+
+    @Override
+    public void reduce(IVec<Constr> learnedConstrs) {
+        if (this.tier2CheckDue) {
+            this.tier2CheckDue = false;
+            checkTier2(learnedConstrs);
+        }
+        if (this.localReductionDue) {
+            this.localReductionDue = false;
+            reduceLocal(learnedConstrs);
+        }
+    }
+
+    /**
+     * Move to the local tier the tier2 clauses unused since the previous
+     * check.
+     */
+    private void checkTier2(IVec<Constr> learnedConstrs) {
+        int demoted = 0;
+        for (int i = 0; i < learnedConstrs.size(); i++) {
+            Constr c = learnedConstrs.get(i);
+            if (tier(c) == TIER2) {
+                if ((flags(c) & USED) != 0) {
+                    setFlags(c, lbd(c), flags(c) & ~USED);
+                } else {
+                    setFlags(c, lbd(c), flags(c) | DEMOTED);
+                    demoted++;
+                }
+            }
+        }
+        if (this.solver.isVerbose()) {
+            this.solver.out.log(this.solver.getLogPrefix() + "moving "
+                    + demoted + " tier2 clauses to the local tier");
+        }
+    }
+
+    /**
+     * Remove half of the local clauses neither locked nor used since the
+     * previous reduction, those with the highest LBD first.
+     */
+    private void reduceLocal(IVec<Constr> learnedConstrs) {
+        int candidates = 0;
+        for (int i = 0; i < MAX_LBD; i++) {
+            this.lbdCount[i] = 0;
+        }
+        for (int i = 0; i < learnedConstrs.size(); i++) {
+            Constr c = learnedConstrs.get(i);
+            if (tier(c) == LOCAL && (flags(c) & USED) == 0 && !c.locked()) {
+                this.lbdCount[bucket(c)]++;
+                candidates++;
+            }
+        }
+        // find the LBD from which clauses are removed
+        int toRemove = candidates / 2;
+        int threshold = MAX_LBD;
+        int atThreshold = 0;
+        for (int acc = 0; acc < toRemove;) {
+            threshold--;
+            atThreshold = Math.min(this.lbdCount[threshold], toRemove - acc);
+            acc += this.lbdCount[threshold];
+        }
+        int i, j;
+        for (i = j = 0; i < learnedConstrs.size(); i++) {
+            Constr c = learnedConstrs.get(i);
+            if (tier(c) == LOCAL && !c.locked()) {
+                if ((flags(c) & USED) != 0) {
+                    setFlags(c, lbd(c), flags(c) & ~USED);
+                } else {
+                    int lbd = bucket(c);
+                    if (lbd > threshold || lbd == threshold
+                            && atThreshold-- > 0) {
+                        c.remove(this.solver);
+                        this.solver.slistener.delete(c);
+                        continue;
+                    }
+                }
+            }
+            learnedConstrs.set(j++, c);
+        }
+        if (this.solver.isVerbose()) {
+            this.solver.out.log(this.solver.getLogPrefix()
+                    + "cleaning " + (learnedConstrs.size() - j) //$NON-NLS-1$
+                    + " local clauses out of " + learnedConstrs.size()); //$NON-NLS-1$
+        }
+        learnedConstrs.shrinkTo(j);
+    }
+
+    private static int bucket(Constr c) {
+        return Math.min(lbd(c), MAX_LBD - 1);
+    }
+
+    /**
+     * 
+     * @param constr
+     *            a learned clause
+     * @return the tier of that clause, one of {@link #CORE}, {@link #TIER2}
+     *         or {@link #LOCAL}.
+     */
+    int tier(Constr constr) {
+        if ((flags(constr) & DEMOTED) != 0) {
+            return LOCAL;
+        }
+        return tierOf(lbd(constr));
+    }
+
+    @Override
+    public String toString() {
+        return "Three tiers (core LBD<=" + CORE_LBD + ", tier2 LBD<="
+                + TIER2_LBD
+                + ", local) learned constraints deletion strategy, "
+                + this.tier2Timer + ", " + this.localTimer;
+    }
+}
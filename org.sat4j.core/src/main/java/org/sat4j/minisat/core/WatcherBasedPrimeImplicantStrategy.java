@@ -140,6 +140,12 @@ public class WatcherBasedPrimeImplicantStrategy implements
     Constr reduceClausesContainingTheNegationOfPI(
             Solver<? extends DataStructureFactory> solver, int p) {
         assert p > 1;
+        if (solver.binaries != null) {
+            final int[] implied = solver.binaries.implications(p);
+            for (int i = solver.binaries.size(p) - 1; i >= 0; i--) {
+                isMandatory(implied[i]);
+            }
+        }
         IVec<Propagatable> lwatched = solver.watched;
         lwatched.clear();
         solver.voc.watches(p).moveTo(lwatched);
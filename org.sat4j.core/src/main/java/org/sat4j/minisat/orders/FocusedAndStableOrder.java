@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.orders;
+
+import java.io.PrintWriter;
+import java.io.Serializable;
+
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.minisat.core.IOrder;
+import org.sat4j.minisat.core.IPhaseSelectionStrategy;
+import org.sat4j.minisat.restarts.StableModeRestarts;
+
+/**
+ * Uses a different heuristics in focused mode and in stable mode, typically
+ * VMTF in focused mode and VSIDS in stable mode as in CaDiCaL and Kissat. The
+ * mode is switched by {@link StableModeRestarts}.
+ * 
+ * Both heuristics share the same phase selection strategy. Only the
+ * heuristics of the current mode is bumped, but both are told about the
+ * unassigned variables, so that either can take over at any time.
+ * 
+ * @since 2.3.6
+ */
+public class FocusedAndStableOrder implements IOrder, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final IOrder focused;
+
+    private final IOrder stable;
+
+    private IOrder current;
+
+    public FocusedAndStableOrder(IPhaseSelectionStrategy strategy) {
+        this(new VMTFOrder(strategy), new VarOrderHeap(strategy));
+    }
+
+    /**
+     * 
+     * @param focused
+     *            the heuristics used in focused mode.
+     * @param stable
+     *            the heuristics used in stable mode.
+     */
+    public FocusedAndStableOrder(IOrder focused, IOrder stable) {
+        this.focused = focused;
+        this.stable = stable;
+        this.current = focused;
+    }
+
+    public void setStableMode(boolean stableMode) {
+        this.current = stableMode ? this.stable : this.focused;
+    }
+
+    public boolean isStableMode() {
+        return this.current == this.stable;
+    }
+
+    public void setLits(ILits lits) {
+        this.focused.setLits(lits);
+        this.stable.setLits(lits);
+    }
+
+    public int select() {
+        return this.current.select();
+    }
+
+    public void undo(int x) {
+        this.focused.undo(x);
+        this.stable.undo(x);
+    }
+
+    public void removeVariable(int var) {
+        this.focused.removeVariable(var);
+        this.stable.removeVariable(var);
+    }
+
+    public void updateVar(int p) {
+        this.current.updateVar(p);
+    }
+
+    public void init() {
+        this.focused.init();
+        this.stable.init();
+        this.current = this.focused;
+    }
+
+    public void printStat(PrintWriter out, String prefix) {
+        this.focused.printStat(out, prefix);
+        this.stable.printStat(out, prefix);
+    }
+
+    public void setVarDecay(double d) {
+        this.focused.setVarDecay(d);
+        this.stable.setVarDecay(d);
+    }
+
+    public void varDecayActivity() {
+        this.current.varDecayActivity();
+    }
+
+    public double varActivity(int p) {
+        return this.current.varActivity(p);
+    }
+
+    public void assignLiteral(int p) {
+        this.current.assignLiteral(p);
+    }
+
+    public void setPhaseSelectionStrategy(IPhaseSelectionStrategy strategy) {
+        this.focused.setPhaseSelectionStrategy(strategy);
+        this.stable.setPhaseSelectionStrategy(strategy);
+    }
+
+    public IPhaseSelectionStrategy getPhaseSelectionStrategy() {
+        return this.current.getPhaseSelectionStrategy();
+    }
+
+    public void updateVarAtDecisionLevel(int q) {
+        this.current.updateVarAtDecisionLevel(q);
+    }
+
+    public double[] getVariableHeuristics() {
+        return this.stable.getVariableHeuristics();
+    }
+
+    public void setVariableHeuristics(double[] heuristics) {
+        this.stable.setVariableHeuristics(heuristics);
+    }
+
+    @Override
+    public String toString() {
+        return "focused mode: " + this.focused + ", stable mode: " //$NON-NLS-1$ //$NON-NLS-2$
+                + this.stable;
+    }
+}
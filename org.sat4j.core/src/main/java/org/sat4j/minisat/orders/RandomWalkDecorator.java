@@ -124,6 +124,10 @@ public class RandomWalkDecorator implements IOrder, Serializable {
         this.decorated.undo(x);
     }
 
+    public void removeVariable(int var) {
+        this.decorated.removeVariable(var);
+    }
+
     public void updateVar(int q) {
         this.decorated.updateVar(q);
     }
@@ -149,4 +153,8 @@ public class RandomWalkDecorator implements IOrder, Serializable {
         return this.decorated.getVariableHeuristics();
     }
 
+    public void setVariableHeuristics(double[] heuristics) {
+        this.decorated.setVariableHeuristics(heuristics);
+    }
+
 }
@@ -55,7 +55,7 @@ public class SubsetVarOrder extends VarOrderHeap {
         this.inSubset = new boolean[nlength];
         this.phaseStrategy.init(nlength);
         this.activity[0] = -1;
-        this.heap = new Heap(new ActivityBasedVariableComparator(this.activity));
+        this.heap = new Heap(this.activity);
         this.heap.setBounds(nlength);
         for (int var : this.varsToTest) {
             assert var > 0;
@@ -121,6 +121,11 @@ public class TabuListDecorator implements IOrder {
         }
     }
 
+    public void removeVariable(int var) {
+        this.tabuList.remove(Integer.valueOf(var));
+        this.decorated.removeVariable(var);
+    }
+
     public void updateVar(int q) {
         this.decorated.updateVar(q);
     }
@@ -147,4 +152,8 @@ public class TabuListDecorator implements IOrder {
         return this.decorated.getVariableHeuristics();
     }
 
+    public void setVariableHeuristics(double[] heuristics) {
+        this.decorated.setVariableHeuristics(heuristics);
+    }
+
 }
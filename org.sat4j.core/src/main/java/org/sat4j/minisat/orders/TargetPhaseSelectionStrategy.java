@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.orders;
+
+import static org.sat4j.core.LiteralsUtils.neg;
+import static org.sat4j.core.LiteralsUtils.negLit;
+import static org.sat4j.core.LiteralsUtils.posLit;
+import static org.sat4j.core.LiteralsUtils.var;
+
+/**
+ * Phase saving extended with target phases and rephasing, as found in CaDiCaL
+ * and Kissat.
+ * 
+ * On top of the phase of the latest assignment, that strategy records the
+ * target phases, i.e. the phases of the largest conflict free assignment seen
+ * since the last rephasing or mode switch, and the best phases, i.e. the
+ * phases of the largest conflict free assignment seen since the last
+ * rephasing to the best phases.
+ * 
+ * In stable mode, decisions follow the target phases, else the latest
+ * assignment. The saved phases are periodically reset to the best, original,
+ * inverted or random phases.
+ * 
+ * That strategy must be notified of the size of the trail on conflicts and of
+ * the restarts, which is the role of
+ * {@link org.sat4j.minisat.restarts.StableModeRestarts}. Used alone, it
+ * behaves like {@link RSATPhaseSelectionStrategy}.
+ * 
+ * @since 2.3.6
+ */
+public final class TargetPhaseSelectionStrategy extends
+        AbstractPhaserecordingSelectionStrategy {
+
+    /**
+     * 
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The phases applied in turn when rephasing.
+     */
+    public enum Rephase {
+        BEST, ORIGINAL, INVERTED, RANDOM;
+    }
+
+    private static final Rephase[] SCHEDULE = { Rephase.BEST,
+            Rephase.ORIGINAL, Rephase.BEST, Rephase.INVERTED, Rephase.BEST,
+            Rephase.RANDOM };
+
+    /**
+     * Number of conflicts before the first rephasing. The interval grows
+     * arithmetically afterward.
+     */
+    public static final int DEFAULT_REPHASE_INTERVAL = 1000;
+
+    private int[] original;
+
+    private int[] target;
+
+    private int[] best;
+
+    private int targetSize;
+
+    private int bestSize;
+
+    private boolean stable;
+
+    private final int rephaseInterval;
+
+    private long nextRephase;
+
+    private int rephases;
+
+    public TargetPhaseSelectionStrategy() {
+        this(DEFAULT_REPHASE_INTERVAL);
+    }
+
+    /**
+     * @param rephaseInterval
+     *            the number of conflicts before the first rephasing.
+     */
+    public TargetPhaseSelectionStrategy(int rephaseInterval) {
+        this.rephaseInterval = rephaseInterval;
+    }
+
+    @Override
+    public void init(int nlength) {
+        super.init(nlength);
+        if (this.original == null || this.original.length < nlength) {
+            this.original = new int[nlength];
+            this.target = new int[nlength];
+            this.best = new int[nlength];
+        }
+        System.arraycopy(this.phase, 0, this.original, 0, nlength);
+        System.arraycopy(this.phase, 0, this.target, 0, nlength);
+        System.arraycopy(this.phase, 0, this.best, 0, nlength);
+        this.targetSize = 0;
+        this.bestSize = 0;
+        this.stable = false;
+        this.rephases = 0;
+        this.nextRephase = this.rephaseInterval;
+    }
+
+    @Override
+    public void init(int var, int p) {
+        super.init(var, p);
+        this.original[var] = p;
+        this.target[var] = p;
+        this.best[var] = p;
+    }
+
+    public void assignLiteral(int p) {
+        this.phase[var(p)] = p;
+    }
+
+    @Override
+    public int select(int var) {
+        if (this.stable) {
+            return this.target[var];
+        }
+        return this.phase[var];
+    }
+
+    /**
+     * Switch between stable mode (decisions follow the target phases) and
+     * focused mode (decisions follow the latest assignment).
+     * 
+     * @param stable
+     *            true to enter stable mode.
+     */
+    public void setStableMode(boolean stable) {
+        if (this.stable != stable) {
+            this.stable = stable;
+            this.targetSize = 0;
+        }
+    }
+
+    public boolean isStableMode() {
+        return this.stable;
+    }
+
+    /**
+     * To be called on each conflict, before backjumping.
+     * 
+     * @param trailSize
+     *            the number of literals assigned before the decision level of
+     *            the conflict, i.e. the size of the conflict-free assignment.
+     */
+    public void updateTarget(int trailSize) {
+        if (trailSize > this.targetSize) {
+            this.targetSize = trailSize;
+            System.arraycopy(this.phase, 0, this.target, 0, this.phase.length);
+        }
+        if (trailSize > this.bestSize) {
+            this.bestSize = trailSize;
+            System.arraycopy(this.phase, 0, this.best, 0, this.phase.length);
+        }
+    }
+
+    /**
+     * To be called on restarts. Resets the saved phases when enough conflicts
+     * occurred since the previous rephasing.
+     * 
+     * @param conflicts
+     *            the number of conflicts since the beginning of the search.
+     * @return true iff the phases were reset.
+     */
+    public boolean rephase(long conflicts) {
+        if (conflicts < this.nextRephase) {
+            return false;
+        }
+        Rephase kind = SCHEDULE[this.rephases % SCHEDULE.length];
+        this.rephases++;
+        this.nextRephase = conflicts + (long) this.rephaseInterval
+                * (this.rephases + 1);
+        switch (kind) {
+        case BEST:
+            System.arraycopy(this.best, 0, this.phase, 0, this.phase.length);
+            this.bestSize = 0;
+            break;
+        case ORIGINAL:
+            System.arraycopy(this.original, 0, this.phase, 0,
+                    this.phase.length);
+            break;
+        case INVERTED:
+            for (int i = 1; i < this.phase.length; i++) {
+                this.phase[i] = neg(this.original[i]);
+            }
+            break;
+        case RANDOM:
+            for (int i = 1; i < this.phase.length; i++) {
+                this.phase[i] = RandomLiteralSelectionStrategy.RAND
+                        .nextBoolean() ? posLit(i) : negLit(i);
+            }
+            break;
+        }
+        System.arraycopy(this.phase, 0, this.target, 0, this.phase.length);
+        this.targetSize = 0;
+        return true;
+    }
+
+    public int getNumberOfRephases() {
+        return this.rephases;
+    }
+
+    @Override
+    public String toString() {
+        return "target phases with rephasing (best, original, inverted, random) every "
+                + this.rephaseInterval + " conflicts (increasing)";
+    }
+
+    public void updateVar(int p) {
+    }
+
+    public void updateVarAtDecisionLevel(int p) {
+    }
+}
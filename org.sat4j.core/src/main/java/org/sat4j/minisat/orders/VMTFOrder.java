@@ -0,0 +1,346 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.orders;
+
+import static org.sat4j.core.LiteralsUtils.posLit;
+import static org.sat4j.core.LiteralsUtils.var;
+
+import java.io.PrintWriter;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.minisat.core.IOrder;
+import org.sat4j.minisat.core.IPhaseSelectionStrategy;
+import org.sat4j.specs.IVecInt;
+
+/**
+ * Variable move-to-front heuristics, as found in CaDiCaL and Kissat.
+ * 
+ * The variables are kept in a doubly linked queue. The variables bumped
+ * during conflict analysis are moved to the end of the queue, in the order of
+ * their previous position, and receive a new timestamp. The decision is the
+ * last unassigned variable of the queue: a pointer caches the position of
+ * that variable, and is only moved back when a variable enqueued after it is
+ * unassigned. Both bumping and selection are thus constant time on average,
+ * without any heap to maintain.
+ * 
+ * @since 2.3.6
+ */
+public class VMTFOrder implements IOrder, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    protected ILits lits;
+
+    protected IPhaseSelectionStrategy phaseStrategy;
+
+    /**
+     * previous variable in the queue, 0 for the first one.
+     */
+    private int[] prev = new int[1];
+
+    /**
+     * next variable in the queue, 0 for the last one.
+     */
+    private int[] next = new int[1];
+
+    /**
+     * time at which each variable was moved to the end of the queue, 0 if the
+     * variable is not in the queue.
+     */
+    private int[] stamps = new int[1];
+
+    private int first;
+
+    private int last;
+
+    /**
+     * all the variables after that one in the queue are assigned.
+     */
+    private int search;
+
+    private int stamp;
+
+    /**
+     * the variables bumped since the last conflict.
+     */
+    private final IVecInt bumped = new VecInt();
+
+    private boolean[] isBumped = new boolean[1];
+
+    private long[] keys = new long[0];
+
+    private long nbBumps;
+
+    public VMTFOrder() {
+        this(new RSATPhaseSelectionStrategy());
+    }
+
+    public VMTFOrder(IPhaseSelectionStrategy strategy) {
+        this.phaseStrategy = strategy;
+    }
+
+    public void setLits(ILits lits) {
+        this.lits = lits;
+    }
+
+    public ILits getVocabulary() {
+        return this.lits;
+    }
+
+    public void setPhaseSelectionStrategy(IPhaseSelectionStrategy strategy) {
+        this.phaseStrategy = strategy;
+    }
+
+    public IPhaseSelectionStrategy getPhaseSelectionStrategy() {
+        return this.phaseStrategy;
+    }
+
+    /**
+     * that method has the responsibility to initialize all arrays in the
+     * heuristics. PLEASE CALL super.init() IF YOU OVERRIDE THAT METHOD.
+     */
+    public void init() {
+        int nlength = this.lits.nVars() + 1;
+        if (this.stamps.length < nlength) {
+            this.prev = new int[nlength];
+            this.next = new int[nlength];
+            this.stamps = new int[nlength];
+            this.isBumped = new boolean[nlength];
+        } else {
+            Arrays.fill(this.stamps, 0);
+            Arrays.fill(this.isBumped, false);
+        }
+        this.bumped.clear();
+        this.phaseStrategy.init(nlength);
+        this.first = this.last = this.search = 0;
+        this.stamp = 0;
+        // the variables with the highest index are decided first
+        for (int i = 1; i < nlength; i++) {
+            if (this.lits.belongsToPool(i)) {
+                enqueue(i);
+            }
+        }
+        this.search = this.last;
+    }
+
+    public int select() {
+        int var = this.search;
+        while (var != 0 && !this.lits.isUnassigned(posLit(var))) {
+            var = this.prev[var];
+        }
+        if (var == 0) {
+            return ILits.UNDEFINED;
+        }
+        this.search = var;
+        return this.phaseStrategy.select(var);
+    }
+
+    public void undo(int x) {
+        if (x >= this.stamps.length) {
+            return;
+        }
+        if (this.stamps[x] == 0 && this.lits.belongsToPool(x)) {
+            // removed from the queue
+            enqueue(x);
+        }
+        if (this.stamps[x] > this.stamps[this.search]) {
+            this.search = x;
+        }
+    }
+
+    public void removeVariable(int var) {
+        if (var >= this.stamps.length || this.stamps[var] == 0) {
+            return;
+        }
+        if (this.search == var) {
+            this.search = this.prev[var];
+        }
+        unlink(var);
+        this.stamps[var] = 0;
+    }
+
+    public void updateVar(int p) {
+        int var = var(p);
+        if (var < this.stamps.length && this.stamps[var] != 0
+                && !this.isBumped[var]) {
+            this.isBumped[var] = true;
+            this.bumped.push(var);
+        }
+        this.phaseStrategy.updateVar(p);
+    }
+
+    /**
+     * Moves the variables bumped since the last call to the end of the queue.
+     * That method is called once per conflict.
+     */
+    public void varDecayActivity() {
+        int n = this.bumped.size();
+        if (n == 0) {
+            return;
+        }
+        if (this.keys.length < n) {
+            this.keys = new long[Math.max(n, this.keys.length << 1)];
+        }
+        // keep the relative order of the bumped variables
+        for (int i = 0; i < n; i++) {
+            int var = this.bumped.get(i);
+            this.isBumped[var] = false;
+            this.keys[i] = (long) this.stamps[var] << 32 | var;
+        }
+        Arrays.sort(this.keys, 0, n);
+        for (int i = 0; i < n; i++) {
+            moveToFront((int) this.keys[i]);
+        }
+        this.bumped.clear();
+        this.nbBumps += n;
+    }
+
+    public void setVarDecay(double d) {
+        // no decay, the timestamps only increase
+    }
+
+    public double varActivity(int p) {
+        return this.stamps[var(p)];
+    }
+
+    public void assignLiteral(int p) {
+        this.phaseStrategy.assignLiteral(p);
+    }
+
+    public void updateVarAtDecisionLevel(int q) {
+        this.phaseStrategy.updateVarAtDecisionLevel(q);
+    }
+
+    /**
+     * The timestamps of the variables: the higher, the sooner the variable is
+     * decided. The array is computed on each call.
+     */
+    public double[] getVariableHeuristics() {
+        double[] heuristics = new double[this.stamps.length];
+        for (int i = 1; i < heuristics.length; i++) {
+            heuristics[i] = this.stamps[i];
+        }
+        return heuristics;
+    }
+
+    /**
+     * Reorders the queue by increasing heuristic value.
+     */
+    public void setVariableHeuristics(double[] heuristics) {
+        int n = 0;
+        for (int var = this.first; var != 0; var = this.next[var]) {
+            n++;
+        }
+        Integer[] vars = new Integer[n];
+        n = 0;
+        for (int var = this.first; var != 0; var = this.next[var]) {
+            vars[n++] = var;
+        }
+        final double[] values = heuristics;
+        // stable sort: ties keep the current order
+        Arrays.sort(vars, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Double.compare(valueOf(values, a), valueOf(values, b));
+            }
+        });
+        this.first = this.last = 0;
+        this.stamp = 0;
+        for (Integer var : vars) {
+            enqueue(var);
+        }
+        this.search = this.last;
+    }
+
+    private static double valueOf(double[] values, int var) {
+        return var < values.length ? values[var] : 0.0;
+    }
+
+    public void printStat(PrintWriter out, String prefix) {
+        out.println(prefix + "bumped variables\t" + this.nbBumps); //$NON-NLS-1$
+    }
+
+    private void enqueue(int var) {
+        this.prev[var] = this.last;
+        this.next[var] = 0;
+        if (this.last == 0) {
+            this.first = var;
+        } else {
+            this.next[this.last] = var;
+        }
+        this.last = var;
+        this.stamps[var] = ++this.stamp;
+    }
+
+    private void unlink(int var) {
+        int p = this.prev[var];
+        int q = this.next[var];
+        if (p == 0) {
+            this.first = q;
+        } else {
+            this.next[p] = q;
+        }
+        if (q == 0) {
+            this.last = p;
+        } else {
+            this.prev[q] = p;
+        }
+    }
+
+    private void moveToFront(int var) {
+        if (var != this.last) {
+            unlink(var);
+            enqueue(var);
+        } else {
+            this.stamps[var] = ++this.stamp;
+        }
+        if (this.stamp == Integer.MAX_VALUE) {
+            renumber();
+        }
+        if (this.lits.isUnassigned(posLit(var))) {
+            this.search = var;
+        }
+    }
+
+    private void renumber() {
+        this.stamp = 0;
+        for (int var = this.first; var != 0; var = this.next[var]) {
+            this.stamps[var] = ++this.stamp;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "VMTF heuristics (variable move-to-front) " + this.phaseStrategy; //$NON-NLS-1$
+    }
+}
@@ -34,10 +34,12 @@ import static org.sat4j.core.LiteralsUtils.var;
 import java.io.PrintWriter;
 import java.io.Serializable;
 
+import org.sat4j.core.VecInt;
 import org.sat4j.minisat.core.Heap;
 import org.sat4j.minisat.core.ILits;
 import org.sat4j.minisat.core.IOrder;
 import org.sat4j.minisat.core.IPhaseSelectionStrategy;
+import org.sat4j.specs.IVecInt;
 
 /*
  * Created on 16 oct. 2003
@@ -141,6 +143,12 @@ public class VarOrderHeap implements IOrder, Serializable {
         }
     }
 
+    public void removeVariable(int var) {
+        if (this.heap.inHeap(var)) {
+            this.heap.remove(var);
+        }
+    }
+
     /**
      * Appelee lorsque l'activite de la variable x a change.
      * 
@@ -197,7 +205,7 @@ public class VarOrderHeap implements IOrder, Serializable {
     }
 
     protected Heap createHeap(double[] activity) {
-        return new Heap(new ActivityBasedVariableComparator(activity));
+        return new Heap(activity);
     }
 
     /**
@@ -248,4 +256,18 @@ public class VarOrderHeap implements IOrder, Serializable {
     public double[] getVariableHeuristics() {
         return this.activity;
     }
+
+    public void setVariableHeuristics(double[] heuristics) {
+        // the variables must be inserted again in the heap since their
+        // activity changes
+        IVecInt vars = new VecInt(this.heap.size());
+        while (!this.heap.empty()) {
+            vars.push(this.heap.getmin());
+        }
+        int n = Math.min(heuristics.length, this.activity.length);
+        System.arraycopy(heuristics, 1, this.activity, 1, n - 1);
+        for (int i = 0; i < vars.size(); i++) {
+            this.heap.insert(vars.get(i));
+        }
+    }
 }
@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.restarts;
+
+import org.sat4j.minisat.core.RestartStrategy;
+import org.sat4j.minisat.core.SearchParams;
+import org.sat4j.minisat.core.SolverStats;
+import org.sat4j.minisat.orders.FocusedAndStableOrder;
+import org.sat4j.minisat.orders.TargetPhaseSelectionStrategy;
+import org.sat4j.specs.Constr;
+
+/**
+ * Alternates between a focused mode, with frequent restarts and phase saving,
+ * and a stable mode, with few restarts and decisions following the target
+ * phases, as in CaDiCaL and Kissat. The length of the modes doubles after
+ * each stable mode.
+ * 
+ * That strategy also drives the {@link TargetPhaseSelectionStrategy}: it
+ * reports the size of the conflict-free part of the trail on each conflict
+ * and asks for rephasing on restarts. That phase selection strategy must thus be the one of the
+ * variable order of the solver. If the order of the solver is a
+ * {@link FocusedAndStableOrder}, that strategy switches its mode too.
+ * 
+ * @since 2.3.6
+ */
+public class StableModeRestarts implements RestartStrategy {
+
+    /**
+     * 
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Number of conflicts of the first focused mode.
+     */
+    public static final int FIRST_MODE_LENGTH = 1000;
+
+    /**
+     * Luby factor of the restarts in stable mode.
+     */
+    public static final int STABLE_LUBY_FACTOR = 1024;
+
+    private final RestartStrategy focused;
+
+    private final RestartStrategy stable;
+
+    private final TargetPhaseSelectionStrategy phase;
+
+    private final FocusedAndStableOrder order;
+
+    private SolverStats stats;
+
+    private boolean stableMode;
+
+    private long modeLength;
+
+    private long nextSwitch;
+
+    public StableModeRestarts(TargetPhaseSelectionStrategy phase) {
+        this(new Glucose21Restarts(), new LubyRestarts(STABLE_LUBY_FACTOR),
+                phase);
+    }
+
+    /**
+     * 
+     * @param phase
+     *            the phase selection strategy of the solver.
+     * @param order
+     *            the order of the solver, switched with the mode.
+     */
+    public StableModeRestarts(TargetPhaseSelectionStrategy phase,
+            FocusedAndStableOrder order) {
+        this(new Glucose21Restarts(), new LubyRestarts(STABLE_LUBY_FACTOR),
+                phase, order);
+    }
+
+    /**
+     * 
+     * @param focused
+     *            the restart strategy used in focused mode.
+     * @param stable
+     *            the restart strategy used in stable mode.
+     * @param phase
+     *            the phase selection strategy of the solver.
+     */
+    public StableModeRestarts(RestartStrategy focused, RestartStrategy stable,
+            TargetPhaseSelectionStrategy phase) {
+        this(focused, stable, phase, null);
+    }
+
+    /**
+     * 
+     * @param focused
+     *            the restart strategy used in focused mode.
+     * @param stable
+     *            the restart strategy used in stable mode.
+     * @param phase
+     *            the phase selection strategy of the solver.
+     * @param order
+     *            the order of the solver, switched with the mode, or null.
+     */
+    public StableModeRestarts(RestartStrategy focused, RestartStrategy stable,
+            TargetPhaseSelectionStrategy phase, FocusedAndStableOrder order) {
+        this.focused = focused;
+        this.stable = stable;
+        this.phase = phase;
+        this.order = order;
+    }
+
+    private void setStableMode(boolean stableMode) {
+        this.stableMode = stableMode;
+        this.phase.setStableMode(stableMode);
+        if (this.order != null) {
+            this.order.setStableMode(stableMode);
+        }
+    }
+
+    private RestartStrategy current() {
+        return this.stableMode ? this.stable : this.focused;
+    }
+
+    public boolean isStableMode() {
+        return this.stableMode;
+    }
+
+    public void reset() {
+        this.focused.reset();
+        this.stable.reset();
+    }
+
+    public void newConflict() {
+        current().newConflict();
+    }
+
+    public void init(SearchParams params, SolverStats stats) {
+        this.stats = stats;
+        this.focused.init(params, stats);
+        this.stable.init(params, stats);
+        setStableMode(false);
+        this.modeLength = FIRST_MODE_LENGTH;
+        this.nextSwitch = stats.conflicts + this.modeLength;
+    }
+
+    @Deprecated
+    public long nextRestartNumberOfConflict() {
+        return current().nextRestartNumberOfConflict();
+    }
+
+    public boolean shouldRestart() {
+        return this.stats.conflicts >= this.nextSwitch
+                || current().shouldRestart();
+    }
+
+    public void onRestart() {
+        current().onRestart();
+        if (this.stats.conflicts >= this.nextSwitch) {
+            setStableMode(!this.stableMode);
+            if (this.stableMode) {
+                this.stable.reset();
+            } else {
+                this.modeLength *= 2;
+            }
+            this.nextSwitch = this.stats.conflicts + this.modeLength;
+        }
+        this.phase.rephase(this.stats.conflicts);
+    }
+
+    public void onBackjumpToRootLevel() {
+        current().onBackjumpToRootLevel();
+    }
+
+    /**
+     * To be called by the solver on each conflict, before backjumping.
+     * 
+     * @param trailSize
+     *            the number of literals assigned before the decision level
+     *            of the conflict.
+     */
+    public void beforeBackjump(int trailSize) {
+        this.phase.updateTarget(trailSize);
+    }
+
+    public void newLearnedClause(Constr learned, int trailLevel) {
+        this.focused.newLearnedClause(learned, trailLevel);
+        this.stable.newLearnedClause(learned, trailLevel);
+    }
+
+    @Override
+    public String toString() {
+        return "alternate focused mode (" + this.focused
+                + ") and stable mode (" + this.stable + "), first mode of "
+                + FIRST_MODE_LENGTH + " conflicts";
+    }
+}
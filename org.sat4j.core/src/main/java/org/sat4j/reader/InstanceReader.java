@@ -54,6 +54,8 @@ public class InstanceReader extends Reader {
 
     private LecteurDimacs dimacs;
 
+    private ParallelDimacsReader parallelDimacs;
+
     private Reader reader = null;
 
     private final ISolver solver;
@@ -71,6 +73,13 @@ public class InstanceReader extends Reader {
         return this.dimacs;
     }
 
+    private Reader getParallelSATReader() {
+        if (this.parallelDimacs == null) {
+            this.parallelDimacs = new ParallelDimacsReader(this.solver);
+        }
+        return this.parallelDimacs;
+    }
+
     private Reader getEZSATReader() {
         if (this.ezdimacs == null) {
             this.ezdimacs = new DimacsReader(this.solver);// new
@@ -124,6 +133,9 @@ public class InstanceReader extends Reader {
         if ("EZCNF".equals(prefix)) {
             return getEZSATReader();
         }
+        if ("PCNF".equals(prefix)) {
+            return getParallelSATReader();
+        }
         if (fname.endsWith(".aag")) {
             return getAAGReader();
         }
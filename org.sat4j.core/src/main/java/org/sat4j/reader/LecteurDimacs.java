@@ -34,6 +34,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.Serializable;
+import java.nio.IntBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -62,6 +64,9 @@ public class LecteurDimacs extends Reader implements Serializable {
     /* taille du buffer */
     private static final int TAILLE_BUF = 16384;
 
+    /* nombre de literaux transmis en une fois au solveur */
+    private static final int TAILLE_CLAUSES = 1 << 20;
+
     private ISolver s;
 
     private transient BufferedInputStream in;
@@ -182,7 +187,9 @@ public class LecteurDimacs extends Reader implements Serializable {
      */
     private void ajouterClauses(char car)
             throws IOException, ContradictionException, ParseFormatException {
-        final IVecInt lit = new VecInt();
+        int[] clauses = new int[TAILLE_CLAUSES];
+        int nbLits = 0; /* nombre de literaux (et de 0) dans clauses */
+        int debut = 0; /* debut de la clause en cours dans clauses */
         int val = 0;
         boolean neg = false;
         for (;;) {
@@ -208,13 +215,23 @@ public class LecteurDimacs extends Reader implements Serializable {
                 val = val * 10 + car - '0';
                 car = (char) this.in.read();
             }
+            if (nbLits == clauses.length) {
+                if (debut > 0) {
+                    /* on transmet les clauses completes au solveur */
+                    this.s.addAllClauses(IntBuffer.wrap(clauses, 0, debut));
+                    nbLits -= debut;
+                    System.arraycopy(clauses, debut, clauses, 0, nbLits);
+                    debut = 0;
+                } else {
+                    clauses = Arrays.copyOf(clauses, clauses.length << 1);
+                }
+            }
             if (val == 0) { // on a lu toute la clause
-                this.s.addClause(lit);
-                lit.clear();
+                clauses[nbLits++] = 0;
+                debut = nbLits;
             } else {
-                /* on ajoute le literal au vecteur */
-                // s.newVar(val-1);
-                lit.push(neg ? -val : val);
+                /* on ajoute le literal au tampon */
+                clauses[nbLits++] = neg ? -val : val;
                 neg = false;
                 val = 0; /* on reinitialise les variables */
             }
@@ -222,9 +239,8 @@ public class LecteurDimacs extends Reader implements Serializable {
                 car = passerEspaces();
             }
             if (car == EOF) {
-                if (!lit.isEmpty()) {
-                    this.s.addClause(lit);
-                }
+                /* la derniere clause peut ne pas etre terminee par 0 */
+                this.s.addAllClauses(IntBuffer.wrap(clauses, 0, nbLits));
                 break; /* on a lu tout le fichier */
             }
         }
@@ -0,0 +1,502 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.reader;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IProblem;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+
+/**
+ * Dimacs reader designed for very large CNF files. The body of the file is
+ * split into chunks ending on a line boundary, which are tokenized in parallel
+ * into arrays of integers, the clauses being terminated by a zero. The chunks
+ * are then given to the solver in the order of the file.
+ * 
+ * Plain files are memory mapped. Compressed files (.gz, .bz2) and streams are
+ * read sequentially by blocks, the tokenization of the blocks being still done
+ * in parallel.
+ * 
+ * Contrary to {@link LecteurDimacs}, the comments are simply ignored: that
+ * reader does not support the variable names mapping nor the pmin
+ * directive. It is thus only used by {@link InstanceReader} for the file names
+ * starting with the <code>PCNF:</code> prefix.
+ * 
+ * @since 2.3.6
+ */
+public class ParallelDimacsReader extends Reader {
+
+    /**
+     * Default size of the chunks parsed in parallel.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 23;
+
+    private final ISolver solver;
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    private int nbThreads = Runtime.getRuntime().availableProcessors();
+
+    private int nbVars = -1;
+
+    private int nbClauses = -1;
+
+    public ParallelDimacsReader(ISolver solver) {
+        this.solver = solver;
+    }
+
+    /**
+     * 
+     * @param size
+     *            the number of bytes parsed by each task.
+     */
+    public void setChunkSize(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size " + size);
+        }
+        this.chunkSize = size;
+    }
+
+    /**
+     * 
+     * @param threads
+     *            the number of threads used to parse the chunks.
+     */
+    public void setNumberOfThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException(
+                    "Invalid number of threads " + threads);
+        }
+        this.nbThreads = threads;
+    }
+
+    @Override
+    public IProblem parseInstance(final String filename)
+            throws ParseFormatException, IOException, ContradictionException {
+        if (filename.startsWith("http://") || filename.endsWith(".gz")
+                || filename.endsWith(".bz2") || filename.endsWith(".lzma")) {
+            return super.parseInstance(filename);
+        }
+        RandomAccessFile file = new RandomAccessFile(new File(filename), "r");
+        try {
+            FileChannel channel = file.getChannel();
+            HeaderInputStream header = new HeaderInputStream(
+                    new BufferedInputStream(Channels.newInputStream(channel),
+                            1 << 16));
+            parseHeader(header);
+            long position = header.position();
+            long size = channel.size();
+            ChunkFeeder feeder = new ChunkFeeder();
+            try {
+                while (position < size) {
+                    long end = nextLineBoundary(channel,
+                            position + this.chunkSize, size);
+                    ByteBuffer chunk = channel.map(
+                            FileChannel.MapMode.READ_ONLY, position,
+                            end - position);
+                    feeder.submit(chunk);
+                    position = end;
+                }
+                feeder.finish();
+            } finally {
+                feeder.shutdown();
+            }
+        } finally {
+            file.close();
+        }
+        return this.solver;
+    }
+
+    @Override
+    public IProblem parseInstance(final InputStream input)
+            throws ParseFormatException, ContradictionException, IOException {
+        try {
+            parseStream(input);
+        } finally {
+            input.close();
+        }
+        return this.solver;
+    }
+
+    private void parseStream(InputStream input) throws IOException,
+            ParseFormatException, ContradictionException {
+        HeaderInputStream in = new HeaderInputStream(new BufferedInputStream(
+                input, 1 << 16));
+        parseHeader(in);
+        ChunkFeeder feeder = new ChunkFeeder();
+        try {
+            byte[] remainder = new byte[0];
+            for (;;) {
+                byte[] block = new byte[Math.max(this.chunkSize,
+                        2 * remainder.length)];
+                System.arraycopy(remainder, 0, block, 0, remainder.length);
+                int filled = remainder.length;
+                int read = 0;
+                while (filled < block.length
+                        && (read = in.read(block, filled, block.length
+                                - filled)) > 0) {
+                    filled += read;
+                }
+                if (read < 0 || filled < block.length) {
+                    // end of the stream
+                    feeder.submit(ByteBuffer.wrap(block, 0, filled).slice());
+                    break;
+                }
+                int end = filled;
+                while (end > 0 && block[end - 1] != '\n') {
+                    end--;
+                }
+                if (end == 0) {
+                    // no line boundary in the block: read more
+                    remainder = block;
+                    continue;
+                }
+                remainder = new byte[filled - end];
+                System.arraycopy(block, end, remainder, 0, remainder.length);
+                feeder.submit(ByteBuffer.wrap(block, 0, end).slice());
+            }
+            feeder.finish();
+        } finally {
+            feeder.shutdown();
+        }
+    }
+
+    private void parseHeader(HeaderInputStream in) throws IOException,
+            ParseFormatException {
+        this.nbVars = -1;
+        this.nbClauses = -1;
+        int c;
+        for (;;) {
+            c = in.read();
+            while (isSpace(c)) {
+                c = in.read();
+            }
+            if (c == 'c') {
+                while (c != '\n' && c != -1) {
+                    c = in.read();
+                }
+            } else if (c == 'p') {
+                String line = readLine(in);
+                String[] tokens = line.trim().split("\\s+");
+                if (tokens.length < 3 || !"cnf".equals(tokens[0])) {
+                    throw new ParseFormatException(
+                            "Expecting file in cnf format.");
+                }
+                try {
+                    this.nbVars = Integer.parseInt(tokens[1]);
+                    this.nbClauses = Integer.parseInt(tokens[2]);
+                } catch (NumberFormatException e) {
+                    throw new ParseFormatException(
+                            "DIMACS error: wrong problem line " + line, e);
+                }
+                break;
+            } else {
+                throw new ParseFormatException(
+                        "DIMACS error: wrong max number of variables");
+            }
+        }
+        if (this.nbVars < 0) {
+            throw new ParseFormatException(
+                    "DIMACS error: wrong max number of variables");
+        }
+        this.solver.reset();
+        this.solver.newVar(this.nbVars);
+        this.solver.setExpectedNumberOfClauses(this.nbClauses);
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder stb = new StringBuilder();
+        int c = in.read();
+        while (c != '\n' && c != -1) {
+            stb.append((char) c);
+            c = in.read();
+        }
+        return stb.toString();
+    }
+
+    private static boolean isSpace(int c) {
+        return c == ' ' || c == '\n' || c == '\t' || c == '\r';
+    }
+
+    /**
+     * 
+     * @return the position following the first end of line found from
+     *         position from, or size.
+     */
+    private static long nextLineBoundary(FileChannel channel, long from,
+            long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(4096);
+        long position = from;
+        while (position < size) {
+            window.clear();
+            int read = channel.read(window, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (window.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Tokenizes a chunk of the body of a Dimacs file.
+     * 
+     * @param chunk
+     *            bytes starting at the beginning of a line.
+     * @return the literals of the chunk, the clauses being terminated by a
+     *         zero.
+     */
+    static IVecInt tokenize(ByteBuffer chunk) throws ParseFormatException {
+        final int to = chunk.limit();
+        final IVecInt literals = new VecInt(Math.max(16, to / 4));
+        int i = 0;
+        int b;
+        while (i < to) {
+            b = chunk.get(i);
+            if (isSpace(b)) {
+                i++;
+                continue;
+            }
+            if (b == 'c') {
+                while (i < to && chunk.get(i) != '\n') {
+                    i++;
+                }
+                continue;
+            }
+            boolean neg = false;
+            if (b == '-') {
+                neg = true;
+                i++;
+            } else if (b == '+') {
+                i++;
+            }
+            int start = i;
+            int val = 0;
+            while (i < to && (b = chunk.get(i)) >= '0' && b <= '9') {
+                if (val > (Integer.MAX_VALUE - (b - '0')) / 10) {
+                    throw new ParseFormatException(
+                            "DIMACS error: literal out of the int range");
+                }
+                val = 10 * val + b - '0';
+                i++;
+            }
+            if (i == start || i < to && !isSpace(chunk.get(i))) {
+                throw new ParseFormatException("Unknown character "
+                        + (char) chunk.get(Math.min(i, to - 1)));
+            }
+            literals.push(neg ? -val : val);
+        }
+        return literals;
+    }
+
+    /**
+     * Tokenizes the chunks in parallel and gives their clauses to the solver
+     * in the order of the file. The number of chunks in memory is bounded.
+     */
+    private class ChunkFeeder {
+
+        private final ExecutorService executor;
+
+        private final Queue<Future<IVecInt>> pending;
+
+        private final IVecInt clause = new VecInt();
+
+        private boolean empty = true;
+
+        ChunkFeeder() {
+            this.pending = new LinkedList<Future<IVecInt>>();
+            this.executor = Executors.newFixedThreadPool(
+                    ParallelDimacsReader.this.nbThreads, new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "sat4j-dimacs");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+        }
+
+        void submit(final ByteBuffer chunk) throws ParseFormatException,
+                ContradictionException {
+            int threads = ParallelDimacsReader.this.nbThreads;
+            if (this.pending.size() >= 2 * threads) {
+                feed(this.pending.poll());
+            }
+            this.pending.add(this.executor.submit(new Callable<IVecInt>() {
+                public IVecInt call() throws ParseFormatException {
+                    return tokenize(chunk);
+                }
+            }));
+        }
+
+        void finish() throws ParseFormatException, ContradictionException {
+            while (!this.pending.isEmpty()) {
+                feed(this.pending.poll());
+            }
+            if (!this.clause.isEmpty()) {
+                ParallelDimacsReader.this.solver.addClause(this.clause);
+                this.empty = false;
+            }
+            if (this.empty && ParallelDimacsReader.this.nbClauses > 0) {
+                throw new ParseFormatException(
+                        "DIMACS error: the clauses are missing");
+            }
+        }
+
+        void shutdown() {
+            this.executor.shutdownNow();
+        }
+
+        private void feed(Future<IVecInt> future) throws ParseFormatException,
+                ContradictionException {
+            IVecInt literals;
+            try {
+                literals = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ParseFormatException("Interrupted", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof ParseFormatException) {
+                    throw (ParseFormatException) e.getCause();
+                }
+                throw new ParseFormatException(e.getCause());
+            }
+            ISolver s = ParallelDimacsReader.this.solver;
+            final int[] lits = literals.toArray();
+            final int size = literals.size();
+            int i = 0;
+            if (!this.clause.isEmpty()) {
+                // complete the clause started in the previous chunk
+                while (i < size && lits[i] != 0) {
+                    this.clause.push(lits[i++]);
+                }
+                if (i == size) {
+                    return;
+                }
+                s.addClause(this.clause);
+                this.clause.clear();
+                this.empty = false;
+                i++;
+            }
+            int end = size;
+            while (end > i && lits[end - 1] != 0) {
+                end--;
+            }
+            if (end > i) {
+                s.addAllClauses(IntBuffer.wrap(lits, i, end - i));
+                this.empty = false;
+            }
+            for (int j = end; j < size; j++) {
+                this.clause.push(lits[j]);
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes read to locate the beginning of the body of the file.
+     */
+    private static final class HeaderInputStream extends InputStream {
+
+        private final InputStream in;
+
+        private long position;
+
+        HeaderInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = this.in.read();
+            if (c >= 0) {
+                this.position++;
+            }
+            return c;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = this.in.read(b, off, len);
+            if (read > 0) {
+                this.position += read;
+            }
+            return read;
+        }
+
+        long position() {
+            return this.position;
+        }
+    }
+
+    @Override
+    @Deprecated
+    public String decode(int[] model) {
+        StringBuilder stb = new StringBuilder();
+        for (int element : model) {
+            stb.append(element);
+            stb.append(" ");
+        }
+        stb.append("0");
+        return stb.toString();
+    }
+
+    @Override
+    public void decode(int[] model, PrintWriter out) {
+        for (int element : model) {
+            out.print(element);
+            out.print(" ");
+        }
+        out.print("0");
+    }
+}
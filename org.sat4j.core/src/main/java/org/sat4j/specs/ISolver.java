@@ -32,6 +32,7 @@ package org.sat4j.specs;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.io.Serializable;
+import java.nio.IntBuffer;
 import java.util.Map;
 
 /**
@@ -198,6 +199,43 @@ public interface ISolver extends IProblem, Serializable {
      */
     void addAllClauses(IVec<IVecInt> clauses) throws ContradictionException;
 
+    /**
+     * Create clauses from a flat array of Dimacs literals in which each clause
+     * is terminated by a 0 (the terminating 0 of the last clause may be
+     * omitted). This is the fastest way to feed a large CNF to the solver: it
+     * does not need a vector per clause, and the solver may size its internal
+     * data structures once for all the clauses.
+     * 
+     * Contrary to addClause(IVecInt), no reference to the constraints is
+     * returned, so those clauses cannot be removed individually.
+     * 
+     * @param clauses
+     *            the clauses, e.g. <code>{1, -2, 0, 2, 3, 0}</code>. The array
+     *            can be reused since the solver is not supposed to keep a
+     *            reference to it.
+     * @throws ContradictionException
+     *             iff one of the clauses is empty or if it contains only
+     *             falsified literals after unit propagation
+     * @see #addClause(IVecInt)
+     * @since 2.3.6
+     */
+    void addAllClauses(int[] clauses) throws ContradictionException;
+
+    /**
+     * Same as {@link #addAllClauses(int[])} for the literals found between the
+     * position and the limit of a buffer. The position of the buffer is left
+     * unchanged.
+     * 
+     * @param clauses
+     *            zero terminated clauses in Dimacs format.
+     * @throws ContradictionException
+     *             iff one of the clauses is empty or if it contains only
+     *             falsified literals after unit propagation
+     * @see #addAllClauses(int[])
+     * @since 2.3.6
+     */
+    void addAllClauses(IntBuffer clauses) throws ContradictionException;
+
     /**
      * Create a cardinality constraint of the type "at most n of those literals
      * must be satisfied"
@@ -30,13 +30,71 @@
 package org.sat4j.specs;
 
 public abstract class SearchListenerAdapter<S extends ISolverService>
-        implements SearchListener<S> {
+        implements SearchListener<S>, SelectiveSearchListener {
 
     /**
 	 * 
 	 */
     private static final long serialVersionUID = 1L;
 
+    /**
+     * By default, a listener is notified of the frequent events whose methods
+     * are overridden.
+     * 
+     * @since 2.3.6
+     */
+    public int listenedEvents() {
+        int events = 0;
+        if (overrides("propagating", int.class)) {
+            events |= PROPAGATING;
+        }
+        if (overrides("enqueueing", int.class, IConstr.class)) {
+            events |= ENQUEUEING;
+        }
+        if (overrides("assuming", int.class)) {
+            events |= ASSUMING;
+        }
+        if (overrides("backtracking", int.class)) {
+            events |= BACKTRACKING;
+        }
+        if (overrides("beginLoop")) {
+            events |= BEGIN_LOOP;
+        }
+        if (overrides("conflictFound", IConstr.class, int.class, int.class)
+                || overrides("conflictFound", int.class)) {
+            events |= CONFLICT_FOUND;
+        }
+        if (overrides("backjump", int.class)) {
+            events |= BACKJUMP;
+        }
+        return events;
+    }
+
+    private boolean overrides(String name, Class<?>... parameterTypes) {
+        try {
+            return getClass().getMethod(name, parameterTypes)
+                    .getDeclaringClass() != SearchListenerAdapter.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Retrieve the frequent events a listener is interested in.
+     * 
+     * @param listener
+     *            a search listener
+     * @return the events declared by the listener if it is a
+     *         {@link SelectiveSearchListener}, else all the events.
+     * @since 2.3.6
+     */
+    public static int listenedEventsOf(SearchListener<?> listener) {
+        if (listener instanceof SelectiveSearchListener) {
+            return ((SelectiveSearchListener) listener).listenedEvents();
+        }
+        return ALL_EVENTS;
+    }
+
     public void init(S solverService) {
     }
 
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.specs;
+
+/**
+ * Optional interface for search listeners declaring the frequent events they
+ * need to be notified of. The solver does not call (nor prepare the arguments
+ * of) the methods corresponding to the other frequent events.
+ * 
+ * A listener which does not implement that interface is notified of all the
+ * events.
+ * 
+ * @since 2.3.6
+ */
+public interface SelectiveSearchListener {
+
+    /**
+     * {@link SearchListener#propagating(int)}
+     */
+    int PROPAGATING = 1;
+
+    /**
+     * {@link SearchListener#enqueueing(int, IConstr)}
+     */
+    int ENQUEUEING = 1 << 1;
+
+    /**
+     * {@link SearchListener#assuming(int)}
+     */
+    int ASSUMING = 1 << 2;
+
+    /**
+     * {@link SearchListener#backtracking(int)}
+     */
+    int BACKTRACKING = 1 << 3;
+
+    /**
+     * {@link SearchListener#beginLoop()}
+     */
+    int BEGIN_LOOP = 1 << 4;
+
+    /**
+     * {@link SearchListener#conflictFound(IConstr, int, int)} and
+     * {@link SearchListener#conflictFound(int)}
+     */
+    int CONFLICT_FOUND = 1 << 5;
+
+    /**
+     * {@link SearchListener#backjump(int)}
+     */
+    int BACKJUMP = 1 << 6;
+
+    int ALL_EVENTS = PROPAGATING | ENQUEUEING | ASSUMING | BACKTRACKING
+            | BEGIN_LOOP | CONFLICT_FOUND | BACKJUMP;
+
+    /**
+     * The events not listed here are always notified to the listener. The
+     * solver reads that mask when the listener is set and at the beginning of
+     * each call to isSatisfiable(), after init(): a change during a search is
+     * taken into account by the next call.
+     * 
+     * @return a bit mask of the frequent events the listener is interested
+     *         in.
+     */
+    int listenedEvents();
+}
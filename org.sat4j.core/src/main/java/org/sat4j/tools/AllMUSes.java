@@ -30,15 +30,26 @@
 package org.sat4j.tools;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.sat4j.core.ASolverFactory;
 import org.sat4j.core.VecInt;
+import org.sat4j.minisat.core.ICDCL;
+import org.sat4j.minisat.orders.PositiveLiteralSelectionStrategy;
 import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.ISolver;
 import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.IteratorInt;
 import org.sat4j.specs.TimeoutException;
 
 /**
@@ -54,6 +65,8 @@ public class AllMUSes {
     private final List<IVecInt> mssList;
     private final List<IVecInt> secondPhaseClauses;
     private final List<IVecInt> musList;
+    private final List<IVecInt> mcsList;
+    private final List<AbstractClauseSelectorSolver<? extends ISolver>> workers;
     private final ASolverFactory<? extends ISolver> factory;
 
     public AllMUSes(boolean group, ASolverFactory<? extends ISolver> factory) {
@@ -75,6 +88,8 @@ public class AllMUSes {
         this.factory = factory;
         this.mssList = new ArrayList<IVecInt>();
         this.musList = new ArrayList<IVecInt>();
+        this.mcsList = new ArrayList<IVecInt>();
+        this.workers = new ArrayList<AbstractClauseSelectorSolver<? extends ISolver>>();
         this.secondPhaseClauses = new ArrayList<IVecInt>();
     }
 
@@ -157,6 +172,74 @@ public class AllMUSes {
         return computeAllMUSes(assumptions, listener, minSolver);
     }
 
+    /**
+     * Adds a solver used by {@link #computeAllMUSesAndMCSes(IVecInt,
+     * SolutionFoundListener, SolutionFoundListener)} to explore other subsets
+     * of clauses in parallel. It must contain the same clauses as the solver
+     * instance, added in the same order.
+     * 
+     * @param worker
+     *            a copy of the solver instance.
+     * @since 2.3.6
+     */
+    public void addWorkerSolver(
+            AbstractClauseSelectorSolver<? extends ISolver> worker) {
+        this.workers.add(worker);
+    }
+
+    public List<IVecInt> computeAllMUSesAndMCSes(
+            SolutionFoundListener musListener,
+            SolutionFoundListener mcsListener) {
+        return computeAllMUSesAndMCSes(VecInt.EMPTY, musListener, mcsListener);
+    }
+
+    /**
+     * Computes all the MUSes and all the MCSes (Minimal Correction Sets) of
+     * the set of constraints added to the solver, using the MARCO algorithm.
+     * 
+     * Unlike {@link #computeAllMUSes(IVecInt, SolutionFoundListener)}, the
+     * MUSes and MCSes are reported as soon as they are found, in an
+     * interleaved way. A map solver provides subsets of clauses not explored
+     * yet. A satisfiable subset is grown into an MSS using the models found,
+     * whose complement is an MCS. An unsatisfiable subset is shrunk into an
+     * MUS using the explanations of the solver. When worker solvers have been
+     * added, each of them explores a different subset in its own thread.
+     * 
+     * The listeners are called by one thread at a time.
+     * 
+     * @param assumptions
+     *            the assumptions under which the MUSes must be computed.
+     * @param musListener
+     *            a listener to call when an MUS is found
+     * @param mcsListener
+     *            a listener to call when an MCS is found
+     * @return a list containing all the MUSes
+     * @since 2.3.6
+     */
+    public List<IVecInt> computeAllMUSesAndMCSes(IVecInt assumptions,
+            SolutionFoundListener musListener,
+            SolutionFoundListener mcsListener) {
+        if (css.isVerbose()) {
+            System.out.println(css.getLogPrefix()
+                    + "Computing all MUSes and MCSes ...");
+        }
+        Marco marco = new Marco(assumptions, musListener, mcsListener);
+        try {
+            if (this.workers.isEmpty()) {
+                marco.explore(this.css.decorated());
+            } else {
+                marco.explore(this.workers);
+            }
+        } catch (TimeoutException e) {
+            Logger.getLogger("org.sat4j.core").log(Level.INFO,
+                    "Timeout when computing all muses and mcses", e);
+        }
+        if (css.isVerbose()) {
+            System.out.println(css.getLogPrefix() + "... done.");
+        }
+        return musList;
+    }
+
     private List<IVecInt> computeAllMUSes(IVecInt assumptions,
             SolutionFoundListener listener, ISolver minSolver) {
         if (css.isVerbose()) {
@@ -305,4 +388,333 @@ public class AllMUSes {
         return mssList;
     }
 
+    public List<IVecInt> getMcsList() {
+        return mcsList;
+    }
+
+    /**
+     * A subset of clauses being explored, identified by the indexes of the
+     * variables of the map solver. The guard allows the map solver to provide
+     * other subsets meanwhile.
+     */
+    private static final class Seed {
+        final boolean[] clauses;
+        final int guard;
+
+        Seed(boolean[] clauses, int guard) {
+            this.clauses = clauses;
+            this.guard = guard;
+        }
+    }
+
+    /**
+     * The MARCO exploration shared by the threads. The variable i of the map
+     * solver is true when the ith selector is enabled.
+     */
+    private final class Marco {
+
+        private final ISolver map;
+
+        private final int[] selectors;
+
+        private final int[] indexes;
+
+        private final int offset;
+
+        private final IVecInt assumptions;
+
+        private final SolutionFoundListener musListener;
+
+        private final SolutionFoundListener mcsListener;
+
+        private final IVecInt guards = new VecInt();
+
+        // two threads may reach the same MUS or MSS from different seeds
+        private final Set<List<Integer>> foundMUSes = new HashSet<List<Integer>>();
+
+        private final Set<List<Integer>> foundMCSes = new HashSet<List<Integer>>();
+
+        private int inFlight;
+
+        private boolean done;
+
+        Marco(IVecInt assumptions, SolutionFoundListener musListener,
+                SolutionFoundListener mcsListener) {
+            this.assumptions = assumptions;
+            this.musListener = musListener;
+            this.mcsListener = mcsListener;
+            this.offset = css.nVars();
+            this.selectors = new int[css.getAddedVars().size() + 1];
+            int max = 0;
+            int i = 1;
+            for (Integer var : css.getAddedVars()) {
+                this.selectors[i++] = var;
+                max = Math.max(max, var);
+            }
+            this.indexes = new int[max + 1];
+            for (i = 1; i < this.selectors.length; i++) {
+                this.indexes[this.selectors[i]] = i;
+            }
+            this.map = factory.defaultSolver();
+            this.map.newVar(this.selectors.length - 1);
+            if (this.map instanceof ICDCL<?>) {
+                // large subsets are more likely to lead to MUSes
+                ((ICDCL<?>) this.map).getOrder().setPhaseSelectionStrategy(
+                        new PositiveLiteralSelectionStrategy());
+            }
+        }
+
+        void explore(
+                List<AbstractClauseSelectorSolver<? extends ISolver>> solvers)
+                throws TimeoutException {
+            ExecutorService executor = Executors.newFixedThreadPool(
+                    solvers.size() + 1, new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "sat4j-marco");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            List<ISolver> subSolvers = new ArrayList<ISolver>();
+            subSolvers.add(css.decorated());
+            for (AbstractClauseSelectorSolver<? extends ISolver> worker : solvers) {
+                subSolvers.add(worker.decorated());
+            }
+            for (final ISolver solver : subSolvers) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws TimeoutException {
+                        explore(solver);
+                        return null;
+                    }
+                }));
+            }
+            try {
+                for (Future<Void> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof TimeoutException) {
+                    throw (TimeoutException) e.getCause();
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        void explore(ISolver solver) throws TimeoutException {
+            try {
+                Seed seed;
+                while ((seed = nextSeed()) != null) {
+                    if (isSatisfiable(solver, seed.clauses)) {
+                        grow(solver, seed.clauses);
+                        foundMCS(seed, seed.clauses);
+                    } else {
+                        foundMUS(seed, shrink(solver, seed.clauses));
+                    }
+                }
+            } catch (TimeoutException e) {
+                stop();
+                throw e;
+            } catch (RuntimeException e) {
+                stop();
+                throw e;
+            }
+        }
+
+        private synchronized void stop() {
+            this.done = true;
+            notifyAll();
+        }
+
+        private synchronized Seed nextSeed() throws TimeoutException {
+            while (!this.done) {
+                if (this.map.isSatisfiable(this.guards)) {
+                    boolean[] clauses = new boolean[this.selectors.length];
+                    IVecInt clause = new VecInt();
+                    for (int i = 1; i < clauses.length; i++) {
+                        clauses[i] = this.map.model(i);
+                        clause.push(clauses[i] ? -i : i);
+                    }
+                    // prevents the other threads from exploring that seed
+                    int guard = this.map.nextFreeVarId(true);
+                    clause.push(guard);
+                    try {
+                        this.map.addClause(clause);
+                    } catch (ContradictionException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    this.guards.push(-guard);
+                    this.inFlight++;
+                    return new Seed(clauses, guard);
+                }
+                if (this.inFlight == 0) {
+                    this.done = true;
+                } else {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        this.done = true;
+                    }
+                }
+            }
+            notifyAll();
+            return null;
+        }
+
+        private void release(Seed seed) {
+            this.inFlight--;
+            this.guards.remove(-seed.guard);
+            try {
+                this.map.addClause(new VecInt(new int[] { seed.guard }));
+            } catch (ContradictionException e) {
+                throw new IllegalStateException(e);
+            }
+            notifyAll();
+        }
+
+        private synchronized void foundMUS(Seed seed, boolean[] mus) {
+            release(seed);
+            IVecInt blockingClause = new VecInt();
+            IVecInt external = new VecInt();
+            for (int i = 1; i < mus.length; i++) {
+                if (mus[i]) {
+                    blockingClause.push(-i);
+                    external.push(this.selectors[i] - this.offset);
+                }
+            }
+            if (external.isEmpty()) {
+                // the constraints which cannot be removed are unsatisfiable
+                this.done = true;
+                return;
+            }
+            if (this.foundMUSes.add(asList(external))) {
+                musList.add(external);
+                this.musListener.onSolutionFound(external);
+            }
+            block(blockingClause);
+        }
+
+        private synchronized void foundMCS(Seed seed, boolean[] mss) {
+            release(seed);
+            IVecInt blockingClause = new VecInt();
+            IVecInt external = new VecInt();
+            for (int i = 1; i < mss.length; i++) {
+                if (!mss[i]) {
+                    blockingClause.push(i);
+                    external.push(this.selectors[i] - this.offset);
+                }
+            }
+            if (this.foundMCSes.add(asList(external))) {
+                mcsList.add(external);
+                this.mcsListener.onSolutionFound(external);
+            }
+            block(blockingClause);
+        }
+
+        private List<Integer> asList(IVecInt clauses) {
+            List<Integer> list = new ArrayList<Integer>(clauses.size());
+            for (IteratorInt it = clauses.iterator(); it.hasNext();) {
+                list.add(it.next());
+            }
+            return list;
+        }
+
+        private void block(IVecInt clause) {
+            try {
+                this.map.addClause(clause);
+            } catch (ContradictionException e) {
+                this.done = true;
+            }
+        }
+
+        private boolean isSatisfiable(ISolver solver, boolean[] clauses)
+                throws TimeoutException {
+            IVecInt assumps = new VecInt();
+            this.assumptions.copyTo(assumps);
+            for (int i = 1; i < clauses.length; i++) {
+                if (clauses[i]) {
+                    assumps.push(-this.selectors[i]);
+                }
+            }
+            return solver.isSatisfiable(assumps);
+        }
+
+        /**
+         * Extends a satisfiable subset of clauses into an MSS. The clauses
+         * whose selector is falsified by a model are satisfied by it, so they
+         * are added without further check.
+         */
+        private void grow(ISolver solver, boolean[] clauses)
+                throws TimeoutException {
+            addSatisfiedClauses(solver, clauses);
+            for (int i = 1; i < clauses.length; i++) {
+                if (!clauses[i]) {
+                    clauses[i] = true;
+                    if (isSatisfiable(solver, clauses)) {
+                        addSatisfiedClauses(solver, clauses);
+                    } else {
+                        clauses[i] = false;
+                    }
+                }
+            }
+        }
+
+        private void addSatisfiedClauses(ISolver solver, boolean[] clauses) {
+            for (int i = 1; i < clauses.length; i++) {
+                if (!clauses[i] && !solver.model(this.selectors[i])) {
+                    clauses[i] = true;
+                }
+            }
+        }
+
+        /**
+         * Reduces an unsatisfiable subset of clauses into an MUS. Each time a
+         * subset is found unsatisfiable, it is replaced by the clauses of the
+         * explanation of the solver.
+         */
+        private boolean[] shrink(ISolver solver, boolean[] clauses)
+                throws TimeoutException {
+            boolean[] core = explanation(solver, clauses);
+            boolean[] necessary = new boolean[core.length];
+            for (int i = 1; i < core.length; i++) {
+                if (core[i] && !necessary[i]) {
+                    core[i] = false;
+                    if (isSatisfiable(solver, core)) {
+                        core[i] = true;
+                        necessary[i] = true;
+                    } else {
+                        core = explanation(solver, core);
+                    }
+                }
+            }
+            return core;
+        }
+
+        private boolean[] explanation(ISolver solver, boolean[] clauses) {
+            IVecInt explanation = solver.unsatExplanation();
+            if (explanation == null) {
+                return clauses.clone();
+            }
+            boolean[] core = new boolean[clauses.length];
+            int var;
+            for (IteratorInt it = explanation.iterator(); it.hasNext();) {
+                var = Math.abs(it.next());
+                if (var < this.indexes.length && this.indexes[var] > 0
+                        && clauses[this.indexes[var]]) {
+                    core[this.indexes[var]] = true;
+                }
+            }
+            return core;
+        }
+    }
+
 }
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Output stream writing its content on a background thread. The bytes are
+ * accumulated in large buffers which are handed to a writer thread once full,
+ * so that the thread producing the data (e.g. the solver logging a proof) is
+ * not slowed down by the I/O. The number of buffers is bounded: the producer
+ * waits for the writer thread only when all of them are full.
+ * 
+ * The errors met by the writer thread are reported by the next call to
+ * {@link #write(int)}, {@link #flush()} or {@link #close()}.
+ * 
+ * @since 2.3.6
+ */
+public final class AsyncOutputStream extends OutputStream {
+
+    /**
+     * Default size of the buffers.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private static final int NUMBER_OF_BUFFERS = 4;
+
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final OutputStream out;
+
+    private final BlockingQueue<ByteBuffer> full;
+
+    private final BlockingQueue<ByteBuffer> free;
+
+    private final Thread writer;
+
+    private ByteBuffer current;
+
+    private volatile IOException error;
+
+    private boolean closed;
+
+    public AsyncOutputStream(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * 
+     * @param out
+     *            the stream really written, only used by the writer thread.
+     * @param bufferSize
+     *            the size of each buffer.
+     */
+    public AsyncOutputStream(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.full = new ArrayBlockingQueue<ByteBuffer>(NUMBER_OF_BUFFERS + 1);
+        this.free = new ArrayBlockingQueue<ByteBuffer>(NUMBER_OF_BUFFERS);
+        for (int i = 1; i < NUMBER_OF_BUFFERS; i++) {
+            this.free.add(ByteBuffer.allocate(bufferSize));
+        }
+        this.current = ByteBuffer.allocate(bufferSize);
+        this.writer = new Thread(new Runnable() {
+            public void run() {
+                drain();
+            }
+        }, "sat4j-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (!this.current.hasRemaining()) {
+            handOver();
+        }
+        this.current.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        int offset = off;
+        int length = len;
+        int chunk;
+        while (length > 0) {
+            if (!this.current.hasRemaining()) {
+                handOver();
+            }
+            chunk = Math.min(length, this.current.remaining());
+            this.current.put(b, offset, chunk);
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Hands the buffered bytes to the writer thread, without waiting for them
+     * to be written.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (this.current.position() > 0) {
+            handOver();
+        }
+        checkError();
+    }
+
+    /**
+     * Writes the remaining bytes and closes the underlying stream. That method
+     * waits for the writer thread to finish.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            if (this.current.position() > 0) {
+                this.current.flip();
+                this.full.put(this.current);
+            }
+            this.full.put(END);
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        checkError();
+    }
+
+    private void handOver() throws IOException {
+        checkError();
+        if (this.closed) {
+            throw new IOException("Stream closed");
+        }
+        this.current.flip();
+        try {
+            this.full.put(this.current);
+            this.current = this.free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private void checkError() throws IOException {
+        if (this.error != null) {
+            throw this.error;
+        }
+    }
+
+    private void drain() {
+        ByteBuffer buffer;
+        try {
+            for (;;) {
+                buffer = this.full.take();
+                if (buffer == END) {
+                    break;
+                }
+                if (this.error == null) {
+                    try {
+                        this.out.write(buffer.array(), 0, buffer.limit());
+                    } catch (IOException e) {
+                        this.error = e;
+                    }
+                }
+                buffer.clear();
+                this.free.put(buffer);
+            }
+        } catch (InterruptedException e) {
+            this.error = new InterruptedIOException();
+        }
+        try {
+            this.out.close();
+        } catch (IOException e) {
+            if (this.error == null) {
+                this.error = e;
+            }
+        }
+    }
+}
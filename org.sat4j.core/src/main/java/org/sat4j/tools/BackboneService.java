@@ -0,0 +1,525 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Backbone computation service for interactive use, where the backbone is
+ * computed again each time the assumptions change.
+ * 
+ * The candidate literals are taken from a prime implicant, then checked by
+ * chunks: a blocking clause made of the negation of the chunk is added to the
+ * solver, and either all the literals of the chunk are in the backbone, or
+ * the new model discards at least one of them, as well as all the other
+ * candidates it falsifies.
+ * 
+ * The backbones are cached for the last sets of assumptions. The backbone
+ * under a subset of the assumptions is part of the backbone, and the backbone
+ * under a superset of the assumptions contains it, so adding an assumption
+ * only checks the literals which were not already in the backbone, and
+ * removing one only checks the literals of the previous backbone.
+ * 
+ * Several solvers containing the same constraints can be given to the
+ * service: the chunks are then checked in parallel, one thread per solver.
+ * 
+ * The cache is cleared when the number of constraints of the solver changes.
+ * Use {@link #clearCache()} if the constraints are changed another way.
+ * 
+ * @since 2.3.6
+ */
+public class BackboneService {
+
+    public static final int DEFAULT_CHUNK_SIZE = 16;
+
+    public static final int DEFAULT_CACHE_SIZE = 64;
+
+    private final ISolver[] solvers;
+
+    private int[] filter;
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    private int maxCacheSize = DEFAULT_CACHE_SIZE;
+
+    private final Map<Assumptions, int[]> cache = new LinkedHashMap<Assumptions, int[]>(
+            16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(
+                Map.Entry<Assumptions, int[]> eldest) {
+            return size() > BackboneService.this.maxCacheSize;
+        }
+    };
+
+    private int nConstraints = -1;
+
+    private ExecutorService executor;
+
+    private int nbSatCalls;
+
+    /**
+     * 
+     * @param solvers
+     *            solvers containing the same satisfiable set of constraints.
+     *            The candidate literals are checked in parallel when several
+     *            solvers are given.
+     */
+    public BackboneService(ISolver... solvers) {
+        if (solvers.length == 0) {
+            throw new IllegalArgumentException("At least one solver is needed");
+        }
+        this.solvers = solvers.clone();
+    }
+
+    /**
+     * Restrict the backbone to a set of variables. The cache is cleared.
+     * 
+     * @param vars
+     *            the variables (in Dimacs format) whose literals may appear in
+     *            the backbone.
+     */
+    public void setFilter(IVecInt vars) {
+        this.filter = new int[vars.size()];
+        for (int i = 0; i < this.filter.length; i++) {
+            this.filter[i] = Math.abs(vars.get(i));
+        }
+        clearCache();
+    }
+
+    /**
+     * Set the number of literals checked at once.
+     * 
+     * @param chunkSize
+     *            a positive number of literals.
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Set the number of sets of assumptions whose backbone is kept.
+     * 
+     * @param maxCacheSize
+     *            the number of backbones in the cache.
+     */
+    public void setMaxCacheSize(int maxCacheSize) {
+        this.maxCacheSize = maxCacheSize;
+    }
+
+    public void clearCache() {
+        this.cache.clear();
+    }
+
+    /**
+     * Computes the backbone of the formula.
+     * 
+     * @param assumptions
+     *            a set of literals to satisfy
+     * @return the assumptions followed by the literals of the backbone when
+     *         the assumptions are satisfied, as {@link Backbone} does.
+     * @throws TimeoutException
+     *             if the computation cannot be done within the timeout of one
+     *             of the solvers.
+     * @throws IllegalArgumentException
+     *             if the formula is unsatisfiable under the assumptions.
+     */
+    public IVecInt compute(IVecInt assumptions) throws TimeoutException {
+        ISolver solver = this.solvers[0];
+        if (solver.nConstraints() != this.nConstraints) {
+            clearCache();
+            this.nConstraints = solver.nConstraints();
+        }
+        this.nbSatCalls = 0;
+        int nVars = solver.nVars();
+        Assumptions key = new Assumptions(assumptions);
+        int[] backbone = this.cache.get(key);
+        if (backbone == null) {
+            backbone = computeBackbone(key, nVars);
+            this.cache.put(key, backbone);
+        }
+        IVecInt result = new VecInt(assumptions.size() + backbone.length);
+        assumptions.copyTo(result);
+        for (int p : backbone) {
+            if (!key.contains(p)) {
+                result.push(p);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of calls to the SAT solvers needed by the last
+     * computation.
+     * 
+     * @return the number of calls to the SAT solvers.
+     */
+    public int getNumberOfSatCalls() {
+        return this.nbSatCalls;
+    }
+
+    /**
+     * Stop the threads used to check the candidates in parallel.
+     */
+    public void shutdown() {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+    }
+
+    private int[] computeBackbone(Assumptions key, int nVars)
+            throws TimeoutException {
+        // literals known to be in the backbone, and literals which may be
+        int[] known = new int[nVars + 1];
+        int[] possible = null;
+        for (Map.Entry<Assumptions, int[]> entry : this.cache.entrySet()) {
+            if (entry.getKey().isSubsetOf(key)) {
+                for (int p : entry.getValue()) {
+                    known[Math.abs(p)] = p;
+                }
+            } else if (key.isSubsetOf(entry.getKey())) {
+                int[] previous = possible;
+                possible = new int[nVars + 1];
+                for (int p : entry.getValue()) {
+                    if (previous == null || previous[Math.abs(p)] == p) {
+                        possible[Math.abs(p)] = p;
+                    }
+                }
+            }
+        }
+        for (int p : key.literals) {
+            if (Math.abs(p) <= nVars) {
+                known[Math.abs(p)] = p;
+            }
+        }
+        IVecInt knownLiterals = new VecInt();
+        for (int v = 1; v <= nVars; v++) {
+            if (known[v] != 0) {
+                knownLiterals.push(known[v]);
+            }
+        }
+        ISolver solver = this.solvers[0];
+        this.nbSatCalls++;
+        if (!solver.isSatisfiable(knownLiterals)) {
+            throw new IllegalArgumentException("Formula is UNSAT!");
+        }
+        int[] values = new int[nVars + 1];
+        for (int p : solver.primeImplicant()) {
+            if (Math.abs(p) <= nVars) {
+                values[Math.abs(p)] = p;
+            }
+        }
+        Candidates candidates = new Candidates(nVars, knownLiterals);
+        int[] vars = this.filter;
+        if (vars == null) {
+            vars = new int[nVars];
+            for (int v = 1; v <= nVars; v++) {
+                vars[v - 1] = v;
+            }
+        }
+        for (int v : vars) {
+            // a variable missing in the implicant is not in the backbone
+            if (v <= nVars && known[v] == 0 && values[v] != 0
+                    && (possible == null || possible[v] == values[v])) {
+                candidates.add(values[v]);
+            }
+        }
+        check(candidates);
+        this.nbSatCalls += candidates.nbSatCalls;
+        IVecInt backbone = candidates.backbone;
+        if (this.filter != null) {
+            // the known literals outside the filter are left out
+            boolean[] inFilter = new boolean[nVars + 1];
+            for (int v : this.filter) {
+                if (v <= nVars) {
+                    inFilter[v] = true;
+                }
+            }
+            IVecInt filtered = new VecInt(backbone.size());
+            for (int i = 0; i < backbone.size(); i++) {
+                if (inFilter[Math.abs(backbone.get(i))]) {
+                    filtered.push(backbone.get(i));
+                }
+            }
+            backbone = filtered;
+        }
+        int[] result = new int[backbone.size()];
+        backbone.copyTo(result);
+        return result;
+    }
+
+    private void check(final Candidates candidates) throws TimeoutException {
+        if (this.solvers.length == 1) {
+            check(this.solvers[0], candidates);
+            return;
+        }
+        if (this.executor == null) {
+            this.executor = Executors.newFixedThreadPool(this.solvers.length,
+                    new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "sat4j-backbone");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+        }
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for (final ISolver solver : this.solvers) {
+            futures.add(this.executor.submit(new Callable<Void>() {
+                public Void call() throws TimeoutException {
+                    try {
+                        check(solver, candidates);
+                    } catch (TimeoutException e) {
+                        candidates.stop();
+                        throw e;
+                    } catch (RuntimeException e) {
+                        candidates.stop();
+                        throw e;
+                    }
+                    return null;
+                }
+            }));
+        }
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            candidates.stop();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw (TimeoutException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void check(ISolver solver, Candidates candidates)
+            throws TimeoutException {
+        IVecInt chunk = new VecInt();
+        IVecInt assumptions = new VecInt();
+        IVecInt clause = new VecInt();
+        while (candidates.nextChunk(chunk, this.chunkSize, assumptions)) {
+            int[] implicant = null;
+            if (chunk.size() == 1) {
+                assumptions.push(-chunk.get(0));
+                if (solver.isSatisfiable(assumptions)) {
+                    implicant = solver.primeImplicant();
+                }
+            } else {
+                clause.clear();
+                for (int i = 0; i < chunk.size(); i++) {
+                    clause.push(-chunk.get(i));
+                }
+                IConstr constr = null;
+                try {
+                    constr = solver.addBlockingClause(clause);
+                    // the implicant must be computed before removing the
+                    // blocking clause
+                    if (solver.isSatisfiable(assumptions)) {
+                        implicant = solver.primeImplicant();
+                    }
+                } catch (ContradictionException e) {
+                    // all the literals are in the backbone
+                } finally {
+                    if (constr != null) {
+                        solver.removeConstr(constr);
+                    }
+                }
+            }
+            candidates.report(chunk, implicant);
+        }
+    }
+
+    /**
+     * The candidate literals shared by the threads checking them.
+     */
+    private static final class Candidates {
+
+        private final int[] expected;
+
+        private final Queue<Integer> pending = new ArrayDeque<Integer>();
+
+        private final IVecInt known;
+
+        final IVecInt backbone = new VecInt();
+
+        int nbSatCalls;
+
+        private boolean stopped;
+
+        Candidates(int nVars, IVecInt known) {
+            this.expected = new int[nVars + 1];
+            this.known = known;
+            known.copyTo(this.backbone);
+        }
+
+        void add(int p) {
+            this.expected[Math.abs(p)] = p;
+            this.pending.add(Math.abs(p));
+        }
+
+        synchronized void stop() {
+            this.stopped = true;
+        }
+
+        /**
+         * Take the next literals to check, and the literals known to be in
+         * the backbone so far to be used as assumptions.
+         */
+        synchronized boolean nextChunk(IVecInt chunk, int size,
+                IVecInt assumptions) {
+            chunk.clear();
+            while (!this.stopped && chunk.size() < size
+                    && !this.pending.isEmpty()) {
+                int p = this.expected[this.pending.poll()];
+                if (p != 0) {
+                    chunk.push(p);
+                }
+            }
+            assumptions.clear();
+            this.backbone.copyTo(assumptions);
+            return !chunk.isEmpty();
+        }
+
+        /**
+         * 
+         * @param chunk
+         *            the literals checked
+         * @param implicant
+         *            an implicant falsifying some of them, or null if they
+         *            are all in the backbone.
+         */
+        synchronized void report(IVecInt chunk, int[] implicant) {
+            this.nbSatCalls++;
+            if (implicant == null) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    int p = chunk.get(i);
+                    this.expected[Math.abs(p)] = 0;
+                    this.backbone.push(p);
+                }
+                return;
+            }
+            int[] values = new int[this.expected.length];
+            for (int p : implicant) {
+                if (Math.abs(p) < values.length) {
+                    values[Math.abs(p)] = p;
+                }
+            }
+            for (int v = 1; v < this.expected.length; v++) {
+                if (this.expected[v] != values[v]) {
+                    this.expected[v] = 0;
+                }
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                int v = Math.abs(chunk.get(i));
+                if (this.expected[v] != 0) {
+                    this.pending.add(v);
+                }
+            }
+        }
+    }
+
+    /**
+     * A set of assumptions, used as a key of the cache.
+     */
+    private static final class Assumptions {
+
+        final int[] literals;
+
+        Assumptions(IVecInt assumptions) {
+            int[] sorted = new int[assumptions.size()];
+            assumptions.copyTo(sorted);
+            Arrays.sort(sorted);
+            int size = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[size++] = sorted[i];
+                }
+            }
+            this.literals = Arrays.copyOf(sorted, size);
+        }
+
+        boolean contains(int p) {
+            return Arrays.binarySearch(this.literals, p) >= 0;
+        }
+
+        boolean isSubsetOf(Assumptions other) {
+            int j = 0;
+            for (int p : this.literals) {
+                while (j < other.literals.length && other.literals[j] < p) {
+                    j++;
+                }
+                if (j == other.literals.length || other.literals[j] != p) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(this.literals);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Assumptions
+                    && Arrays.equals(this.literals,
+                            ((Assumptions) obj).literals);
+        }
+    }
+}
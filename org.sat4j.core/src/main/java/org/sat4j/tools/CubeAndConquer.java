@@ -0,0 +1,546 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.sat4j.core.ASolverFactory;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.core.Deadline;
+import org.sat4j.minisat.core.ICDCL;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * A divide and conquer parallel solver. Instead of running a portfolio of
+ * solvers on the whole formula as {@link ManyCore} does, the formula is split
+ * into cubes (conjunctions of literals) which are solved incrementally under
+ * assumptions by the solvers.
+ * 
+ * The cubes are produced on demand, using the activity of the variables: a
+ * solver which cannot solve a cube within a given number of conflicts splits
+ * it on the most active variable of its own heuristics not yet in the cube.
+ * Each solver keeps the cubes it produces in its own queue, and the idle
+ * solvers steal the oldest cubes of the other ones (work stealing). When a
+ * cube is proved unsatisfiable, the literals of the cube appearing in the
+ * final conflict of the solver (see {@link ISolver#unsatExplanation()}) are
+ * used to discard the other cubes containing them.
+ * 
+ * The solvers must be CDCL solvers ({@link ICDCL}). The timeout of the first
+ * solver, if time based, limits the whole call, whatever the value of the
+ * globalTimeout parameter. The timeouts of the solvers are restored after each
+ * call. The solvers share the original and the learned clauses as in
+ * {@link ManyCore}: the shared clauses are imported at each restart below the
+ * cube being solved.
+ * 
+ * @since 2.3.6
+ * 
+ * @param <S>
+ *            the type of the solver
+ */
+public class CubeAndConquer<S extends ISolver> extends ManyCore<S> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Default number of conflicts allowed to solve a cube before splitting it.
+     */
+    public static final int DEFAULT_CUBE_CONFLICTS = 2000;
+
+    /**
+     * Default maximal number of literals in a cube: the cubes of that size are
+     * solved without conflict limit.
+     */
+    public static final int DEFAULT_MAX_CUBE_SIZE = 16;
+
+    private static final long IDLE_WAIT_MS = 10;
+
+    private int cubeConflicts = DEFAULT_CUBE_CONFLICTS;
+
+    private int maxCubeSize = DEFAULT_MAX_CUBE_SIZE;
+
+    private transient List<LinkedBlockingDeque<int[]>> queues;
+
+    private transient List<int[]> refutedCubes;
+
+    private transient AtomicInteger openCubes;
+
+    private transient CountDownLatch remainingWorkers;
+
+    private final AtomicBoolean solved = new AtomicBoolean();
+
+    private volatile boolean result;
+
+    private transient volatile Deadline deadline;
+
+    private transient IVecInt assumptions;
+
+    private transient boolean[] assumed;
+
+    private transient Set<Integer> explanation;
+
+    private final Object idle = new Object();
+
+    private final AtomicInteger nbCubes = new AtomicInteger();
+
+    private final AtomicInteger nbSplits = new AtomicInteger();
+
+    private final AtomicInteger nbPrunedCubes = new AtomicInteger();
+
+    public CubeAndConquer(ASolverFactory<S> factory, String... solverNames) {
+        super(factory, solverNames);
+        checkSolvers();
+    }
+
+    /**
+     * 
+     * @param factory
+     *            the factory used to create the solvers.
+     * @param shareLearnedClauses
+     *            true to share the unit clauses and the short clauses with a
+     *            small LBD learned by the solvers.
+     * @param solverNames
+     *            the names of the solvers in the factory.
+     */
+    public CubeAndConquer(ASolverFactory<S> factory,
+            boolean shareLearnedClauses, String... solverNames) {
+        super(factory, shareLearnedClauses, solverNames);
+        checkSolvers();
+    }
+
+    public CubeAndConquer(S[] solverObjects) {
+        super(solverObjects);
+        checkSolvers();
+    }
+
+    public CubeAndConquer(boolean shareLearnedClauses, S[] solverObjects) {
+        super(shareLearnedClauses, solverObjects);
+        checkSolvers();
+    }
+
+    private void checkSolvers() {
+        for (int i = 0; i < this.numberOfSolvers; i++) {
+            if (!(this.solvers.get(i) instanceof ICDCL<?>)) {
+                throw new IllegalArgumentException(
+                        "Cube and conquer requires CDCL solvers: "
+                                + this.solvers.get(i).getClass().getName());
+            }
+        }
+    }
+
+    /**
+     * Set the number of conflicts allowed to solve a cube before splitting
+     * it.
+     * 
+     * @param conflicts
+     *            a number of conflicts.
+     */
+    public void setCubeConflicts(int conflicts) {
+        if (conflicts <= 0) {
+            throw new IllegalArgumentException(
+                    "The number of conflicts must be positive");
+        }
+        this.cubeConflicts = conflicts;
+    }
+
+    public int getCubeConflicts() {
+        return this.cubeConflicts;
+    }
+
+    /**
+     * Set the maximal number of literals of the cubes. The cubes of that size
+     * are not split anymore.
+     * 
+     * @param size
+     *            a number of literals.
+     */
+    public void setMaxCubeSize(int size) {
+        this.maxCubeSize = size;
+    }
+
+    public int getMaxCubeSize() {
+        return this.maxCubeSize;
+    }
+
+    /**
+     * 
+     * @return the number of cubes considered during the last call.
+     */
+    public int getNumberOfCubes() {
+        return this.nbCubes.get();
+    }
+
+    /**
+     * 
+     * @return the number of cubes discarded during the last call thanks to
+     *         the final conflicts of the refuted cubes.
+     */
+    public int getNumberOfPrunedCubes() {
+        return this.nbPrunedCubes.get();
+    }
+
+    @Override
+    public synchronized boolean isSatisfiable(IVecInt assumps,
+            boolean globalTimeout) throws TimeoutException {
+        long[] timeoutsMs = new long[this.numberOfSolvers];
+        int[] timeoutsConflicts = new int[this.numberOfSolvers];
+        for (int i = 0; i < this.numberOfSolvers; i++) {
+            try {
+                timeoutsMs[i] = this.solvers.get(i).getTimeoutMs();
+            } catch (UnsupportedOperationException e) {
+                timeoutsMs[i] = -1;
+                timeoutsConflicts[i] = this.solvers.get(i).getTimeout();
+            }
+        }
+        this.deadline = timeoutsMs[0] < 0 ? Deadline.never()
+                : Deadline.in(timeoutsMs[0]);
+        this.assumptions = assumps;
+        this.assumed = new boolean[nVars() + 1];
+        for (int i = 0; i < assumps.size(); i++) {
+            int var = Math.abs(assumps.get(i));
+            if (var < this.assumed.length) {
+                this.assumed[var] = true;
+            }
+        }
+        this.explanation = new TreeSet<Integer>();
+        this.refutedCubes = new CopyOnWriteArrayList<int[]>();
+        this.queues = new ArrayList<LinkedBlockingDeque<int[]>>(
+                this.numberOfSolvers);
+        for (int i = 0; i < this.numberOfSolvers; i++) {
+            this.queues.add(new LinkedBlockingDeque<int[]>());
+        }
+        this.queues.get(0).add(new int[0]);
+        this.openCubes = new AtomicInteger(1);
+        this.remainingWorkers = new CountDownLatch(this.numberOfSolvers);
+        this.solved.set(false);
+        this.nbCubes.set(1);
+        this.nbSplits.set(0);
+        this.nbPrunedCubes.set(0);
+        newCall();
+        for (int i = 0; i < this.numberOfSolvers; i++) {
+            ((ICDCL<?>) this.solvers.get(i)).setDeadline(this.deadline);
+        }
+        try {
+            Executor exec = getExecutor();
+            for (int i = 0; i < this.numberOfSolvers; i++) {
+                try {
+                    exec.execute(new CubeWorker(i));
+                } catch (RejectedExecutionException e) {
+                    this.remainingWorkers.countDown();
+                }
+            }
+            boolean interrupted = false;
+            for (;;) {
+                try {
+                    this.remainingWorkers.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    this.deadline.cancel();
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            for (int i = 0; i < this.numberOfSolvers; i++) {
+                ICDCL<?> solver = (ICDCL<?>) this.solvers.get(i);
+                solver.setDeadline(null);
+                if (timeoutsMs[i] < 0) {
+                    solver.setTimeoutOnConflicts(timeoutsConflicts[i]);
+                } else {
+                    solver.setTimeoutMs(timeoutsMs[i]);
+                }
+            }
+        }
+        if (isVerbose()) {
+            System.out.printf("%scubes: %d, splits: %d, pruned: %d%n",
+                    getLogPrefix(), this.nbCubes.get(), this.nbSplits.get(),
+                    this.nbPrunedCubes.get());
+        }
+        if (!this.solved.get()) {
+            throw new TimeoutException();
+        }
+        return this.result;
+    }
+
+    @Override
+    public void expireTimeout() {
+        Deadline d = this.deadline;
+        if (d != null) {
+            d.cancel();
+        }
+        super.expireTimeout();
+    }
+
+    @Override
+    public IVecInt unsatExplanation() {
+        if (this.result || this.explanation == null) {
+            return null;
+        }
+        IVecInt core = new VecInt(this.explanation.size());
+        for (Integer p : this.explanation) {
+            core.push(p);
+        }
+        return core;
+    }
+
+    @Override
+    public String toString(String prefix) {
+        return prefix + "Cube and conquer, cubes split after "
+                + this.cubeConflicts + " conflicts\n"
+                + super.toString(prefix);
+    }
+
+    private void answer(boolean sat, int index) {
+        if (this.solved.compareAndSet(false, true)) {
+            this.result = sat;
+            this.winnerId = index;
+            this.deadline.cancel();
+        }
+        wakeUp();
+    }
+
+    private void wakeUp() {
+        synchronized (this.idle) {
+            this.idle.notifyAll();
+        }
+    }
+
+    private boolean isRefuted(int[] cube) {
+        for (int[] refuted : this.refutedCubes) {
+            if (contains(cube, refuted)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(int[] cube, int[] subcube) {
+        for (int p : subcube) {
+            if (Arrays.binarySearch(cube, p) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A cube is closed when it is refuted. The formula is unsatisfiable once
+     * all the cubes are closed.
+     */
+    private void close(int index) {
+        if (this.openCubes.decrementAndGet() == 0) {
+            answer(false, index);
+        }
+    }
+
+    /**
+     * Solves the cubes of a given solver, or the cubes stolen from the other
+     * solvers.
+     */
+    private class CubeWorker implements Runnable {
+
+        private final int index;
+
+        private final ICDCL<?> solver;
+
+        CubeWorker(int index) {
+            this.index = index;
+            this.solver = (ICDCL<?>) CubeAndConquer.this.solvers.get(index);
+        }
+
+        public void run() {
+            try {
+                while (!CubeAndConquer.this.solved.get()
+                        && !CubeAndConquer.this.deadline.hasExpired()) {
+                    int[] cube = nextCube();
+                    if (cube == null) {
+                        synchronized (CubeAndConquer.this.idle) {
+                            CubeAndConquer.this.idle.wait(IDLE_WAIT_MS);
+                        }
+                    } else {
+                        solve(cube);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // no answer from that solver
+                CubeAndConquer.this.deadline.cancel();
+            } finally {
+                CubeAndConquer.this.remainingWorkers.countDown();
+            }
+        }
+
+        private int[] nextCube() {
+            List<LinkedBlockingDeque<int[]>> queues;
+            queues = CubeAndConquer.this.queues;
+            int[] cube = queues.get(this.index).pollFirst();
+            for (int i = 1; cube == null && i < queues.size(); i++) {
+                cube = queues.get((this.index + i) % queues.size())
+                        .pollLast();
+            }
+            return cube;
+        }
+
+        private void solve(int[] cube) {
+            if (isRefuted(cube)) {
+                CubeAndConquer.this.nbPrunedCubes.incrementAndGet();
+                close(this.index);
+                return;
+            }
+            boolean bounded = cube.length < CubeAndConquer.this.maxCubeSize;
+            int splitVar = bounded ? splitVariable(cube) : 0;
+            if (splitVar == 0) {
+                this.solver.setTimeoutOnConflicts(Integer.MAX_VALUE);
+            } else {
+                this.solver.setTimeoutOnConflicts(
+                        CubeAndConquer.this.cubeConflicts);
+            }
+            IVecInt assumps = new VecInt(
+                    CubeAndConquer.this.assumptions.size() + cube.length);
+            CubeAndConquer.this.assumptions.copyTo(assumps);
+            for (int p : cube) {
+                assumps.push(p);
+            }
+            try {
+                if (this.solver.isSatisfiable(assumps, false)) {
+                    answer(true, this.index);
+                } else {
+                    refute(cube, this.solver.unsatExplanation());
+                }
+            } catch (TimeoutException e) {
+                if (!CubeAndConquer.this.deadline.hasExpired()) {
+                    split(cube, splitVariable(cube));
+                }
+            }
+        }
+
+        /**
+         * 
+         * @return the most active variable not assigned by the assumptions
+         *         or the cube, 0 if there is no such variable.
+         */
+        private int splitVariable(int[] cube) {
+            double[] activity = this.solver.getOrder().getVariableHeuristics();
+            boolean[] assumed = CubeAndConquer.this.assumed;
+            int best = 0;
+            double bestActivity = -1;
+            for (int var = 1; var < assumed.length; var++) {
+                // no activity before the first call to the solver
+                double act = activity != null && var < activity.length
+                        ? activity[var] : 0;
+                if (!assumed[var] && act > bestActivity
+                        && Arrays.binarySearch(cube, var) < 0
+                        && Arrays.binarySearch(cube, -var) < 0) {
+                    best = var;
+                    bestActivity = act;
+                }
+            }
+            return best;
+        }
+
+        private void split(int[] cube, int var) {
+            if (var == 0) {
+                // the next attempt will be unbounded
+                CubeAndConquer.this.queues.get(this.index).offerFirst(cube);
+                return;
+            }
+            CubeAndConquer.this.nbCubes.addAndGet(2);
+            CubeAndConquer.this.nbSplits.incrementAndGet();
+            CubeAndConquer.this.openCubes.incrementAndGet();
+            LinkedBlockingDeque<int[]> queue = CubeAndConquer.this.queues
+                    .get(this.index);
+            queue.offerFirst(extend(cube, -var));
+            queue.offerFirst(extend(cube, var));
+            wakeUp();
+        }
+
+        private int[] extend(int[] cube, int p) {
+            int[] extended = Arrays.copyOf(cube, cube.length + 1);
+            extended[cube.length] = p;
+            Arrays.sort(extended);
+            return extended;
+        }
+
+        private void refute(int[] cube, IVecInt core) {
+            List<Integer> cubePart = new ArrayList<Integer>();
+            Set<Integer> explanation = CubeAndConquer.this.explanation;
+            if (core == null) {
+                // no explanation: the whole cube and all the assumptions
+                for (int p : cube) {
+                    cubePart.add(p);
+                }
+                synchronized (explanation) {
+                    for (int i = 0; i < CubeAndConquer.this.assumptions
+                            .size(); i++) {
+                        explanation.add(CubeAndConquer.this.assumptions.get(i));
+                    }
+                }
+            } else {
+                for (int i = 0; i < core.size(); i++) {
+                    int p = core.get(i);
+                    if (Arrays.binarySearch(cube, p) >= 0) {
+                        cubePart.add(p);
+                    } else {
+                        synchronized (explanation) {
+                            explanation.add(p);
+                        }
+                    }
+                }
+            }
+            if (cubePart.isEmpty()) {
+                // the assumptions alone are contradictory
+                answer(false, this.index);
+                return;
+            }
+            int[] refuted = new int[cubePart.size()];
+            for (int i = 0; i < refuted.length; i++) {
+                refuted[i] = cubePart.get(i);
+            }
+            Arrays.sort(refuted);
+            CubeAndConquer.this.refutedCubes.add(refuted);
+            close(this.index);
+        }
+    }
+}
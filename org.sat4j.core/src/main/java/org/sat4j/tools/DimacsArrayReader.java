@@ -85,12 +85,31 @@ public class DimacsArrayReader implements Serializable {
         this.solver.reset();
         this.solver.newVar(maxVar);
         this.solver.setExpectedNumberOfClauses(outputs.length);
+        if (getClass() == DimacsArrayReader.class) {
+            // only clauses, subclasses may translate other kinds of gates
+            this.solver.addAllClauses(toClauses(inputs, outputs.length));
+            return this.solver;
+        }
         for (int i = 0; i < outputs.length; ++i) {
             handleConstr(gateType[i], outputs[i], inputs[i]);
         }
         return this.solver;
     }
 
+    private static int[] toClauses(int[][] inputs, int nbClauses) {
+        int size = 0;
+        for (int i = 0; i < nbClauses; ++i) {
+            size += inputs[i].length + 1;
+        }
+        int[] clauses = new int[size];
+        int pos = 0;
+        for (int i = 0; i < nbClauses; ++i) {
+            System.arraycopy(inputs[i], 0, clauses, pos, inputs[i].length);
+            pos += inputs[i].length + 1;
+        }
+        return clauses;
+    }
+
     public String decode(int[] model) {
         StringBuilder stb = new StringBuilder(4 * model.length);
         for (int element : model) {
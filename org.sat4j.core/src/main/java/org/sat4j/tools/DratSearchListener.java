@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+import org.sat4j.core.LiteralsUtils;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.ISolverService;
+import org.sat4j.specs.Lbool;
+import org.sat4j.specs.SearchListenerAdapter;
+
+/**
+ * Output an unsat proof in the DRAT format, as expected by proof checkers such
+ * as drat-trim. The learned clauses are added to the proof, and the clauses
+ * removed from the learned clauses database or satisfied at decision level 0
+ * are deleted from it.
+ * 
+ * The proof is written either in the textual format or in the more compact
+ * binary format. The proof is encoded on the solver thread into large buffers
+ * which are written to the file by a background thread (see
+ * {@link AsyncOutputStream}). If the name of the file ends with
+ * <code>.gz</code>, the proof is compressed by that same background thread.
+ * 
+ * @param <S>
+ *            a solver service
+ * @since 2.3.6
+ */
+public class DratSearchListener<S extends ISolverService>
+        extends SearchListenerAdapter<S> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int ADD = 'a';
+
+    private static final int DELETE = 'd';
+
+    private final File file;
+
+    private final boolean binary;
+
+    private transient OutputStream out;
+
+    /**
+     * Output a binary DRAT proof.
+     * 
+     * @param filename
+     *            the name of the proof file.
+     */
+    public DratSearchListener(String filename) {
+        this(filename, true);
+    }
+
+    /**
+     * 
+     * @param filename
+     *            the name of the proof file.
+     * @param binary
+     *            true for the binary format, false for the textual one.
+     */
+    public DratSearchListener(String filename, boolean binary) {
+        this.file = new File(filename);
+        this.binary = binary;
+    }
+
+    /**
+     * Output the proof into a stream, e.g. to keep it in memory.
+     * 
+     * @param out
+     *            a stream, closed when the search ends.
+     * @param binary
+     *            true for the binary format, false for the textual one.
+     */
+    public DratSearchListener(OutputStream out, boolean binary) {
+        this.file = null;
+        this.binary = binary;
+        this.out = out;
+    }
+
+    @Override
+    public void init(S solverService) {
+        if (this.out != null || this.file == null) {
+            return;
+        }
+        try {
+            OutputStream stream = new FileOutputStream(this.file);
+            if (this.file.getName().endsWith(".gz")) {
+                stream = new GZIPOutputStream(stream,
+                        AsyncOutputStream.DEFAULT_BUFFER_SIZE);
+            } else {
+                stream = new BufferedOutputStream(stream,
+                        AsyncOutputStream.DEFAULT_BUFFER_SIZE);
+            }
+            this.out = new AsyncOutputStream(stream);
+        } catch (IOException e) {
+            failure(e);
+        }
+    }
+
+    @Override
+    public void end(Lbool result) {
+        if (this.out == null) {
+            return;
+        }
+        if (result == Lbool.FALSE) {
+            // the empty clause
+            startClause(ADD);
+            endClause();
+        }
+        try {
+            this.out.close();
+        } catch (IOException e) {
+            failure(e);
+        }
+        this.out = null;
+        if (result != Lbool.FALSE && this.file != null
+                && !this.file.delete()) {
+            Logger.getLogger("org.sat4j.core")
+                    .info("Cannot delete file " + this.file.getName());
+        }
+    }
+
+    @Override
+    public void learn(IConstr c) {
+        writeConstr(ADD, c);
+    }
+
+    @Override
+    public void learnUnit(int p) {
+        if (this.out != null) {
+            startClause(ADD);
+            writeLiteral(p);
+            endClause();
+        }
+    }
+
+    @Override
+    public void delete(IConstr c) {
+        writeConstr(DELETE, c);
+    }
+
+    private void writeConstr(int type, IConstr c) {
+        if (this.out != null) {
+            startClause(type);
+            for (int i = 0; i < c.size(); i++) {
+                writeLiteral(LiteralsUtils.toDimacs(c.get(i)));
+            }
+            endClause();
+        }
+    }
+
+    private void startClause(int type) {
+        if (this.binary) {
+            write(type);
+        } else if (type == DELETE) {
+            write('d');
+            write(' ');
+        }
+    }
+
+    private void endClause() {
+        if (this.binary) {
+            write(0);
+        } else {
+            write('0');
+            write('\n');
+        }
+    }
+
+    private void writeLiteral(int p) {
+        if (this.binary) {
+            // 2*var+sign, 7 bits per byte, least significant first
+            int u = p > 0 ? p << 1 : -p << 1 | 1;
+            while ((u & ~0x7f) != 0) {
+                write(u & 0x7f | 0x80);
+                u >>>= 7;
+            }
+            write(u);
+        } else {
+            write(Integer.toString(p));
+            write(' ');
+        }
+    }
+
+    private void write(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            write(s.charAt(i));
+        }
+    }
+
+    private void write(int b) {
+        if (this.out == null) {
+            return;
+        }
+        try {
+            this.out.write(b);
+        } catch (IOException e) {
+            failure(e);
+        }
+    }
+
+    private void failure(IOException e) {
+        Logger.getLogger("org.sat4j.core").log(Level.WARNING,
+                "Cannot write the proof, giving up", e);
+        this.out = null;
+    }
+}
@@ -31,8 +31,10 @@ package org.sat4j.tools;
 
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.nio.IntBuffer;
 import java.util.Map;
 
+import org.sat4j.core.ClauseBuffers;
 import org.sat4j.specs.Constr;
 import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.IConstr;
@@ -188,6 +190,21 @@ public abstract class EmptySolver implements ISolver {
         throw new UnsupportedOperationException("Not implemented yet!");
     }
 
+    /**
+     * @since 2.3.6
+     */
+    public void addAllClauses(int[] clauses) throws ContradictionException {
+        addAllClauses(IntBuffer.wrap(clauses));
+    }
+
+    /**
+     * @since 2.3.6
+     */
+    public void addAllClauses(IntBuffer clauses)
+            throws ContradictionException {
+        ClauseBuffers.addAllClauses(this, clauses);
+    }
+
     public boolean removeConstr(IConstr c) {
         return false;
     }
@@ -344,19 +344,11 @@ public class GateTranslator extends SolverDecorator<ISolver> {
      * @since 2.2
      */
     public void xor(int x, int a, int b) throws ContradictionException {
-        IVecInt clause = new VecInt(3);
-        clause.push(-a).push(b).push(x);
-        processClause(clause);
-        clause.clear();
-        clause.push(a).push(-b).push(x);
-        processClause(clause);
-        clause.clear();
-        clause.push(-a).push(-b).push(-x);
-        processClause(clause);
-        clause.clear();
-        clause.push(a).push(b).push(-x);
-        processClause(clause);
-        clause.clear();
+        addAllClauses(new int[] { //
+                -a, b, x, 0, //
+                a, -b, x, 0, //
+                -a, -b, -x, 0, //
+                a, b, -x, 0 });
     }
 
     private void xor2Clause(int[] f, int prefix, boolean negation,
@@ -418,33 +410,17 @@ public class GateTranslator extends SolverDecorator<ISolver> {
      */
     public void fullAdderSum(int x, int a, int b, int c)
             throws ContradictionException {
-        IVecInt clause = new VecInt(4);
-        // -a /\ -b /\ -c -> -x
-        clause.push(a).push(b).push(c).push(-x);
-        processClause(clause);
-        clause.clear();
-        // -a /\ b /\ c -> -x
-        clause.push(a).push(-b).push(-c).push(-x);
-        processClause(clause);
-        clause.clear();
-        clause.push(-a).push(b).push(-c).push(-x);
-        processClause(clause);
-        clause.clear();
-        clause.push(-a).push(-b).push(c).push(-x);
-        processClause(clause);
-        clause.clear();
-        clause.push(-a).push(-b).push(-c).push(x);
-        processClause(clause);
-        clause.clear();
-        clause.push(-a).push(b).push(c).push(x);
-        processClause(clause);
-        clause.clear();
-        clause.push(a).push(-b).push(c).push(x);
-        processClause(clause);
-        clause.clear();
-        clause.push(a).push(b).push(-c).push(x);
-        processClause(clause);
-        clause.clear();
+        addAllClauses(new int[] {
+                // -a /\ -b /\ -c -> -x
+                a, b, c, -x, 0,
+                // -a /\ b /\ c -> -x
+                a, -b, -c, -x, 0, //
+                -a, b, -c, -x, 0, //
+                -a, -b, c, -x, 0, //
+                -a, -b, -c, x, 0, //
+                -a, b, c, x, 0, //
+                a, -b, c, x, 0, //
+                a, b, -c, x, 0 });
     }
 
     /**
@@ -452,25 +428,13 @@ public class GateTranslator extends SolverDecorator<ISolver> {
      */
     public void fullAdderCarry(int x, int a, int b, int c)
             throws ContradictionException {
-        IVecInt clause = new VecInt(3);
-        clause.push(-b).push(-c).push(x);
-        processClause(clause);
-        clause.clear();
-        clause.push(-a).push(-c).push(x);
-        processClause(clause);
-        clause.clear();
-        clause.push(-a).push(-b).push(x);
-        processClause(clause);
-        clause.clear();
-        clause.push(b).push(c).push(-x);
-        processClause(clause);
-        clause.clear();
-        clause.push(a).push(c).push(-x);
-        processClause(clause);
-        clause.clear();
-        clause.push(a).push(b).push(-x);
-        processClause(clause);
-        clause.clear();
+        addAllClauses(new int[] { //
+                -b, -c, x, 0, //
+                -a, -c, x, 0, //
+                -a, -b, x, 0, //
+                b, c, -x, 0, //
+                a, c, -x, 0, //
+                a, b, -x, 0 });
     }
 
     /**
@@ -478,19 +442,13 @@ public class GateTranslator extends SolverDecorator<ISolver> {
      */
     public void additionalFullAdderConstraints(int xcarry, int xsum, int a,
             int b, int c) throws ContradictionException {
-        IVecInt clause = new VecInt(3);
-        clause.push(-xcarry).push(-xsum).push(a);
-        processClause(clause);
-        clause.push(-xcarry).push(-xsum).push(b);
-        processClause(clause);
-        clause.push(-xcarry).push(-xsum).push(c);
-        processClause(clause);
-        clause.push(xcarry).push(xsum).push(-a);
-        processClause(clause);
-        clause.push(xcarry).push(xsum).push(-b);
-        processClause(clause);
-        clause.push(xcarry).push(xsum).push(-c);
-        processClause(clause);
+        addAllClauses(new int[] { //
+                -xcarry, -xsum, a, 0, //
+                -xcarry, -xsum, b, 0, //
+                -xcarry, -xsum, c, 0, //
+                xcarry, xsum, -a, 0, //
+                xcarry, xsum, -b, 0, //
+                xcarry, xsum, -c, 0 });
     }
 
     /**
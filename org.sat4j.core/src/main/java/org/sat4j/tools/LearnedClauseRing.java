@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.sat4j.specs.IVec;
+
+/**
+ * Bounded ring buffer in which a single solver publishes the clauses it learns
+ * while the other solvers read them, without locking.
+ * 
+ * Each entry is an array whose first element is the LBD of the clause,
+ * followed by its literals in Dimacs format. Each reader keeps its own cursor.
+ * When the producer laps a slow reader, the oldest clauses are lost for that
+ * reader. A reader racing with the producer may also read a more recent clause
+ * than expected: all the entries being clauses implied by the constraints
+ * shared by the solvers, this is harmless.
+ * 
+ * @since 2.3.6
+ */
+final class LearnedClauseRing implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final AtomicReferenceArray<int[]> entries;
+
+    private final int mask;
+
+    private final AtomicLong published = new AtomicLong();
+
+    /**
+     * 
+     * @param capacity
+     *            the maximum number of clauses kept, rounded to a power of
+     *            two.
+     */
+    LearnedClauseRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.entries = new AtomicReferenceArray<int[]>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Must only be called by the thread of the producer.
+     * 
+     * @param entry
+     *            the LBD of the clause followed by its literals.
+     */
+    void publish(int[] entry) {
+        long n = this.published.get();
+        this.entries.set((int) (n & this.mask), entry);
+        this.published.lazySet(n + 1);
+    }
+
+    /**
+     * Read the clauses published since a given position.
+     * 
+     * @param cursor
+     *            the number of clauses published at the time of the previous
+     *            read (0 for the first read).
+     * @param out
+     *            the vector receiving the clauses still available.
+     * @return the cursor to use for the next read.
+     */
+    long read(long cursor, IVec<int[]> out) {
+        long n = this.published.get();
+        long from = Math.max(cursor, n - this.entries.length());
+        int[] entry;
+        for (long i = from; i < n; i++) {
+            entry = this.entries.get((int) (i & this.mask));
+            if (entry != null) {
+                out.push(entry);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Forget all the clauses. Must not be called while the solvers run.
+     */
+    void clear() {
+        this.published.set(0);
+        for (int i = 0; i < this.entries.length(); i++) {
+            this.entries.set(i, null);
+        }
+    }
+}
@@ -31,17 +31,31 @@ package org.sat4j.tools;
 
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.sat4j.core.ASolverFactory;
+import org.sat4j.core.ClauseBuffers;
 import org.sat4j.core.ConstrGroup;
 import org.sat4j.core.LiteralsUtils;
 import org.sat4j.core.Vec;
 import org.sat4j.core.VecInt;
+import org.sat4j.minisat.constraints.cnf.SharedClauseStore;
 import org.sat4j.minisat.core.Counter;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.minisat.core.Solver;
 import org.sat4j.specs.Constr;
 import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.IConstr;
@@ -49,6 +63,8 @@ import org.sat4j.specs.ISolver;
 import org.sat4j.specs.ISolverService;
 import org.sat4j.specs.IVec;
 import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.LearnedClauseImporter;
+import org.sat4j.specs.LearnedClauseProvider;
 import org.sat4j.specs.SearchListener;
 import org.sat4j.specs.SearchListenerAdapter;
 import org.sat4j.specs.TimeoutException;
@@ -58,9 +74,21 @@ import org.sat4j.specs.UnitPropagationListener;
 /**
  * A class allowing to run several solvers in parallel.
  * 
- * Note that each solver will have its own copy of the CNF, so it is not a
- * memory efficient implementation. There is no sharing of information yet
- * between the solvers.
+ * Note that by default each solver will have its own copy of the CNF, so it is
+ * not a memory efficient implementation. When the original clauses are shared
+ * (see {@link #setShareOriginalClauses(boolean)}), their literals are stored
+ * once in a {@link SharedClauseStore} referenced by all the solvers, which
+ * only keep their own watches on those clauses. When required, the solvers
+ * share the unit
+ * clauses and the short clauses with a small LBD they learn: each solver
+ * publishes them in its own lock free ring buffer, and imports those of the
+ * other solvers on restarts.
+ * 
+ * The solvers run as tasks of an {@link Executor}, by default a pool of daemon
+ * threads owned by the instance, so that the threads are reused from one query
+ * to the next. Idle threads stop after a minute, and {@link #shutdown()} stops
+ * them at once. The calls to a given instance are serialized, since its
+ * solvers are used by each call.
  * 
  * @author leberre
  * 
@@ -71,10 +99,6 @@ public class ManyCore<S extends ISolver>
         extends SearchListenerAdapter<ISolverService>
         implements ISolver, OutcomeListener, UnitClauseProvider {
 
-    private static final int NORMAL_SLEEP = 500;
-
-    private static final int FAST_SLEEP = 50;
-
     /**
      * 
      */
@@ -86,32 +110,79 @@ public class ManyCore<S extends ISolver>
     protected final int numberOfSolvers;
     protected int winnerId;
     private boolean resultFound;
-    private AtomicInteger remainingSolvers;
-    private volatile int sleepTime;
-    private volatile boolean solved;
-    private final IVecInt sharedUnitClauses = new VecInt();
+    private transient CountDownLatch remainingSolvers;
+    private final AtomicBoolean solved = new AtomicBoolean();
+    private transient Executor executor;
+    private transient ExecutorService defaultExecutor;
+
+    /**
+     * Default maximal size of the shared clauses.
+     */
+    public static final int DEFAULT_SHARED_CLAUSES_MAX_SIZE = 8;
+
+    /**
+     * Default maximal LBD of the shared clauses.
+     */
+    public static final int DEFAULT_SHARED_CLAUSES_MAX_LBD = 4;
+
+    private static final int RING_CAPACITY = 4096;
+
+    private static final int MAX_IMPORTED_KEYS = 1 << 16;
+
+    /**
+     * Rough estimate, not a measure, of the memory used by a solver for each
+     * variable on a 64 bits JVM with compressed references: the level, the
+     * reason and the activity of the variable, its position in the heap of
+     * the heuristics and its phase take about 30 bytes, the rest goes to the
+     * vectors (object and backing array) holding the watches of both literals
+     * and the undo list of the variable. The actual value depends on the data
+     * structure and on the number of occurrences of the literals.
+     */
+    private static final int VARIABLE_FOOTPRINT_IN_BYTES = 200;
+
+    private final LearnedClauseRing[] rings;
+
+    private final List<ClauseSharingEndpoint> endpoints;
+
+    private int sharedClausesMaxSize = DEFAULT_SHARED_CLAUSES_MAX_SIZE;
+
+    private int sharedClausesMaxLBD = DEFAULT_SHARED_CLAUSES_MAX_LBD;
 
     private final IVec<Counter> solversStats = new Vec<Counter>();
 
+    private SharedClauseStore originalClauses;
+
+    private SearchListener<?> searchListener;
+
     public ManyCore(ASolverFactory<S> factory, String... solverNames) {
         this(factory, false, solverNames);
     }
 
-    public ManyCore(ASolverFactory<S> factory, boolean shareLearnedUnitClauses,
+    /**
+     * 
+     * @param factory
+     *            the factory used to create the solvers.
+     * @param shareLearnedClauses
+     *            true to share the unit clauses and the short clauses with a
+     *            small LBD learned by the solvers.
+     * @param solverNames
+     *            the names of the solvers in the factory.
+     */
+    public ManyCore(ASolverFactory<S> factory, boolean shareLearnedClauses,
             String... solverNames) {
         this.availableSolvers = solverNames;
         this.numberOfSolvers = solverNames.length;
         this.solvers = new ArrayList<S>(this.numberOfSolvers);
+        this.rings = new LearnedClauseRing[this.numberOfSolvers];
+        this.endpoints = new ArrayList<ClauseSharingEndpoint>(
+                this.numberOfSolvers);
         S solver;
         for (int i = 0; i < this.numberOfSolvers; i++) {
             solver = factory.createSolverByName(this.availableSolvers[i]);
-            solver.setSearchListener(this);
-            if (shareLearnedUnitClauses) {
-                solver.setUnitClauseProvider(this);
-            }
             this.solvers.add(solver);
             this.solversStats.push(new Counter(0));
         }
+        connect(shareLearnedClauses);
     }
 
     /**
@@ -126,9 +197,9 @@ public class ManyCore<S extends ISolver>
         this(false, names, solverObjects);
     }
 
-    public ManyCore(boolean shareLearnedUnitClauses, String[] names,
+    public ManyCore(boolean shareLearnedClauses, String[] names,
             S... solverObjects) {
-        this(shareLearnedUnitClauses, solverObjects);
+        this(shareLearnedClauses, solverObjects);
         for (int i = 0; i < names.length; i++) {
             this.availableSolvers[i] = names[i];
         }
@@ -138,25 +209,205 @@ public class ManyCore<S extends ISolver>
         this(false, solverObjects);
     }
 
-    public ManyCore(boolean shareLearnedUnitClauses, S... solverObjects) {
+    public ManyCore(boolean shareLearnedClauses, S... solverObjects) {
         this.availableSolvers = new String[solverObjects.length];
         for (int i = 0; i < solverObjects.length; i++) {
             this.availableSolvers[i] = "solver" + i;
         }
         this.numberOfSolvers = solverObjects.length;
         this.solvers = new ArrayList<S>(this.numberOfSolvers);
+        this.rings = new LearnedClauseRing[this.numberOfSolvers];
+        this.endpoints = new ArrayList<ClauseSharingEndpoint>(
+                this.numberOfSolvers);
         for (int i = 0; i < this.numberOfSolvers; i++) {
             this.solvers.add(solverObjects[i]);
-            solverObjects[i].setSearchListener(this);
-            if (shareLearnedUnitClauses) {
-                solverObjects[i].setUnitClauseProvider(this);
-            }
             this.solversStats.push(new Counter(0));
         }
+        connect(shareLearnedClauses);
+    }
+
+    private void connect(boolean shareLearnedClauses) {
+        S solver;
+        for (int i = 0; i < this.numberOfSolvers; i++) {
+            solver = this.solvers.get(i);
+            if (shareLearnedClauses) {
+                ClauseSharingEndpoint endpoint = new ClauseSharingEndpoint(i);
+                this.rings[i] = new LearnedClauseRing(RING_CAPACITY);
+                this.endpoints.add(endpoint);
+                solver.setSearchListener(endpoint);
+                solver.setUnitClauseProvider(endpoint);
+            } else {
+                solver.setSearchListener(this);
+            }
+        }
+    }
+
+    /**
+     * Set the maximal size of the learned clauses shared between the solvers.
+     * Use 1 to share only unit clauses.
+     * 
+     * @param size
+     *            a number of literals.
+     * @since 2.3.6
+     */
+    public void setSharedClausesMaxSize(int size) {
+        this.sharedClausesMaxSize = size;
+    }
+
+    public int getSharedClausesMaxSize() {
+        return this.sharedClausesMaxSize;
+    }
+
+    /**
+     * Set the maximal LBD of the learned clauses shared between the solvers.
+     * The LBD is read from the activity of the clause, as computed by the LBD
+     * based deletion strategies.
+     * 
+     * @param lbd
+     *            a literal block distance.
+     * @since 2.3.6
+     */
+    public void setSharedClausesMaxLBD(int lbd) {
+        this.sharedClausesMaxLBD = lbd;
+    }
+
+    public int getSharedClausesMaxLBD() {
+        return this.sharedClausesMaxLBD;
+    }
+
+    /**
+     * Store the literals of the original clauses once for all the solvers,
+     * instead of giving a private copy of each clause to each solver. Only the
+     * solvers based on {@link Solver} can reference the shared clauses, the
+     * other ones still get a copy. Must be called before adding the clauses.
+     * 
+     * @param share
+     *            true to share the original clauses.
+     * @since 2.3.6
+     */
+    public void setShareOriginalClauses(boolean share) {
+        if (share) {
+            if (this.originalClauses == null) {
+                this.originalClauses = new SharedClauseStore();
+            }
+        } else {
+            this.originalClauses = null;
+        }
+    }
+
+    public boolean isSharingOriginalClauses() {
+        return this.originalClauses != null;
+    }
+
+    /**
+     * Estimates the memory needed by each solver of the portfolio for the
+     * variables and the original clauses of the formula, to evaluate the cost
+     * of an additional solver. The learned clauses are not taken into
+     * account. Without sharing, the size of the private copy of the formula is
+     * not computed, hence -1 is returned.
+     * 
+     * This is a rough estimate based on constants: about 200 bytes per
+     * variable, and 52 bytes per shared original clause, i.e. 32 bytes for
+     * the {@link org.sat4j.minisat.constraints.cnf.SharedWLClause} object
+     * referencing the literals in the store, up to 8 bytes for each of its
+     * two watches and 4 bytes for its slot in the constraints of the solver.
+     * The literals themselves are stored once for all the solvers.
+     * 
+     * @return an estimate in bytes of the memory used by each solver before
+     *         learning, or -1 if the original clauses are not shared.
+     * @since 2.3.6
+     */
+    public long estimatedMemoryPerExtraSolver() {
+        if (this.originalClauses == null) {
+            return -1;
+        }
+        return (long) nVars() * VARIABLE_FOOTPRINT_IN_BYTES
+                + this.originalClauses.sizeInBytesPerSolver();
+    }
+
+    private void printSharedStoreStat(PrintWriter out, String prefix) {
+        if (this.originalClauses != null) {
+            out.printf("%sshared original clauses\t: %d%n", prefix,
+                    this.originalClauses.nClauses());
+            out.printf("%sshared clauses store (bytes)\t: %d%n", prefix,
+                    this.originalClauses.sizeInBytes());
+            out.printf("%smemory per extra solver (bytes)\t: %d%n", prefix,
+                    estimatedMemoryPerExtraSolver());
+        }
+    }
+
+    private IConstr addSharedClause(IVecInt literals)
+            throws ContradictionException {
+        IVecInt lits = new VecInt(literals.size());
+        for (int i = 0; i < literals.size(); i++) {
+            if (literals.get(i) == 0) {
+                throw new IllegalArgumentException(
+                        "0 is not a valid variable identifier");
+            }
+            lits.push(LiteralsUtils.toInternal(literals.get(i)));
+        }
+        lits.sortUnique();
+        for (int i = 0; i < lits.size() - 1; i++) {
+            if (lits.get(i) == (lits.get(i + 1) ^ 1)) {
+                // tautologies are ignored by the solvers
+                lits = null;
+                break;
+            }
+        }
+        long ref = 0;
+        if (lits != null && lits.size() > 1) {
+            ref = this.originalClauses.add(lits);
+        }
+        ConstrGroup group = new ConstrGroup(false);
+        S solver;
+        for (int i = 0; i < this.numberOfSolvers; i++) {
+            solver = this.solvers.get(i);
+            if (lits != null && lits.size() > 1 && solver instanceof Solver) {
+                group.add(((Solver<?>) solver).addSharedClause(
+                        this.originalClauses, ref));
+            } else {
+                group.add(solver.addClause(literals));
+            }
+        }
+        return group;
+    }
+
+    private void clearSharedClauses() {
+        for (int i = 0; i < this.endpoints.size(); i++) {
+            this.rings[i].clear();
+            this.endpoints.get(i).clear();
+        }
     }
 
     public void addAllClauses(IVec<IVecInt> clauses)
             throws ContradictionException {
+        if (this.originalClauses != null) {
+            for (int i = 0; i < clauses.size(); i++) {
+                addSharedClause(clauses.get(i));
+            }
+            return;
+        }
+        for (int i = 0; i < this.numberOfSolvers; i++) {
+            this.solvers.get(i).addAllClauses(clauses);
+        }
+    }
+
+    /**
+     * @since 2.3.6
+     */
+    public void addAllClauses(int[] clauses) throws ContradictionException {
+        addAllClauses(IntBuffer.wrap(clauses));
+    }
+
+    /**
+     * @since 2.3.6
+     */
+    public void addAllClauses(IntBuffer clauses)
+            throws ContradictionException {
+        if (this.originalClauses != null) {
+            ClauseBuffers.addAllClauses(this, clauses);
+            return;
+        }
         for (int i = 0; i < this.numberOfSolvers; i++) {
             this.solvers.get(i).addAllClauses(clauses);
         }
@@ -190,6 +441,9 @@ public class ManyCore<S extends ISolver>
     }
 
     public IConstr addClause(IVecInt literals) throws ContradictionException {
+        if (this.originalClauses != null) {
+            return addSharedClause(literals);
+        }
         ConstrGroup group = new ConstrGroup(false);
         for (int i = 0; i < this.numberOfSolvers; i++) {
             group.add(this.solvers.get(i).addClause(literals));
@@ -201,14 +455,56 @@ public class ManyCore<S extends ISolver>
         for (int i = 0; i < this.numberOfSolvers; i++) {
             this.solvers.get(i).clearLearntClauses();
         }
-        sharedUnitClauses.clear();
+        clearSharedClauses();
     }
 
     public void expireTimeout() {
         for (int i = 0; i < this.numberOfSolvers; i++) {
             this.solvers.get(i).expireTimeout();
         }
-        this.sleepTime = FAST_SLEEP;
+    }
+
+    /**
+     * Set the executor running the solvers. It must be able to run all the
+     * solvers concurrently, e.g. a cached thread pool or, on Java 21, an
+     * executor creating a virtual thread per task.
+     * 
+     * @param executor
+     *            an executor, or null to use the default pool of daemon
+     *            threads of that instance.
+     * @since 2.3.6
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @since 2.3.6
+     */
+    public synchronized Executor getExecutor() {
+        if (this.executor != null) {
+            return this.executor;
+        }
+        if (this.defaultExecutor == null) {
+            this.defaultExecutor = Executors
+                    .newCachedThreadPool(new DaemonThreadFactory());
+        }
+        return this.defaultExecutor;
+    }
+
+    /**
+     * Stop the threads of the default executor of that instance, without
+     * waiting for them to become idle. An executor set by
+     * {@link #setExecutor(Executor)} is left untouched. A new pool of threads
+     * is created if the solver is called again.
+     * 
+     * @since 2.3.6
+     */
+    public synchronized void shutdown() {
+        if (this.defaultExecutor != null) {
+            this.defaultExecutor.shutdown();
+            this.defaultExecutor = null;
+        }
     }
 
     public Map<String, Number> getStat() {
@@ -247,6 +543,7 @@ public class ManyCore<S extends ISolver>
 
     @Deprecated
     public void printStat(PrintWriter out, String prefix) {
+        printSharedStoreStat(out, prefix);
         for (int i = 0; i < this.numberOfSolvers; i++) {
             out.printf(
                     "%s>>>>>>>>>> Solver number %d (%d answers) <<<<<<<<<<<<<<<<<<%n",
@@ -267,7 +564,7 @@ public class ManyCore<S extends ISolver>
                             & this.solvers.get(i).removeConstr(toRemove);
                 }
             }
-            sharedUnitClauses.clear();
+            clearSharedClauses();
             return removed;
         }
         throw new IllegalArgumentException(
@@ -278,7 +575,10 @@ public class ManyCore<S extends ISolver>
         for (int i = 0; i < this.numberOfSolvers; i++) {
             this.solvers.get(i).reset();
         }
-        sharedUnitClauses.clear();
+        clearSharedClauses();
+        if (this.originalClauses != null) {
+            this.originalClauses.clear();
+        }
     }
 
     public void setExpectedNumberOfClauses(int nb) {
@@ -347,27 +647,48 @@ public class ManyCore<S extends ISolver>
 
     public synchronized boolean isSatisfiable(IVecInt assumps,
             boolean globalTimeout) throws TimeoutException {
-        this.remainingSolvers = new AtomicInteger(this.numberOfSolvers);
-        this.solved = false;
+        this.remainingSolvers = new CountDownLatch(this.numberOfSolvers);
+        this.solved.set(false);
+        newCall();
+        Executor exec = getExecutor();
         for (int i = 0; i < this.numberOfSolvers; i++) {
-            new Thread(new RunnableSolver(i, this.solvers.get(i), assumps,
-                    globalTimeout, this)).start();
+            try {
+                exec.execute(new RunnableSolver(i, this.solvers.get(i),
+                        assumps, globalTimeout, this));
+            } catch (RejectedExecutionException e) {
+                onFinishWithAnswer(false, false, i);
+            }
         }
-        try {
-            this.sleepTime = NORMAL_SLEEP;
-            do {
-                wait(this.sleepTime);
-            } while (this.remainingSolvers.get() > 0);
-        } catch (InterruptedException e) {
-            // will happen when one solver found a solution
-        }
-        if (!this.solved) {
-            assert this.remainingSolvers.get() == 0;
+        // the losers are stopped as soon as a winner is found: wait for them
+        // since the solvers are used by the next call
+        boolean interrupted = false;
+        for (;;) {
+            try {
+                this.remainingSolvers.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+                expireTimeout();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (!this.solved.get()) {
             throw new TimeoutException();
         }
         return this.resultFound;
     }
 
+    /**
+     * Prepares the clause sharing for a new call to the solvers.
+     */
+    void newCall() {
+        for (int i = 0; i < this.endpoints.size(); i++) {
+            this.endpoints.get(i).newCall();
+        }
+    }
+
     public boolean isSatisfiable(boolean globalTimeout)
             throws TimeoutException {
         throw new UnsupportedOperationException();
@@ -401,25 +722,23 @@ public class ManyCore<S extends ISolver>
         }
     }
 
-    public synchronized void onFinishWithAnswer(boolean finished,
-            boolean result, int index) {
-        if (finished && !this.solved) {
+    public void onFinishWithAnswer(boolean finished, boolean result,
+            int index) {
+        if (finished && this.solved.compareAndSet(false, true)) {
             this.winnerId = index;
             this.solversStats.get(index).inc();
-            this.solved = true;
             this.resultFound = result;
             for (int i = 0; i < this.numberOfSolvers; i++) {
                 if (i != this.winnerId) {
                     this.solvers.get(i).expireTimeout();
                 }
             }
-            this.sleepTime = FAST_SLEEP;
             if (isVerbose()) {
                 System.out.println(getLogPrefix() + "And the winner is "
                         + this.availableSolvers[this.winnerId]);
             }
         }
-        this.remainingSolvers.getAndDecrement();
+        this.remainingSolvers.countDown();
     }
 
     public boolean isDBSimplificationAllowed() {
@@ -432,17 +751,35 @@ public class ManyCore<S extends ISolver>
         }
     }
 
+    /**
+     * Set the search listener of all the solvers. When the learned clauses
+     * are shared, the listener is chained with the one exporting the clauses
+     * learned by each solver.
+     */
+    @SuppressWarnings("unchecked")
     public <I extends ISolverService> void setSearchListener(
             SearchListener<I> sl) {
+        this.searchListener = sl;
         for (int i = 0; i < this.numberOfSolvers; i++) {
-            this.solvers.get(i).setSearchListener(sl);
+            if (this.endpoints.isEmpty()) {
+                this.solvers.get(i).setSearchListener(sl);
+            } else {
+                this.solvers.get(i).setSearchListener(
+                        new MultiTracing<I>(
+                                (SearchListener<I>) (SearchListener<?>) this.endpoints
+                                        .get(i), sl));
+            }
         }
     }
 
     /**
      * @since 2.2
      */
+    @SuppressWarnings("unchecked")
     public <I extends ISolverService> SearchListener<I> getSearchListener() {
+        if (this.searchListener != null) {
+            return (SearchListener<I>) this.searchListener;
+        }
         return this.solvers.get(0).getSearchListener();
     }
 
@@ -570,6 +907,7 @@ public class ManyCore<S extends ISolver>
      * @since 2.3.3
      */
     public void printStat(PrintWriter out) {
+        printSharedStoreStat(out, getLogPrefix());
         for (int i = 0; i < this.numberOfSolvers; i++) {
             out.printf(
                     "%s>>>>>>>>>> Solver number %d (%d answers) <<<<<<<<<<<<<<<<<<%n",
@@ -591,14 +929,206 @@ public class ManyCore<S extends ISolver>
 
     }
 
-    @Override
-    public synchronized void learnUnit(int p) {
-        sharedUnitClauses.push(LiteralsUtils.toInternal(p));
+    /**
+     * Provides all the unit clauses currently shared by the solvers.
+     */
+    public void provideUnitClauses(UnitPropagationListener upl) {
+        IVec<int[]> entries = new Vec<int[]>();
+        for (int i = 0; i < this.endpoints.size(); i++) {
+            this.rings[i].read(0, entries);
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).length == 2) {
+                upl.enqueue(LiteralsUtils.toInternal(entries.get(i)[1]));
+            }
+        }
     }
 
-    public synchronized void provideUnitClauses(UnitPropagationListener upl) {
-        for (int i = 0; i < sharedUnitClauses.size(); i++) {
-            upl.enqueue(sharedUnitClauses.get(i));
+    /**
+     * Connects one solver to the clause exchange: it publishes the clauses
+     * learned by that solver in its ring buffer and provides that solver with
+     * the clauses published by the other ones.
+     */
+    private final class ClauseSharingEndpoint extends
+            SearchListenerAdapter<ISolverService> implements
+            LearnedClauseProvider {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int index;
+
+        private final long[] unitCursors;
+
+        private final long[] clauseCursors;
+
+        private final IVec<int[]> entries = new Vec<int[]>();
+
+        /**
+         * The clauses already imported, by hash key, to avoid importing twice
+         * the same clause learned by two solvers.
+         */
+        private final Map<Long, int[]> imported = new HashMap<Long, int[]>();
+
+        /**
+         * The vocabulary of the solver, used to compute the LBD of the learned
+         * clauses.
+         */
+        private transient ILits voc;
+
+        private int[] levelStamps = new int[0];
+
+        private int stamp;
+
+        ClauseSharingEndpoint(int index) {
+            this.index = index;
+            this.unitCursors = new long[numberOfSolvers];
+            this.clauseCursors = new long[numberOfSolvers];
+        }
+
+        @Override
+        public void learnUnit(int p) {
+            rings[this.index].publish(new int[] { 1, p });
+        }
+
+        @Override
+        public void init(ISolverService solverService) {
+            this.voc = solverService instanceof Solver<?> ? ((Solver<?>) solverService)
+                    .getVocabulary() : null;
+        }
+
+        @Override
+        public void learn(IConstr c) {
+            if (c.size() > sharedClausesMaxSize || !isClause(c)) {
+                return;
+            }
+            int lbd = lbd(c);
+            if (lbd > sharedClausesMaxLBD) {
+                return;
+            }
+            int[] entry = new int[c.size() + 1];
+            entry[0] = lbd;
+            for (int i = 0; i < c.size(); i++) {
+                entry[i + 1] = LiteralsUtils.toDimacs(c.get(i));
+            }
+            Arrays.sort(entry, 1, entry.length);
+            rings[this.index].publish(entry);
+        }
+
+        /**
+         * Compute the LBD of a clause just learned, i.e. the number of distinct
+         * decision levels of its literals, the unassigned literals counting for
+         * one level each. The activity of the clause cannot be used since it
+         * is an LBD only with the LBD based deletion strategies. The size of
+         * the clause is used when the levels are not available.
+         */
+        private int lbd(IConstr c) {
+            if (this.voc == null) {
+                return c.size();
+            }
+            this.stamp++;
+            int lbd = 0;
+            int p;
+            int level;
+            for (int i = 0; i < c.size(); i++) {
+                p = c.get(i);
+                if (this.voc.isUnassigned(p)) {
+                    lbd++;
+                    continue;
+                }
+                level = this.voc.getLevel(p);
+                if (level >= this.levelStamps.length) {
+                    this.levelStamps = Arrays.copyOf(this.levelStamps,
+                            Math.max(level + 1, 2 * this.levelStamps.length));
+                }
+                if (this.levelStamps[level] != this.stamp) {
+                    this.levelStamps[level] = this.stamp;
+                    lbd++;
+                }
+            }
+            return Math.max(1, lbd);
+        }
+
+        private boolean isClause(IConstr c) {
+            if (!(c instanceof Constr)) {
+                return false;
+            }
+            Constr constr = (Constr) c;
+            try {
+                return constr.canBeSatisfiedByCountingLiterals()
+                        && constr.requiredNumberOfSatisfiedLiterals() == 1;
+            } catch (UnsupportedOperationException e) {
+                return false;
+            }
+        }
+
+        public void provideUnitClauses(UnitPropagationListener upl) {
+            this.entries.clear();
+            for (int i = 0; i < numberOfSolvers; i++) {
+                if (i != this.index) {
+                    this.unitCursors[i] = rings[i].read(this.unitCursors[i],
+                            this.entries);
+                }
+            }
+            for (int i = 0; i < this.entries.size(); i++) {
+                int[] entry = this.entries.get(i);
+                if (entry.length == 2) {
+                    upl.enqueue(LiteralsUtils.toInternal(entry[1]));
+                }
+            }
+        }
+
+        public boolean provideLearnedClauses(LearnedClauseImporter importer) {
+            this.entries.clear();
+            for (int i = 0; i < numberOfSolvers; i++) {
+                if (i != this.index) {
+                    this.clauseCursors[i] = rings[i].read(
+                            this.clauseCursors[i], this.entries);
+                }
+            }
+            if (this.imported.size() > MAX_IMPORTED_KEYS) {
+                this.imported.clear();
+            }
+            int[] entry;
+            int[] clause;
+            int[] previous;
+            for (int i = 0; i < this.entries.size(); i++) {
+                entry = this.entries.get(i);
+                if (entry.length <= 2) {
+                    continue;
+                }
+                clause = Arrays.copyOfRange(entry, 1, entry.length);
+                // a same key may be shared by different clauses
+                previous = this.imported.put(key(clause), clause);
+                if (previous != null && Arrays.equals(previous, clause)) {
+                    continue;
+                }
+                if (!importer.importLearnedClause(clause, entry[0])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long key(int[] clause) {
+            long key = clause.length;
+            for (int p : clause) {
+                key = key * 1000003L + p;
+            }
+            return key;
+        }
+
+        /**
+         * Units imported during a previous call may have been undone by the
+         * solver: they are provided again.
+         */
+        void newCall() {
+            Arrays.fill(this.unitCursors, 0);
+        }
+
+        void clear() {
+            Arrays.fill(this.unitCursors, 0);
+            Arrays.fill(this.clauseCursors, 0);
+            this.imported.clear();
         }
     }
 
@@ -640,13 +1170,32 @@ class RunnableSolver implements Runnable {
     }
 
     public void run() {
+        boolean finished = false;
+        boolean result = false;
         try {
-            boolean result = this.solver.isSatisfiable(this.assumps,
+            result = this.solver.isSatisfiable(this.assumps,
                     this.globalTimeout);
-            this.ol.onFinishWithAnswer(true, result, this.index);
+            finished = true;
         } catch (Exception e) {
-            this.ol.onFinishWithAnswer(false, false, this.index);
+            // no answer from that solver
+        } finally {
+            this.ol.onFinishWithAnswer(finished, result, this.index);
         }
     }
 
 }
+
+/**
+ * Creates the daemon threads of the default executor of {@link ManyCore}.
+ */
+class DaemonThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "sat4j-manycore-"
+                + this.count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
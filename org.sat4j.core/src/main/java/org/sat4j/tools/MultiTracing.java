@@ -39,6 +39,8 @@ import org.sat4j.specs.ISolverService;
 import org.sat4j.specs.Lbool;
 import org.sat4j.specs.RandomAccessModel;
 import org.sat4j.specs.SearchListener;
+import org.sat4j.specs.SearchListenerAdapter;
+import org.sat4j.specs.SelectiveSearchListener;
 
 /**
  * Allow to feed the solver with several SearchListener.
@@ -47,7 +49,7 @@ import org.sat4j.specs.SearchListener;
  * 
  */
 public class MultiTracing<T extends ISolverService> implements
-        SearchListener<T> {
+        SearchListener<T>, SelectiveSearchListener {
 
     /**
 	 * 
@@ -64,6 +66,17 @@ public class MultiTracing<T extends ISolverService> implements
         this.listeners.addAll(listenersList);
     }
 
+    /**
+     * @since 2.3.6
+     */
+    public int listenedEvents() {
+        int events = 0;
+        for (SearchListener<T> sl : this.listeners) {
+            events |= SearchListenerAdapter.listenedEventsOf(sl);
+        }
+        return events;
+    }
+
     public void assuming(int p) {
         for (SearchListener<T> sl : this.listeners) {
             sl.assuming(p);
@@ -0,0 +1,422 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import static org.sat4j.core.LiteralsUtils.toInternal;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.core.CounterBasedPrimeImplicantStrategy;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.minisat.core.Solver;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.ISolverService;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.RandomAccessModel;
+import org.sat4j.specs.SearchListener;
+import org.sat4j.specs.SearchListenerAdapter;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Enumerate the models of a formula projected on a set of variables, from the
+ * inside of the search.
+ * 
+ * Each time a model is found, a blocking clause built on the projection
+ * variables only is added on the fly. The solver backtracks chronologically
+ * to the last literal of that clause and goes on with the search, instead of
+ * restarting from scratch as with {@link ModelIterator}. Since the literals
+ * fixed at decision level 0 are left out, the blocking clauses get shorter as
+ * the enumeration goes.
+ * 
+ * When prime implicant shrinking is enabled, the solutions are the
+ * projections of a prime implicant of each model: each solution then stands
+ * for all the assignments of the projection variables which extend it, and
+ * blocks all of them at once. The solutions are disjoint. This requires a
+ * formula made of clauses and cardinality constraints.
+ * 
+ * <pre>
+ * ProjectedModelEnumerator enumerator = new ProjectedModelEnumerator(solver,
+ *         projection);
+ * enumerator.setPrimeImplicantShrinking(true);
+ * long nbSolutions = enumerator.enumerate(listener);
+ * </pre>
+ * 
+ * The solutions are given to the listener from the search thread, so the
+ * search waits for the listener. {@link #stream(int)} runs the search in a
+ * background thread which is suspended while the consumer lags behind.
+ * 
+ * The projection variables which do not appear in the formula are left out
+ * of the solutions. The blocking clauses are kept in the solver, as with
+ * {@link ModelIterator}.
+ * 
+ * @since 2.3.6
+ */
+public class ProjectedModelEnumerator {
+
+    private final ISolver solver;
+
+    private final boolean[] projected;
+
+    private boolean primeImplicantShrinking;
+
+    private long bound = Long.MAX_VALUE;
+
+    /**
+     * Enumerate the models projected on the variables between 1 and
+     * {@link ISolver#nVars()}.
+     * 
+     * @param solver
+     *            a solver containing the constraints to satisfy.
+     */
+    public ProjectedModelEnumerator(ISolver solver) {
+        this(solver, allVariables(solver));
+    }
+
+    /**
+     * 
+     * @param solver
+     *            a solver containing the constraints to satisfy.
+     * @param projection
+     *            the variables (in Dimacs format) on which the models are
+     *            projected.
+     */
+    public ProjectedModelEnumerator(ISolver solver, IVecInt projection) {
+        this.solver = solver;
+        int max = 0;
+        for (int i = 0; i < projection.size(); i++) {
+            max = Math.max(max, Math.abs(projection.get(i)));
+        }
+        this.projected = new boolean[max + 1];
+        for (int i = 0; i < projection.size(); i++) {
+            this.projected[Math.abs(projection.get(i))] = true;
+        }
+    }
+
+    private static IVecInt allVariables(ISolver solver) {
+        IVecInt vars = new VecInt(solver.nVars());
+        for (int i = 1; i <= solver.nVars(); i++) {
+            vars.push(i);
+        }
+        return vars;
+    }
+
+    /**
+     * Report the projection of a prime implicant of each model rather than
+     * the projection of the model.
+     * 
+     * @param primeImplicantShrinking
+     *            true to shrink the solutions and the blocking clauses.
+     */
+    public void setPrimeImplicantShrinking(boolean primeImplicantShrinking) {
+        this.primeImplicantShrinking = primeImplicantShrinking;
+    }
+
+    /**
+     * Limit the number of solutions to enumerate.
+     * 
+     * @param bound
+     *            the maximum number of solutions.
+     */
+    public void setBound(long bound) {
+        this.bound = bound;
+    }
+
+    /**
+     * Enumerate the solutions.
+     * 
+     * @param listener
+     *            the listener receiving each solution, as an array of Dimacs
+     *            literals on the projection variables, then
+     *            {@link SolutionFoundListener#onUnsatTermination()} once all
+     *            the solutions have been found.
+     * @return the number of solutions found.
+     * @throws TimeoutException
+     *             if the timeout of the solver is reached. The listener has
+     *             received the solutions found so far.
+     */
+    public long enumerate(SolutionFoundListener listener)
+            throws TimeoutException {
+        ISolver engine = this.solver.getSolvingEngine();
+        if (this.primeImplicantShrinking && !(engine instanceof Solver<?>)) {
+            throw new UnsupportedOperationException(
+                    "Prime implicants require a CDCL solver");
+        }
+        SearchListener<ISolverService> previous = this.solver
+                .getSearchListener();
+        Enumerator enumerator = new Enumerator(engine, listener);
+        this.solver.setSearchListener(enumerator);
+        try {
+            while (!enumerator.done) {
+                if (!this.solver.isSatisfiable(true)) {
+                    enumerator.done = true;
+                    enumerator.exhausted = true;
+                }
+            }
+        } finally {
+            this.solver.setSearchListener(previous);
+        }
+        if (enumerator.exhausted) {
+            listener.onUnsatTermination();
+        }
+        return enumerator.nbSolutions;
+    }
+
+    /**
+     * Enumerate the solutions in a background thread. The solutions are
+     * handed over through a queue of bounded capacity: the search is
+     * suspended while the queue is full.
+     * 
+     * @param capacity
+     *            the maximum number of solutions waiting for the consumer.
+     * @return an iterator over the solutions.
+     */
+    public SolutionStream stream(int capacity) {
+        final SolutionStream stream = new SolutionStream(capacity);
+        Thread producer = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    enumerate(stream);
+                } catch (TimeoutException e) {
+                    // incomplete enumeration
+                } catch (RuntimeException e) {
+                    stream.failure = e;
+                } finally {
+                    stream.end();
+                }
+            }
+        }, "sat4j-enumerator");
+        producer.setDaemon(true);
+        stream.producer = producer;
+        producer.start();
+        return stream;
+    }
+
+    private boolean isProjected(int var) {
+        return var < this.projected.length && this.projected[var];
+    }
+
+    /**
+     * The search listener which blocks the solutions.
+     */
+    private final class Enumerator extends
+            SearchListenerAdapter<ISolverService> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ISolver engine;
+
+        private final SolutionFoundListener listener;
+
+        private ISolverService solverService;
+
+        long nbSolutions;
+
+        boolean done;
+
+        boolean exhausted;
+
+        Enumerator(ISolver engine, SolutionFoundListener listener) {
+            this.engine = engine;
+            this.listener = listener;
+        }
+
+        @Override
+        public void init(ISolverService solverService) {
+            this.solverService = solverService;
+        }
+
+        @Override
+        public void solutionFound(int[] model, RandomAccessModel lazyModel) {
+            int[] literals = model;
+            if (primeImplicantShrinking) {
+                literals = new CounterBasedPrimeImplicantStrategy()
+                        .compute((Solver<?>) this.engine);
+            }
+            IVecInt solution = new VecInt(literals.length);
+            for (int p : literals) {
+                if (isProjected(Math.abs(p))) {
+                    solution.push(p);
+                }
+            }
+            // the literals fixed at decision level 0 cannot be flipped
+            ILits voc = this.engine instanceof Solver<?> ? ((Solver<?>) this.engine)
+                    .getVocabulary() : null;
+            IVecInt blocking = new VecInt(solution.size());
+            for (int i = 0; i < solution.size(); i++) {
+                int p = solution.get(i);
+                if (voc == null || voc.getLevel(toInternal(p)) > 0) {
+                    blocking.push(-p);
+                }
+            }
+            int[] result = new int[solution.size()];
+            solution.copyTo(result);
+            this.nbSolutions++;
+            try {
+                this.listener.onSolutionFound(result);
+            } catch (StopEnumeration e) {
+                this.done = true;
+            }
+            if (blocking.isEmpty()) {
+                // that solution covers all the remaining ones
+                this.exhausted = true;
+                this.done = true;
+            }
+            if (this.done || this.nbSolutions >= bound) {
+                // without a blocking clause, the search stops on that model
+                this.done = true;
+                return;
+            }
+            int[] clause = new int[blocking.size()];
+            blocking.copyTo(clause);
+            this.solverService.addClauseOnTheFly(clause);
+        }
+    }
+
+    /**
+     * Thrown by the stream listener to stop the search.
+     */
+    private static final class StopEnumeration extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Iterator over the solutions produced by a background enumeration.
+     * 
+     * @since 2.3.6
+     */
+    public static final class SolutionStream implements Iterator<int[]>,
+            SolutionFoundListener {
+
+        private static final int[] END = new int[0];
+
+        private final BlockingQueue<int[]> queue;
+
+        private int[] next;
+
+        private volatile boolean closed;
+
+        private volatile boolean complete;
+
+        volatile RuntimeException failure;
+
+        Thread producer;
+
+        SolutionStream(int capacity) {
+            this.queue = new ArrayBlockingQueue<int[]>(capacity);
+        }
+
+        public boolean hasNext() {
+            if (this.next == null) {
+                try {
+                    this.next = this.queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }
+            if (this.next == END) {
+                this.queue.offer(END);
+                if (this.failure != null) {
+                    throw this.failure;
+                }
+                return false;
+            }
+            return true;
+        }
+
+        public int[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int[] solution = this.next;
+            this.next = null;
+            return solution;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Stop the enumeration. The solutions already queued are discarded.
+         */
+        public void close() {
+            this.closed = true;
+            this.producer.interrupt();
+            this.queue.clear();
+        }
+
+        /**
+         * 
+         * @return true iff all the solutions have been enumerated, once the
+         *         iterator is exhausted.
+         */
+        public boolean isComplete() {
+            return this.complete;
+        }
+
+        public void onSolutionFound(int[] solution) {
+            if (this.closed) {
+                throw new StopEnumeration();
+            }
+            try {
+                this.queue.put(solution);
+            } catch (InterruptedException e) {
+                throw new StopEnumeration();
+            }
+        }
+
+        public void onSolutionFound(IVecInt solution) {
+            int[] array = new int[solution.size()];
+            solution.copyTo(array);
+            onSolutionFound(array);
+        }
+
+        public void onUnsatTermination() {
+            this.complete = true;
+        }
+
+        void end() {
+            if (this.closed) {
+                return;
+            }
+            try {
+                this.queue.put(END);
+            } catch (InterruptedException e) {
+                // closed by the consumer
+            }
+        }
+    }
+}
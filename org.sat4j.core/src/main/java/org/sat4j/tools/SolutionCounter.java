@@ -29,7 +29,11 @@
  *******************************************************************************/
 package org.sat4j.tools;
 
+import java.math.BigInteger;
+
 import org.sat4j.core.VecInt;
+import org.sat4j.minisat.core.ModelCounter;
+import org.sat4j.minisat.core.Solver;
 import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.ISolver;
 import org.sat4j.specs.IVecInt;
@@ -38,9 +42,10 @@ import org.sat4j.specs.TimeoutException;
 /**
  * Another solver decorator that counts the number of solutions.
  * 
- * Note that this approach is quite naive so do not expect it to work on large
- * examples. The number of solutions will be wrong if the SAT solver does not
- * provide a complete assignment.
+ * Note that the approach of {@link #countSolutions()} is quite naive so do not
+ * expect it to work on large examples. The number of solutions will be wrong
+ * if the SAT solver does not provide a complete assignment. Use
+ * {@link #countModels()} to count the solutions of large CNF formulas.
  * 
  * The class is expected to be used that way:
  * 
@@ -57,6 +62,13 @@ import org.sat4j.specs.TimeoutException;
  *  }
  * </pre>
  * 
+ * or, to use the model counter of the solver:
+ * 
+ * <pre>
+ * SolutionCounter counter = new SolverCounter(SolverFactory.newDefault());
+ * BigInteger nbSol = counter.countModels();
+ * </pre>
+ * 
  * @author leberre
  * 
  */
@@ -111,4 +123,50 @@ public class SolutionCounter extends SolverDecorator<ISolver> {
         }
         return this.lowerBound;
     }
+
+    /**
+     * Count the solutions using a DPLL model counter with component caching.
+     * Unlike {@link #countSolutions()}, the solver is not modified.
+     * 
+     * @return the exact number of solutions.
+     * @throws TimeoutException
+     *             if the timeout given to the solver is reached.
+     * @throws UnsupportedOperationException
+     *             if the decorated solver is not a CDCL solver or if the
+     *             formula contains constraints other than clauses.
+     * @see ModelCounter
+     * @since 2.3.6
+     */
+    public BigInteger countModels() throws TimeoutException {
+        return newModelCounter().countModels();
+    }
+
+    /**
+     * Count the solutions projected on a set of variables, using a DPLL model
+     * counter with component caching.
+     * 
+     * @param projection
+     *            a set of variables, in Dimacs format.
+     * @return the number of assignments of the variables of projection that
+     *         can be extended into a solution.
+     * @throws TimeoutException
+     *             if the timeout given to the solver is reached.
+     * @throws UnsupportedOperationException
+     *             if the decorated solver is not a CDCL solver or if the
+     *             formula contains constraints other than clauses.
+     * @see ModelCounter
+     * @since 2.3.6
+     */
+    public BigInteger countModels(IVecInt projection) throws TimeoutException {
+        return newModelCounter().countModels(projection);
+    }
+
+    private ModelCounter newModelCounter() {
+        ISolver engine = getSolvingEngine();
+        if (!(engine instanceof Solver<?>)) {
+            throw new UnsupportedOperationException(
+                    "Model counting requires a CDCL solver");
+        }
+        return new ModelCounter((Solver<?>) engine);
+    }
 }
@@ -31,8 +31,10 @@ package org.sat4j.tools;
 
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.nio.IntBuffer;
 import java.util.Map;
 
+import org.sat4j.core.ClauseBuffers;
 import org.sat4j.specs.Constr;
 import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.IConstr;
@@ -241,6 +243,25 @@ public abstract class SolverDecorator<T extends ISolver> implements ISolver {
         this.solver.addAllClauses(clauses);
     }
 
+    /**
+     * @since 2.3.6
+     */
+    public void addAllClauses(int[] clauses) throws ContradictionException {
+        addAllClauses(IntBuffer.wrap(clauses));
+    }
+
+    /**
+     * The clauses are given one by one to {@link #addClause(IVecInt)}, so
+     * that decorators translating the clauses see all of them. Decorators
+     * leaving the clauses untouched may delegate to the decorated solver.
+     * 
+     * @since 2.3.6
+     */
+    public void addAllClauses(IntBuffer clauses)
+            throws ContradictionException {
+        ClauseBuffers.addAllClauses(this, clauses);
+    }
+
     /**
      * @since 2.1
      */
@@ -31,10 +31,12 @@ package org.sat4j.tools;
 
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.nio.IntBuffer;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 
+import org.sat4j.core.ClauseBuffers;
 import org.sat4j.core.LiteralsUtils;
 import org.sat4j.core.VecInt;
 import org.sat4j.minisat.core.Counter;
@@ -248,6 +250,21 @@ public class StatisticsSolver implements ISolver {
         throw new UnsupportedOperationException(NOT_IMPLEMENTED_YET);
     }
 
+    /**
+     * @since 2.3.6
+     */
+    public void addAllClauses(int[] clauses) throws ContradictionException {
+        addAllClauses(IntBuffer.wrap(clauses));
+    }
+
+    /**
+     * @since 2.3.6
+     */
+    public void addAllClauses(IntBuffer clauses)
+            throws ContradictionException {
+        ClauseBuffers.addAllClauses(this, clauses);
+    }
+
     public IConstr addAtMost(IVecInt literals, int degree)
             throws ContradictionException {
         throw new UnsupportedOperationException(NOT_IMPLEMENTED_YET);
@@ -0,0 +1,450 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools.xplain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sat4j.core.LiteralsUtils;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.core.Deadline;
+import org.sat4j.minisat.core.ICDCL;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.IteratorInt;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * A deletion based minimization which takes advantage of all the information
+ * provided by the solver:
+ * 
+ * <ul>
+ * <li>the unsat core is first trimmed, by solving again the formula restricted
+ * to the last explanation found until it does not shrink anymore;</li>
+ * <li>each time a constraint is removed and the formula remains
+ * unsatisfiable, the candidates are restricted to the new explanation of the
+ * solver (clause set refinement);</li>
+ * <li>each time the removed constraint is found necessary, the model found is
+ * used to find other necessary clauses without calling the solver (recursive
+ * model rotation). This is only possible when all the constraints of the
+ * solver are controllable clauses.</li>
+ * </ul>
+ * 
+ * A time budget may be given: when it is exhausted, the explanation found so
+ * far is returned. It is still inconsistent, but may not be minimal.
+ * 
+ * @since 2.3.6
+ */
+public class CoreRefinementStrategy implements MinimizationStrategy {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int MAX_TRIMMING_STEPS = 32;
+
+    private boolean computationCanceled;
+
+    private long timeBudget;
+
+    private boolean modelRotation = true;
+
+    private boolean lastExplanationMinimal;
+
+    private int satCalls;
+
+    public void cancelExplanationComputation() {
+        this.computationCanceled = true;
+    }
+
+    /**
+     * Limit the time spent to compute an explanation.
+     * 
+     * @param milliseconds
+     *            the time budget, 0 for no limit.
+     */
+    public void setTimeBudget(long milliseconds) {
+        this.timeBudget = milliseconds;
+    }
+
+    public void setModelRotation(boolean modelRotation) {
+        this.modelRotation = modelRotation;
+    }
+
+    /**
+     * 
+     * @return false if the time budget was exhausted before the last
+     *         explanation was proven minimal.
+     */
+    public boolean isLastExplanationMinimal() {
+        return this.lastExplanationMinimal;
+    }
+
+    /**
+     * 
+     * @return the number of calls to the solver needed by the last
+     *         explanation.
+     */
+    public int getNumberOfSatCalls() {
+        return this.satCalls;
+    }
+
+    public IVecInt explain(ISolver solver, Map<Integer, ?> constrs,
+            IVecInt assumps) throws TimeoutException {
+        this.computationCanceled = false;
+        this.lastExplanationMinimal = false;
+        this.satCalls = 0;
+        Deadline previous = null;
+        Deadline budget = null;
+        if (this.timeBudget > 0) {
+            budget = Deadline.in(this.timeBudget);
+            if (solver instanceof ICDCL<?>) {
+                previous = ((ICDCL<?>) solver).getDeadline();
+                if (previous == null
+                        || previous.remainingMs() > this.timeBudget) {
+                    ((ICDCL<?>) solver).setDeadline(budget);
+                }
+            }
+        }
+        try {
+            return new Refinement(solver, constrs, assumps, budget).compute();
+        } finally {
+            if (budget != null && solver instanceof ICDCL<?>) {
+                ((ICDCL<?>) solver).setDeadline(previous);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Core trimming and clause set refinement minimization strategy";
+    }
+
+    /**
+     * The state of one explanation. The controllable constraints are referred
+     * to by their index in the keys array.
+     */
+    private final class Refinement {
+
+        private final ISolver solver;
+
+        private final IVecInt assumps;
+
+        private final Deadline budget;
+
+        private final int[] keys;
+
+        private final Map<Integer, Integer> indexes = new HashMap<Integer, Integer>();
+
+        private boolean[] core;
+
+        private int coreSize;
+
+        private final boolean[] necessary;
+
+        private int[][] clauses;
+
+        private Map<Integer, IVecInt> occurrences;
+
+        private boolean[] assumed;
+
+        Refinement(ISolver solver, Map<Integer, ?> constrs, IVecInt assumps,
+                Deadline budget) {
+            this.solver = solver;
+            this.assumps = assumps;
+            this.budget = budget;
+            this.keys = new int[constrs.size()];
+            int i = 0;
+            for (Integer key : constrs.keySet()) {
+                this.indexes.put(key, i);
+                this.keys[i++] = key;
+            }
+            this.necessary = new boolean[this.keys.length];
+            if (CoreRefinementStrategy.this.modelRotation) {
+                initRotation(constrs);
+            }
+        }
+
+        /**
+         * Models can only be rotated when the satisfaction of all the
+         * constraints of the solver can be checked.
+         */
+        private void initRotation(Map<Integer, ?> constrs) {
+            if (this.solver.nConstraints() != constrs.size()) {
+                return;
+            }
+            this.clauses = new int[this.keys.length][];
+            this.occurrences = new HashMap<Integer, IVecInt>();
+            for (int i = 0; i < this.keys.length; i++) {
+                Object constr = constrs.get(this.keys[i]);
+                if (!(constr instanceof Constr)
+                        || !((Constr) constr).canBeSatisfiedByCountingLiterals()
+                        || ((Constr) constr).requiredNumberOfSatisfiedLiterals() != 1) {
+                    this.clauses = null;
+                    this.occurrences = null;
+                    return;
+                }
+                Constr clause = (Constr) constr;
+                IVecInt literals = new VecInt(clause.size());
+                for (int j = 0; j < clause.size(); j++) {
+                    int p = LiteralsUtils.toDimacs(clause.get(j));
+                    if (Math.abs(p) != this.keys[i]) {
+                        literals.push(p);
+                    }
+                }
+                this.clauses[i] = new int[literals.size()];
+                literals.copyTo(this.clauses[i]);
+                for (int p : this.clauses[i]) {
+                    IVecInt occ = this.occurrences.get(p);
+                    if (occ == null) {
+                        occ = new VecInt();
+                        this.occurrences.put(p, occ);
+                    }
+                    occ.push(i);
+                }
+            }
+            this.assumed = new boolean[this.solver.realNumberOfVariables() + 1];
+            for (IteratorInt it = this.assumps.iterator(); it.hasNext();) {
+                int var = Math.abs(it.next());
+                if (var < this.assumed.length) {
+                    this.assumed[var] = true;
+                }
+            }
+        }
+
+        IVecInt compute() throws TimeoutException {
+            this.core = new boolean[this.keys.length];
+            if (!refine(this.solver.unsatExplanation(), null)) {
+                for (int i = 0; i < this.keys.length; i++) {
+                    this.core[i] = true;
+                }
+                this.coreSize = this.keys.length;
+            }
+            try {
+                trim();
+                for (int i = 0; i < this.keys.length; i++) {
+                    if (this.core[i] && !this.necessary[i]) {
+                        check(i);
+                    }
+                }
+                CoreRefinementStrategy.this.lastExplanationMinimal = true;
+            } catch (TimeoutException e) {
+                if (this.budget == null || !this.budget.hasExpired()) {
+                    throw e;
+                }
+                if (this.solver.isVerbose()) {
+                    System.out.println(this.solver.getLogPrefix()
+                            + "time budget exhausted, explanation of size "
+                            + this.coreSize + " may not be minimal");
+                }
+            }
+            IVecInt results = new VecInt(this.coreSize);
+            for (int i = 0; i < this.keys.length; i++) {
+                if (this.core[i]) {
+                    results.push(this.keys[i]);
+                }
+            }
+            return results;
+        }
+
+        /**
+         * Solve again the formula restricted to the core until it does not
+         * shrink anymore.
+         */
+        private void trim() throws TimeoutException {
+            for (int i = 0; i < MAX_TRIMMING_STEPS; i++) {
+                int size = this.coreSize;
+                if (isSatisfiable()) {
+                    throw new IllegalStateException(
+                            "The explanation is satisfiable!");
+                }
+                refine(this.solver.unsatExplanation(), this.core);
+                if (this.coreSize == size) {
+                    break;
+                }
+            }
+            if (this.solver.isVerbose()) {
+                System.out.println(this.solver.getLogPrefix()
+                        + "trimmed unsat core size " + this.coreSize);
+            }
+        }
+
+        /**
+         * Remove the ith constraint from the core, and check if the core
+         * remains inconsistent.
+         */
+        private void check(int i) throws TimeoutException {
+            if (CoreRefinementStrategy.this.computationCanceled) {
+                throw new TimeoutException();
+            }
+            if (this.budget != null && this.budget.hasExpired()) {
+                throw new TimeoutException();
+            }
+            this.core[i] = false;
+            this.coreSize--;
+            boolean satisfiable;
+            try {
+                satisfiable = isSatisfiable();
+            } finally {
+                this.core[i] = true;
+                this.coreSize++;
+            }
+            if (satisfiable) {
+                this.necessary[i] = true;
+                if (this.clauses != null) {
+                    rotate(i);
+                }
+            } else {
+                this.core[i] = false;
+                this.coreSize--;
+                refine(this.solver.unsatExplanation(), this.core);
+            }
+        }
+
+        private boolean isSatisfiable() throws TimeoutException {
+            IVecInt assumptions = new VecInt(this.assumps.size()
+                    + this.coreSize);
+            this.assumps.copyTo(assumptions);
+            for (int i = 0; i < this.keys.length; i++) {
+                if (this.core[i]) {
+                    assumptions.push(-this.keys[i]);
+                }
+            }
+            CoreRefinementStrategy.this.satCalls++;
+            return this.solver.isSatisfiable(assumptions);
+        }
+
+        /**
+         * Restrict the core to the constraints of an explanation.
+         * 
+         * @param explanation
+         *            the explanation of the solver
+         * @param within
+         *            the current core, or null for all the constraints.
+         * @return false if there is no explanation.
+         */
+        private boolean refine(IVecInt explanation, boolean[] within) {
+            if (explanation == null) {
+                return false;
+            }
+            boolean[] refined = new boolean[this.keys.length];
+            int size = 0;
+            for (IteratorInt it = explanation.iterator(); it.hasNext();) {
+                Integer index = this.indexes.get(-it.next());
+                if (index != null && (within == null || within[index])
+                        && !refined[index]) {
+                    refined[index] = true;
+                    size++;
+                }
+            }
+            this.core = refined;
+            this.coreSize = size;
+            return true;
+        }
+
+        /**
+         * Recursive model rotation: the model satisfies all the constraints
+         * of the core but the ith one. Flipping a variable of that
+         * constraint may falsify exactly one other constraint of the core,
+         * which is then necessary as well.
+         */
+        private void rotate(int i) {
+            boolean[] model = new boolean[this.solver.realNumberOfVariables() + 1];
+            for (int p : this.solver.model()) {
+                if (Math.abs(p) < model.length) {
+                    model[Math.abs(p)] = p > 0;
+                }
+            }
+            List<Integer> falsified = new ArrayList<Integer>();
+            List<boolean[]> models = new ArrayList<boolean[]>();
+            falsified.add(i);
+            models.add(model);
+            int rotated = 0;
+            while (!falsified.isEmpty()) {
+                int c = falsified.remove(falsified.size() - 1);
+                boolean[] m = models.remove(models.size() - 1);
+                for (int p : this.clauses[c]) {
+                    int var = Math.abs(p);
+                    if (var >= m.length || this.assumed[var]) {
+                        continue;
+                    }
+                    // p is falsified by m: flipping it falsifies -p
+                    m[var] = !m[var];
+                    int unique = uniqueFalsified(-p, m);
+                    if (unique >= 0 && !this.necessary[unique]) {
+                        this.necessary[unique] = true;
+                        rotated++;
+                        falsified.add(unique);
+                        models.add(m.clone());
+                    }
+                    m[var] = !m[var];
+                }
+            }
+            if (rotated > 0 && this.solver.isVerbose()) {
+                System.out.println(this.solver.getLogPrefix() + rotated
+                        + " constraints found necessary by model rotation");
+            }
+        }
+
+        /**
+         * 
+         * @return the index of the only constraint of the core containing p
+         *         and falsified by the model, or -1.
+         */
+        private int uniqueFalsified(int p, boolean[] m) {
+            IVecInt occ = this.occurrences.get(p);
+            if (occ == null) {
+                return -1;
+            }
+            int unique = -1;
+            for (IteratorInt it = occ.iterator(); it.hasNext();) {
+                int d = it.next();
+                if (this.core[d] && isFalsified(this.clauses[d], m)) {
+                    if (unique >= 0) {
+                        return -1;
+                    }
+                    unique = d;
+                }
+            }
+            return unique;
+        }
+
+        private boolean isFalsified(int[] clause, boolean[] m) {
+            for (int p : clause) {
+                int var = Math.abs(p);
+                if (var >= m.length || m[var] == p > 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -33,12 +33,12 @@ public class BugSAT79 {
         for (int i = 0; i < 10; i++) {
             solver.isSatisfiable(true);
             Thread.sleep(500);
-            assertEquals(nbthreads + 1, Thread.activeCount());
+            assertEquals(nbthreads, Thread.activeCount());
         }
     }
 
-    // starting from here, the Timer thread exists, so it should not increase
-    // the number of available threads.
+    // time based timeouts do not rely on a Timer thread, so solving should
+    // never increase the number of available threads.
 
     @Test
     public void test02SuccessiveCallsInLocalTimeout()
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.IntBuffer;
+
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+import org.sat4j.tools.DimacsArrayReader;
+import org.sat4j.tools.DimacsStringSolver;
+import org.sat4j.tools.SolverDecorator;
+
+public class TestAddAllClauses {
+
+    private static final int[] CLAUSES = { 1, 2, -3, 0, -1, 3, 0, -2, 3, 4,
+            0, -4, -3, 0, 2, 4, 0 };
+
+    @Test
+    public void testSameConstraintsAsAddClause()
+            throws ContradictionException, TimeoutException {
+        ISolver solver = SolverFactory.newDefault();
+        solver.newVar(4);
+        solver.addAllClauses(CLAUSES);
+        ISolver reference = SolverFactory.newDefault();
+        reference.newVar(4);
+        IVecInt clause = new VecInt();
+        for (int p : CLAUSES) {
+            if (p == 0) {
+                reference.addClause(clause);
+                clause.clear();
+            } else {
+                clause.push(p);
+            }
+        }
+        assertEquals(reference.nConstraints(), solver.nConstraints());
+        assertEquals(reference.nVars(), solver.nVars());
+        assertEquals(reference.isSatisfiable(), solver.isSatisfiable());
+        int[] model = solver.model();
+        assertTrue(solver.model(1) || solver.model(2) || !solver.model(3));
+        assertEquals(4, model.length);
+    }
+
+    @Test
+    public void testUnitClausesAreAssignedFirst()
+            throws ContradictionException, TimeoutException {
+        ISolver solver = SolverFactory.newDefault();
+        // the first clause is satisfied by the last one
+        solver.addAllClauses(new int[] { 1, 2, 3, 0, -3, 4, 0, 1, 0 });
+        assertEquals(2, solver.nConstraints());
+        assertEquals(4, solver.nVars());
+        assertTrue(solver.isSatisfiable());
+        assertTrue(solver.model(1));
+    }
+
+    @Test
+    public void testFalsifiedLiteralsAreRemoved()
+            throws ContradictionException, TimeoutException {
+        ISolver solver = SolverFactory.newDefault();
+        solver.addAllClauses(new int[] { 1, 2, 0, -1, 0 });
+        assertTrue(solver.isSatisfiable());
+        assertFalse(solver.model(1));
+        assertTrue(solver.model(2));
+    }
+
+    @Test
+    public void testLastClauseMayNotBeTerminated()
+            throws ContradictionException {
+        ISolver solver = SolverFactory.newDefault();
+        solver.addAllClauses(new int[] { 1, 2, 0, -1, -2 });
+        assertEquals(2, solver.nConstraints());
+    }
+
+    @Test
+    public void testBufferBounds() throws ContradictionException {
+        ISolver solver = SolverFactory.newDefault();
+        IntBuffer buffer = IntBuffer.wrap(CLAUSES);
+        buffer.position(4).limit(11);
+        solver.addAllClauses(buffer);
+        assertEquals(2, solver.nConstraints());
+        assertEquals(4, buffer.position());
+        assertEquals(11, buffer.limit());
+    }
+
+    @Test
+    public void testEmptyClause() {
+        ISolver solver = SolverFactory.newDefault();
+        try {
+            solver.addAllClauses(new int[] { 1, 2, 0, 0, 3, 0 });
+            fail();
+        } catch (ContradictionException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testContradictoryUnitClauses() {
+        ISolver solver = SolverFactory.newDefault();
+        try {
+            solver.addAllClauses(new int[] { 1, 2, 0, 1, 0, -1, 0 });
+            fail();
+        } catch (ContradictionException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testDecoratorsSeeEachClause() throws ContradictionException {
+        final int[] count = new int[1];
+        ISolver solver = new SolverDecorator<ISolver>(
+                SolverFactory.newDefault()) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public IConstr addClause(IVecInt literals)
+                    throws ContradictionException {
+                count[0]++;
+                return super.addClause(literals);
+            }
+        };
+        solver.addAllClauses(CLAUSES);
+        assertEquals(5, count[0]);
+        assertEquals(5, solver.nConstraints());
+    }
+
+    @Test
+    public void testDimacsArrayReader() throws ContradictionException {
+        DimacsStringSolver output = new DimacsStringSolver();
+        DimacsArrayReader reader = new DimacsArrayReader(output);
+        reader.parseInstance(new int[3], new int[3],
+                new int[][] { { 1, -2 }, { 2, 3 }, { -1 } }, 3);
+        assertTrue(output.toString().endsWith("1 -2 0\n2 3 0\n-1 0\n"));
+    }
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+import org.sat4j.tools.xplain.CoreRefinementStrategy;
+import org.sat4j.tools.xplain.Xplain;
+
+public class TestCoreRefinementXplain extends
+        AbstractXplainTest<ISolver, Xplain<ISolver>> {
+
+    @Override
+    protected Xplain<ISolver> getXplain() {
+        Xplain<ISolver> solver = new Xplain<ISolver>(SolverFactory.newDefault());
+        solver.setMinimizationStrategy(new CoreRefinementStrategy());
+        return solver;
+    }
+
+    private static IVecInt[] randomClauses(Random rand, int nVars, int nClauses) {
+        IVecInt[] clauses = new IVecInt[nClauses];
+        for (int i = 0; i < nClauses; i++) {
+            clauses[i] = new VecInt();
+            // distinct variables, so that each clause gets a selector
+            while (clauses[i].size() < 3) {
+                int v = 1 + rand.nextInt(nVars);
+                if (!clauses[i].contains(v) && !clauses[i].contains(-v)) {
+                    clauses[i].push(rand.nextBoolean() ? v : -v);
+                }
+            }
+        }
+        return clauses;
+    }
+
+    private static boolean isSatisfiable(IVecInt[] clauses, int[] indexes,
+            int skipped) throws TimeoutException {
+        ISolver checker = SolverFactory.newDefault();
+        try {
+            for (int i = 0; i < indexes.length; i++) {
+                if (i != skipped) {
+                    IVecInt copy = new VecInt();
+                    clauses[indexes[i] - 1].copyTo(copy);
+                    checker.addClause(copy);
+                }
+            }
+        } catch (ContradictionException e) {
+            return false;
+        }
+        return checker.isSatisfiable();
+    }
+
+    private void checkRandomFormulas(boolean modelRotation)
+            throws TimeoutException {
+        Random rand = new Random(31);
+        int checked = 0;
+        while (checked < 20) {
+            IVecInt[] clauses = randomClauses(rand, 20, 120);
+            Xplain<ISolver> xplain = new Xplain<ISolver>(
+                    SolverFactory.newDefault(), false);
+            CoreRefinementStrategy strategy = new CoreRefinementStrategy();
+            strategy.setModelRotation(modelRotation);
+            xplain.setMinimizationStrategy(strategy);
+            xplain.newVar(20);
+            try {
+                for (IVecInt clause : clauses) {
+                    IVecInt copy = new VecInt();
+                    clause.copyTo(copy);
+                    xplain.addClause(copy);
+                }
+            } catch (ContradictionException e) {
+                continue;
+            }
+            if (xplain.isSatisfiable()) {
+                continue;
+            }
+            checked++;
+            int[] mus = xplain.minimalExplanation();
+            assertTrue(strategy.isLastExplanationMinimal());
+            assertFalse(isSatisfiable(clauses, mus, -1));
+            for (int i = 0; i < mus.length; i++) {
+                assertTrue(isSatisfiable(clauses, mus, i));
+            }
+        }
+    }
+
+    @Test
+    public void testRandomExplanationsAreMinimal() throws TimeoutException {
+        checkRandomFormulas(true);
+    }
+
+    @Test
+    public void testRandomExplanationsAreMinimalWithoutRotation()
+            throws TimeoutException {
+        checkRandomFormulas(false);
+    }
+
+    @Test
+    public void testExhaustedBudgetReturnsAnInconsistentSubset()
+            throws ContradictionException, TimeoutException {
+        Random rand = new Random(17);
+        IVecInt[] clauses;
+        Xplain<ISolver> xplain;
+        do {
+            clauses = randomClauses(rand, 20, 120);
+            xplain = new Xplain<ISolver>(SolverFactory.newDefault(), false);
+            xplain.newVar(20);
+            for (IVecInt clause : clauses) {
+                IVecInt copy = new VecInt();
+                clause.copyTo(copy);
+                xplain.addClause(copy);
+            }
+        } while (xplain.isSatisfiable());
+        CoreRefinementStrategy strategy = new CoreRefinementStrategy();
+        strategy.setTimeBudget(1);
+        xplain.setMinimizationStrategy(strategy);
+        int[] explanation = xplain.minimalExplanation();
+        assertFalse(isSatisfiable(clauses, explanation, -1));
+    }
+}
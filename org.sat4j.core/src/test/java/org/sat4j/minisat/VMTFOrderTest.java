@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sat4j.minisat.constraints.ClausalDataStructureWL;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.minisat.orders.PositiveLiteralSelectionStrategy;
+import org.sat4j.minisat.orders.VMTFOrder;
+
+public class VMTFOrderTest {
+
+    private ILits voc;
+
+    private VMTFOrder order;
+
+    @Before
+    public void setUp() {
+        this.voc = new ClausalDataStructureWL().getVocabulary();
+        this.voc.ensurePool(5);
+        for (int i = 1; i <= 5; i++) {
+            this.voc.getFromPool(i);
+        }
+        this.order = new VMTFOrder(new PositiveLiteralSelectionStrategy());
+        this.order.setLits(this.voc);
+        this.order.init();
+    }
+
+    @Test
+    public void testLastVariablesAreDecidedFirst() {
+        assertEquals(10, this.order.select());
+        this.voc.satisfies(10);
+        assertEquals(8, this.order.select());
+        this.voc.satisfies(8);
+        this.voc.satisfies(7);
+        assertEquals(4, this.order.select());
+    }
+
+    @Test
+    public void testBumpedVariablesKeepTheirRelativeOrder() {
+        this.order.updateVar(3);
+        this.order.updateVar(6);
+        this.order.updateVar(2);
+        this.order.updateVar(6);
+        this.order.varDecayActivity();
+        // variable 1 was before variable 3 in the queue
+        assertEquals(6, this.order.select());
+        this.voc.satisfies(6);
+        assertEquals(2, this.order.select());
+        this.voc.satisfies(2);
+        assertEquals(10, this.order.select());
+    }
+
+    @Test
+    public void testUnassignedVariablesAreFoundAgain() {
+        for (int p = 10; p >= 2; p -= 2) {
+            assertEquals(p, this.order.select());
+            this.voc.satisfies(p);
+        }
+        assertEquals(ILits.UNDEFINED, this.order.select());
+        this.voc.unassign(6);
+        this.order.undo(3);
+        this.voc.unassign(4);
+        this.order.undo(2);
+        assertEquals(6, this.order.select());
+        this.voc.satisfies(6);
+        assertEquals(4, this.order.select());
+    }
+
+    @Test
+    public void testHeuristicsCanBeRestored() {
+        double[] heuristics = { 0, 5, 1, 4, 2, 3 };
+        this.order.setVariableHeuristics(heuristics);
+        assertEquals(2, this.order.select());
+        this.voc.satisfies(2);
+        assertEquals(6, this.order.select());
+        this.voc.satisfies(6);
+        assertEquals(10, this.order.select());
+    }
+}
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.constraints;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.constraints.cnf.ArenaClause;
+import org.sat4j.minisat.constraints.cnf.ClauseArena;
+import org.sat4j.minisat.constraints.cnf.Lits;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.specs.IVecInt;
+
+public class ClauseArenaTest {
+
+    private ILits voc;
+
+    private ClauseArena arena;
+
+    @Before
+    public void setUp() {
+        this.voc = new Lits();
+        for (int i = 1; i <= 10; i++) {
+            this.voc.getFromPool(i);
+        }
+        this.arena = new ClauseArena(this.voc, 8);
+    }
+
+    private IVecInt internal(int... dimacs) {
+        IVecInt lits = new VecInt(dimacs.length);
+        for (int p : dimacs) {
+            lits.push(this.voc.getFromPool(p));
+        }
+        return lits;
+    }
+
+    @Test
+    public void testLiteralsAreStoredInTheArena() {
+        ArenaClause c1 = ArenaClause.brandNewClause(this.arena,
+                internal(1, -2, 3));
+        ArenaClause c2 = this.arena.allocate(internal(-4, 5), true);
+        assertEquals(3, c1.size());
+        assertEquals(this.voc.getFromPool(-2), c1.get(1));
+        assertEquals(2, c2.size());
+        assertFalse(c1.learnt());
+        assertTrue(c2.learnt());
+        assertEquals(2, this.arena.nClauses());
+        assertEquals(13, this.arena.usedWords());
+    }
+
+    @Test
+    public void testHeaderAttributes() {
+        ArenaClause c = this.arena.allocate(internal(1, 2, 3, 4), true);
+        c.setLBD(3);
+        c.setActivity(2.0);
+        c.incActivity(1.5);
+        assertEquals(3, c.getLBD());
+        assertEquals(3.5, c.getActivity(), 0.0001);
+        c.rescaleBy(0.5);
+        assertEquals(1.75, c.getActivity(), 0.0001);
+    }
+
+    @Test
+    public void testCompactionKeepsLiveClauses() {
+        ArenaClause c1 = ArenaClause.brandNewClause(this.arena,
+                internal(1, 2, 3));
+        ArenaClause c2 = ArenaClause.brandNewClause(this.arena,
+                internal(4, 5, 6, 7));
+        ArenaClause c3 = ArenaClause.brandNewClause(this.arena,
+                internal(-8, 9));
+        c2.remove(null);
+        assertTrue(c2.isDeleted());
+        assertTrue(this.arena.needsCompaction());
+        this.arena.compact();
+        assertEquals(2, this.arena.nClauses());
+        assertEquals(0, this.arena.wastedWords());
+        assertEquals(7 + 6, this.arena.usedWords());
+        assertEquals(3, c1.size());
+        assertEquals(this.voc.getFromPool(3), c1.get(2));
+        assertEquals(2, c3.size());
+        assertEquals(this.voc.getFromPool(-8), c3.get(0));
+        assertEquals(this.voc.getFromPool(9), c3.get(1));
+        assertTrue(this.voc.watches(this.voc.getFromPool(8)).contains(c3));
+        assertFalse(this.voc.watches(this.voc.getFromPool(-4)).contains(c2));
+    }
+
+    @Test
+    public void testLockedDeletedClausesSurviveCompaction() {
+        ArenaClause c1 = ArenaClause.brandNewClause(this.arena,
+                internal(1, 2, 3));
+        ArenaClause c2 = ArenaClause.brandNewClause(this.arena,
+                internal(4, 5, 6));
+        this.voc.satisfies(c1.get(0));
+        this.voc.setReason(c1.get(0), c1);
+        c1.remove(null);
+        c2.remove(null);
+        this.arena.compact();
+        assertEquals(1, this.arena.nClauses());
+        assertEquals(3, c1.size());
+        assertTrue(c2.isDeleted());
+        assertEquals(7, this.arena.wastedWords());
+    }
+
+    @Test
+    public void testClausesEnterTheArenaWhenRegistered() {
+        ArenaClause c = this.arena.newClause(internal(1, -2, 3), true);
+        assertEquals(0, this.arena.nClauses());
+        assertEquals(0, this.arena.usedWords());
+        c.setLBD(2);
+        assertEquals(3, c.size());
+        assertEquals(this.voc.getFromPool(-2), c.get(1));
+        assertTrue(c.isDeleted());
+        c.register();
+        assertFalse(c.isDeleted());
+        assertEquals(1, this.arena.nClauses());
+        assertEquals(7, this.arena.usedWords());
+        assertEquals(2, c.getLBD());
+        assertEquals(3, c.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCompactedLearnedClausesCannotBeUsed() {
+        ArenaClause c = this.arena.allocate(internal(1, 2, 3), true);
+        c.register();
+        c.remove(null);
+        this.arena.compact();
+        assertTrue(c.isDeleted());
+        c.size();
+    }
+
+    @Test
+    public void testRemovedOriginalClausesCanBePutBack() {
+        ArenaClause c = ArenaClause.brandNewClause(this.arena,
+                internal(1, 2, 3));
+        c.remove(null);
+        this.arena.compact();
+        assertEquals(0, this.arena.usedWords());
+        assertEquals(3, c.size());
+        c.register();
+        assertEquals(7, this.arena.usedWords());
+        assertTrue(this.voc.watches(this.voc.getFromPool(-1)).contains(c));
+    }
+}
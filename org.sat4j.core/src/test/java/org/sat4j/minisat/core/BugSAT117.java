@@ -36,7 +36,7 @@ public class BugSAT117 {
 
         solver.setTimeoutOnConflicts(100);
         assertTrue(solver.isSatisfiable());
-        Field field = solver.getClass().getDeclaredField("timer");
+        Field field = solver.getClass().getDeclaredField("deadline");
         field.setAccessible(true);
         assertNull(field.get(solver));
     }
@@ -47,7 +47,7 @@ public class BugSAT117 {
             IllegalArgumentException, IllegalAccessException {
         solver.setTimeoutOnConflicts(100);
         assertTrue(solver.isSatisfiable(true));
-        Field field = solver.getClass().getDeclaredField("timer");
+        Field field = solver.getClass().getDeclaredField("deadline");
         field.setAccessible(true);
         assertNull(field.get(solver));
     }
@@ -58,7 +58,7 @@ public class BugSAT117 {
             IllegalArgumentException, IllegalAccessException {
         solver.setTimeout(10);
         assertTrue(solver.isSatisfiable());
-        Field field = solver.getClass().getDeclaredField("timer");
+        Field field = solver.getClass().getDeclaredField("deadline");
         field.setAccessible(true);
         assertNull(field.get(solver));
     }
@@ -69,7 +69,7 @@ public class BugSAT117 {
             IllegalArgumentException, IllegalAccessException {
         solver.setTimeout(10);
         assertTrue(solver.isSatisfiable(true));
-        Field field = solver.getClass().getDeclaredField("timer");
+        Field field = solver.getClass().getDeclaredField("deadline");
         field.setAccessible(true);
         assertNotNull(field.get(solver));
     }
@@ -88,7 +88,7 @@ public class BugSAT117 {
             solver.setTimeoutOnConflicts(10);
             assertTrue(solver.isSatisfiable());
             Field field = solver.getSolvingEngine().getClass()
-                    .getDeclaredField("timer");
+                    .getDeclaredField("deadline");
             field.setAccessible(true);
             assertNull(field.get(solver.getSolvingEngine()));
         }
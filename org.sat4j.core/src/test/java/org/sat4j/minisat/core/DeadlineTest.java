@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.TimeoutException;
+
+public class DeadlineTest {
+
+    private static ICDCL<DataStructureFactory> pigeonHole(int n)
+            throws ContradictionException {
+        ICDCL<DataStructureFactory> solver = SolverFactory.newGlucose21();
+        // pigeon i in hole j: variable i*n+j+1
+        for (int i = 0; i <= n; i++) {
+            VecInt clause = new VecInt();
+            for (int j = 0; j < n; j++) {
+                clause.push(i * n + j + 1);
+            }
+            solver.addClause(clause);
+        }
+        for (int j = 0; j < n; j++) {
+            for (int i = 0; i < n; i++) {
+                for (int k = i + 1; k <= n; k++) {
+                    solver.addClause(new VecInt(new int[] { -(i * n + j + 1),
+                            -(k * n + j + 1) }));
+                }
+            }
+        }
+        return solver;
+    }
+
+    @Test
+    public void testDeadline() {
+        Deadline deadline = Deadline.in(10000);
+        assertFalse(deadline.hasExpired());
+        assertTrue(deadline.remainingMs() > 0);
+        deadline.cancel();
+        assertTrue(deadline.isCancelled());
+        assertTrue(deadline.hasExpired());
+        assertEquals(0L, deadline.remainingMs());
+        assertTrue(Deadline.in(0).hasExpired());
+        assertFalse(Deadline.never().hasExpired());
+        assertEquals(Long.MAX_VALUE, Deadline.never().remainingMs());
+    }
+
+    @Test
+    public void testTimeoutDoesNotCreateThreads()
+            throws ContradictionException {
+        ICDCL<DataStructureFactory> solver = pigeonHole(12);
+        int nbthreads = Thread.activeCount();
+        solver.setTimeoutMs(200);
+        try {
+            solver.isSatisfiable();
+            fail();
+        } catch (TimeoutException e) {
+            // expected
+        }
+        assertEquals(nbthreads, Thread.activeCount());
+    }
+
+    @Test
+    public void testSharedCancellation() throws ContradictionException,
+            InterruptedException {
+        final Deadline token = Deadline.never();
+        final boolean[] timeouts = new boolean[2];
+        Thread[] threads = new Thread[2];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            final ICDCL<DataStructureFactory> solver = pigeonHole(12);
+            solver.setDeadline(token);
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        solver.isSatisfiable();
+                    } catch (TimeoutException e) {
+                        timeouts[index] = true;
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        Thread.sleep(200);
+        token.cancel();
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+        assertTrue(timeouts[0]);
+        assertTrue(timeouts[1]);
+    }
+}
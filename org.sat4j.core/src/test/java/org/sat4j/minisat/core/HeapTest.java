@@ -29,6 +29,8 @@
  *******************************************************************************/
 package org.sat4j.minisat.core;
 
+import java.util.Random;
+
 import junit.framework.TestCase;
 
 import org.sat4j.minisat.orders.ActivityBasedVariableComparator;
@@ -125,6 +127,47 @@ public class HeapTest extends TestCase {
         assertEquals(3, heap.getmin());
     }
 
+    public void testActivityHeapBehavesLikeComparatorHeap() {
+        int n = 200;
+        double[] activity = new double[n + 1];
+        Heap heap = new Heap(activity);
+        Heap reference = new Heap(new ActivityBasedVariableComparator(
+                activity));
+        heap.setBounds(n + 1);
+        reference.setBounds(n + 1);
+        Random rand = new Random(12);
+        for (int i = 1; i <= n; i++) {
+            activity[i] = rand.nextInt(20);
+            heap.insert(i);
+            reference.insert(i);
+        }
+        for (int step = 0; step < 10000; step++) {
+            int var = rand.nextInt(n) + 1;
+            switch (rand.nextInt(3)) {
+            case 0:
+                if (!reference.empty()) {
+                    assertEquals(reference.getmin(), heap.getmin());
+                }
+                break;
+            case 1:
+                if (!reference.inHeap(var)) {
+                    heap.insert(var);
+                    reference.insert(var);
+                }
+                break;
+            default:
+                activity[var] += rand.nextInt(5);
+                if (reference.inHeap(var)) {
+                    heap.increase(var);
+                    reference.increase(var);
+                }
+            }
+            assertEquals(reference.size(), heap.size());
+            assertEquals(reference.inHeap(var), heap.inHeap(var));
+            assertTrue(heap.heapProperty());
+        }
+    }
+
     /*
      * Test method for 'org.sat4j.minisat.core.Heap.heapProperty()'
      */
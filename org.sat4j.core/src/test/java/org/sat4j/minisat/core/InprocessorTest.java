@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sat4j.core.Vec;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+public class InprocessorTest {
+
+    private static final int[][] CLAUSES = { { 1, 2 }, { -1, 3 },
+            { -2, -3, 4 }, { -4, 5 }, { -5, 6, 2 }, { -6, -1 } };
+
+    private Solver<?> solver;
+
+    private Inprocessor inprocessor;
+
+    @Before
+    public void setUp() {
+        this.solver = (Solver<?>) SolverFactory.newGlucose21Inprocessing();
+        this.inprocessor = this.solver.getInprocessor();
+    }
+
+    private void addClauses(int[][] clauses) throws ContradictionException {
+        for (int[] clause : clauses) {
+            this.solver.addClause(new VecInt(clause));
+        }
+    }
+
+    private void assertModelSatisfies(int[][] clauses) {
+        for (int[] clause : clauses) {
+            boolean satisfied = false;
+            for (int p : clause) {
+                satisfied = satisfied
+                        || this.solver.model(Math.abs(p)) == p > 0;
+            }
+            assertTrue(satisfied);
+        }
+    }
+
+    @Test
+    public void testEliminatedVariablesAreAssignedInTheModel()
+            throws ContradictionException, TimeoutException {
+        this.inprocessor.setProbing(false);
+        addClauses(CLAUSES);
+        assertTrue(this.solver.isSatisfiable());
+        assertTrue(this.solver.getStats().eliminatedVariables > 0);
+        assertModelSatisfies(CLAUSES);
+    }
+
+    @Test
+    public void testAssumptionsRestoreEliminatedVariables()
+            throws ContradictionException, TimeoutException {
+        this.inprocessor.setProbing(false);
+        addClauses(CLAUSES);
+        assertTrue(this.solver.isSatisfiable());
+        assertTrue(this.inprocessor.hasEliminatedVariables());
+        assertFalse(this.solver.isSatisfiable(new VecInt(new int[] { 1, 6 })));
+        assertTrue(this.solver.isSatisfiable(new VecInt(new int[] { -2 })));
+        assertTrue(this.solver.model(1));
+        assertModelSatisfies(CLAUSES);
+    }
+
+    @Test
+    public void testNewClausesRestoreEliminatedVariables()
+            throws ContradictionException, TimeoutException {
+        this.inprocessor.setProbing(false);
+        addClauses(CLAUSES);
+        assertTrue(this.solver.isSatisfiable());
+        assertTrue(this.inprocessor.hasEliminatedVariables());
+        int[][] more = { { -1 }, { -2 } };
+        try {
+            addClauses(more);
+            assertFalse(this.solver.isSatisfiable());
+        } catch (ContradictionException e) {
+            // also fine
+        }
+    }
+
+    @Test
+    public void testFailedLiteralProbing() throws ContradictionException,
+            TimeoutException {
+        this.inprocessor.setElimination(false);
+        // -1 implies 2, 4, 5 then a conflict
+        int[][] clauses = { { 1, 2 }, { -2, 4 }, { -4, 5 }, { -4, -5, 1 },
+                { -1, 6, 7 } };
+        addClauses(clauses);
+        assertTrue(this.solver.isSatisfiable());
+        assertEquals(1, this.solver.getStats().failedLiterals);
+        assertTrue(this.solver.model(1));
+        assertModelSatisfies(clauses);
+    }
+
+    @Test
+    public void testSubsumption() throws ContradictionException,
+            TimeoutException {
+        this.inprocessor.setElimination(false);
+        this.inprocessor.setProbing(false);
+        int[][] clauses = { { 1, 2 }, { 1, 2, 3 }, { -1, 2, 4 }, { 3, 4 } };
+        addClauses(clauses);
+        assertTrue(this.solver.isSatisfiable());
+        assertEquals(1, this.solver.getStats().subsumedClauses);
+        // 1 v 2 and -1 v 2 v 4 give 2 v 4
+        assertEquals(1, this.solver.getStats().strengthenedClauses);
+        assertEquals(3, this.solver.nConstraints());
+        assertModelSatisfies(clauses);
+    }
+
+    @Test
+    public void testRemovalRestoresTheOriginalFormula()
+            throws ContradictionException, TimeoutException {
+        this.inprocessor.setProbing(false);
+        // 1 v 2 subsumes 1 v 2 v 3, and 4 is eliminated
+        int[][] clauses = { { 1, 2, 3 }, { -1, 4 }, { -4, 5 }, { -2, -3 } };
+        addClauses(clauses);
+        IConstr subsumer = this.solver.addClause(new VecInt(
+                new int[] { 1, 2 }));
+        IConstr eliminated = this.solver.addClause(new VecInt(new int[] {
+                -4, -5 }));
+        assertTrue(this.solver.isSatisfiable());
+        assertTrue(this.inprocessor.hasEliminatedVariables());
+        assertFalse(this.solver.model(1));
+        this.solver.removeConstr(subsumer);
+        assertTrue(this.solver.isSatisfiable(new VecInt(
+                new int[] { -1, -2 })));
+        assertTrue(this.solver.model(3));
+        this.solver.removeConstr(eliminated);
+        assertTrue(this.solver.isSatisfiable(new VecInt(new int[] { 1 })));
+        assertTrue(this.solver.model(4));
+        assertTrue(this.solver.model(5));
+        assertModelSatisfies(clauses);
+    }
+
+    @Test
+    public void testRandomRemovals() throws ContradictionException,
+            TimeoutException {
+        Random rand = new Random(17);
+        for (int n = 0; n < 30; n++) {
+            setUp();
+            this.inprocessor.setConflictsBetweenRuns(10);
+            ISolver reference = SolverFactory.newDefault();
+            IVec<IConstr> constrs = new Vec<IConstr>();
+            IVec<IConstr> references = new Vec<IConstr>();
+            try {
+                for (int i = 0; i < 120; i++) {
+                    IVecInt clause = new VecInt();
+                    for (int j = 0; j < 3; j++) {
+                        int var = rand.nextInt(30) + 1;
+                        clause.push(rand.nextBoolean() ? var : -var);
+                    }
+                    references.push(reference.addClause(clause));
+                    constrs.push(this.solver.addClause(clause));
+                }
+            } catch (ContradictionException e) {
+                continue;
+            }
+            for (int k = 0; k < 10; k++) {
+                boolean expected = reference.isSatisfiable();
+                assertEquals(expected, this.solver.isSatisfiable());
+                if (expected) {
+                    int[] model = this.solver.model();
+                    assertTrue(reference.isSatisfiable(new VecInt(model)));
+                }
+                int i = rand.nextInt(constrs.size());
+                if (constrs.get(i) != null && references.get(i) != null) {
+                    this.solver.removeConstr(constrs.get(i));
+                    reference.removeConstr(references.get(i));
+                }
+                constrs.delete(i);
+                references.delete(i);
+            }
+        }
+    }
+
+    @Test
+    public void testPrimeImplicantWithEliminatedVariables()
+            throws ContradictionException, TimeoutException {
+        this.inprocessor.setProbing(false);
+        addClauses(CLAUSES);
+        assertTrue(this.solver.isSatisfiable());
+        assertTrue(this.inprocessor.hasEliminatedVariables());
+        int[] implicant = this.solver.primeImplicant();
+        for (int[] clause : CLAUSES) {
+            boolean satisfied = false;
+            for (int p : clause) {
+                for (int q : implicant) {
+                    satisfied = satisfied || p == q;
+                }
+            }
+            assertTrue(satisfied);
+        }
+    }
+
+    @Test
+    public void testEliminatedVariablesAreNotDecided()
+            throws ContradictionException, TimeoutException {
+        this.inprocessor.setProbing(false);
+        addClauses(CLAUSES);
+        assertTrue(this.solver.isSatisfiable());
+        assertTrue(this.inprocessor.hasEliminatedVariables());
+        assertTrue(this.solver.isSatisfiable());
+        for (int var = 1; var <= this.solver.nVars(); var++) {
+            if (this.inprocessor.isEliminated(var)) {
+                assertFalse(this.solver.decisions.contains(var));
+                assertFalse(this.solver.decisions.contains(-var));
+            }
+        }
+        assertModelSatisfies(CLAUSES);
+    }
+}
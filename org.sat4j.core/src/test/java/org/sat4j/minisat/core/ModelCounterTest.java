@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+import org.sat4j.tools.SolutionCounter;
+
+public class ModelCounterTest {
+
+    private static final int NVARS = 12;
+
+    private static int[][] randomFormula(Random rand, int nClauses) {
+        int[][] clauses = new int[nClauses][];
+        for (int i = 0; i < nClauses; i++) {
+            int size = 1 + rand.nextInt(3);
+            clauses[i] = new int[size];
+            for (int j = 0; j < size; j++) {
+                int v = 1 + rand.nextInt(NVARS);
+                clauses[i][j] = rand.nextBoolean() ? v : -v;
+            }
+        }
+        return clauses;
+    }
+
+    private static Solver<?> load(int[][] clauses) {
+        return load((Solver<?>) SolverFactory.newDefault(), clauses);
+    }
+
+    private static Solver<?> load(Solver<?> solver, int[][] clauses) {
+        solver.newVar(NVARS);
+        try {
+            for (int[] clause : clauses) {
+                solver.addClause(new VecInt(clause));
+            }
+        } catch (ContradictionException e) {
+            return null;
+        }
+        return solver;
+    }
+
+    private static boolean satisfies(int[][] clauses, int assignment) {
+        for (int[] clause : clauses) {
+            boolean satisfied = false;
+            for (int p : clause) {
+                boolean value = (assignment >> (Math.abs(p) - 1) & 1) == 1;
+                if (value == p > 0) {
+                    satisfied = true;
+                    break;
+                }
+            }
+            if (!satisfied) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int bruteForceCount(int[][] clauses, int projectionMask) {
+        Set<Integer> projectedModels = new HashSet<Integer>();
+        for (int assignment = 0; assignment < 1 << NVARS; assignment++) {
+            if (satisfies(clauses, assignment)) {
+                projectedModels.add(assignment & projectionMask);
+            }
+        }
+        return projectedModels.size();
+    }
+
+    @Test
+    public void testCountsMatchEnumerationOnRandomFormulas()
+            throws TimeoutException {
+        Random rand = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            int[][] clauses = randomFormula(rand, 5 + rand.nextInt(30));
+            Solver<?> solver = load(clauses);
+            BigInteger count = solver == null ? BigInteger.ZERO
+                    : new ModelCounter(solver).countModels();
+            assertEquals(bruteForceCount(clauses, (1 << NVARS) - 1),
+                    count.intValue());
+        }
+    }
+
+    @Test
+    public void testProjectedCountsMatchEnumerationOnRandomFormulas()
+            throws TimeoutException {
+        Random rand = new Random(17);
+        for (int i = 0; i < 200; i++) {
+            int[][] clauses = randomFormula(rand, 5 + rand.nextInt(30));
+            Solver<?> solver = load(clauses);
+            if (solver == null) {
+                continue;
+            }
+            IVecInt projection = new VecInt();
+            int mask = 0;
+            for (int v = 1; v <= NVARS; v++) {
+                if (rand.nextInt(3) == 0) {
+                    projection.push(v);
+                    mask |= 1 << v - 1;
+                }
+            }
+            assertEquals(bruteForceCount(clauses, mask),
+                    new ModelCounter(solver).countModels(projection)
+                            .intValue());
+        }
+    }
+
+    @Test
+    public void testCountsBeyondEnumeration() throws ContradictionException,
+            TimeoutException {
+        ISolver solver = SolverFactory.newDefault();
+        for (int i = 1; i <= 300; i += 3) {
+            solver.addClause(new VecInt(new int[] { i, i + 1, i + 2 }));
+            solver.addClause(new VecInt(new int[] { -i, -i - 1 }));
+        }
+        solver.newVar(302);
+        ModelCounter counter = new ModelCounter((Solver<?>) solver);
+        // 5 models per block of 3 variables, two free variables
+        assertEquals(BigInteger.valueOf(5).pow(100).shiftLeft(2),
+                counter.countModels());
+        IVecInt projection = new VecInt(new int[] { 1, 2, 4, 5 });
+        // (1,2) and (4,5) can take any value but (1,1)
+        assertEquals(BigInteger.valueOf(9), counter.countModels(projection));
+    }
+
+    @Test
+    public void testRepeatedProjectionVariablesAreCountedOnce()
+            throws ContradictionException, TimeoutException {
+        ISolver solver = SolverFactory.newDefault();
+        solver.newVar(4);
+        solver.addClause(new VecInt(new int[] { 1, 2 }));
+        ModelCounter counter = new ModelCounter((Solver<?>) solver);
+        // 3 and 4 do not appear in the formula
+        assertEquals(BigInteger.valueOf(2),
+                counter.countModels(new VecInt(new int[] { 3 })));
+        assertEquals(BigInteger.valueOf(2),
+                counter.countModels(new VecInt(new int[] { 3, -3, 3 })));
+        assertEquals(BigInteger.valueOf(12), counter
+                .countModels(new VecInt(new int[] { 1, -2, 2, -1, 4, 3 })));
+    }
+
+    @Test
+    public void testSolverIsLeftUnchanged() throws ContradictionException,
+            TimeoutException {
+        Random rand = new Random(3);
+        int[][] clauses = randomFormula(rand, 20);
+        Solver<?> solver = load(clauses);
+        int nConstraints = solver.nConstraints();
+        ModelCounter counter = new ModelCounter(solver);
+        BigInteger count = counter.countModels();
+        assertEquals(nConstraints, solver.nConstraints());
+        assertEquals(0, solver.decisionLevel());
+        assertEquals(count, counter.countModels());
+        assertTrue(solver.isSatisfiable());
+    }
+
+    @Test
+    public void testSmallCacheGivesTheSameCount()
+            throws ContradictionException, TimeoutException {
+        ISolver solver = SolverFactory.newDefault();
+        Random rand = new Random(7);
+        // a chain of overlapping blocks, with many identical components
+        for (int i = 1; i <= 60; i++) {
+            solver.addClause(new VecInt(new int[] { i, -(i + 1),
+                    rand.nextBoolean() ? i + 2 : -(i + 2) }));
+        }
+        ModelCounter counter = new ModelCounter((Solver<?>) solver);
+        BigInteger expected = counter.countModels();
+        counter.setMaxCacheSize(32);
+        assertEquals(expected, counter.countModels());
+        assertTrue(counter.getCacheEvictions() > 0);
+    }
+
+    @Test
+    public void testSolutionCounterCountsModels() throws TimeoutException {
+        Random rand = new Random(11);
+        for (int i = 0; i < 20; i++) {
+            int[][] clauses = randomFormula(rand, 20);
+            Solver<?> solver = load(clauses);
+            if (solver == null) {
+                continue;
+            }
+            SolutionCounter counter = new SolutionCounter(solver);
+            assertEquals(bruteForceCount(clauses, (1 << NVARS) - 1), counter
+                    .countModels().intValue());
+        }
+    }
+
+    @Test
+    public void testLearnedClausesDoNotChangeTheCount()
+            throws TimeoutException {
+        Random rand = new Random(23);
+        for (int i = 0; i < 100; i++) {
+            int[][] clauses = randomFormula(rand, 20 + rand.nextInt(30));
+            Solver<?> solver = load(clauses);
+            if (solver == null) {
+                continue;
+            }
+            // learn clauses under various assumptions
+            for (int j = 0; j < 10; j++) {
+                IVecInt assumps = new VecInt();
+                for (int k = 0; k < 3; k++) {
+                    int v = 1 + rand.nextInt(NVARS);
+                    assumps.push(rand.nextBoolean() ? v : -v);
+                }
+                solver.isSatisfiable(assumps);
+            }
+            assertEquals(bruteForceCount(clauses, (1 << NVARS) - 1),
+                    new ModelCounter(solver).countModels().intValue());
+            assertEquals(0, solver.getLearnedConstraints().size());
+        }
+    }
+
+    @Test
+    public void testEliminatedVariablesAreCounted() throws TimeoutException {
+        Random rand = new Random(29);
+        for (int i = 0; i < 100; i++) {
+            int[][] clauses = randomFormula(rand, 5 + rand.nextInt(30));
+            Solver<?> solver = load(
+                    (Solver<?>) SolverFactory.newGlucose21Inprocessing(),
+                    clauses);
+            BigInteger count = solver == null ? BigInteger.ZERO
+                    : new ModelCounter(solver).countModels();
+            assertEquals(bruteForceCount(clauses, (1 << NVARS) - 1),
+                    count.intValue());
+        }
+    }
+}
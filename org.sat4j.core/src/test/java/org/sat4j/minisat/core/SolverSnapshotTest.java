@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.reader.InstanceReader;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.TimeoutException;
+
+public class SolverSnapshotTest {
+
+    private static final String PREFIX = System.getProperty("test.prefix",
+            "src/test/testfiles/");
+
+    private static Solver<?> newSolver() {
+        return (Solver<?>) SolverFactory.newDefault();
+    }
+
+    private static Solver<?> copy(Solver<?> solver, int maxLBD)
+            throws IOException, ContradictionException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        solver.saveSnapshot(out, maxLBD);
+        Solver<?> restored = newSolver();
+        restored.loadSnapshot(new ByteArrayInputStream(out.toByteArray()));
+        return restored;
+    }
+
+    private static Solver<?> partiallySolved(String instance)
+            throws Exception {
+        return partiallySolved(newSolver(), instance);
+    }
+
+    private static Solver<?> partiallySolved(Solver<?> solver,
+            String instance) throws Exception {
+        new InstanceReader(solver).parseInstance(PREFIX + instance);
+        solver.setTimeoutOnConflicts(300);
+        try {
+            solver.isSatisfiable();
+        } catch (TimeoutException e) {
+            // expected, the learned clauses are kept
+        }
+        return solver;
+    }
+
+    @Test
+    public void testLearnedClausesAreRestored() throws Exception {
+        Solver<?> solver = partiallySolved("pigeons/hole7.cnf");
+        assertTrue(solver.getLearnedConstraints().size() > 0);
+        Solver<?> restored = copy(solver, Integer.MAX_VALUE);
+        assertEquals(solver.nVars(), restored.nVars());
+        assertEquals(solver.nConstraints(), restored.nConstraints());
+        assertEquals(solver.getLearnedConstraints().size(),
+                restored.getLearnedConstraints().size());
+        assertFalse(restored.isSatisfiable());
+    }
+
+    @Test
+    public void testLearnedClausesAreFilteredByLBD() throws Exception {
+        Solver<?> solver = partiallySolved("pigeons/hole7.cnf");
+        Solver<?> restored = copy(solver, 3);
+        IVec<Constr> learnts = restored.getLearnedConstraints();
+        assertTrue(learnts.size() < solver.getLearnedConstraints().size());
+        for (int i = 0; i < learnts.size(); i++) {
+            assertTrue(learnts.get(i).getActivity() <= 3);
+        }
+    }
+
+    @Test
+    public void testLBDIsComputedWithoutLBDBasedStrategy() throws Exception {
+        Solver<?> solver = newSolver();
+        solver.setLearnedConstraintsDeletionStrategy(
+                LearnedConstraintsEvaluationType.ACTIVITY);
+        partiallySolved(solver, "pigeons/hole7.cnf");
+        Solver<?> restored = copy(solver, 8);
+        IVec<Constr> learnts = restored.getLearnedConstraints();
+        assertTrue(learnts.size() > 0);
+        assertTrue(learnts.size() < solver.getLearnedConstraints().size());
+        for (int i = 0; i < learnts.size(); i++) {
+            // no decision between two calls: the LBD is the size
+            assertTrue(learnts.get(i).size() <= 8);
+            assertEquals(learnts.get(i).size(),
+                    (int) learnts.get(i).getActivity());
+        }
+    }
+
+    @Test
+    public void testRootLiteralsAreRestored() throws Exception {
+        Solver<?> solver = newSolver();
+        solver.newVar(4);
+        solver.addClause(new VecInt(new int[] { -1 }));
+        solver.addClause(new VecInt(new int[] { 1, 2, 3 }));
+        solver.addClause(new VecInt(new int[] { -2, 4 }));
+        solver.addClause(new VecInt(new int[] { -1, 3 }));
+        assertTrue(solver.isSatisfiable());
+        Solver<?> restored = copy(solver, Integer.MAX_VALUE);
+        assertTrue(restored.isSatisfiable(new VecInt(new int[] { -3 })));
+        assertFalse(restored.model(1));
+        assertTrue(restored.model(2));
+        assertTrue(restored.model(4));
+        assertFalse(restored.isSatisfiable(new VecInt(new int[] { 1 })));
+    }
+
+    @Test
+    public void testPhasesAndActivitiesAreRestored() throws Exception {
+        Solver<?> solver = newSolver();
+        solver.newVar(5);
+        solver.addClause(new VecInt(new int[] { 1, 2, 3, 4, 5 }));
+        int[] assumptions = { 1, -2, 3, -4, 5 };
+        assertTrue(solver.isSatisfiable(new VecInt(assumptions)));
+        double[] activities = solver.getVariableHeuristics();
+        activities[3] = 2.0;
+        Solver<?> restored = copy(solver, Integer.MAX_VALUE);
+        assertTrue(restored.isSatisfiable());
+        for (int p : assumptions) {
+            assertEquals(p > 0, restored.model(Math.abs(p)));
+        }
+        double[] restoredActivities = restored.getVariableHeuristics();
+        assertEquals(1.0, restoredActivities[3], 0.0);
+        assertEquals(0.0, restoredActivities[2], 0.0);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testOnlyClausesCanBeSaved() throws Exception {
+        Solver<?> solver = newSolver();
+        solver.addAtLeast(new VecInt(new int[] { 1, 2, 3, 4 }), 2);
+        solver.saveSnapshot(new ByteArrayOutputStream(), Integer.MAX_VALUE);
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotASnapshot() throws Exception {
+        newSolver().loadSnapshot(
+                new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5 }));
+    }
+}
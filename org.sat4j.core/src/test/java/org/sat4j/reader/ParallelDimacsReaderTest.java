@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ISolver;
+import org.sat4j.tools.DimacsStringSolver;
+
+public class ParallelDimacsReaderTest {
+
+    private static final String PREFIX = System.getProperty("test.prefix");
+
+    private static final String CNF = "c a comment\np cnf 4 5\n1 2 -3 0\n"
+            + "c another comment\n-1\n  -2 4 0 3 -4 0\n2 0 -2 -3 -4 0\n";
+
+    @Test
+    public void testSameClausesAsLecteurDimacs() throws Exception {
+        for (String name : new String[] { "aim/aim-100-1_6-no-1.cnf",
+                "aim/aim-100-1_6-yes1-1.cnf", "jnh/jnh1.cnf",
+                "pigeons/hole6.cnf" }) {
+            String expected = readWithLecteurDimacs(PREFIX + name);
+            for (int chunkSize : new int[] { 7, 64, 1 << 20 }) {
+                DimacsStringSolver solver = new DimacsStringSolver();
+                ParallelDimacsReader reader = new ParallelDimacsReader(solver);
+                reader.setChunkSize(chunkSize);
+                reader.setNumberOfThreads(3);
+                reader.parseInstance(PREFIX + name);
+                assertEquals(expected, solver.getOut().toString());
+            }
+        }
+    }
+
+    @Test
+    public void testStreamsAndCompressedFiles() throws Exception {
+        DimacsStringSolver expected = new DimacsStringSolver();
+        new LecteurDimacs(expected).parseInstance(new ByteArrayInputStream(
+                CNF.getBytes()));
+        DimacsStringSolver solver = new DimacsStringSolver();
+        ParallelDimacsReader reader = new ParallelDimacsReader(solver);
+        reader.setChunkSize(5);
+        reader.parseInstance(new ByteArrayInputStream(CNF.getBytes()));
+        assertEquals(expected.getOut().toString(), solver.getOut()
+                .toString());
+        File gz = File.createTempFile("sat4j", ".cnf.gz");
+        try {
+            OutputStream out = new GZIPOutputStream(new FileOutputStream(gz));
+            out.write(CNF.getBytes());
+            out.close();
+            solver = new DimacsStringSolver();
+            reader = new ParallelDimacsReader(solver);
+            reader.setChunkSize(5);
+            reader.parseInstance(gz.getAbsolutePath());
+            assertEquals(expected.getOut().toString(), solver.getOut()
+                    .toString());
+        } finally {
+            gz.delete();
+        }
+    }
+
+    @Test
+    public void testSolvingAMappedFile() throws Exception {
+        ISolver solver = SolverFactory.newDefault();
+        ParallelDimacsReader reader = new ParallelDimacsReader(solver);
+        reader.setChunkSize(100);
+        reader.parseInstance(PREFIX + "pigeons/hole6.cnf");
+        assertFalse(solver.isSatisfiable());
+        reader.parseInstance(PREFIX + "aim/aim-100-1_6-yes1-1.cnf");
+        assertTrue(solver.isSatisfiable());
+    }
+
+    @Test(expected = ParseFormatException.class)
+    public void testWrongCharacter() throws Exception {
+        new ParallelDimacsReader(new DimacsStringSolver())
+                .parseInstance(new ByteArrayInputStream("p cnf 3 1\n1 x 0\n"
+                        .getBytes()));
+    }
+
+    @Test(expected = ParseFormatException.class)
+    public void testLiteralOutOfRange() throws Exception {
+        new ParallelDimacsReader(new DimacsStringSolver())
+                .parseInstance(new ByteArrayInputStream(
+                        "p cnf 3 1\n1 -2147483648 0\n".getBytes()));
+    }
+
+    @Test(expected = ParseFormatException.class)
+    public void testMissingProblemLine() throws Exception {
+        new ParallelDimacsReader(new DimacsStringSolver())
+                .parseInstance(new ByteArrayInputStream("1 2 0\n"
+                        .getBytes()));
+    }
+
+    private static String readWithLecteurDimacs(String filename)
+            throws Exception {
+        DimacsStringSolver solver = new DimacsStringSolver();
+        InputStream in = new FileInputStream(filename);
+        try {
+            new LecteurDimacs(solver).parseInstance(in);
+        } finally {
+            in.close();
+        }
+        return solver.getOut().toString();
+    }
+}
@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.reader.InstanceReader;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+public class BackboneServiceTest {
+
+    private static final String PREFIX = System.getProperty("test.prefix",
+            "src/test/testfiles/");
+
+    private static final int NVARS = 30;
+
+    private static void addRandomClauses(ISolver solver, Random rand,
+            int nClauses) {
+        IVecInt clause = new VecInt();
+        for (int i = 0; i < nClauses; i++) {
+            clause.clear();
+            int size = 2 + rand.nextInt(2);
+            for (int j = 0; j < size; j++) {
+                int v = 1 + rand.nextInt(NVARS);
+                clause.push(rand.nextBoolean() ? v : -v);
+            }
+            try {
+                solver.addClause(clause);
+            } catch (ContradictionException e) {
+                // keep the other clauses
+            }
+        }
+    }
+
+    private static Set<Integer> asSet(IVecInt literals) {
+        Set<Integer> set = new HashSet<Integer>();
+        for (int i = 0; i < literals.size(); i++) {
+            set.add(literals.get(i));
+        }
+        return set;
+    }
+
+    private static Set<Integer> expected(ISolver solver, IVecInt assumptions)
+            throws TimeoutException {
+        return asSet(Backbone.instance().compute(solver, assumptions));
+    }
+
+    @Test
+    public void testRandomAssumptionsAgreeWithBackbone()
+            throws TimeoutException {
+        Random rand = new Random(12345);
+        for (int run = 0; run < 20; run++) {
+            ISolver solver = SolverFactory.newDefault();
+            addRandomClauses(solver, rand, 80);
+            BackboneService service = new BackboneService(solver);
+            service.setChunkSize(1 + rand.nextInt(8));
+            IVecInt assumptions = new VecInt();
+            for (int step = 0; step < 10; step++) {
+                if (assumptions.size() > 0 && rand.nextInt(3) == 0) {
+                    assumptions.pop();
+                } else {
+                    int v = 1 + rand.nextInt(NVARS);
+                    assumptions.push(rand.nextBoolean() ? v : -v);
+                }
+                boolean sat = solver.isSatisfiable(assumptions);
+                try {
+                    Set<Integer> backbone = asSet(service
+                            .compute(assumptions));
+                    assertEquals(expected(solver, assumptions), backbone);
+                } catch (IllegalArgumentException e) {
+                    assertEquals(false, sat);
+                    assumptions.pop();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCachedBackboneNeedsNoSatCall() throws Exception {
+        ISolver solver = SolverFactory.newDefault();
+        new InstanceReader(solver).parseInstance(PREFIX + "Eshop-fm.dimacs");
+        BackboneService service = new BackboneService(solver);
+        IVecInt assumptions = new VecInt().push(5).push(-7);
+        Set<Integer> backbone = asSet(service.compute(assumptions));
+        assertEquals(expected(solver, assumptions), backbone);
+        IVecInt reordered = new VecInt().push(-7).push(5);
+        assertEquals(backbone, asSet(service.compute(reordered)));
+        assertEquals(0, service.getNumberOfSatCalls());
+    }
+
+    @Test
+    public void testParallelCheckWithFilter() throws Exception {
+        ISolver[] solvers = new ISolver[2];
+        for (int i = 0; i < solvers.length; i++) {
+            solvers[i] = SolverFactory.newDefault();
+            new InstanceReader(solvers[i]).parseInstance(PREFIX
+                    + "Eshop-fm.dimacs");
+        }
+        BackboneService service = new BackboneService(solvers);
+        IVecInt filter = new VecInt();
+        for (int v = 1; v <= solvers[0].nVars(); v += 2) {
+            filter.push(v);
+        }
+        service.setFilter(filter);
+        IVecInt assumptions = new VecInt();
+        try {
+            for (int v : new int[] { 3, -11, 20 }) {
+                assumptions.push(v);
+                assertEquals(
+                        asSet(Backbone.instance().compute(solvers[0],
+                                assumptions, filter)),
+                        asSet(service.compute(assumptions)));
+            }
+            assumptions.pop();
+            assertEquals(
+                    asSet(Backbone.instance().compute(solvers[0],
+                            assumptions, filter)),
+                    asSet(service.compute(assumptions)));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void testNewConstraintClearsTheCache()
+            throws ContradictionException, TimeoutException {
+        ISolver solver = SolverFactory.newDefault();
+        solver.addClause(new VecInt().push(1).push(2));
+        solver.addClause(new VecInt().push(-1).push(3));
+        BackboneService service = new BackboneService(solver);
+        IVecInt assumptions = new VecInt();
+        assertEquals(new HashSet<Integer>(),
+                asSet(service.compute(assumptions)));
+        solver.addClause(new VecInt().push(-2));
+        assertEquals(expected(solver, assumptions),
+                asSet(service.compute(assumptions)));
+    }
+
+    @Test
+    public void testUnsatisfiableAssumptions() throws ContradictionException,
+            TimeoutException {
+        ISolver solver = SolverFactory.newDefault();
+        solver.addClause(new VecInt().push(1).push(2));
+        solver.addClause(new VecInt().push(-1).push(-2));
+        BackboneService service = new BackboneService(solver);
+        try {
+            service.compute(new VecInt().push(1).push(2));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
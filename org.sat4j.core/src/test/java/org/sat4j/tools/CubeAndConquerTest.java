@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.minisat.core.ICDCL;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+
+public class CubeAndConquerTest {
+
+    private static CubeAndConquer<ISolver> createSolver() {
+        CubeAndConquer<ISolver> solver = new CubeAndConquer<ISolver>(
+                SolverFactory.instance(), "Glucose21", "Glucose21",
+                "MiniLearningHeap");
+        solver.setCubeConflicts(50);
+        return solver;
+    }
+
+    @Test(timeout = 60000)
+    public void testPigeonHoleIsSplitAndRefuted() throws Exception {
+        CubeAndConquer<ISolver> solver = createSolver();
+        pigeonHole(solver, 8, 7);
+        assertFalse(solver.isSatisfiable());
+        assertTrue(solver.getNumberOfCubes() > 1);
+        IVecInt explanation = solver.unsatExplanation();
+        assertNotNull(explanation);
+        assertEquals(0, explanation.size());
+    }
+
+    @Test(timeout = 60000)
+    public void testSameAnswersAsASingleSolver() throws Exception {
+        Random rand = new Random(7);
+        for (int n = 0; n < 10; n++) {
+            CubeAndConquer<ISolver> solver = createSolver();
+            ISolver reference = SolverFactory.newDefault();
+            int[][] clauses = randomFormula(rand, 80, 340);
+            solver.newVar(80);
+            reference.newVar(80);
+            try {
+                for (int[] clause : clauses) {
+                    solver.addClause(new VecInt(clause));
+                    reference.addClause(new VecInt(clause));
+                }
+            } catch (ContradictionException e) {
+                continue;
+            }
+            for (int i = 0; i < 4; i++) {
+                IVecInt assumps = new VecInt();
+                for (int j = 0; j < i; j++) {
+                    int var = rand.nextInt(80) + 1;
+                    assumps.push(rand.nextBoolean() ? var : -var);
+                }
+                boolean expected = reference.isSatisfiable(assumps);
+                assertEquals(expected, solver.isSatisfiable(assumps, false));
+                if (expected) {
+                    int[] model = solver.model();
+                    for (int[] clause : clauses) {
+                        assertTrue(satisfies(model, clause));
+                    }
+                    for (int j = 0; j < assumps.size(); j++) {
+                        assertTrue(satisfies(model,
+                                new int[] { assumps.get(j) }));
+                    }
+                } else {
+                    IVecInt explanation = solver.unsatExplanation();
+                    assertNotNull(explanation);
+                    for (int j = 0; j < explanation.size(); j++) {
+                        assertTrue(assumps.contains(explanation.get(j)));
+                    }
+                    assertFalse(reference.isSatisfiable(explanation));
+                }
+            }
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testLearnedClausesAreSharedWhileSolvingCubes()
+            throws Exception {
+        CubeAndConquer<ISolver> solver = new CubeAndConquer<ISolver>(
+                SolverFactory.instance(), true, "Glucose21", "Glucose21",
+                "MiniLearningHeap");
+        solver.setCubeConflicts(50);
+        pigeonHole(solver, 8, 7);
+        assertFalse(solver.isSatisfiable());
+        assertTrue(solver.getNumberOfCubes() > 1);
+        long imported = 0;
+        for (ISolver s : solver.getSolvers()) {
+            imported += ((ICDCL<?>) s).getStats().importedClauses;
+        }
+        assertTrue(imported > 0);
+    }
+
+    @Test(timeout = 60000)
+    public void testTimeoutsAreRestored() throws Exception {
+        CubeAndConquer<ISolver> solver = createSolver();
+        solver.setTimeoutMs(60000);
+        pigeonHole(solver, 6, 6);
+        assertTrue(solver.isSatisfiable());
+        for (ISolver s : solver.getSolvers()) {
+            assertEquals(60000, s.getTimeoutMs());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOnlyCDCLSolversCanBeUsed() {
+        new CubeAndConquer<ISolver>(new ISolver[] {
+                SolverFactory.newDefault(), new DimacsStringSolver() });
+    }
+
+    private static void pigeonHole(ISolver solver, int pigeons, int holes)
+            throws ContradictionException {
+        // pigeon i in hole j is variable i*holes+j+1
+        solver.newVar(pigeons * holes);
+        for (int i = 0; i < pigeons; i++) {
+            IVecInt clause = new VecInt();
+            for (int j = 0; j < holes; j++) {
+                clause.push(i * holes + j + 1);
+            }
+            solver.addClause(clause);
+        }
+        for (int j = 0; j < holes; j++) {
+            for (int i = 0; i < pigeons; i++) {
+                for (int k = i + 1; k < pigeons; k++) {
+                    solver.addClause(new VecInt(new int[] {
+                            -(i * holes + j + 1), -(k * holes + j + 1) }));
+                }
+            }
+        }
+    }
+
+    private static int[][] randomFormula(Random rand, int nvars,
+            int nclauses) {
+        int[][] clauses = new int[nclauses][3];
+        for (int[] clause : clauses) {
+            for (int j = 0; j < clause.length; j++) {
+                int var = rand.nextInt(nvars) + 1;
+                clause[j] = rand.nextBoolean() ? var : -var;
+            }
+        }
+        return clauses;
+    }
+
+    private static boolean satisfies(int[] model, int[] clause) {
+        for (int p : clause) {
+            int var = Math.abs(p);
+            if (var <= model.length && model[var - 1] == p) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,302 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.minisat.core.DataStructureFactory;
+import org.sat4j.minisat.core.Solver;
+import org.sat4j.reader.DimacsReader;
+import org.sat4j.reader.ParseFormatException;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.ISolverService;
+import org.sat4j.specs.Lbool;
+import org.sat4j.specs.TimeoutException;
+
+public class DratSearchListenerTest {
+
+    private static final String PREFIX = System.getProperty("test.prefix",
+            "src/test/testfiles/");
+
+    @Test
+    public void testTextualProofOfPigeonHole() throws Exception {
+        checkProof("pigeons/hole6.cnf", false);
+    }
+
+    @Test
+    public void testBinaryProofOfPigeonHole() throws Exception {
+        checkProof("pigeons/hole6.cnf", true);
+    }
+
+    @Test
+    public void testBinaryProofOfAim() throws Exception {
+        checkProof("aim/aim-100-1_6-no-1.cnf", true);
+    }
+
+    @Test
+    public void testProofWithDeletedLearnedClauses() throws Exception {
+        Solver<DataStructureFactory> solver = SolverFactory
+                .newMiniLearningHeap();
+        solver.setLearnedConstraintsDeletionStrategy(solver.fixedSize(50));
+        String proof = new String(
+                checkProof(solver, "pigeons/hole7.cnf", false));
+        assertTrue(proof.contains("d "));
+    }
+
+    @Test
+    public void testBinaryEncodingOfLiterals() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DratSearchListener<ISolverService> listener = new DratSearchListener<ISolverService>(
+                bytes, true);
+        listener.learnUnit(-1);
+        listener.learnUnit(64);
+        listener.end(Lbool.FALSE);
+        assertArrayEquals(new byte[] { 'a', 3, 0, 'a', (byte) 0x80, 1, 0,
+                'a', 0 }, bytes.toByteArray());
+    }
+
+    @Test
+    public void testAsyncOutputStreamKeepsTheOrderOfTheBytes()
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AsyncOutputStream out = new AsyncOutputStream(bytes, 7);
+        byte[] expected = new byte[1000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = (byte) i;
+        }
+        out.write(expected, 0, 10);
+        for (int i = 10; i < 500; i++) {
+            out.write(expected[i]);
+        }
+        out.flush();
+        out.write(expected, 500, 500);
+        out.close();
+        assertArrayEquals(expected, bytes.toByteArray());
+    }
+
+    private void checkProof(String instance, boolean binary)
+            throws ParseFormatException, IOException, ContradictionException,
+            TimeoutException {
+        checkProof(SolverFactory.newDefault(), instance, binary);
+    }
+
+    private byte[] checkProof(ISolver solver, String instance,
+            boolean binary) throws ParseFormatException, IOException,
+            ContradictionException, TimeoutException {
+        ByteArrayOutputStream proof = new ByteArrayOutputStream();
+        solver.setSearchListener(
+                new DratSearchListener<ISolverService>(proof, binary));
+        new DimacsReader(solver).parseInstance(PREFIX + instance);
+        assertFalse(solver.isSatisfiable());
+        List<int[]> clauses = readClauses(PREFIX + instance);
+        assertTrue(new RupChecker(clauses).check(proof.toByteArray(), binary));
+        return proof.toByteArray();
+    }
+
+    private static List<int[]> readClauses(String filename)
+            throws IOException {
+        BufferedReader in = new BufferedReader(new FileReader(filename));
+        List<int[]> clauses = new ArrayList<int[]>();
+        List<Integer> clause = new ArrayList<Integer>();
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.length() == 0 || line.startsWith("c")
+                        || line.startsWith("p") || line.startsWith("%")) {
+                    continue;
+                }
+                for (String token : line.split("\\s+")) {
+                    int lit = Integer.parseInt(token);
+                    if (lit == 0) {
+                        clauses.add(toArray(clause));
+                        clause.clear();
+                    } else {
+                        clause.add(lit);
+                    }
+                }
+            }
+        } finally {
+            in.close();
+        }
+        return clauses;
+    }
+
+    private static int[] toArray(List<Integer> clause) {
+        int[] result = new int[clause.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = clause.get(i);
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * A naive forward checker: each added clause must be derived by unit
+     * propagation from the clauses currently in the database, and the proof
+     * must end with the empty clause.
+     */
+    private static class RupChecker {
+        private final List<int[]> clauses;
+
+        RupChecker(List<int[]> clauses) {
+            this.clauses = new ArrayList<int[]>(clauses);
+        }
+
+        boolean check(byte[] proof, boolean binary) {
+            List<int[]> steps = new ArrayList<int[]>();
+            List<Boolean> deletions = new ArrayList<Boolean>();
+            if (binary) {
+                parseBinary(proof, steps, deletions);
+            } else {
+                parseText(new String(proof), steps, deletions);
+            }
+            assertFalse(steps.isEmpty());
+            for (int i = 0; i < steps.size(); i++) {
+                int[] clause = steps.get(i);
+                if (deletions.get(i)) {
+                    remove(clause);
+                } else {
+                    assertTrue("not RUP " + Arrays.toString(clause),
+                            isRup(clause));
+                    this.clauses.add(clause);
+                }
+            }
+            int[] last = steps.get(steps.size() - 1);
+            assertFalse(deletions.get(steps.size() - 1));
+            assertEquals(0, last.length);
+            return true;
+        }
+
+        private void remove(int[] clause) {
+            for (int i = this.clauses.size() - 1; i >= 0; i--) {
+                if (Arrays.equals(clause, this.clauses.get(i))) {
+                    this.clauses.remove(i);
+                    return;
+                }
+            }
+        }
+
+        private boolean isRup(int[] clause) {
+            Set<Integer> assigned = new HashSet<Integer>();
+            for (int lit : clause) {
+                assigned.add(-lit);
+            }
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (int[] c : this.clauses) {
+                    int unassigned = 0;
+                    int last = 0;
+                    boolean satisfied = false;
+                    for (int lit : c) {
+                        if (assigned.contains(lit)) {
+                            satisfied = true;
+                            break;
+                        }
+                        if (!assigned.contains(-lit)) {
+                            unassigned++;
+                            last = lit;
+                        }
+                    }
+                    if (satisfied) {
+                        continue;
+                    }
+                    if (unassigned == 0) {
+                        return true;
+                    }
+                    if (unassigned == 1) {
+                        assigned.add(last);
+                        changed = true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static void parseText(String proof, List<int[]> steps,
+                List<Boolean> deletions) {
+            for (String line : proof.split("\n")) {
+                List<Integer> clause = new ArrayList<Integer>();
+                boolean deletion = line.startsWith("d ");
+                for (String token : line.substring(deletion ? 2 : 0)
+                        .trim().split("\\s+")) {
+                    int lit = Integer.parseInt(token);
+                    if (lit != 0) {
+                        clause.add(lit);
+                    }
+                }
+                steps.add(toArray(clause));
+                deletions.add(deletion);
+            }
+        }
+
+        private static void parseBinary(byte[] proof, List<int[]> steps,
+                List<Boolean> deletions) {
+            int i = 0;
+            while (i < proof.length) {
+                assertTrue(proof[i] == 'a' || proof[i] == 'd');
+                deletions.add(proof[i++] == 'd');
+                List<Integer> clause = new ArrayList<Integer>();
+                for (;;) {
+                    int u = 0;
+                    int shift = 0;
+                    int b;
+                    do {
+                        b = proof[i++] & 0xff;
+                        u |= (b & 0x7f) << shift;
+                        shift += 7;
+                    } while ((b & 0x80) != 0);
+                    if (u == 0) {
+                        break;
+                    }
+                    clause.add((u & 1) == 0 ? u >> 1 : -(u >> 1));
+                }
+                steps.add(toArray(clause));
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.sat4j.core.Vec;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.TimeoutException;
+
+public class LearnedClauseSharingTest {
+
+    @Test
+    public void testReadersHaveTheirOwnCursor() {
+        LearnedClauseRing ring = new LearnedClauseRing(4);
+        IVec<int[]> out = new Vec<int[]>();
+        ring.publish(new int[] { 1, 3 });
+        long cursor = ring.read(0, out);
+        assertEquals(1, out.size());
+        ring.publish(new int[] { 2, 1, 2 });
+        out.clear();
+        long other = ring.read(0, out);
+        assertEquals(2, out.size());
+        out.clear();
+        cursor = ring.read(cursor, out);
+        assertEquals(1, out.size());
+        assertArrayEquals(new int[] { 2, 1, 2 }, out.get(0));
+        assertEquals(cursor, other);
+    }
+
+    @Test
+    public void testSlowReaderLosesTheOldestClauses() {
+        LearnedClauseRing ring = new LearnedClauseRing(4);
+        for (int i = 1; i <= 10; i++) {
+            ring.publish(new int[] { 1, i });
+        }
+        IVec<int[]> out = new Vec<int[]>();
+        assertEquals(10, ring.read(0, out));
+        assertEquals(4, out.size());
+        assertEquals(7, out.get(0)[1]);
+        assertEquals(10, out.get(3)[1]);
+    }
+
+    @Test
+    public void testClearRestartsTheCursors() {
+        LearnedClauseRing ring = new LearnedClauseRing(4);
+        ring.publish(new int[] { 1, 3 });
+        IVec<int[]> out = new Vec<int[]>();
+        long cursor = ring.read(0, out);
+        ring.clear();
+        ring.publish(new int[] { 1, 4 });
+        out.clear();
+        ring.read(cursor, out);
+        assertEquals(0, out.size());
+        assertEquals(1, ring.read(0, out));
+        assertEquals(4, out.get(0)[1]);
+    }
+
+    @Test
+    public void testManyCoreSharingLearnedClauses()
+            throws ContradictionException, TimeoutException {
+        ManyCore<ISolver> solver = new ManyCore<ISolver>(
+                SolverFactory.instance(), true, "Glucose21",
+                "Glucose21Inprocessing", "ThreeTierLCDS");
+        pigeonHole(solver, 8, 7);
+        assertFalse(solver.isSatisfiable());
+        assertFalse(solver.isSatisfiable(new VecInt(new int[] { -1 }), false));
+        solver.reset();
+        pigeonHole(solver, 7, 7);
+        assertTrue(solver.isSatisfiable());
+        assertTrue(solver.isSatisfiable(new VecInt(new int[] { -1 }), false));
+        assertFalse(solver.model(1));
+    }
+
+    private void pigeonHole(ISolver solver, int pigeons, int holes)
+            throws ContradictionException {
+        // pigeon i in hole j is variable i*holes+j+1
+        solver.newVar(pigeons * holes);
+        for (int i = 0; i < pigeons; i++) {
+            VecInt clause = new VecInt();
+            for (int j = 0; j < holes; j++) {
+                clause.push(i * holes + j + 1);
+            }
+            solver.addClause(clause);
+        }
+        for (int j = 0; j < holes; j++) {
+            for (int i = 0; i < pigeons; i++) {
+                for (int k = i + 1; k < pigeons; k++) {
+                    solver.addClause(new VecInt(new int[] {
+                            -(i * holes + j + 1), -(k * holes + j + 1) }));
+                }
+            }
+        }
+    }
+}
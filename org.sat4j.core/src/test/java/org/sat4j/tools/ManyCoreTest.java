@@ -0,0 +1,295 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.sat4j.core.Vec;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.minisat.core.ICDCL;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.ISolverService;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.SearchListenerAdapter;
+
+public class ManyCoreTest {
+
+    private ManyCore<ISolver> createSolver() throws ContradictionException {
+        ManyCore<ISolver> solver = new ManyCore<ISolver>(
+                SolverFactory.instance(), "Glucose21", "MiniLearningHeap");
+        solver.newVar(3);
+        solver.addClause(new VecInt(new int[] { 1, 2 }));
+        solver.addClause(new VecInt(new int[] { -1, 3 }));
+        solver.addClause(new VecInt(new int[] { -2, 3 }));
+        return solver;
+    }
+
+    @Test(timeout = 10000)
+    public void testShortCallsDoNotWaitForAPollingPeriod() throws Exception {
+        ManyCore<ISolver> solver = createSolver();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(solver.isSatisfiable());
+            assertFalse(solver.isSatisfiable(new VecInt(new int[] { -3 }),
+                    false));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testIndependentInstancesAnswerConcurrently()
+            throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] answers = new Future<?>[4];
+            for (int i = 0; i < answers.length; i++) {
+                final ManyCore<ISolver> solver = createSolver();
+                answers[i] = clients.submit(new Callable<Integer>() {
+                    public Integer call() throws Exception {
+                        int sat = 0;
+                        for (int j = 0; j < 50; j++) {
+                            if (solver.isSatisfiable(new VecInt(
+                                    new int[] { j % 2 == 0 ? 3 : -3 }), false)) {
+                                sat++;
+                            }
+                        }
+                        return sat;
+                    }
+                });
+            }
+            for (Future<?> answer : answers) {
+                assertEquals(25, answer.get());
+            }
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testUserProvidedExecutor() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            ManyCore<ISolver> solver = createSolver();
+            solver.setExecutor(executor);
+            assertTrue(solver.getExecutor() == executor);
+            assertTrue(solver.isSatisfiable());
+            assertTrue(solver.model(3));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testShutdownStopsTheDefaultExecutor() throws Exception {
+        ManyCore<ISolver> solver = createSolver();
+        assertTrue(solver.isSatisfiable());
+        ExecutorService executor = (ExecutorService) solver.getExecutor();
+        solver.shutdown();
+        assertTrue(executor.isShutdown());
+        assertTrue(solver.isSatisfiable());
+        assertTrue(solver.getExecutor() != executor);
+        solver.shutdown();
+    }
+
+    @Test(timeout = 60000)
+    public void testSharedOriginalClausesGiveTheSameAnswers()
+            throws Exception {
+        Random rand = new Random(12345);
+        for (int n = 0; n < 20; n++) {
+            IVec<IVecInt> clauses = randomFormula(rand, 60, 250);
+            ManyCore<ISolver> shared = new ManyCore<ISolver>(
+                    SolverFactory.instance(), "Glucose21", "MiniLearningHeap");
+            shared.setShareOriginalClauses(true);
+            ISolver reference = SolverFactory.newDefault();
+            shared.newVar(60);
+            reference.newVar(60);
+            boolean trivial = false;
+            try {
+                shared.addAllClauses(clauses);
+            } catch (ContradictionException e) {
+                trivial = true;
+            }
+            try {
+                reference.addAllClauses(clauses);
+                assertFalse(trivial);
+            } catch (ContradictionException e) {
+                assertTrue(trivial);
+                continue;
+            }
+            for (int i = 0; i < 5; i++) {
+                IVecInt assumps = new VecInt(
+                        new int[] { rand.nextInt(60) + 1,
+                                -(rand.nextInt(60) + 1) });
+                boolean expected = reference.isSatisfiable(assumps);
+                assertEquals(expected,
+                        shared.isSatisfiable(assumps, false));
+                if (expected) {
+                    assertSatisfies(shared.model(), clauses);
+                }
+            }
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testSharedOriginalClausesAreStoredOnce() throws Exception {
+        ManyCore<ISolver> solver = new ManyCore<ISolver>(
+                SolverFactory.instance(), "Glucose21", "MiniLearningHeap");
+        assertFalse(solver.isSharingOriginalClauses());
+        assertEquals(-1, solver.estimatedMemoryPerExtraSolver());
+        solver.setShareOriginalClauses(true);
+        assertTrue(solver.isSharingOriginalClauses());
+        solver.newVar(4);
+        solver.addClause(new VecInt(new int[] { 1, 2, 3 }));
+        IConstr removable = solver
+                .addClause(new VecInt(new int[] { -1, -2, 4 }));
+        solver.addClause(new VecInt(new int[] { -4 }));
+        solver.addClause(new VecInt(new int[] { 1, -1, 2 }));
+        assertTrue(solver.estimatedMemoryPerExtraSolver() > 0);
+        assertTrue(solver.isSatisfiable(new VecInt(new int[] { -3, 1 }),
+                false));
+        assertTrue(solver.model(2) == false);
+        assertFalse(solver.isSatisfiable(new VecInt(new int[] { -3, 1, 2 }),
+                false));
+        solver.removeConstr(removable);
+        assertTrue(solver.isSatisfiable(new VecInt(new int[] { -3, 1, 2 }),
+                false));
+    }
+
+    @Test(timeout = 60000)
+    public void testClausesAreImportedUnderAssumptions() throws Exception {
+        ManyCore<ISolver> solver = createGuardedPigeonHole();
+        assertFalse(solver.isSatisfiable(new VecInt(new int[] { 57 }),
+                false));
+        assertEquals(new VecInt(new int[] { 57 }), solver.unsatExplanation());
+        assertTrue(importedClauses(solver) > 0);
+        assertTrue(solver.isSatisfiable(new VecInt(new int[] { -57 }), false));
+    }
+
+    @Test(timeout = 60000)
+    public void testSearchListenerDoesNotStopClauseSharing()
+            throws Exception {
+        ManyCore<ISolver> solver = createGuardedPigeonHole();
+        final AtomicInteger conflicts = new AtomicInteger();
+        solver.setSearchListener(new SearchListenerAdapter<ISolverService>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void conflictFound(IConstr confl, int dlevel,
+                    int trailLevel) {
+                conflicts.incrementAndGet();
+            }
+        });
+        assertFalse(solver.isSatisfiable(new VecInt(new int[] { 57 }),
+                false));
+        assertTrue(conflicts.get() > 0);
+        assertTrue(importedClauses(solver) > 0);
+    }
+
+    /**
+     * The pigeon hole problem with 8 pigeons and 7 holes, guarded by the
+     * selector 57.
+     */
+    private static ManyCore<ISolver> createGuardedPigeonHole()
+            throws ContradictionException {
+        ManyCore<ISolver> solver = new ManyCore<ISolver>(
+                SolverFactory.instance(), true, "Glucose21",
+                "MiniLearningHeap");
+        solver.newVar(57);
+        for (int i = 0; i < 8; i++) {
+            IVecInt clause = new VecInt();
+            clause.push(-57);
+            for (int j = 0; j < 7; j++) {
+                clause.push(i * 7 + j + 1);
+            }
+            solver.addClause(clause);
+        }
+        for (int j = 0; j < 7; j++) {
+            for (int i = 0; i < 8; i++) {
+                for (int k = i + 1; k < 8; k++) {
+                    solver.addClause(new VecInt(new int[] { -(i * 7 + j + 1),
+                            -(k * 7 + j + 1) }));
+                }
+            }
+        }
+        return solver;
+    }
+
+    private static long importedClauses(ManyCore<ISolver> solver) {
+        long imported = 0;
+        for (ISolver s : solver.getSolvers()) {
+            imported += ((ICDCL<?>) s).getStats().importedClauses;
+        }
+        return imported;
+    }
+
+    private static IVec<IVecInt> randomFormula(Random rand, int nvars,
+            int nclauses) {
+        IVec<IVecInt> clauses = new Vec<IVecInt>(nclauses);
+        for (int i = 0; i < nclauses; i++) {
+            IVecInt clause = new VecInt();
+            int size = 2 + rand.nextInt(3);
+            for (int j = 0; j < size; j++) {
+                int var = rand.nextInt(nvars) + 1;
+                clause.push(rand.nextBoolean() ? var : -var);
+            }
+            clauses.push(clause);
+        }
+        return clauses;
+    }
+
+    private static void assertSatisfies(int[] model, IVec<IVecInt> clauses) {
+        boolean[] value = new boolean[model.length + 1];
+        for (int p : model) {
+            if (p > 0) {
+                value[p] = true;
+            }
+        }
+        for (int i = 0; i < clauses.size(); i++) {
+            boolean satisfied = false;
+            for (int j = 0; j < clauses.get(i).size(); j++) {
+                int p = clauses.get(i).get(j);
+                satisfied |= p > 0 ? value[p] : !value[-p];
+            }
+            assertTrue(satisfied);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.minisat.core.ModelCounter;
+import org.sat4j.minisat.core.Solver;
+import org.sat4j.reader.InstanceReader;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+public class ProjectedModelEnumeratorTest {
+
+    private static final String PREFIX = System.getProperty("test.prefix",
+            "src/test/testfiles/");
+
+    private static final int NVARS = 10;
+
+    private static class Collector implements SolutionFoundListener {
+
+        final List<int[]> solutions = new ArrayList<int[]>();
+
+        boolean finished;
+
+        public void onSolutionFound(int[] solution) {
+            this.solutions.add(solution);
+        }
+
+        public void onSolutionFound(IVecInt solution) {
+            throw new UnsupportedOperationException();
+        }
+
+        public void onUnsatTermination() {
+            this.finished = true;
+        }
+    }
+
+    private static int[][] randomFormula(Random rand) {
+        int[][] clauses = new int[5 + rand.nextInt(20)][];
+        for (int i = 0; i < clauses.length; i++) {
+            clauses[i] = new int[1 + rand.nextInt(3)];
+            for (int j = 0; j < clauses[i].length; j++) {
+                int v = 1 + rand.nextInt(NVARS);
+                clauses[i][j] = rand.nextBoolean() ? v : -v;
+            }
+        }
+        return clauses;
+    }
+
+    private static ISolver load(int[][] clauses) {
+        ISolver solver = SolverFactory.newDefault();
+        solver.newVar(NVARS);
+        try {
+            for (int[] clause : clauses) {
+                solver.addClause(new VecInt(clause));
+            }
+        } catch (ContradictionException e) {
+            return null;
+        }
+        return solver;
+    }
+
+    private static Set<Integer> projectedModels(int[][] clauses, int mask) {
+        Set<Integer> models = new HashSet<Integer>();
+        next: for (int a = 0; a < 1 << NVARS; a++) {
+            for (int[] clause : clauses) {
+                boolean satisfied = false;
+                for (int p : clause) {
+                    satisfied |= (a >> Math.abs(p) - 1 & 1) == 1 == p > 0;
+                }
+                if (!satisfied) {
+                    continue next;
+                }
+            }
+            models.add(a & mask);
+        }
+        return models;
+    }
+
+    /**
+     * Expand the solutions (cubes) into the assignments of the projection
+     * variables, checking that they do not overlap.
+     */
+    private static Set<Integer> expand(List<int[]> solutions, int mask) {
+        Set<Integer> assignments = new HashSet<Integer>();
+        for (int[] cube : solutions) {
+            int fixed = 0;
+            int values = 0;
+            for (int p : cube) {
+                int bit = 1 << Math.abs(p) - 1;
+                assertTrue((mask & bit) != 0);
+                fixed |= bit;
+                if (p > 0) {
+                    values |= bit;
+                }
+            }
+            int free = mask & ~fixed;
+            // enumerate the subsets of the free variables
+            int sub = free;
+            while (true) {
+                assertTrue(assignments.add(values | sub));
+                if (sub == 0) {
+                    break;
+                }
+                sub = sub - 1 & free;
+            }
+        }
+        return assignments;
+    }
+
+    private void checkRandomFormulas(boolean shrinking) throws TimeoutException {
+        Random rand = new Random(shrinking ? 5 : 8);
+        for (int i = 0; i < 200; i++) {
+            int[][] clauses = randomFormula(rand);
+            ISolver solver = load(clauses);
+            if (solver == null) {
+                continue;
+            }
+            IVecInt projection = new VecInt();
+            int mask = 0;
+            for (int v = 1; v <= NVARS; v++) {
+                if (i % 2 == 0 || rand.nextBoolean()) {
+                    projection.push(v);
+                    mask |= 1 << v - 1;
+                }
+            }
+            ProjectedModelEnumerator enumerator = new ProjectedModelEnumerator(
+                    solver, projection);
+            enumerator.setPrimeImplicantShrinking(shrinking);
+            Collector collector = new Collector();
+            long nbSolutions = enumerator.enumerate(collector);
+            assertEquals(collector.solutions.size(), nbSolutions);
+            assertTrue(collector.finished);
+            assertEquals(projectedModels(clauses, mask), expand(
+                    collector.solutions, mask));
+        }
+    }
+
+    @Test
+    public void testProjectedModelsOfRandomFormulas() throws TimeoutException {
+        checkRandomFormulas(false);
+    }
+
+    @Test
+    public void testPrimeImplicantsCoverTheProjectedModels()
+            throws TimeoutException {
+        checkRandomFormulas(true);
+    }
+
+    @Test
+    public void testShrinkingReducesTheNumberOfSolutions()
+            throws ContradictionException, TimeoutException {
+        ISolver solver = SolverFactory.newDefault();
+        // x1 or x2, the other variables are almost free
+        solver.newVar(8);
+        solver.addClause(new VecInt(new int[] { 1, 2 }));
+        solver.addClause(new VecInt(new int[] { 3, 4, 5, 6, 7, 8 }));
+        ProjectedModelEnumerator enumerator = new ProjectedModelEnumerator(
+                solver);
+        enumerator.setPrimeImplicantShrinking(true);
+        Collector collector = new Collector();
+        assertTrue(enumerator.enumerate(collector) <= 12);
+        assertTrue(collector.finished);
+    }
+
+    @Test
+    public void testBoundedEnumeration() throws ContradictionException,
+            TimeoutException {
+        ISolver solver = SolverFactory.newDefault();
+        solver.newVar(6);
+        solver.addClause(new VecInt(new int[] { 1, 2, 3 }));
+        ProjectedModelEnumerator enumerator = new ProjectedModelEnumerator(
+                solver);
+        enumerator.setBound(5);
+        Collector collector = new Collector();
+        assertEquals(5, enumerator.enumerate(collector));
+        assertFalse(collector.finished);
+    }
+
+    @Test
+    public void testProjectedEnumerationAgreesWithCounting() throws Exception {
+        ISolver solver = SolverFactory.newDefault();
+        new InstanceReader(solver).parseInstance(PREFIX + "Eshop-fm.dimacs");
+        IVecInt projection = new VecInt();
+        for (int v = 1; v <= 20; v++) {
+            projection.push(v);
+        }
+        BigInteger expected = new ModelCounter((Solver<?>) solver)
+                .countModels(projection);
+        Collector collector = new Collector();
+        new ProjectedModelEnumerator(solver, projection).enumerate(collector);
+        assertEquals(expected, BigInteger.valueOf(collector.solutions.size()));
+    }
+
+    @Test
+    public void testStreamWithSmallCapacity() throws ContradictionException {
+        ISolver solver = SolverFactory.newDefault();
+        solver.newVar(8);
+        solver.addClause(new VecInt(new int[] { 1, -2 }));
+        solver.addClause(new VecInt(new int[] { 3, 4, -5 }));
+        solver.addClause(new VecInt(new int[] { 6, 7, 8 }));
+        ProjectedModelEnumerator.SolutionStream stream = new ProjectedModelEnumerator(
+                solver).stream(2);
+        Set<String> solutions = new HashSet<String>();
+        while (stream.hasNext()) {
+            assertTrue(solutions.add(new VecInt(stream.next()).toString()));
+        }
+        assertTrue(stream.isComplete());
+        // 3/4 * 7/8 * 7/8 * 2^8
+        assertEquals(147, solutions.size());
+    }
+
+    @Test
+    public void testClosedStreamStopsTheSearch() throws ContradictionException {
+        ISolver solver = SolverFactory.newDefault();
+        solver.newVar(16);
+        for (int i = 1; i < 16; i++) {
+            solver.addClause(new VecInt(new int[] { i, i + 1 }));
+        }
+        ProjectedModelEnumerator.SolutionStream stream = new ProjectedModelEnumerator(
+                solver).stream(4);
+        for (int i = 0; i < 10; i++) {
+            stream.next();
+        }
+        stream.close();
+        assertFalse(stream.isComplete());
+    }
+}
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.ISolverService;
+import org.sat4j.specs.SearchListener;
+import org.sat4j.specs.SearchListenerAdapter;
+import org.sat4j.specs.SelectiveSearchListener;
+import org.sat4j.specs.TimeoutException;
+
+public class SelectiveSearchListenerTest {
+
+    @Test
+    public void testEventsOfAnAdapter() {
+        SearchListener<ISolverService> listener = new SearchListenerAdapter<ISolverService>() {
+            private static final long serialVersionUID = 1L;
+        };
+        assertEquals(0, SearchListenerAdapter.listenedEventsOf(listener));
+        listener = new LBDTracing(null);
+        assertEquals(SelectiveSearchListener.CONFLICT_FOUND,
+                SearchListenerAdapter.listenedEventsOf(listener));
+    }
+
+    @Test
+    public void testEventsOfMultiTracing() {
+        SearchListener<ISolverService> propagation = new SearchListenerAdapter<ISolverService>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void propagating(int p) {
+            }
+        };
+        SearchListener<ISolverService> lbd = new LBDTracing(null);
+        @SuppressWarnings("unchecked")
+        MultiTracing<ISolverService> multi = new MultiTracing<ISolverService>(
+                propagation, lbd);
+        assertEquals(SelectiveSearchListener.PROPAGATING
+                | SelectiveSearchListener.CONFLICT_FOUND,
+                SearchListenerAdapter.listenedEventsOf(multi));
+    }
+
+    @Test
+    public void testListenerWithoutMaskGetsAllEvents() {
+        assertEquals(SelectiveSearchListener.ALL_EVENTS,
+                SearchListenerAdapter
+                        .listenedEventsOf(new TextOutputTracing<Object>(null)));
+    }
+
+    @Test
+    public void testOnlyListenedEventsAreNotified()
+            throws ContradictionException, TimeoutException {
+        ISolver solver = SolverFactory.newDefault();
+        solver.addClause(new VecInt(new int[] { 1, 2 }));
+        solver.addClause(new VecInt(new int[] { -1, 2 }));
+        solver.addClause(new VecInt(new int[] { 1, -2 }));
+        solver.addClause(new VecInt(new int[] { -1, -2, 3 }));
+        final int[] counters = new int[2];
+        solver.setSearchListener(new SearchListenerAdapter<ISolverService>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void propagating(int p) {
+                counters[0]++;
+            }
+
+            @Override
+            public void learnUnit(int p) {
+                counters[1]++;
+            }
+        });
+        assertTrue(solver.isSatisfiable());
+        assertTrue(counters[0] > 0);
+        assertTrue(counters[1] > 0);
+    }
+
+    @Test
+    public void testEventsAreReadAgainAtEachCall()
+            throws ContradictionException, TimeoutException {
+        ISolver solver = SolverFactory.newDefault();
+        solver.addClause(new VecInt(new int[] { 1, 2 }));
+        solver.addClause(new VecInt(new int[] { -1, 2 }));
+        solver.addClause(new VecInt(new int[] { 1, -2, 3 }));
+        final int[] events = new int[1];
+        final int[] counter = new int[1];
+        SearchListener<ISolverService> listener = new SearchListenerAdapter<ISolverService>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public int listenedEvents() {
+                return events[0];
+            }
+
+            @Override
+            public void propagating(int p) {
+                counter[0]++;
+            }
+        };
+        @SuppressWarnings("unchecked")
+        MultiTracing<ISolverService> multi = new MultiTracing<ISolverService>(
+                listener);
+        solver.setSearchListener(multi);
+        assertTrue(solver.isSatisfiable());
+        assertEquals(0, counter[0]);
+        events[0] = SelectiveSearchListener.PROPAGATING;
+        assertTrue(solver.isSatisfiable());
+        assertTrue(counter[0] > 0);
+    }
+}
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+public class TestAllMUSesMarcoTest {
+
+    private static final int NVARS = 5;
+
+    private static List<IVecInt> randomClauses(Random rand, int nClauses) {
+        List<IVecInt> clauses = new ArrayList<IVecInt>();
+        for (int i = 0; i < nClauses; i++) {
+            IVecInt clause = new VecInt();
+            int size = 1 + rand.nextInt(3);
+            for (int j = 0; j < size; j++) {
+                int v = 1 + rand.nextInt(NVARS);
+                clause.push(rand.nextBoolean() ? v : -v);
+            }
+            clauses.add(clause);
+        }
+        return clauses;
+    }
+
+    private static void addClauses(ISolver solver, List<IVecInt> clauses)
+            throws ContradictionException {
+        solver.newVar(NVARS);
+        for (IVecInt clause : clauses) {
+            // the clause selector solvers add the selector to the clause
+            IVecInt copy = new VecInt();
+            clause.copyTo(copy);
+            solver.addClause(copy);
+        }
+    }
+
+    private static Set<Set<Integer>> asSets(List<IVecInt> vecs) {
+        Set<Set<Integer>> sets = new HashSet<Set<Integer>>();
+        for (IVecInt vec : vecs) {
+            Set<Integer> set = new HashSet<Integer>();
+            for (int i = 0; i < vec.size(); i++) {
+                set.add(vec.get(i));
+            }
+            sets.add(set);
+        }
+        return sets;
+    }
+
+    private static Set<Set<Integer>> complements(List<IVecInt> vecs, int n) {
+        Set<Set<Integer>> sets = new HashSet<Set<Integer>>();
+        for (Set<Integer> set : asSets(vecs)) {
+            Set<Integer> complement = new HashSet<Integer>();
+            for (int i = 1; i <= n; i++) {
+                if (!set.contains(i)) {
+                    complement.add(i);
+                }
+            }
+            sets.add(complement);
+        }
+        return sets;
+    }
+
+    private static class Collector implements SolutionFoundListener {
+        final List<IVecInt> solutions = new ArrayList<IVecInt>();
+
+        public void onSolutionFound(int[] solution) {
+            onSolutionFound(new VecInt(solution));
+        }
+
+        public void onSolutionFound(IVecInt solution) {
+            this.solutions.add(solution);
+        }
+
+        public void onUnsatTermination() {
+        }
+    }
+
+    private void checkRandomFormulas(int nbWorkers)
+            throws ContradictionException, TimeoutException {
+        Random rand = new Random(4242 + nbWorkers);
+        for (int run = 0; run < 30; run++) {
+            List<IVecInt> clauses = randomClauses(rand, 14);
+            ISolver checker = SolverFactory.newDefault();
+            try {
+                addClauses(checker, clauses);
+                if (checker.isSatisfiable()) {
+                    continue;
+                }
+            } catch (ContradictionException e) {
+                // unsatisfiable
+            }
+            AllMUSes reference = new AllMUSes(SolverFactory.instance());
+            addClauses(reference.<ISolver> getSolverInstance(), clauses);
+            int nbSelectors = reference.<FullClauseSelectorSolver<ISolver>> getSolverInstance()
+                    .getAddedVars().size();
+            Set<Set<Integer>> mcses = complements(reference.computeAllMSS(),
+                    nbSelectors);
+            Set<Set<Integer>> muses = asSets(reference.computeAllMUSes());
+
+            AllMUSes marco = new AllMUSes(SolverFactory.instance());
+            addClauses(marco.<ISolver> getSolverInstance(), clauses);
+            for (int i = 0; i < nbWorkers; i++) {
+                FullClauseSelectorSolver<ISolver> worker = new FullClauseSelectorSolver<ISolver>(
+                        SolverFactory.newDefault(), false);
+                addClauses(worker, clauses);
+                marco.addWorkerSolver(worker);
+            }
+            Collector musCollector = new Collector();
+            Collector mcsCollector = new Collector();
+            List<IVecInt> found = marco.computeAllMUSesAndMCSes(musCollector,
+                    mcsCollector);
+            assertEquals(muses, asSets(found));
+            assertEquals(found.size(), musCollector.solutions.size());
+            assertEquals(mcses, asSets(mcsCollector.solutions));
+            assertEquals(mcses.size(), marco.getMcsList().size());
+        }
+    }
+
+    @Test
+    public void testSameMUSesAndMCSesAsTwoPhasesApproach()
+            throws ContradictionException, TimeoutException {
+        checkRandomFormulas(0);
+    }
+
+    @Test
+    public void testParallelExploration() throws ContradictionException,
+            TimeoutException {
+        checkRandomFormulas(2);
+    }
+
+    @Test
+    public void testSimpleCaseWithGroups() throws ContradictionException {
+        AllMUSes allMUSes = new AllMUSes(true, SolverFactory.instance());
+        GroupClauseSelectorSolver<ISolver> solver = allMUSes
+                .getSolverInstance();
+        solver.newVar(3);
+        solver.addClause(new VecInt().push(1), 1);
+        solver.addClause(new VecInt().push(2), 1);
+        solver.addClause(new VecInt().push(-1).push(-2), 1);
+        solver.addClause(new VecInt().push(3), 2);
+        solver.addClause(new VecInt().push(-3), 2);
+        Collector mcsCollector = new Collector();
+        List<IVecInt> muses = allMUSes.computeAllMUSesAndMCSes(
+                SolutionFoundListener.VOID, mcsCollector);
+        assertEquals(2, muses.size());
+        assertEquals(1, mcsCollector.solutions.size());
+        assertEquals(2, mcsCollector.solutions.get(0).size());
+    }
+
+    @Test
+    public void testSatisfiableFormulaHasNoMUS() throws ContradictionException {
+        AllMUSes allMUSes = new AllMUSes(SolverFactory.instance());
+        ISolver solver = allMUSes.getSolverInstance();
+        solver.newVar(2);
+        solver.addClause(new VecInt().push(1).push(2));
+        solver.addClause(new VecInt().push(-1));
+        Collector mcsCollector = new Collector();
+        assertTrue(allMUSes.computeAllMUSesAndMCSes(
+                SolutionFoundListener.VOID, mcsCollector).isEmpty());
+        assertEquals(1, mcsCollector.solutions.size());
+        assertTrue(mcsCollector.solutions.get(0).isEmpty());
+    }
+}
@@ -21,6 +21,7 @@ package org.sat4j.csp;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.math.BigInteger;
+import java.nio.IntBuffer;
 import java.util.Map;
 
 import org.sat4j.pb.IPBSolver;
@@ -196,6 +197,14 @@ public class CspSatSolverDecorator implements ICspPBSatSolver {
 		solver.addAllClauses(clauses);
 	}
 
+	public void addAllClauses(int[] clauses) throws ContradictionException {
+		solver.addAllClauses(clauses);
+	}
+
+	public void addAllClauses(IntBuffer clauses) throws ContradictionException {
+		solver.addAllClauses(clauses);
+	}
+
 	public void printInfos(PrintWriter out) {
 		solver.printInfos(out);
 	}
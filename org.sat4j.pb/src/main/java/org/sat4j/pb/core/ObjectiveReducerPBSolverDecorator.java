@@ -32,6 +32,7 @@ package org.sat4j.pb.core;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.math.BigInteger;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -41,6 +42,7 @@ import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.sat4j.core.ClauseBuffers;
 import org.sat4j.core.Vec;
 import org.sat4j.core.VecInt;
 import org.sat4j.pb.IPBSolver;
@@ -205,6 +207,15 @@ public class ObjectiveReducerPBSolverDecorator implements IPBSolver {
         }
     }
 
+    public void addAllClauses(int[] clauses) throws ContradictionException {
+        addAllClauses(IntBuffer.wrap(clauses));
+    }
+
+    public void addAllClauses(IntBuffer clauses)
+            throws ContradictionException {
+        ClauseBuffers.addAllClauses(this, clauses);
+    }
+
     public IConstr addExactly(IVecInt literals, IVecInt coeffs, int weight)
             throws ContradictionException {
         return decorated.addExactly(literals, coeffs, weight);
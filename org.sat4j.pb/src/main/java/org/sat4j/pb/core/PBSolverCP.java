@@ -116,7 +116,7 @@ public class PBSolverCP extends PBSolver {
         IConflict confl = chooseConflict((PBConstr) myconfl, currentLevel);
         assert confl.slackConflict().signum() < 0;
         while (!confl.isAssertive(currentLevel)) {
-            if (!this.undertimeout) {
+            if (!isUnderTimeout()) {
                 throw new TimeoutException();
             }
             PBConstr constraint = (PBConstr) this.voc.getReason(litImplied);
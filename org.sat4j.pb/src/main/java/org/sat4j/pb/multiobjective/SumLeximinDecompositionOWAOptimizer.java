@@ -3,6 +3,7 @@ package org.sat4j.pb.multiobjective;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.math.BigInteger;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -633,6 +634,15 @@ public class SumLeximinDecompositionOWAOptimizer
         solver.addAllClauses(clauses);
     }
 
+    public void addAllClauses(int[] clauses) throws ContradictionException {
+        solver.addAllClauses(clauses);
+    }
+
+    public void addAllClauses(IntBuffer clauses)
+            throws ContradictionException {
+        solver.addAllClauses(clauses);
+    }
+
     public void printInfos(PrintWriter out, String prefix) {
         solver.printInfos(out, prefix);
     }
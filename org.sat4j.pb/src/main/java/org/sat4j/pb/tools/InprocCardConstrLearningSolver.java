@@ -167,7 +167,7 @@ public class InprocCardConstrLearningSolver extends PBSolverCP {
         IConflict confl = chooseConflict((PBConstr) myconfl, currentLevel);
         assert confl.slackConflict().signum() < 0;
         while (!confl.isAssertive(currentLevel)) {
-            if (!this.undertimeout) {
+            if (!isUnderTimeout()) {
                 throw new TimeoutException();
             }
             PBConstr constraint = (PBConstr) this.voc.getReason(litImplied);
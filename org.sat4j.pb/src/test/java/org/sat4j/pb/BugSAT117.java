@@ -39,7 +39,7 @@ public class BugSAT117 {
         solver.setTimeoutOnConflicts(100);
         assertTrue(solver.isSatisfiable());
         Field field = solver.getClass().getSuperclass().getSuperclass()
-                .getDeclaredField("timer");
+                .getDeclaredField("deadline");
         field.setAccessible(true);
         assertNull(field.get(solver));
     }
@@ -51,7 +51,7 @@ public class BugSAT117 {
         solver.setTimeoutOnConflicts(100);
         assertTrue(solver.isSatisfiable(true));
         Field field = solver.getClass().getSuperclass().getSuperclass()
-                .getDeclaredField("timer");
+                .getDeclaredField("deadline");
         field.setAccessible(true);
         assertNull(field.get(solver));
     }
@@ -63,7 +63,7 @@ public class BugSAT117 {
         solver.setTimeout(10);
         assertTrue(solver.isSatisfiable());
         Field field = solver.getClass().getSuperclass().getSuperclass()
-                .getDeclaredField("timer");
+                .getDeclaredField("deadline");
         field.setAccessible(true);
         assertNull(field.get(solver));
     }
@@ -75,7 +75,7 @@ public class BugSAT117 {
         solver.setTimeout(10);
         assertTrue(solver.isSatisfiable(true));
         Field field = solver.getClass().getSuperclass().getSuperclass()
-                .getDeclaredField("timer");
+                .getDeclaredField("deadline");
         field.setAccessible(true);
         assertNotNull(field.get(solver));
     }
@@ -93,7 +93,7 @@ public class BugSAT117 {
             solver.setTimeout(10);
             assertTrue(solver.isSatisfiable());
             Field field = solver.getSolvingEngine().getClass().getSuperclass()
-                    .getSuperclass().getDeclaredField("timer");
+                    .getSuperclass().getDeclaredField("deadline");
             field.setAccessible(true);
             assertNull(field.get(solver.getSolvingEngine()));
         }
@@ -112,7 +112,7 @@ public class BugSAT117 {
             solver.setTimeoutOnConflicts(10);
             assertTrue(solver.isSatisfiable());
             Field field = solver.getSolvingEngine().getClass().getSuperclass()
-                    .getSuperclass().getDeclaredField("timer");
+                    .getSuperclass().getDeclaredField("deadline");
             field.setAccessible(true);
             assertNull(field.get(solver.getSolvingEngine()));
         }